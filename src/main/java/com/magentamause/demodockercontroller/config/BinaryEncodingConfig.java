@@ -0,0 +1,48 @@
+package com.magentamause.demodockercontroller.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.jackson.autoconfigure.JacksonProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverters;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.http.converter.smile.JacksonSmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import tools.jackson.databind.JacksonModule;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+/**
+ * Registers CBOR ({@code application/cbor}) and Smile ({@code application/x-jackson-smile}) encodings next to
+ * JSON. JSON stays the default; clients opt in to a binary encoding through the {@code Accept} header.
+ */
+@Configuration
+public class BinaryEncodingConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<CBORMapper> cborMapper;
+    private final ObjectProvider<SmileMapper> smileMapper;
+
+    public BinaryEncodingConfig(ObjectProvider<CBORMapper> cborMapper, ObjectProvider<SmileMapper> smileMapper) {
+        this.cborMapper = cborMapper;
+        this.smileMapper = smileMapper;
+    }
+
+    /**
+     * Spring Boot auto-configures the CBOR mapper but not a Smile one. This one gets the same Jackson modules,
+     * so both binary encodings serialize the same types.
+     */
+    @Bean
+    public SmileMapper smileMapper(ObjectProvider<JacksonModule> modules, JacksonProperties jacksonProperties) {
+        SmileMapper.Builder builder = SmileMapper.builder().addModules(modules.orderedStream().toList());
+        if (jacksonProperties.isFindAndAddModules()) {
+            builder.findAndAddModules();
+        }
+        return builder.build();
+    }
+
+    @Override
+    public void configureMessageConverters(HttpMessageConverters.ServerBuilder builder) {
+        builder.withCborConverter(new JacksonCborHttpMessageConverter(cborMapper.getIfAvailable(CBORMapper::new)))
+                .withSmileConverter(new JacksonSmileHttpMessageConverter(smileMapper.getIfAvailable(SmileMapper::new)));
+    }
+}
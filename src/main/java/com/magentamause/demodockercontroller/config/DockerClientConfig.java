@@ -18,6 +18,10 @@ public class DockerClientConfig {
     @Value("${docker.host:unix:///var/run/docker.sock}")
     private String dockerHost;
 
+    // Caps concurrent daemon calls; with virtual threads this, not the request thread pool, is the limit
+    @Value("${docker.client.max-connections:100}")
+    private int maxConnections;
+
     @Bean
     @Primary
     @Qualifier("dockerClient")
@@ -27,7 +31,7 @@ public class DockerClientConfig {
         ApacheDockerHttpClient httpClient = new ApacheDockerHttpClient.Builder()
                 .dockerHost(config.getDockerHost())
                 .sslConfig(config.getSSLConfig())
-                .maxConnections(100)
+                .maxConnections(maxConnections)
                 .connectionTimeout(Duration.ofSeconds(10))
                 .responseTimeout(Duration.ofSeconds(30)) // Standard timeout for regular commands
                 .build();
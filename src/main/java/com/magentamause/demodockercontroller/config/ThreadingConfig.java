@@ -0,0 +1,16 @@
+package com.magentamause.demodockercontroller.config;
+
+import com.magentamause.demodockercontroller.util.ExecutorFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ThreadingConfig {
+
+    // Same switch that moves Tomcat request handling and @Scheduled tasks onto virtual threads
+    @Bean
+    public ExecutorFactory executorFactory(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        return new ExecutorFactory(virtualThreads);
+    }
+}
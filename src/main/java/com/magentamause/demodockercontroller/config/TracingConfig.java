@@ -0,0 +1,29 @@
+package com.magentamause.demodockercontroller.config;
+
+import com.magentamause.demodockercontroller.tracing.OtlpJsonFileSpanExporter;
+import com.magentamause.demodockercontroller.tracing.RepositoryObservationPostProcessor;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class TracingConfig {
+
+    // Static so repositories are instrumented even though they are created before most other beans
+    @Bean
+    public static RepositoryObservationPostProcessor repositoryObservationPostProcessor(
+            ObjectProvider<ObservationRegistry> observationRegistry) {
+        return new RepositoryObservationPostProcessor(observationRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "docker.tracing.file.enabled", havingValue = "true")
+    public OtlpJsonFileSpanExporter otlpJsonFileSpanExporter(@Value("${docker.tracing.file.dir:${docker.controller.data-dir:./data}/traces}") String directory) {
+        return new OtlpJsonFileSpanExporter(Path.of(directory));
+    }
+}
@@ -2,21 +2,61 @@ package com.magentamause.demodockercontroller.controller;
 
 import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
 import com.magentamause.demodockercontroller.domain.ContainerInstance;
+import com.magentamause.demodockercontroller.dto.ConfigurationImportResponse;
 import com.magentamause.demodockercontroller.dto.ContainerConfigurationRequest;
 import com.magentamause.demodockercontroller.dto.ContainerConfigurationResponse;
 import com.magentamause.demodockercontroller.dto.ContainerInstanceResponse;
+import com.magentamause.demodockercontroller.dto.ContainerSummaryResponse;
+import com.magentamause.demodockercontroller.dto.ExecRequest;
+import com.magentamause.demodockercontroller.dto.ExecResponse;
+import com.magentamause.demodockercontroller.dto.ReconciliationStatusResponse;
+import com.magentamause.demodockercontroller.dto.ReplicaCountRequest;
+import com.magentamause.demodockercontroller.dto.StatusTransitionResponse;
+import com.magentamause.demodockercontroller.journal.StatusJournal;
 import com.magentamause.demodockercontroller.mapper.ContainerConfigurationMapper;
 import com.magentamause.demodockercontroller.mapper.ContainerInstanceMapper;
+import com.magentamause.demodockercontroller.mapper.StatusTransitionMapper;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.HealthStatus;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceFilter;
+import com.magentamause.demodockercontroller.service.ConfigurationTransferService;
 import com.magentamause.demodockercontroller.service.ContainerConfigurationService;
 import com.magentamause.demodockercontroller.service.ContainerLifecycleService;
+import com.magentamause.demodockercontroller.service.ChangeVersionTracker;
+import com.magentamause.demodockercontroller.service.ContainerArchiveService;
+import com.magentamause.demodockercontroller.service.ExecService;
+import com.magentamause.demodockercontroller.service.InstanceStatusCounters;
+import com.magentamause.demodockercontroller.service.ReconciliationService;
+import com.magentamause.demodockercontroller.service.RolloutService;
+import com.magentamause.demodockercontroller.state.FleetStateStore;
+import com.magentamause.demodockercontroller.state.InstanceState;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -24,10 +64,29 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ContainerController {
 
+    // Set on instance reads while startup reconciliation is still running
+    private static final String STALE_HEADER = "X-Data-Stale";
+
+    private static final String TAR_MEDIA_TYPE = "application/x-tar";
+
+    // ETag suffixes of the encodings registered in BinaryEncodingConfig, in the order their converters are tried
+    private static final Map<MediaType, String> ENCODING_SUFFIXES = encodingSuffixes();
+
     private final ContainerConfigurationService configService;
+    private final ConfigurationTransferService transferService;
+    private final RolloutService rolloutService;
     private final ContainerLifecycleService lifecycleService;
+    private final ReconciliationService reconciliationService;
+    private final ChangeVersionTracker changeVersionTracker;
+    private final InstanceStatusCounters instanceStatusCounters;
+    private final FleetStateStore fleetStateStore;
+    private final ExecService execService;
+    private final ContainerArchiveService archiveService;
     private final ContainerConfigurationMapper configMapper;
     private final ContainerInstanceMapper instanceMapper;
+    private final StatusJournal statusJournal;
+    private final StatusTransitionMapper transitionMapper;
+    private final ContentNegotiationManager contentNegotiationManager;
 
     // TODO: Add Spring Security for authentication and authorization for all endpoints
 
@@ -41,13 +100,49 @@ public class ContainerController {
     }
 
     @GetMapping("/configurations")
-    public ResponseEntity<List<ContainerConfigurationResponse>> getAllConfigurations() {
+    public ResponseEntity<List<ContainerConfigurationResponse>> getAllConfigurations(WebRequest webRequest) {
+        String eTag = eTag("c" + changeVersionTracker.getConfigurationVersion(), webRequest);
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
         List<ContainerConfiguration> configurations = configService.getAllConfigurations();
-        return ResponseEntity.ok(configurations.stream()
+        return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(configurations.stream()
                 .map(configMapper::toResponse)
                 .collect(Collectors.toList()));
     }
 
+    @PostMapping(value = "/configurations/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ConfigurationImportResponse> importConfigurations(@RequestParam(defaultValue = "false") boolean upsert,
+                                                                            InputStream body) throws IOException {
+        return ResponseEntity.ok(transferService.importConfigurations(body, upsert));
+    }
+
+    @GetMapping(value = "/configurations/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportConfigurations() {
+        StreamingResponseBody body = transferService::exportConfigurations;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("configurations.ndjson").build().toString())
+                .body(body);
+    }
+
+    @PutMapping("/configurations/{id}")
+    public ResponseEntity<ContainerConfigurationResponse> updateConfiguration(@PathVariable UUID id,
+                                                                              @Valid @RequestBody ContainerConfigurationRequest request,
+                                                                              @RequestParam(defaultValue = "false") boolean rollout,
+                                                                              @RequestParam(required = false) Integer maxSurge,
+                                                                              @RequestParam(required = false) Integer maxUnavailable) {
+        return ResponseEntity.ok(rolloutService.updateConfiguration(id, request, rollout, maxSurge, maxUnavailable));
+    }
+
+    @PutMapping("/configurations/{id}/replicas")
+    public ResponseEntity<ContainerConfigurationResponse> updateDesiredReplicas(@PathVariable UUID id,
+                                                                                @Valid @RequestBody ReplicaCountRequest request) {
+        ContainerConfiguration config = configService.updateDesiredReplicas(id, request.getDesiredReplicas());
+        return ResponseEntity.ok(configMapper.toResponse(config));
+    }
+
     @DeleteMapping("/configurations/{id}")
     public ResponseEntity<Void> deleteConfiguration(@PathVariable UUID id) {
         try {
@@ -82,6 +177,18 @@ public class ContainerController {
         return ResponseEntity.ok(instanceMapper.toResponse(instance));
     }
 
+    @PostMapping("/containers/{containerId}/pause")
+    public ResponseEntity<ContainerInstanceResponse> pauseContainer(@PathVariable UUID containerId) {
+        ContainerInstance instance = lifecycleService.pauseContainer(containerId);
+        return ResponseEntity.ok(instanceMapper.toResponse(instance));
+    }
+
+    @PostMapping("/containers/{containerId}/resume")
+    public ResponseEntity<ContainerInstanceResponse> resumeContainer(@PathVariable UUID containerId) {
+        ContainerInstance instance = lifecycleService.resumeContainer(containerId);
+        return ResponseEntity.ok(instanceMapper.toResponse(instance));
+    }
+
     @DeleteMapping("/containers/{containerId}")
     public ResponseEntity<Void> deleteContainer(@PathVariable UUID containerId) {
         try {
@@ -93,15 +200,192 @@ public class ContainerController {
     }
 
     @GetMapping("/containers")
-    public ResponseEntity<List<ContainerInstanceResponse>> getAllContainerInstances() {
-        List<ContainerInstance> instances = lifecycleService.getAllContainerInstances();
-        return ResponseEntity.ok(instanceMapper.toResponseList(instances));
+    public ResponseEntity<List<ContainerInstanceResponse>> getAllContainerInstances(
+            @RequestParam(required = false) ContainerStatus status,
+            @RequestParam(required = false) HealthStatus health,
+            @RequestParam(required = false) UUID configurationId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdTo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant startedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant startedTo,
+            WebRequest webRequest) {
+        String eTag = instancesETag(webRequest);
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        List<InstanceState> instances = fleetStateStore.find(new ContainerInstanceFilter(
+                status, health, configurationId, createdFrom, createdTo, startedFrom, startedTo));
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .header(STALE_HEADER, String.valueOf(!reconciliationService.isCompleted()))
+                .body(instanceMapper.toStateResponseList(instances));
+    }
+
+    @GetMapping("/containers/summary")
+    public ResponseEntity<ContainerSummaryResponse> getContainerSummary() {
+        return ResponseEntity.ok()
+                .header(STALE_HEADER, String.valueOf(!reconciliationService.isCompleted()))
+                .body(instanceStatusCounters.getSummary());
     }
 
     @GetMapping("/containers/{containerId}")
-    public ResponseEntity<ContainerInstanceResponse> getContainerInstance(@PathVariable UUID containerId) {
+    public ResponseEntity<ContainerInstanceResponse> getContainerInstance(@PathVariable UUID containerId,
+                                                                          @RequestParam(defaultValue = "false") boolean live,
+                                                                          WebRequest webRequest) {
+        if (live) {
+            return getLiveContainerInstance(containerId);
+        }
+        String eTag = instancesETag(webRequest);
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        InstanceState instance = fleetStateStore.get(containerId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Container instance not found"));
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .header(STALE_HEADER, String.valueOf(!reconciliationService.isCompleted()))
+                .body(instanceMapper.toResponse(instance));
+    }
+
+    // Live state comes from the daemon (through a short-lived cache) and is not covered by ETags
+    private ResponseEntity<ContainerInstanceResponse> getLiveContainerInstance(UUID containerId) {
         ContainerInstance instance = lifecycleService.getContainerInstance(containerId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Container instance not found"));
-        return ResponseEntity.ok(instanceMapper.toResponse(instance));
+        ContainerInstanceResponse response = instanceMapper.toResponse(instance);
+        if (instance.getDockerContainerId() != null) {
+            response.setLive(instanceMapper.toLiveStateResponse(lifecycleService.inspectLive(instance.getDockerContainerId())));
+        } else {
+            response.setLive(instanceMapper.toLiveStateResponse(null));
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .header(STALE_HEADER, String.valueOf(!reconciliationService.isCompleted()))
+                .body(response);
+    }
+
+    // Instance ETags also change when reconciliation completes, so clients drop the stale marker
+    private String instancesETag(WebRequest webRequest) {
+        return eTag("i" + changeVersionTracker.getInstanceVersion() + (reconciliationService.isCompleted() ? "" : "-stale"), webRequest);
+    }
+
+    // JSON, CBOR and Smile encodings of the same version are different representations and need distinct ETags.
+    // The tags are weak because Tomcat does not gzip responses that carry a strong ETag.
+    private String eTag(String version, WebRequest webRequest) {
+        return "W/\"" + changeVersionTracker.getEpoch() + "-" + version + encodingSuffix(webRequest) + "\"";
+    }
+
+    // Negotiates like the message converters do: every accepted type is matched against the producible encodings,
+    // and the most specific match with the highest quality wins, so "application/cbor;q=0.1, application/json"
+    // is answered with JSON
+    private String encodingSuffix(WebRequest webRequest) {
+        List<MediaType> acceptable;
+        try {
+            acceptable = contentNegotiationManager.resolveMediaTypes((NativeWebRequest) webRequest);
+        } catch (HttpMediaTypeNotAcceptableException e) {
+            return "";
+        }
+        List<MediaType> compatible = new ArrayList<>();
+        for (MediaType accepted : acceptable) {
+            for (MediaType producible : ENCODING_SUFFIXES.keySet()) {
+                if (accepted.isCompatibleWith(producible)) {
+                    MediaType withQuality = producible.copyQualityValue(accepted);
+                    compatible.add(accepted.isLessSpecific(withQuality) ? withQuality : accepted);
+                }
+            }
+        }
+        MimeTypeUtils.sortBySpecificity(compatible);
+        for (MediaType candidate : compatible) {
+            if (candidate.isConcrete()) {
+                for (Map.Entry<MediaType, String> encoding : ENCODING_SUFFIXES.entrySet()) {
+                    if (encoding.getKey().includes(candidate)) {
+                        return encoding.getValue();
+                    }
+                }
+            }
+        }
+        return "";
+    }
+
+    private static Map<MediaType, String> encodingSuffixes() {
+        Map<MediaType, String> suffixes = new LinkedHashMap<>();
+        suffixes.put(MediaType.APPLICATION_JSON, "");
+        suffixes.put(new MediaType("application", "*+json"), "");
+        suffixes.put(MediaType.parseMediaType("application/x-jackson-smile"), "-smile");
+        suffixes.put(MediaType.APPLICATION_CBOR, "-cbor");
+        return suffixes;
+    }
+
+    // --- Exec Endpoints ---
+
+    @PostMapping("/containers/{containerId}/exec")
+    public ResponseEntity<ExecResponse> exec(@PathVariable UUID containerId, @Valid @RequestBody ExecRequest request) {
+        return ResponseEntity.ok(execService.execute(containerId, request));
+    }
+
+    @PostMapping(value = "/containers/{containerId}/exec", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamExec(@PathVariable UUID containerId, @Valid @RequestBody ExecRequest request) {
+        // Prepared before the response is committed, so missing instances and exhausted slots still get a proper status
+        ExecService.PreparedExec exec = execService.prepare(containerId, request);
+        StreamingResponseBody body = out -> execService.stream(exec, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // --- Archive Endpoints ---
+
+    @GetMapping(value = "/containers/{containerId}/archive", produces = TAR_MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> downloadArchive(@PathVariable UUID containerId, @RequestParam String path) {
+        InputStream archive = archiveService.openArchive(containerId, requireAbsolute(path));
+        StreamingResponseBody body = out -> {
+            try (archive) {
+                archive.transferTo(out);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(TAR_MEDIA_TYPE))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(archiveName(path) + ".tar").build().toString())
+                .body(body);
+    }
+
+    @PutMapping(value = "/containers/{containerId}/archive", consumes = {TAR_MEDIA_TYPE, "application/gzip"})
+    public ResponseEntity<Void> uploadArchive(@PathVariable UUID containerId, @RequestParam String path, InputStream body) {
+        archiveService.extractArchive(containerId, requireAbsolute(path), body);
+        return ResponseEntity.noContent().build();
+    }
+
+    private static String archiveName(String path) {
+        String trimmed = path.replaceAll("/+$", "");
+        return trimmed.isEmpty() ? "root" : trimmed.substring(trimmed.lastIndexOf('/') + 1);
+    }
+
+    private static String requireAbsolute(String path) {
+        if (!path.startsWith("/")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Path must be absolute: " + path);
+        }
+        return path;
+    }
+
+    // --- Status History Endpoints ---
+
+    @GetMapping("/containers/{containerId}/history")
+    public ResponseEntity<List<StatusTransitionResponse>> getContainerHistory(@PathVariable UUID containerId) {
+        return ResponseEntity.ok(transitionMapper.toResponseList(statusJournal.getHistory(containerId)));
+    }
+
+    @GetMapping("/containers/history")
+    public ResponseEntity<List<StatusTransitionResponse>> getHistory(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "1000") @Min(1) @Max(10000) int limit) {
+        return ResponseEntity.ok(transitionMapper.toResponseList(statusJournal.scan(from, to, limit)));
+    }
+
+    // --- Reconciliation Endpoints ---
+
+    @GetMapping("/reconciliation")
+    public ResponseEntity<ReconciliationStatusResponse> getReconciliationStatus() {
+        return ResponseEntity.ok(reconciliationService.getStatus());
     }
 }
\ No newline at end of file
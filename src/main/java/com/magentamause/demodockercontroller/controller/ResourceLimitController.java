@@ -0,0 +1,36 @@
+package com.magentamause.demodockercontroller.controller;
+
+import com.magentamause.demodockercontroller.dto.HostCapacityResponse;
+import com.magentamause.demodockercontroller.dto.ResourceLimitsDto;
+import com.magentamause.demodockercontroller.dto.ResourceUpdateResponse;
+import com.magentamause.demodockercontroller.service.ResourceLimitService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequiredArgsConstructor
+public class ResourceLimitController {
+
+    private final ResourceLimitService resourceLimitService;
+
+    @PutMapping("/containers/{containerId}/resources")
+    public ResponseEntity<ResourceUpdateResponse> updateInstanceResources(@PathVariable UUID containerId,
+                                                                          @Valid @RequestBody ResourceLimitsDto request) {
+        return ResponseEntity.ok(resourceLimitService.updateInstance(containerId, request));
+    }
+
+    @PutMapping("/configurations/{id}/resources")
+    public ResponseEntity<ResourceUpdateResponse> updateConfigurationResources(@PathVariable UUID id,
+                                                                               @Valid @RequestBody ResourceLimitsDto request) {
+        return ResponseEntity.ok(resourceLimitService.updateConfiguration(id, request));
+    }
+
+    @GetMapping("/host/capacity")
+    public ResponseEntity<HostCapacityResponse> getCapacity() {
+        return ResponseEntity.ok(resourceLimitService.getCapacity());
+    }
+}
@@ -0,0 +1,36 @@
+package com.magentamause.demodockercontroller.controller;
+
+import com.magentamause.demodockercontroller.dto.RolloutStatusResponse;
+import com.magentamause.demodockercontroller.service.RolloutService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequiredArgsConstructor
+public class RolloutController {
+
+    private final RolloutService rolloutService;
+
+    @GetMapping("/configurations/{id}/rollout")
+    public ResponseEntity<RolloutStatusResponse> getRollout(@PathVariable UUID id) {
+        return ResponseEntity.ok(rolloutService.getRollout(id));
+    }
+
+    @PostMapping("/configurations/{id}/rollout/pause")
+    public ResponseEntity<RolloutStatusResponse> pauseRollout(@PathVariable UUID id) {
+        return ResponseEntity.ok(rolloutService.pause(id));
+    }
+
+    @PostMapping("/configurations/{id}/rollout/resume")
+    public ResponseEntity<RolloutStatusResponse> resumeRollout(@PathVariable UUID id) {
+        return ResponseEntity.ok(rolloutService.resume(id));
+    }
+
+    @PostMapping("/configurations/{id}/rollout/rollback")
+    public ResponseEntity<RolloutStatusResponse> rollbackRollout(@PathVariable UUID id) {
+        return ResponseEntity.ok(rolloutService.rollback(id));
+    }
+}
@@ -0,0 +1,52 @@
+package com.magentamause.demodockercontroller.controller;
+
+import com.magentamause.demodockercontroller.dto.StackOperationResponse;
+import com.magentamause.demodockercontroller.dto.StackRequest;
+import com.magentamause.demodockercontroller.dto.StackResponse;
+import com.magentamause.demodockercontroller.service.StackService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequiredArgsConstructor
+public class StackController {
+
+    private final StackService stackService;
+
+    @PostMapping("/stacks")
+    public ResponseEntity<StackResponse> createStack(@Valid @RequestBody StackRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(stackService.createStack(request));
+    }
+
+    @GetMapping("/stacks")
+    public ResponseEntity<List<StackResponse>> getStacks() {
+        return ResponseEntity.ok(stackService.getStacks());
+    }
+
+    @GetMapping("/stacks/{id}")
+    public ResponseEntity<StackResponse> getStack(@PathVariable UUID id) {
+        return ResponseEntity.ok(stackService.getStack(id));
+    }
+
+    @DeleteMapping("/stacks/{id}")
+    public ResponseEntity<Void> deleteStack(@PathVariable UUID id) {
+        stackService.deleteStack(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/stacks/{id}/start")
+    public ResponseEntity<StackOperationResponse> startStack(@PathVariable UUID id) {
+        return ResponseEntity.ok(stackService.startStack(id));
+    }
+
+    @PostMapping("/stacks/{id}/stop")
+    public ResponseEntity<StackOperationResponse> stopStack(@PathVariable UUID id) {
+        return ResponseEntity.ok(stackService.stopStack(id));
+    }
+}
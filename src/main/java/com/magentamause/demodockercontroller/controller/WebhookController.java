@@ -0,0 +1,42 @@
+package com.magentamause.demodockercontroller.controller;
+
+import com.magentamause.demodockercontroller.dto.WebhookDeadLetterResponse;
+import com.magentamause.demodockercontroller.dto.WebhookSubscriptionRequest;
+import com.magentamause.demodockercontroller.dto.WebhookSubscriptionResponse;
+import com.magentamause.demodockercontroller.service.WebhookService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequiredArgsConstructor
+public class WebhookController {
+
+    private final WebhookService webhookService;
+
+    @PostMapping("/webhooks")
+    public ResponseEntity<WebhookSubscriptionResponse> createSubscription(@Valid @RequestBody WebhookSubscriptionRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(webhookService.createSubscription(request));
+    }
+
+    @GetMapping("/webhooks")
+    public ResponseEntity<List<WebhookSubscriptionResponse>> getSubscriptions() {
+        return ResponseEntity.ok(webhookService.getSubscriptions());
+    }
+
+    @DeleteMapping("/webhooks/{id}")
+    public ResponseEntity<Void> deleteSubscription(@PathVariable UUID id) {
+        webhookService.deleteSubscription(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/webhooks/{id}/dead-letters")
+    public ResponseEntity<List<WebhookDeadLetterResponse>> getDeadLetters(@PathVariable UUID id) {
+        return ResponseEntity.ok(webhookService.getDeadLetters(id));
+    }
+}
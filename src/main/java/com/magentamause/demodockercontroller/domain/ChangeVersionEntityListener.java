@@ -0,0 +1,25 @@
+package com.magentamause.demodockercontroller.domain;
+
+import com.magentamause.demodockercontroller.service.ChangeVersionTracker;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class ChangeVersionEntityListener {
+
+    private final ChangeVersionTracker changeVersionTracker;
+
+    // Instances are not listened to here: the fleet state store bumps their version once the table has the change
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (entity instanceof ContainerConfiguration) {
+            changeVersionTracker.configurationsChanged();
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package com.magentamause.demodockercontroller.domain;
 
+import com.magentamause.demodockercontroller.model.HealthCheckSpec;
 import com.magentamause.demodockercontroller.model.ResourceLimits;
+import com.magentamause.demodockercontroller.model.RestartPolicySpec;
+import com.magentamause.demodockercontroller.model.RetentionPolicySpec;
 import com.magentamause.demodockercontroller.model.VolumeMount;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
@@ -13,25 +17,40 @@ import java.util.UUID;
 
 @Data
 @Entity
+@EntityListeners(ChangeVersionEntityListener.class)
 public class ContainerConfiguration {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
+    // Optional, unique; identifies the configuration across environments (e.g. for imports)
+    private String name;
+
     private String imageName;
     private String imageTag;
 
     @ElementCollection
+    @BatchSize(size = 100)
     private List<String> command;
 
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "container_port_mappings",
             joinColumns = @JoinColumn(name = "configuration_id"))
     @MapKeyColumn(name = "host_port")
     @Column(name = "container_port")
     private Map<Integer, Integer> portMappings;
 
+    // Container ports that get a host port assigned from the allocation range per instance
     @ElementCollection
+    @BatchSize(size = 100)
+    @CollectionTable(name = "container_auto_ports",
+            joinColumns = @JoinColumn(name = "configuration_id"))
+    @Column(name = "container_port")
+    private List<Integer> autoPorts;
+
+    @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "container_env_variables",
             joinColumns = @JoinColumn(name = "configuration_id"))
     @MapKeyColumn(name = "env_key")
@@ -39,10 +58,41 @@ public class ContainerConfiguration {
     private Map<String, String> envVariables;
 
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "container_volume_mounts",
             joinColumns = @JoinColumn(name = "configuration_id"))
     private List<VolumeMount> volumeMounts;
 
     @Embedded
     private ResourceLimits resourceLimits;
+
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "testCommand", column = @Column(name = "health_test_command", length = 1024)),
+            @AttributeOverride(name = "intervalSeconds", column = @Column(name = "health_interval_seconds")),
+            @AttributeOverride(name = "timeoutSeconds", column = @Column(name = "health_timeout_seconds")),
+            @AttributeOverride(name = "retries", column = @Column(name = "health_retries")),
+            @AttributeOverride(name = "startPeriodSeconds", column = @Column(name = "health_start_period_seconds"))
+    })
+    private HealthCheckSpec healthCheck;
+
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "type", column = @Column(name = "restart_policy")),
+            @AttributeOverride(name = "maxRetries", column = @Column(name = "restart_max_retries"))
+    })
+    private RestartPolicySpec restartPolicy;
+
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "stoppedTtlSeconds", column = @Column(name = "retention_stopped_ttl_seconds")),
+            @AttributeOverride(name = "failedTtlSeconds", column = @Column(name = "retention_failed_ttl_seconds"))
+    })
+    private RetentionPolicySpec retentionPolicy;
+
+    // Number of RUNNING instances the replica controller converges to; null if not managed
+    private Integer desiredReplicas;
+
+    // Incremented whenever an update changes the container spec, so outdated instances can be told apart
+    private int revision;
 }
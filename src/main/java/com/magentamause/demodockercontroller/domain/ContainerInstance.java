@@ -1,14 +1,20 @@
 package com.magentamause.demodockercontroller.domain;
 
 import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.HealthStatus;
+import com.magentamause.demodockercontroller.model.ResourceLimits;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 @Data
 @Entity
+@EntityListeners(FleetStateEntityListener.class)
 public class ContainerInstance {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -20,6 +26,29 @@ public class ContainerInstance {
     @Enumerated(EnumType.STRING)
     private ContainerStatus status;
 
+    @Enumerated(EnumType.STRING)
+    private HealthStatus healthStatus;
+
     private Instant createdAt;
     private Instant startedAt;
+    private Instant statusChangedAt;
+
+    private int restartCount;
+    private int configurationRevision;
+    private boolean crashLoopDetected;
+
+    // Limits the container runs with; in-place updates can move them away from those of the configuration
+    @Embedded
+    @AttributeOverride(name = "memoryBytes", column = @Column(name = "memory_limit_bytes"))
+    @AttributeOverride(name = "cpuCores", column = @Column(name = "cpu_limit_cores"))
+    private ResourceLimits resourceLimits;
+
+    // Host port → container port, for ports assigned from the allocation range
+    @ElementCollection
+    @CollectionTable(name = "container_instance_host_ports",
+            joinColumns = @JoinColumn(name = "instance_id"))
+    @MapKeyColumn(name = "host_port")
+    @Column(name = "container_port")
+    @BatchSize(size = 256)
+    private Map<Integer, Integer> assignedHostPorts = new HashMap<>();
 }
@@ -0,0 +1,34 @@
+package com.magentamause.demodockercontroller.domain;
+
+import com.magentamause.demodockercontroller.state.FleetStateStore;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+// The store is looked up lazily because it depends on the repositories, which are built with this listener
+@Component
+@RequiredArgsConstructor
+public class FleetStateEntityListener {
+
+    private final ObjectProvider<FleetStateStore> fleetStateStore;
+
+    @PostLoad
+    public void onLoad(ContainerInstance instance) {
+        fleetStateStore.getObject().loaded(instance);
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(ContainerInstance instance) {
+        fleetStateStore.getObject().saved(instance);
+    }
+
+    @PostRemove
+    public void onRemove(ContainerInstance instance) {
+        fleetStateStore.getObject().deleted(instance);
+    }
+}
@@ -0,0 +1,27 @@
+package com.magentamause.demodockercontroller.domain;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * An image reference (name:tag) that a configuration has used. Only these images are candidates for
+ * pruning, so images on the host that the controller never used are left alone.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+public class ManagedImage {
+    @Id
+    private String reference;
+
+    private Instant lastReferencedAt;
+
+    public ManagedImage(String reference, Instant lastReferencedAt) {
+        this.reference = reference;
+        this.lastReferencedAt = lastReferencedAt;
+    }
+}
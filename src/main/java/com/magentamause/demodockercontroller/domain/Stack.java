@@ -0,0 +1,31 @@
+package com.magentamause.demodockercontroller.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+@Data
+@Entity
+public class Stack {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    private String name;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "stack_configurations",
+            joinColumns = @JoinColumn(name = "stack_id"))
+    @Column(name = "configuration_id")
+    private Set<UUID> configurationIds;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "stack_dependencies",
+            joinColumns = @JoinColumn(name = "stack_id"))
+    private Set<StackDependency> dependencies;
+
+    private Instant createdAt;
+}
@@ -0,0 +1,22 @@
+package com.magentamause.demodockercontroller.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+// The configuration is started only after the one it depends on is ready, and stopped before it
+@Data
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+public class StackDependency {
+    @Column(name = "configuration_id")
+    private UUID configurationId;
+
+    @Column(name = "depends_on_configuration_id")
+    private UUID dependsOnConfigurationId;
+}
@@ -0,0 +1,29 @@
+package com.magentamause.demodockercontroller.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A batch of webhook events that could not be delivered to its subscriber within the retry budget.
+ * The payload is kept exactly as it was sent.
+ */
+@Data
+@Entity
+public class WebhookDeadLetter {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    private UUID subscriptionId;
+
+    @Lob
+    private String payload;
+
+    private int eventCount;
+    private int attempts;
+    private String lastError;
+    private Instant createdAt;
+}
@@ -0,0 +1,32 @@
+package com.magentamause.demodockercontroller.domain;
+
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+@Data
+@Entity
+public class WebhookSubscription {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    private String url;
+
+    // Only events of instances of this configuration, if set
+    private UUID configurationId;
+
+    // Only transitions into these statuses; empty means all
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "webhook_subscription_statuses",
+            joinColumns = @JoinColumn(name = "subscription_id"))
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private Set<ContainerStatus> statuses;
+
+    private Instant createdAt;
+}
@@ -0,0 +1,13 @@
+package com.magentamause.demodockercontroller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfigurationImportError {
+    private long line;
+    private String message;
+}
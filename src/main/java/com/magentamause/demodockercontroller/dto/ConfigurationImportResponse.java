@@ -0,0 +1,16 @@
+package com.magentamause.demodockercontroller.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ConfigurationImportResponse {
+    private int created;
+    private int updated;
+    private int failed;
+    // One entry per failed line, up to a limit; errorsTruncated is set once the limit was reached
+    private List<ConfigurationImportError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+}
@@ -1,8 +1,11 @@
 package com.magentamause.demodockercontroller.dto;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
 
@@ -11,6 +14,9 @@ import java.util.Map;
 
 @Data
 public class ContainerConfigurationRequest {
+    @Size(max = 255)
+    private String name;
+
     @NotBlank
     private String imageName;
     @NotBlank
@@ -20,6 +26,8 @@ public class ContainerConfigurationRequest {
 
     private Map<Integer, Integer> portMappings;
 
+    private List<@NotNull @Min(1) @Max(65535) Integer> autoPorts;
+
     private Map<String, String> envVariables;
 
     private List<@Valid VolumeMountDto> volumeMounts;
@@ -27,4 +35,16 @@ public class ContainerConfigurationRequest {
     @Valid
     @NotNull
     private ResourceLimitsDto resourceLimits;
+
+    @Valid
+    private HealthCheckDto healthCheck;
+
+    @Valid
+    private RestartPolicyDto restartPolicy;
+
+    @Valid
+    private RetentionPolicyDto retentionPolicy;
+
+    @PositiveOrZero
+    private Integer desiredReplicas;
 }
@@ -9,11 +9,19 @@ import java.util.UUID;
 @Data
 public class ContainerConfigurationResponse {
     private UUID id;
+    private String name;
     private String imageName;
     private String imageTag;
     private List<String> command;
     private Map<Integer, Integer> portMappings;
+    private List<Integer> autoPorts;
     private Map<String, String> envVariables;
     private List<VolumeMountDto> volumeMounts;
     private ResourceLimitsDto resourceLimits;
+    private HealthCheckDto healthCheck;
+    private RestartPolicyDto restartPolicy;
+    private RetentionPolicyDto retentionPolicy;
+    private Integer desiredReplicas;
+    // Incremented whenever an update changes the container spec
+    private int revision;
 }
@@ -1,9 +1,11 @@
 package com.magentamause.demodockercontroller.dto;
 
 import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.HealthStatus;
 import lombok.Data;
 
 import java.time.Instant;
+import java.util.Map;
 import java.util.UUID;
 
 @Data
@@ -12,6 +14,18 @@ public class ContainerInstanceResponse {
     private UUID configurationId;
     private String dockerContainerId;
     private ContainerStatus status;
+    private HealthStatus healthStatus;
     private Instant createdAt;
     private Instant startedAt;
+    private Instant statusChangedAt;
+    private int restartCount;
+    // Revision of the configuration this instance was created from
+    private int configurationRevision;
+    // Limits the container runs with, which in-place updates can move away from the configuration's
+    private Long memoryLimitBytes;
+    private Double cpuLimitCores;
+    private boolean crashLoopDetected;
+    private Map<Integer, Integer> assignedHostPorts;
+    // Only set when requested with live=true
+    private LiveContainerStateResponse live;
 }
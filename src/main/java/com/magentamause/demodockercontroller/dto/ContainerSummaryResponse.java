@@ -0,0 +1,14 @@
+package com.magentamause.demodockercontroller.dto;
+
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import lombok.Data;
+
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+public class ContainerSummaryResponse {
+    private long total;
+    private Map<ContainerStatus, Long> byStatus;
+    private Map<UUID, Map<ContainerStatus, Long>> byConfiguration;
+}
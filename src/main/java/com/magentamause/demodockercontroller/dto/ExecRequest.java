@@ -0,0 +1,21 @@
+package com.magentamause.demodockercontroller.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ExecRequest {
+    @NotEmpty
+    private List<@NotBlank String> command;
+    // KEY=VALUE entries added to the container's environment
+    private List<String> env;
+    private String workingDir;
+    private String user;
+    // Defaults to docker.exec.default-timeout-seconds, capped at docker.exec.max-timeout-seconds
+    @Positive
+    private Integer timeoutSeconds;
+}
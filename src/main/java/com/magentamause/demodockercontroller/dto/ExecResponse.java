@@ -0,0 +1,16 @@
+package com.magentamause.demodockercontroller.dto;
+
+import lombok.Data;
+
+@Data
+public class ExecResponse {
+    // Null if the command did not finish within its timeout
+    private Long exitCode;
+    private boolean timedOut;
+    private String stdout;
+    private String stderr;
+    // Set when the output exceeded docker.exec.max-output-bytes and was cut off
+    private boolean stdoutTruncated;
+    private boolean stderrTruncated;
+    private long durationMillis;
+}
@@ -0,0 +1,20 @@
+package com.magentamause.demodockercontroller.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+
+@Data
+public class HealthCheckDto {
+    @NotBlank
+    private String testCommand;
+    @Positive
+    private Integer intervalSeconds;
+    @Positive
+    private Integer timeoutSeconds;
+    @PositiveOrZero
+    private Integer retries;
+    @PositiveOrZero
+    private Integer startPeriodSeconds;
+}
@@ -0,0 +1,18 @@
+package com.magentamause.demodockercontroller.dto;
+
+import lombok.Data;
+
+@Data
+public class HostCapacityResponse {
+    // Running and paused; paused containers keep their memory
+    private int runningInstances;
+    // Sums of the limits of these instances
+    private long committedMemoryBytes;
+    private double committedCpuCores;
+    // Instances without a limit, which may use as much as the host has
+    private int instancesWithoutMemoryLimit;
+    private int instancesWithoutCpuLimit;
+    // As reported by Docker; null while the host cannot be reached
+    private Long hostMemoryBytes;
+    private Integer hostCpus;
+}
@@ -0,0 +1,19 @@
+package com.magentamause.demodockercontroller.dto;
+
+import lombok.Data;
+
+// Container state as reported by the Docker daemon; exists is false if the container is gone
+@Data
+public class LiveContainerStateResponse {
+    private boolean exists;
+    private String status;
+    private Boolean running;
+    private Boolean paused;
+    private Boolean restarting;
+    private Boolean oomKilled;
+    private Boolean dead;
+    private Long exitCode;
+    private String startedAt;
+    private String finishedAt;
+    private String health;
+}
@@ -0,0 +1,16 @@
+package com.magentamause.demodockercontroller.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class ReconciliationStatusResponse {
+    private boolean completed;
+    private int attempt;
+    private int totalInstances;
+    private int processedInstances;
+    private Instant startedAt;
+    private Instant completedAt;
+    private String lastError;
+}
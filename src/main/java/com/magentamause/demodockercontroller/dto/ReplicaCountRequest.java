@@ -0,0 +1,11 @@
+package com.magentamause.demodockercontroller.dto;
+
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+
+@Data
+public class ReplicaCountRequest {
+    // null removes the configuration from replica management
+    @PositiveOrZero
+    private Integer desiredReplicas;
+}
@@ -0,0 +1,15 @@
+package com.magentamause.demodockercontroller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResourceUpdateError {
+    private UUID instanceId;
+    private String message;
+}
@@ -0,0 +1,16 @@
+package com.magentamause.demodockercontroller.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class ResourceUpdateResponse {
+    private ResourceLimitsDto resourceLimits;
+    private List<UUID> updatedInstanceIds;
+    // Instances Docker refused to update; they keep running with their previous limits
+    private List<ResourceUpdateError> failures;
+    // Committed capacity after the update
+    private HostCapacityResponse capacity;
+}
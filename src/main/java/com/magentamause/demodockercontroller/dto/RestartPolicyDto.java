@@ -0,0 +1,14 @@
+package com.magentamause.demodockercontroller.dto;
+
+import com.magentamause.demodockercontroller.model.RestartPolicyType;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+
+@Data
+public class RestartPolicyDto {
+    @NotNull
+    private RestartPolicyType type;
+    @PositiveOrZero
+    private Integer maxRetries;
+}
@@ -0,0 +1,12 @@
+package com.magentamause.demodockercontroller.dto;
+
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+@Data
+public class RetentionPolicyDto {
+    @Positive
+    private Long stoppedTtlSeconds;
+    @Positive
+    private Long failedTtlSeconds;
+}
@@ -0,0 +1,32 @@
+package com.magentamause.demodockercontroller.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+public class RolloutStatusResponse {
+    public enum State {
+        ROLLING,
+        PAUSED,
+        COMPLETED,
+        FAILED,
+        // Superseded by a rollout back to the previous spec
+        ROLLED_BACK
+    }
+
+    private UUID configurationId;
+    private int fromRevision;
+    private int toRevision;
+    private State state;
+    private int replicas;
+    private int maxSurge;
+    private int maxUnavailable;
+    // Instances of the target revision that are ready, and running instances of older revisions
+    private int updatedReplicas;
+    private int outdatedReplicas;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+}
@@ -0,0 +1,26 @@
+package com.magentamause.demodockercontroller.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class StackNodeResult {
+    public enum Outcome {
+        SUCCEEDED,
+        FAILED,
+        // Not attempted because a dependency failed to start
+        SKIPPED
+    }
+
+    private UUID configurationId;
+    private String configurationName;
+    private Outcome outcome;
+    // Time from the start of the operation until this service's dependencies (or dependents, when stopping) were done
+    private long startedAfterMillis;
+    // Time this service took itself, including waiting for its instances to become ready
+    private long durationMillis;
+    private List<UUID> instanceIds;
+    private String error;
+}
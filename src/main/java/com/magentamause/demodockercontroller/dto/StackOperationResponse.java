@@ -0,0 +1,21 @@
+package com.magentamause.demodockercontroller.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class StackOperationResponse {
+    public enum Operation {
+        START,
+        STOP
+    }
+
+    private UUID stackId;
+    private Operation operation;
+    private boolean succeeded;
+    private long durationMillis;
+    // Dependencies before dependents when starting, the reverse when stopping
+    private List<StackNodeResult> nodes;
+}
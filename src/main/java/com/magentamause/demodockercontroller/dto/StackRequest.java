@@ -0,0 +1,19 @@
+package com.magentamause.demodockercontroller.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class StackRequest {
+    @NotBlank
+    @Size(max = 255)
+    private String name;
+
+    @NotEmpty
+    private List<@Valid StackServiceDto> services;
+}
@@ -0,0 +1,16 @@
+package com.magentamause.demodockercontroller.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class StackResponse {
+    private UUID id;
+    private String name;
+    // In start order; services on the same level of the dependency graph keep no particular order
+    private List<StackServiceDto> services;
+    private Instant createdAt;
+}
@@ -0,0 +1,16 @@
+package com.magentamause.demodockercontroller.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.Set;
+import java.util.UUID;
+
+@Data
+public class StackServiceDto {
+    @NotNull
+    private UUID configurationId;
+
+    // Configurations of the same stack that must be ready before this one is started
+    private Set<UUID> dependsOn;
+}
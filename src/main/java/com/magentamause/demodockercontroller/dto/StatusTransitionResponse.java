@@ -0,0 +1,19 @@
+package com.magentamause.demodockercontroller.dto;
+
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.StatusTransitionSource;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+public class StatusTransitionResponse {
+    private UUID instanceId;
+    private UUID configurationId;
+    private ContainerStatus previousStatus;
+    private ContainerStatus status;
+    private StatusTransitionSource source;
+    private Integer exitCode;
+    private Instant timestamp;
+}
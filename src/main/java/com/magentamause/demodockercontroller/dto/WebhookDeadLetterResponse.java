@@ -0,0 +1,18 @@
+package com.magentamause.demodockercontroller.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+public class WebhookDeadLetterResponse {
+    private UUID id;
+    private UUID subscriptionId;
+    // JSON array of WebhookEvent, as it was sent
+    private String payload;
+    private int eventCount;
+    private int attempts;
+    private String lastError;
+    private Instant createdAt;
+}
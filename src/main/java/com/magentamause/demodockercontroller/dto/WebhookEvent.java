@@ -0,0 +1,28 @@
+package com.magentamause.demodockercontroller.dto;
+
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.StatusTransitionSource;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One element of a webhook delivery. Deliveries are JSON arrays of these, oldest first. Subscribers should
+ * deduplicate by {@code eventId}, since a batch whose response was lost is delivered again.
+ */
+@Data
+public class WebhookEvent {
+    public static final String STATUS_CHANGED = "instance.status_changed";
+
+    private UUID eventId;
+    private String type;
+    private UUID instanceId;
+    private UUID configurationId;
+    private String dockerContainerId;
+    private ContainerStatus previousStatus;
+    private ContainerStatus status;
+    private StatusTransitionSource source;
+    private Integer exitCode;
+    private Instant timestamp;
+}
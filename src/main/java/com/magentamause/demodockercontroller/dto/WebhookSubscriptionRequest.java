@@ -0,0 +1,22 @@
+package com.magentamause.demodockercontroller.dto;
+
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.Set;
+import java.util.UUID;
+
+@Data
+public class WebhookSubscriptionRequest {
+    @NotBlank
+    @Size(max = 2048)
+    @Pattern(regexp = "https?://.+", message = "must be an http or https URL")
+    private String url;
+
+    private UUID configurationId;
+
+    private Set<ContainerStatus> statuses;
+}
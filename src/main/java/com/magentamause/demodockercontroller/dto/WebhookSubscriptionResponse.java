@@ -0,0 +1,19 @@
+package com.magentamause.demodockercontroller.dto;
+
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+@Data
+public class WebhookSubscriptionResponse {
+    private UUID id;
+    private String url;
+    private UUID configurationId;
+    private Set<ContainerStatus> statuses;
+    private Instant createdAt;
+    // Events waiting in the subscriber's outbox, including a batch currently being delivered or retried
+    private int pendingEvents;
+}
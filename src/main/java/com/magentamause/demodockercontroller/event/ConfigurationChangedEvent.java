@@ -0,0 +1,6 @@
+package com.magentamause.demodockercontroller.event;
+
+import java.util.UUID;
+
+public record ConfigurationChangedEvent(UUID configurationId, boolean deleted) {
+}
@@ -0,0 +1,13 @@
+package com.magentamause.demodockercontroller.event;
+
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+
+import java.util.UUID;
+
+// status is the last status of the instance before it was deleted
+public record ContainerDeletedEvent(
+        UUID instanceId,
+        UUID configurationId,
+        String dockerContainerId,
+        ContainerStatus status) {
+}
@@ -0,0 +1,19 @@
+package com.magentamause.demodockercontroller.event;
+
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.StatusTransitionSource;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// previousStatus is null when the instance has just been created
+public record ContainerStatusChangedEvent(
+        UUID instanceId,
+        UUID configurationId,
+        String dockerContainerId,
+        ContainerStatus previousStatus,
+        ContainerStatus status,
+        StatusTransitionSource source,
+        Integer exitCode,
+        Instant timestamp) {
+}
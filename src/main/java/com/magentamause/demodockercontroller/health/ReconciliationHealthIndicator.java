@@ -0,0 +1,28 @@
+package com.magentamause.demodockercontroller.health;
+
+import com.magentamause.demodockercontroller.dto.ReconciliationStatusResponse;
+import com.magentamause.demodockercontroller.service.ReconciliationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+@Component("reconciliation")
+@RequiredArgsConstructor
+public class ReconciliationHealthIndicator implements HealthIndicator {
+
+    private final ReconciliationService reconciliationService;
+
+    @Override
+    public Health health() {
+        ReconciliationStatusResponse status = reconciliationService.getStatus();
+        Health.Builder builder = status.isCompleted() ? Health.up() : Health.outOfService();
+        builder.withDetail("attempt", status.getAttempt())
+                .withDetail("totalInstances", status.getTotalInstances())
+                .withDetail("processedInstances", status.getProcessedInstances());
+        if (status.getLastError() != null) {
+            builder.withDetail("lastError", status.getLastError());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,188 @@
+package com.magentamause.demodockercontroller.journal;
+
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.StatusTransitionSource;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A fixed-capacity, memory-mapped journal file of fixed-size records. Appends are single-writer;
+ * reads are lock-free up to the published record count.
+ */
+class JournalSegment {
+
+    // Record layout (48 bytes):
+    //   0 marker, 1 source, 2 previous status, 3 status (enum ordinal + 1, 0 = none),
+    //   4 exit code, 8 timestamp (epoch millis), 16 instance id, 32 configuration id
+    static final int RECORD_SIZE = 48;
+
+    private static final byte COMMITTED = 1;
+    private static final int NO_EXIT_CODE = Integer.MIN_VALUE;
+    private static final ContainerStatus[] STATUSES = ContainerStatus.values();
+    private static final StatusTransitionSource[] SOURCES = StatusTransitionSource.values();
+
+    private final Path path;
+    private final long number;
+    private final int capacity;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    private volatile int count;
+    private volatile long minTimestamp = Long.MAX_VALUE;
+    private volatile long maxTimestamp = Long.MIN_VALUE;
+
+    private JournalSegment(Path path, long number, int capacity, FileChannel channel, MappedByteBuffer buffer) {
+        this.path = path;
+        this.number = number;
+        this.capacity = capacity;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static JournalSegment create(Path path, long number, int capacity) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * RECORD_SIZE);
+        return new JournalSegment(path, number, capacity, channel, buffer);
+    }
+
+    static JournalSegment open(Path path, long number) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int capacity = (int) (channel.size() / RECORD_SIZE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * RECORD_SIZE);
+        JournalSegment segment = new JournalSegment(path, number, capacity, channel, buffer);
+        // Records are written marker-last, so the first unmarked slot ends the committed log
+        int recovered = 0;
+        while (recovered < capacity && buffer.get(recovered * RECORD_SIZE) == COMMITTED) {
+            segment.trackTimestamp(buffer.getLong(recovered * RECORD_SIZE + 8));
+            recovered++;
+        }
+        segment.count = recovered;
+        return segment;
+    }
+
+    // Writes the given records into a new, exactly sized segment that atomically replaces the target path
+    static JournalSegment write(Path path, long number, List<StatusTransition> transitions) throws IOException {
+        Path tempPath = path.resolveSibling(path.getFileName() + ".compacting");
+        Files.deleteIfExists(tempPath);
+        JournalSegment temp = create(tempPath, number, transitions.size());
+        for (StatusTransition transition : transitions) {
+            temp.append(transition);
+        }
+        temp.close();
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return open(path, number);
+    }
+
+    boolean append(StatusTransition transition) {
+        int index = count;
+        if (index >= capacity) {
+            return false;
+        }
+        int offset = index * RECORD_SIZE;
+        buffer.put(offset + 1, (byte) transition.source().ordinal());
+        buffer.put(offset + 2, encodeStatus(transition.previousStatus()));
+        buffer.put(offset + 3, encodeStatus(transition.status()));
+        buffer.putInt(offset + 4, transition.exitCode() != null ? transition.exitCode() : NO_EXIT_CODE);
+        buffer.putLong(offset + 8, transition.timestamp().toEpochMilli());
+        putUuid(offset + 16, transition.instanceId());
+        putUuid(offset + 32, transition.configurationId());
+        buffer.put(offset, COMMITTED);
+        trackTimestamp(transition.timestamp().toEpochMilli());
+        count = index + 1;
+        return true;
+    }
+
+    StatusTransition read(int index) {
+        int offset = index * RECORD_SIZE;
+        int exitCode = buffer.getInt(offset + 4);
+        return new StatusTransition(
+                getUuid(offset + 16),
+                getUuid(offset + 32),
+                decodeStatus(buffer.get(offset + 2)),
+                decodeStatus(buffer.get(offset + 3)),
+                SOURCES[buffer.get(offset + 1)],
+                exitCode != NO_EXIT_CODE ? exitCode : null,
+                Instant.ofEpochMilli(buffer.getLong(offset + 8)));
+    }
+
+    boolean matchesInstance(int index, UUID instanceId) {
+        int offset = index * RECORD_SIZE;
+        return buffer.getLong(offset + 16) == instanceId.getMostSignificantBits()
+                && buffer.getLong(offset + 24) == instanceId.getLeastSignificantBits();
+    }
+
+    long timestampAt(int index) {
+        return buffer.getLong(index * RECORD_SIZE + 8);
+    }
+
+    boolean isFull() {
+        return count >= capacity;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long number() {
+        return number;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long minTimestamp() {
+        return minTimestamp;
+    }
+
+    long maxTimestamp() {
+        return maxTimestamp;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private void trackTimestamp(long timestamp) {
+        if (timestamp < minTimestamp) {
+            minTimestamp = timestamp;
+        }
+        if (timestamp > maxTimestamp) {
+            maxTimestamp = timestamp;
+        }
+    }
+
+    private void putUuid(int offset, UUID uuid) {
+        buffer.putLong(offset, uuid != null ? uuid.getMostSignificantBits() : 0L);
+        buffer.putLong(offset + 8, uuid != null ? uuid.getLeastSignificantBits() : 0L);
+    }
+
+    private UUID getUuid(int offset) {
+        long mostSignificantBits = buffer.getLong(offset);
+        long leastSignificantBits = buffer.getLong(offset + 8);
+        return mostSignificantBits == 0L && leastSignificantBits == 0L ? null : new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    // Statuses are stored by ordinal, so new ContainerStatus values must only ever be appended
+    private static byte encodeStatus(ContainerStatus status) {
+        return status != null ? (byte) (status.ordinal() + 1) : 0;
+    }
+
+    private static ContainerStatus decodeStatus(byte value) {
+        return value != 0 ? STATUSES[value - 1] : null;
+    }
+}
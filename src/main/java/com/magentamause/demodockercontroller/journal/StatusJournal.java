@@ -0,0 +1,260 @@
+package com.magentamause.demodockercontroller.journal;
+
+import com.magentamause.demodockercontroller.event.ContainerStatusChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of instance status transitions, stored in memory-mapped segment files.
+ * The newest segment is the only one written to; older segments are sealed and periodically
+ * compacted by dropping records that fall outside the retention window.
+ */
+@Service
+public class StatusJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(StatusJournal.class);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentCapacity;
+    private final Duration retention;
+    private final boolean syncOnAppend;
+
+    private final CopyOnWriteArrayList<JournalSegment> segments = new CopyOnWriteArrayList<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private volatile JournalSegment activeSegment;
+    // Records appended and records known to be on disk, for group commit
+    private long appended;
+    private volatile long synced;
+
+    public StatusJournal(@Value("${docker.journal.enabled:true}") boolean enabled,
+                         @Value("${docker.journal.dir:./data/journal}") String directory,
+                         @Value("${docker.journal.segment-records:65536}") int segmentCapacity,
+                         @Value("${docker.journal.retention-days:30}") int retentionDays,
+                         @Value("${docker.journal.sync-on-append:true}") boolean syncOnAppend) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentCapacity = segmentCapacity;
+        this.retention = Duration.ofDays(retentionDays);
+        this.syncOnAppend = syncOnAppend;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            log.info("Status journal disabled.");
+            return;
+        }
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segmentFiles = files
+                    .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+            for (Path segmentFile : segmentFiles) {
+                segments.add(JournalSegment.open(segmentFile, parseSegmentNumber(segmentFile)));
+            }
+        }
+        if (!segments.isEmpty() && !segments.getLast().isFull()) {
+            activeSegment = segments.getLast();
+        } else {
+            activeSegment = newSegment();
+        }
+        log.info("Status journal opened at {} with {} segments.", directory, segments.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(ContainerStatusChangedEvent event) {
+        append(new StatusTransition(
+                event.instanceId(),
+                event.configurationId(),
+                event.previousStatus(),
+                event.status(),
+                event.source(),
+                event.exitCode(),
+                event.timestamp()));
+    }
+
+    /**
+     * Appends the transition and, unless {@code docker.journal.sync-on-append} is off, returns only once it has
+     * been forced to disk. The fleet state store writes event transitions behind and relies on this record to
+     * replay them after a crash, so the transition must not be acknowledged before it is durable.
+     */
+    public void append(StatusTransition transition) {
+        if (!enabled) {
+            return;
+        }
+        long sequence;
+        appendLock.lock();
+        try {
+            if (!activeSegment.append(transition)) {
+                activeSegment.force();
+                activeSegment = newSegment();
+                activeSegment.append(transition);
+            }
+            sequence = ++appended;
+        } catch (IOException e) {
+            log.error("Failed to roll status journal segment: {}", e.getMessage());
+            throw new UncheckedIOException("Failed to roll status journal segment", e);
+        } finally {
+            appendLock.unlock();
+        }
+        if (syncOnAppend) {
+            sync(sequence);
+        }
+    }
+
+    // Group commit: one force covers every record appended before it, so concurrent appenders share it.
+    // Sealed segments were forced when they were rolled, so only the active one needs it.
+    private void sync(long sequence) {
+        if (synced >= sequence) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (synced >= sequence) {
+                return;
+            }
+            long target;
+            JournalSegment segment;
+            appendLock.lock();
+            try {
+                target = appended;
+                segment = activeSegment;
+            } finally {
+                appendLock.unlock();
+            }
+            segment.force();
+            synced = target;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    public List<StatusTransition> getHistory(UUID instanceId) {
+        List<StatusTransition> history = new ArrayList<>();
+        for (JournalSegment segment : segments) {
+            int count = segment.count();
+            for (int i = 0; i < count; i++) {
+                if (segment.matchesInstance(i, instanceId)) {
+                    history.add(segment.read(i));
+                }
+            }
+        }
+        return history;
+    }
+
+    public List<StatusTransition> scan(Instant from, Instant to, int limit) {
+        long fromMillis = from != null ? from.toEpochMilli() : Long.MIN_VALUE;
+        long toMillis = to != null ? to.toEpochMilli() : Long.MAX_VALUE;
+        List<StatusTransition> transitions = new ArrayList<>();
+        for (JournalSegment segment : segments) {
+            if (segment.maxTimestamp() < fromMillis || segment.minTimestamp() > toMillis) {
+                continue;
+            }
+            int count = segment.count();
+            for (int i = 0; i < count; i++) {
+                long timestamp = segment.timestampAt(i);
+                if (timestamp >= fromMillis && timestamp <= toMillis) {
+                    transitions.add(segment.read(i));
+                    if (transitions.size() >= limit) {
+                        return transitions;
+                    }
+                }
+            }
+        }
+        return transitions;
+    }
+
+    @Scheduled(fixedDelayString = "${docker.journal.compaction-interval-ms:3600000}",
+            initialDelayString = "${docker.journal.compaction-interval-ms:3600000}")
+    public void compact() {
+        if (!enabled) {
+            return;
+        }
+        long cutoff = Instant.now().minus(retention).toEpochMilli();
+        int deleted = 0;
+        int rewritten = 0;
+        for (JournalSegment segment : segments) {
+            if (segment == activeSegment || segment.minTimestamp() >= cutoff) {
+                continue;
+            }
+            try {
+                if (segment.maxTimestamp() < cutoff) {
+                    segments.remove(segment);
+                    segment.close();
+                    Files.deleteIfExists(segment.path());
+                    deleted++;
+                    continue;
+                }
+                List<StatusTransition> live = new ArrayList<>();
+                for (int i = 0; i < segment.count(); i++) {
+                    if (segment.timestampAt(i) >= cutoff) {
+                        live.add(segment.read(i));
+                    }
+                }
+                segment.close();
+                JournalSegment compacted = JournalSegment.write(segment.path(), segment.number(), live);
+                segments.set(segments.indexOf(segment), compacted);
+                rewritten++;
+            } catch (IOException e) {
+                log.error("Failed to compact status journal segment {}: {}", segment.path(), e.getMessage());
+            }
+        }
+        if (deleted > 0 || rewritten > 0) {
+            log.info("Status journal compaction removed {} segments and rewrote {} segments.", deleted, rewritten);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        appendLock.lock();
+        try {
+            for (JournalSegment segment : segments) {
+                segment.close();
+            }
+        } catch (IOException e) {
+            log.error("Failed to close status journal: {}", e.getMessage());
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private JournalSegment newSegment() throws IOException {
+        long number = segments.isEmpty() ? 0 : segments.getLast().number() + 1;
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+        JournalSegment segment = JournalSegment.create(path, number, segmentCapacity);
+        segments.add(segment);
+        return segment;
+    }
+
+    private static long parseSegmentNumber(Path path) {
+        String fileName = path.getFileName().toString();
+        return Long.parseLong(fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,17 @@
+package com.magentamause.demodockercontroller.journal;
+
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.StatusTransitionSource;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record StatusTransition(
+        UUID instanceId,
+        UUID configurationId,
+        ContainerStatus previousStatus,
+        ContainerStatus status,
+        StatusTransitionSource source,
+        Integer exitCode,
+        Instant timestamp) {
+}
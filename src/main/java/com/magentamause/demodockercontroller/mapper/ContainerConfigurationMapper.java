@@ -2,13 +2,22 @@ package com.magentamause.demodockercontroller.mapper;
 
 import com.magentamause.demodockercontroller.dto.ContainerConfigurationRequest;
 import com.magentamause.demodockercontroller.dto.ContainerConfigurationResponse;
+import com.magentamause.demodockercontroller.dto.HealthCheckDto;
 import com.magentamause.demodockercontroller.dto.ResourceLimitsDto;
+import com.magentamause.demodockercontroller.dto.RestartPolicyDto;
+import com.magentamause.demodockercontroller.dto.RetentionPolicyDto;
 import com.magentamause.demodockercontroller.dto.VolumeMountDto;
 import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
+import com.magentamause.demodockercontroller.model.HealthCheckSpec;
 import com.magentamause.demodockercontroller.model.ResourceLimits;
+import com.magentamause.demodockercontroller.model.RestartPolicySpec;
+import com.magentamause.demodockercontroller.model.RetentionPolicySpec;
 import com.magentamause.demodockercontroller.model.VolumeMount;
+import com.magentamause.demodockercontroller.service.docker.ContainerSpec;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -21,13 +30,19 @@ public class ContainerConfigurationMapper {
             return null;
         }
         ContainerConfiguration config = new ContainerConfiguration();
+        config.setName(request.getName());
         config.setImageName(request.getImageName());
         config.setImageTag(request.getImageTag());
         config.setCommand(request.getCommand());
         config.setPortMappings(request.getPortMappings());
+        config.setAutoPorts(request.getAutoPorts());
         config.setEnvVariables(request.getEnvVariables());
         config.setVolumeMounts(toVolumeMountList(request.getVolumeMounts()));
         config.setResourceLimits(toResourceLimits(request.getResourceLimits()));
+        config.setHealthCheck(toHealthCheckSpec(request.getHealthCheck()));
+        config.setRestartPolicy(toRestartPolicySpec(request.getRestartPolicy()));
+        config.setRetentionPolicy(toRetentionPolicySpec(request.getRetentionPolicy()));
+        config.setDesiredReplicas(request.getDesiredReplicas());
         return config;
     }
 
@@ -37,13 +52,20 @@ public class ContainerConfigurationMapper {
         }
         ContainerConfigurationResponse response = new ContainerConfigurationResponse();
         response.setId(config.getId());
+        response.setName(config.getName());
         response.setImageName(config.getImageName());
         response.setImageTag(config.getImageTag());
         response.setCommand(config.getCommand());
         response.setPortMappings(config.getPortMappings());
+        response.setAutoPorts(config.getAutoPorts());
         response.setEnvVariables(config.getEnvVariables());
         response.setVolumeMounts(toVolumeMountDtoList(config.getVolumeMounts()));
         response.setResourceLimits(toResourceLimitsDto(config.getResourceLimits()));
+        response.setHealthCheck(toHealthCheckDto(config.getHealthCheck()));
+        response.setRestartPolicy(toRestartPolicyDto(config.getRestartPolicy()));
+        response.setRetentionPolicy(toRetentionPolicyDto(config.getRetentionPolicy()));
+        response.setDesiredReplicas(config.getDesiredReplicas());
+        response.setRevision(config.getRevision());
         return response;
     }
 
@@ -51,13 +73,42 @@ public class ContainerConfigurationMapper {
         if (request == null || config == null) {
             return;
         }
+        int specHash = ContainerSpec.contentHash(config);
+        config.setName(request.getName());
         config.setImageName(request.getImageName());
         config.setImageTag(request.getImageTag());
         config.setCommand(request.getCommand());
         config.setPortMappings(request.getPortMappings());
+        config.setAutoPorts(request.getAutoPorts());
         config.setEnvVariables(request.getEnvVariables());
         config.setVolumeMounts(toVolumeMountList(request.getVolumeMounts()));
         config.setResourceLimits(toResourceLimits(request.getResourceLimits()));
+        config.setHealthCheck(toHealthCheckSpec(request.getHealthCheck()));
+        config.setRestartPolicy(toRestartPolicySpec(request.getRestartPolicy()));
+        config.setRetentionPolicy(toRetentionPolicySpec(request.getRetentionPolicy()));
+        config.setDesiredReplicas(request.getDesiredReplicas());
+        if (ContainerSpec.contentHash(config) != specHash) {
+            config.setRevision(config.getRevision() + 1);
+        }
+    }
+
+    // Detached copy of the configuration, e.g. to restore it later
+    public ContainerConfigurationRequest toRequest(ContainerConfiguration config) {
+        ContainerConfigurationRequest request = new ContainerConfigurationRequest();
+        request.setName(config.getName());
+        request.setImageName(config.getImageName());
+        request.setImageTag(config.getImageTag());
+        request.setCommand(config.getCommand() != null ? new ArrayList<>(config.getCommand()) : null);
+        request.setPortMappings(config.getPortMappings() != null ? new HashMap<>(config.getPortMappings()) : null);
+        request.setAutoPorts(config.getAutoPorts() != null ? new ArrayList<>(config.getAutoPorts()) : null);
+        request.setEnvVariables(config.getEnvVariables() != null ? new HashMap<>(config.getEnvVariables()) : null);
+        request.setVolumeMounts(toVolumeMountDtoList(config.getVolumeMounts()));
+        request.setResourceLimits(toResourceLimitsDto(config.getResourceLimits()));
+        request.setHealthCheck(toHealthCheckDto(config.getHealthCheck()));
+        request.setRestartPolicy(toRestartPolicyDto(config.getRestartPolicy()));
+        request.setRetentionPolicy(toRetentionPolicyDto(config.getRetentionPolicy()));
+        request.setDesiredReplicas(config.getDesiredReplicas());
+        return request;
     }
 
     private VolumeMount toVolumeMount(VolumeMountDto dto) {
@@ -117,4 +168,70 @@ public class ContainerConfigurationMapper {
         dto.setCpuCores(entity.getCpuCores());
         return dto;
     }
+
+    private HealthCheckSpec toHealthCheckSpec(HealthCheckDto dto) {
+        if (dto == null) {
+            return null;
+        }
+        HealthCheckSpec healthCheck = new HealthCheckSpec();
+        healthCheck.setTestCommand(dto.getTestCommand());
+        healthCheck.setIntervalSeconds(dto.getIntervalSeconds());
+        healthCheck.setTimeoutSeconds(dto.getTimeoutSeconds());
+        healthCheck.setRetries(dto.getRetries());
+        healthCheck.setStartPeriodSeconds(dto.getStartPeriodSeconds());
+        return healthCheck;
+    }
+
+    private HealthCheckDto toHealthCheckDto(HealthCheckSpec entity) {
+        if (entity == null || entity.getTestCommand() == null) {
+            return null;
+        }
+        HealthCheckDto dto = new HealthCheckDto();
+        dto.setTestCommand(entity.getTestCommand());
+        dto.setIntervalSeconds(entity.getIntervalSeconds());
+        dto.setTimeoutSeconds(entity.getTimeoutSeconds());
+        dto.setRetries(entity.getRetries());
+        dto.setStartPeriodSeconds(entity.getStartPeriodSeconds());
+        return dto;
+    }
+
+    private RestartPolicySpec toRestartPolicySpec(RestartPolicyDto dto) {
+        if (dto == null) {
+            return null;
+        }
+        RestartPolicySpec restartPolicy = new RestartPolicySpec();
+        restartPolicy.setType(dto.getType());
+        restartPolicy.setMaxRetries(dto.getMaxRetries());
+        return restartPolicy;
+    }
+
+    private RestartPolicyDto toRestartPolicyDto(RestartPolicySpec entity) {
+        if (entity == null || entity.getType() == null) {
+            return null;
+        }
+        RestartPolicyDto dto = new RestartPolicyDto();
+        dto.setType(entity.getType());
+        dto.setMaxRetries(entity.getMaxRetries());
+        return dto;
+    }
+
+    private RetentionPolicySpec toRetentionPolicySpec(RetentionPolicyDto dto) {
+        if (dto == null) {
+            return null;
+        }
+        RetentionPolicySpec retentionPolicy = new RetentionPolicySpec();
+        retentionPolicy.setStoppedTtlSeconds(dto.getStoppedTtlSeconds());
+        retentionPolicy.setFailedTtlSeconds(dto.getFailedTtlSeconds());
+        return retentionPolicy;
+    }
+
+    private RetentionPolicyDto toRetentionPolicyDto(RetentionPolicySpec entity) {
+        if (entity == null || (entity.getStoppedTtlSeconds() == null && entity.getFailedTtlSeconds() == null)) {
+            return null;
+        }
+        RetentionPolicyDto dto = new RetentionPolicyDto();
+        dto.setStoppedTtlSeconds(entity.getStoppedTtlSeconds());
+        dto.setFailedTtlSeconds(entity.getFailedTtlSeconds());
+        return dto;
+    }
 }
@@ -1,7 +1,10 @@
 package com.magentamause.demodockercontroller.mapper;
 
+import com.github.dockerjava.api.command.InspectContainerResponse;
 import com.magentamause.demodockercontroller.domain.ContainerInstance;
 import com.magentamause.demodockercontroller.dto.ContainerInstanceResponse;
+import com.magentamause.demodockercontroller.dto.LiveContainerStateResponse;
+import com.magentamause.demodockercontroller.state.InstanceState;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -20,11 +23,67 @@ public class ContainerInstanceMapper {
         dto.setConfigurationId(entity.getConfigurationId());
         dto.setDockerContainerId(entity.getDockerContainerId());
         dto.setStatus(entity.getStatus());
+        dto.setHealthStatus(entity.getHealthStatus());
         dto.setCreatedAt(entity.getCreatedAt());
         dto.setStartedAt(entity.getStartedAt());
+        dto.setStatusChangedAt(entity.getStatusChangedAt());
+        dto.setRestartCount(entity.getRestartCount());
+        dto.setConfigurationRevision(entity.getConfigurationRevision());
+        if (entity.getResourceLimits() != null) {
+            dto.setMemoryLimitBytes(entity.getResourceLimits().getMemoryBytes());
+            dto.setCpuLimitCores(entity.getResourceLimits().getCpuCores());
+        }
+        dto.setCrashLoopDetected(entity.isCrashLoopDetected());
+        dto.setAssignedHostPorts(entity.getAssignedHostPorts());
+        return dto;
+    }
+
+    public ContainerInstanceResponse toResponse(InstanceState state) {
+        if (state == null) {
+            return null;
+        }
+        ContainerInstanceResponse dto = new ContainerInstanceResponse();
+        dto.setId(state.id());
+        dto.setConfigurationId(state.configurationId());
+        dto.setDockerContainerId(state.dockerContainerId());
+        dto.setStatus(state.status());
+        dto.setHealthStatus(state.healthStatus());
+        dto.setCreatedAt(state.createdAt());
+        dto.setStartedAt(state.startedAt());
+        dto.setStatusChangedAt(state.statusChangedAt());
+        dto.setRestartCount(state.restartCount());
+        dto.setConfigurationRevision(state.configurationRevision());
+        dto.setMemoryLimitBytes(state.memoryLimitBytes());
+        dto.setCpuLimitCores(state.cpuLimitCores());
+        dto.setCrashLoopDetected(state.crashLoopDetected());
+        dto.setAssignedHostPorts(state.assignedHostPorts());
         return dto;
     }
 
+    public LiveContainerStateResponse toLiveStateResponse(InspectContainerResponse inspect) {
+        LiveContainerStateResponse dto = new LiveContainerStateResponse();
+        if (inspect == null || inspect.getState() == null) {
+            return dto;
+        }
+        InspectContainerResponse.ContainerState state = inspect.getState();
+        dto.setExists(true);
+        dto.setStatus(state.getStatus());
+        dto.setRunning(state.getRunning());
+        dto.setPaused(state.getPaused());
+        dto.setRestarting(state.getRestarting());
+        dto.setOomKilled(state.getOOMKilled());
+        dto.setDead(state.getDead());
+        dto.setExitCode(state.getExitCodeLong());
+        dto.setStartedAt(state.getStartedAt());
+        dto.setFinishedAt(state.getFinishedAt());
+        dto.setHealth(state.getHealth() != null ? state.getHealth().getStatus() : null);
+        return dto;
+    }
+
+    public List<ContainerInstanceResponse> toStateResponseList(List<InstanceState> states) {
+        return states.stream().map(this::toResponse).collect(Collectors.toList());
+    }
+
     public List<ContainerInstanceResponse> toResponseList(List<ContainerInstance> entities) {
         return Optional.ofNullable(entities)
                 .map(list -> list.stream()
@@ -0,0 +1,52 @@
+package com.magentamause.demodockercontroller.mapper;
+
+import com.magentamause.demodockercontroller.domain.Stack;
+import com.magentamause.demodockercontroller.domain.StackDependency;
+import com.magentamause.demodockercontroller.dto.StackRequest;
+import com.magentamause.demodockercontroller.dto.StackResponse;
+import com.magentamause.demodockercontroller.dto.StackServiceDto;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Component
+public class StackMapper {
+
+    public Stack toEntity(StackRequest request) {
+        Stack stack = new Stack();
+        stack.setName(request.getName());
+        Set<UUID> configurationIds = new HashSet<>();
+        Set<StackDependency> dependencies = new HashSet<>();
+        for (StackServiceDto service : request.getServices()) {
+            configurationIds.add(service.getConfigurationId());
+            if (service.getDependsOn() != null) {
+                service.getDependsOn().forEach(dependsOn ->
+                        dependencies.add(new StackDependency(service.getConfigurationId(), dependsOn)));
+            }
+        }
+        stack.setConfigurationIds(configurationIds);
+        stack.setDependencies(dependencies);
+        return stack;
+    }
+
+    public StackResponse toResponse(Stack stack, List<UUID> startOrder) {
+        StackResponse response = new StackResponse();
+        response.setId(stack.getId());
+        response.setName(stack.getName());
+        response.setServices(startOrder.stream().map(configurationId -> {
+            StackServiceDto service = new StackServiceDto();
+            service.setConfigurationId(configurationId);
+            service.setDependsOn(stack.getDependencies().stream()
+                    .filter(dependency -> dependency.getConfigurationId().equals(configurationId))
+                    .map(StackDependency::getDependsOnConfigurationId)
+                    .collect(Collectors.toSet()));
+            return service;
+        }).toList());
+        response.setCreatedAt(stack.getCreatedAt());
+        return response;
+    }
+}
@@ -0,0 +1,33 @@
+package com.magentamause.demodockercontroller.mapper;
+
+import com.magentamause.demodockercontroller.dto.StatusTransitionResponse;
+import com.magentamause.demodockercontroller.journal.StatusTransition;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+public class StatusTransitionMapper {
+
+    public StatusTransitionResponse toResponse(StatusTransition transition) {
+        if (transition == null) {
+            return null;
+        }
+        StatusTransitionResponse dto = new StatusTransitionResponse();
+        dto.setInstanceId(transition.instanceId());
+        dto.setConfigurationId(transition.configurationId());
+        dto.setPreviousStatus(transition.previousStatus());
+        dto.setStatus(transition.status());
+        dto.setSource(transition.source());
+        dto.setExitCode(transition.exitCode());
+        dto.setTimestamp(transition.timestamp());
+        return dto;
+    }
+
+    public List<StatusTransitionResponse> toResponseList(List<StatusTransition> transitions) {
+        return transitions.stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,63 @@
+package com.magentamause.demodockercontroller.mapper;
+
+import com.magentamause.demodockercontroller.domain.WebhookDeadLetter;
+import com.magentamause.demodockercontroller.domain.WebhookSubscription;
+import com.magentamause.demodockercontroller.dto.WebhookDeadLetterResponse;
+import com.magentamause.demodockercontroller.dto.WebhookEvent;
+import com.magentamause.demodockercontroller.dto.WebhookSubscriptionRequest;
+import com.magentamause.demodockercontroller.dto.WebhookSubscriptionResponse;
+import com.magentamause.demodockercontroller.event.ContainerStatusChangedEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.UUID;
+
+@Component
+public class WebhookMapper {
+
+    public WebhookSubscription toEntity(WebhookSubscriptionRequest request) {
+        WebhookSubscription subscription = new WebhookSubscription();
+        subscription.setUrl(request.getUrl());
+        subscription.setConfigurationId(request.getConfigurationId());
+        subscription.setStatuses(request.getStatuses() != null ? new HashSet<>(request.getStatuses()) : new HashSet<>());
+        return subscription;
+    }
+
+    public WebhookSubscriptionResponse toResponse(WebhookSubscription subscription, int pendingEvents) {
+        WebhookSubscriptionResponse response = new WebhookSubscriptionResponse();
+        response.setId(subscription.getId());
+        response.setUrl(subscription.getUrl());
+        response.setConfigurationId(subscription.getConfigurationId());
+        response.setStatuses(subscription.getStatuses());
+        response.setCreatedAt(subscription.getCreatedAt());
+        response.setPendingEvents(pendingEvents);
+        return response;
+    }
+
+    public WebhookDeadLetterResponse toResponse(WebhookDeadLetter deadLetter) {
+        WebhookDeadLetterResponse response = new WebhookDeadLetterResponse();
+        response.setId(deadLetter.getId());
+        response.setSubscriptionId(deadLetter.getSubscriptionId());
+        response.setPayload(deadLetter.getPayload());
+        response.setEventCount(deadLetter.getEventCount());
+        response.setAttempts(deadLetter.getAttempts());
+        response.setLastError(deadLetter.getLastError());
+        response.setCreatedAt(deadLetter.getCreatedAt());
+        return response;
+    }
+
+    public WebhookEvent toEvent(ContainerStatusChangedEvent event) {
+        WebhookEvent webhookEvent = new WebhookEvent();
+        webhookEvent.setEventId(UUID.randomUUID());
+        webhookEvent.setType(WebhookEvent.STATUS_CHANGED);
+        webhookEvent.setInstanceId(event.instanceId());
+        webhookEvent.setConfigurationId(event.configurationId());
+        webhookEvent.setDockerContainerId(event.dockerContainerId());
+        webhookEvent.setPreviousStatus(event.previousStatus());
+        webhookEvent.setStatus(event.status());
+        webhookEvent.setSource(event.source());
+        webhookEvent.setExitCode(event.exitCode());
+        webhookEvent.setTimestamp(event.timestamp());
+        return webhookEvent;
+    }
+}
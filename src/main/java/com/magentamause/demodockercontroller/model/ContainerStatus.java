@@ -4,5 +4,7 @@ public enum ContainerStatus {
     CREATED,
     RUNNING,
     STOPPED,
-    FAILED
+    FAILED,
+    // Processes frozen in memory; resumes where it left off
+    PAUSED
 }
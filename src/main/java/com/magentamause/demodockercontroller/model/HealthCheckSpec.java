@@ -0,0 +1,15 @@
+package com.magentamause.demodockercontroller.model;
+
+import jakarta.persistence.Embeddable;
+import lombok.Data;
+
+@Data
+@Embeddable
+public class HealthCheckSpec {
+    // Executed by the container's default shell (Docker CMD-SHELL)
+    private String testCommand;
+    private Integer intervalSeconds;
+    private Integer timeoutSeconds;
+    private Integer retries;
+    private Integer startPeriodSeconds;
+}
@@ -0,0 +1,8 @@
+package com.magentamause.demodockercontroller.model;
+
+public enum HealthStatus {
+    NONE,
+    STARTING,
+    HEALTHY,
+    UNHEALTHY
+}
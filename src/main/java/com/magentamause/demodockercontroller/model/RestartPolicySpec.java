@@ -0,0 +1,15 @@
+package com.magentamause.demodockercontroller.model;
+
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.Data;
+
+@Data
+@Embeddable
+public class RestartPolicySpec {
+    @Enumerated(EnumType.STRING)
+    private RestartPolicyType type;
+    // Only applies to ON_FAILURE; null means unlimited
+    private Integer maxRetries;
+}
@@ -0,0 +1,7 @@
+package com.magentamause.demodockercontroller.model;
+
+public enum RestartPolicyType {
+    NEVER,
+    ON_FAILURE,
+    ALWAYS
+}
@@ -0,0 +1,12 @@
+package com.magentamause.demodockercontroller.model;
+
+import jakarta.persistence.Embeddable;
+import lombok.Data;
+
+@Data
+@Embeddable
+public class RetentionPolicySpec {
+    // How long an instance may stay STOPPED or FAILED before it is collected; null uses the global default
+    private Long stoppedTtlSeconds;
+    private Long failedTtlSeconds;
+}
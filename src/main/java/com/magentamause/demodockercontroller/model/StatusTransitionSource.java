@@ -0,0 +1,10 @@
+package com.magentamause.demodockercontroller.model;
+
+public enum StatusTransitionSource {
+    API,
+    EVENT,
+    RECONCILIATION,
+    SHUTDOWN,
+    RESTART_POLICY,
+    REPLICA_CONTROLLER
+}
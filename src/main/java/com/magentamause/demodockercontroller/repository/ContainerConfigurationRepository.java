@@ -1,11 +1,33 @@
 package com.magentamause.demodockercontroller.repository;
 
 import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface ContainerConfigurationRepository extends JpaRepository<ContainerConfiguration, UUID> {
+    List<ContainerConfiguration> findByDesiredReplicasIsNotNull();
+
+    Optional<ContainerConfiguration> findByName(String name);
+
+    List<ContainerConfiguration> findByNameIn(Collection<String> names);
+
+    // Keyset pagination in ID order, for streaming through all configurations
+    List<ContainerConfiguration> findAllByOrderById(Limit limit);
+
+    List<ContainerConfiguration> findByIdGreaterThanOrderById(UUID id, Limit limit);
+
+    @Query("select c from ContainerConfiguration c "
+            + "where c.retentionPolicy.stoppedTtlSeconds is not null or c.retentionPolicy.failedTtlSeconds is not null")
+    List<ContainerConfiguration> findWithRetentionPolicy();
+
+    @Query("select distinct concat(c.imageName, ':', c.imageTag) from ContainerConfiguration c")
+    List<String> findAllImageReferences();
 }
@@ -0,0 +1,21 @@
+package com.magentamause.demodockercontroller.repository;
+
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.HealthStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Optional criteria for instance queries; null fields do not restrict the result. Ranges are inclusive at
+ * the start and exclusive at the end.
+ */
+public record ContainerInstanceFilter(
+        ContainerStatus status,
+        HealthStatus healthStatus,
+        UUID configurationId,
+        Instant createdFrom,
+        Instant createdTo,
+        Instant startedFrom,
+        Instant startedTo) {
+}
@@ -1,14 +1,26 @@
 package com.magentamause.demodockercontroller.repository;
 
 import com.magentamause.demodockercontroller.domain.ContainerInstance;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface ContainerInstanceRepository extends JpaRepository<ContainerInstance, UUID> {
+public interface ContainerInstanceRepository extends JpaRepository<ContainerInstance, UUID>,
+        JpaSpecificationExecutor<ContainerInstance> {
     List<ContainerInstance> findByConfigurationId(UUID configurationId);
     List<ContainerInstance> findByDockerContainerId(String dockerContainerId);
+    List<ContainerInstance> findByStatus(ContainerStatus status);
+
+    @Query("select key(p) from ContainerInstance i join i.assignedHostPorts p")
+    List<Integer> findAllAssignedHostPorts();
+
+    @Query("select max(i.statusChangedAt) from ContainerInstance i")
+    Instant findLatestStatusChange();
 }
@@ -0,0 +1,44 @@
+package com.magentamause.demodockercontroller.repository;
+
+import com.magentamause.demodockercontroller.domain.ContainerInstance;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Instances that have been in {@code status} since before {@code cutoff}. With a configuration ID only that
+ * configuration's instances match; without one, instances of {@code excludedConfigurationIds} (those with
+ * their own retention policy) are left out. {@code skippedIds} are instances that could not be removed earlier.
+ */
+public record ExpiredInstanceFilter(
+        ContainerStatus status,
+        Instant cutoff,
+        UUID configurationId,
+        Collection<UUID> excludedConfigurationIds,
+        Collection<UUID> skippedIds) {
+
+    public Specification<ContainerInstance> toSpecification() {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("status"), status));
+            predicates.add(cb.lessThan(root.get("statusChangedAt"), cutoff));
+            if (configurationId != null) {
+                predicates.add(cb.equal(root.get("configurationId"), configurationId));
+            } else if (!excludedConfigurationIds.isEmpty()) {
+                predicates.add(cb.or(
+                        cb.isNull(root.get("configurationId")),
+                        cb.not(root.get("configurationId").in(excludedConfigurationIds))));
+            }
+            if (!skippedIds.isEmpty()) {
+                predicates.add(cb.not(root.get("id").in(skippedIds)));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
@@ -0,0 +1,14 @@
+package com.magentamause.demodockercontroller.repository;
+
+import com.magentamause.demodockercontroller.domain.ManagedImage;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface ManagedImageRepository extends JpaRepository<ManagedImage, String> {
+    List<ManagedImage> findByLastReferencedAtBeforeOrderByLastReferencedAt(Instant cutoff, Limit limit);
+}
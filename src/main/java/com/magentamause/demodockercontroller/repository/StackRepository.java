@@ -0,0 +1,17 @@
+package com.magentamause.demodockercontroller.repository;
+
+import com.magentamause.demodockercontroller.domain.Stack;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface StackRepository extends JpaRepository<Stack, UUID> {
+    Optional<Stack> findByName(String name);
+
+    @Query("select count(s) > 0 from Stack s join s.configurationIds c where c = :configurationId")
+    boolean existsByConfigurationId(UUID configurationId);
+}
@@ -0,0 +1,21 @@
+package com.magentamause.demodockercontroller.repository;
+
+import com.magentamause.demodockercontroller.domain.WebhookDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface WebhookDeadLetterRepository extends JpaRepository<WebhookDeadLetter, UUID> {
+    List<WebhookDeadLetter> findBySubscriptionIdOrderByCreatedAt(UUID subscriptionId);
+
+    @Modifying
+    @Transactional
+    @Query("delete from WebhookDeadLetter d where d.subscriptionId = :subscriptionId")
+    void deleteBySubscriptionId(UUID subscriptionId);
+}
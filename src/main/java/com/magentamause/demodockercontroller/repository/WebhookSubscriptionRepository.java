@@ -0,0 +1,11 @@
+package com.magentamause.demodockercontroller.repository;
+
+import com.magentamause.demodockercontroller.domain.WebhookSubscription;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface WebhookSubscriptionRepository extends JpaRepository<WebhookSubscription, UUID> {
+}
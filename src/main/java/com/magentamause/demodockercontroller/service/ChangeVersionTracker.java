@@ -0,0 +1,71 @@
+package com.magentamause.demodockercontroller.service;
+
+import com.magentamause.demodockercontroller.event.ConfigurationChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonically increasing change versions for instances and configurations, used as ETags for the list
+ * endpoints. Versions are bumped after commit so a client can never cache uncommitted data under a new ETag.
+ * Versions restart at 0 on every boot, so ETags also carry a random per-boot epoch; otherwise a tag cached
+ * before a restart could match a different state after it.
+ */
+@Service
+public class ChangeVersionTracker {
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final AtomicLong instanceVersion = new AtomicLong();
+    private final AtomicLong configurationVersion = new AtomicLong();
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public long getInstanceVersion() {
+        return instanceVersion.get();
+    }
+
+    public long getConfigurationVersion() {
+        return configurationVersion.get();
+    }
+
+    public void instancesChanged() {
+        afterCommit(instanceVersion);
+    }
+
+    /**
+     * Bumps the instance version right away, for callers that already run after commit and have applied the
+     * change to the fleet state table, so the new ETag is never served with the old data.
+     */
+    public void instancesCommitted() {
+        instanceVersion.incrementAndGet();
+    }
+
+    public void configurationsChanged() {
+        afterCommit(configurationVersion);
+    }
+
+    // Element collection changes do not always surface as entity updates
+    @EventListener
+    public void onConfigurationChanged(ConfigurationChangedEvent event) {
+        configurationsChanged();
+    }
+
+    private void afterCommit(AtomicLong version) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+        } else {
+            version.incrementAndGet();
+        }
+    }
+}
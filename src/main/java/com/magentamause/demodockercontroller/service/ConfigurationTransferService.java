@@ -0,0 +1,236 @@
+package com.magentamause.demodockercontroller.service;
+
+import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
+import com.magentamause.demodockercontroller.dto.ConfigurationImportError;
+import com.magentamause.demodockercontroller.dto.ConfigurationImportResponse;
+import com.magentamause.demodockercontroller.dto.ContainerConfigurationRequest;
+import com.magentamause.demodockercontroller.event.ConfigurationChangedEvent;
+import com.magentamause.demodockercontroller.mapper.ContainerConfigurationMapper;
+import com.magentamause.demodockercontroller.repository.ContainerConfigurationRepository;
+import com.magentamause.demodockercontroller.util.BoundedLineReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import and export of configurations as NDJSON (one configuration per line). Both directions stream:
+ * export pages through the table by ID, and import parses, validates and persists the input in batches,
+ * one transaction per batch, so neither side ever holds more than a batch in memory.
+ */
+@Service
+public class ConfigurationTransferService {
+
+    private static final Logger log = LoggerFactory.getLogger(ConfigurationTransferService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final ContainerConfigurationRepository configRepository;
+    private final ContainerConfigurationMapper configMapper;
+    private final Validator validator;
+    private final JsonMapper jsonMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final int importBatchSize;
+    private final int maxLineLength;
+    private final int exportPageSize;
+
+    public ConfigurationTransferService(ContainerConfigurationRepository configRepository,
+                                        ContainerConfigurationMapper configMapper,
+                                        Validator validator,
+                                        JsonMapper jsonMapper,
+                                        ApplicationEventPublisher eventPublisher,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${docker.configurations.import.batch-size:500}") int importBatchSize,
+                                        @Value("${docker.configurations.import.max-line-length:1048576}") int maxLineLength,
+                                        @Value("${docker.configurations.export.page-size:500}") int exportPageSize) {
+        this.configRepository = configRepository;
+        this.configMapper = configMapper;
+        this.validator = validator;
+        this.jsonMapper = jsonMapper;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.importBatchSize = importBatchSize;
+        this.maxLineLength = maxLineLength;
+        this.exportPageSize = exportPageSize;
+    }
+
+    public void exportConfigurations(OutputStream out) throws IOException {
+        UUID lastId = null;
+        ExportPage page;
+        do {
+            UUID afterId = lastId;
+            // Encoded inside the transaction: responses share the entities' lazy collections, which load in a
+            // few batched queries per page
+            page = Objects.requireNonNull(readOnlyTransactionTemplate.execute(status -> encodePage(afterId)));
+            out.write(page.ndjson());
+            out.flush();
+            lastId = page.lastId();
+        } while (page.size() == exportPageSize);
+    }
+
+    private ExportPage encodePage(UUID afterId) {
+        List<ContainerConfiguration> configurations = afterId == null
+                ? configRepository.findAllByOrderById(Limit.of(exportPageSize))
+                : configRepository.findByIdGreaterThanOrderById(afterId, Limit.of(exportPageSize));
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        for (ContainerConfiguration configuration : configurations) {
+            buffer.writeBytes(jsonMapper.writeValueAsBytes(configMapper.toResponse(configuration)));
+            buffer.write('\n');
+        }
+        UUID lastId = configurations.isEmpty() ? afterId : configurations.getLast().getId();
+        return new ExportPage(buffer.toByteArray(), configurations.size(), lastId);
+    }
+
+    /**
+     * Imports configurations from NDJSON. Invalid lines are reported and skipped without affecting other lines.
+     * Configurations with a name that already exists are updated if {@code upsert} is set, and rejected otherwise.
+     */
+    public ConfigurationImportResponse importConfigurations(InputStream in, boolean upsert) throws IOException {
+        ConfigurationImportResponse result = new ConfigurationImportResponse();
+        BoundedLineReader reader = new BoundedLineReader(
+                new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), maxLineLength);
+        List<ImportRecord> batch = new ArrayList<>(importBatchSize);
+        BoundedLineReader.Line line;
+        while ((line = reader.readLine()) != null) {
+            if (line.tooLong()) {
+                fail(result, line.number(), "Line exceeds " + maxLineLength + " characters.");
+                continue;
+            }
+            if (line.text().isBlank()) {
+                continue;
+            }
+            ContainerConfigurationRequest request;
+            try {
+                request = jsonMapper.readValue(line.text(), ContainerConfigurationRequest.class);
+            } catch (JacksonException e) {
+                fail(result, line.number(), "Malformed configuration: " + e.getOriginalMessage());
+                continue;
+            }
+            Set<ConstraintViolation<ContainerConfigurationRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                fail(result, line.number(), violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                continue;
+            }
+            batch.add(new ImportRecord(line.number(), request));
+            if (batch.size() == importBatchSize) {
+                persist(batch, upsert, result);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            persist(batch, upsert, result);
+        }
+        log.info("Imported configurations: {} created, {} updated, {} failed.", result.getCreated(), result.getUpdated(), result.getFailed());
+        return result;
+    }
+
+    private void persist(List<ImportRecord> batch, boolean upsert, ConfigurationImportResponse result) {
+        BatchOutcome outcome;
+        try {
+            outcome = transactionTemplate.execute(status -> saveBatch(batch, upsert));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                fail(result, batch.getFirst().line(), "Failed to save configuration: " + e.getMessage());
+                return;
+            }
+            // Retry one by one so the failure is attributed to its line and the rest of the batch still lands
+            log.debug("Import batch of {} configurations failed, retrying individually: {}", batch.size(), e.getMessage());
+            for (ImportRecord record : batch) {
+                persist(List.of(record), upsert, result);
+            }
+            return;
+        }
+        result.setCreated(result.getCreated() + outcome.created());
+        result.setUpdated(result.getUpdated() + outcome.updated());
+        outcome.errors().forEach(error -> fail(result, error.getLine(), error.getMessage()));
+    }
+
+    private BatchOutcome saveBatch(List<ImportRecord> batch, boolean upsert) {
+        List<String> names = batch.stream()
+                .map(record -> record.request().getName())
+                .filter(Objects::nonNull)
+                .toList();
+        Map<String, ContainerConfiguration> byName = new HashMap<>();
+        if (!names.isEmpty()) {
+            configRepository.findByNameIn(names).forEach(configuration -> byName.put(configuration.getName(), configuration));
+        }
+
+        List<ContainerConfiguration> changed = new ArrayList<>();
+        List<ConfigurationImportError> errors = new ArrayList<>();
+        int created = 0;
+        int updated = 0;
+        for (ImportRecord record : batch) {
+            String name = record.request().getName();
+            ContainerConfiguration existing = name != null ? byName.get(name) : null;
+            if (existing != null && !upsert) {
+                errors.add(new ConfigurationImportError(record.line(), "A configuration named '" + name + "' already exists."));
+            } else if (existing != null) {
+                configMapper.updateEntityFromRequest(record.request(), existing);
+                if (!changed.contains(existing)) {
+                    changed.add(existing);
+                }
+                updated++;
+            } else {
+                ContainerConfiguration configuration = configMapper.toEntity(record.request());
+                if (name != null) {
+                    byName.put(name, configuration);
+                }
+                changed.add(configuration);
+                created++;
+            }
+        }
+        for (ContainerConfiguration configuration : configRepository.saveAll(changed)) {
+            eventPublisher.publishEvent(new ConfigurationChangedEvent(configuration.getId(), false));
+        }
+        return new BatchOutcome(created, updated, errors);
+    }
+
+    private void fail(ConfigurationImportResponse result, long line, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new ConfigurationImportError(line, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private record ImportRecord(long line, ContainerConfigurationRequest request) {
+    }
+
+    private record ExportPage(byte[] ndjson, int size, UUID lastId) {
+    }
+
+    private record BatchOutcome(int created, int updated, List<ConfigurationImportError> errors) {
+    }
+}
@@ -0,0 +1,92 @@
+package com.magentamause.demodockercontroller.service;
+
+import com.magentamause.demodockercontroller.domain.ContainerInstance;
+import com.magentamause.demodockercontroller.exception.ResourceNotFoundException;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.service.docker.DockerService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+
+/**
+ * Copies tar archives into and out of instance containers. Archives are passed through as streams between
+ * the HTTP body and the Docker connection; nothing is spooled to disk or buffered beyond a copy buffer.
+ */
+@Service
+public class ContainerArchiveService {
+
+    private final ContainerInstanceRepository containerInstanceRepository;
+    private final DockerService dockerService;
+    private final Counter bytesIn;
+    private final Counter bytesOut;
+
+    public ContainerArchiveService(ContainerInstanceRepository containerInstanceRepository,
+                                   DockerService dockerService,
+                                   MeterRegistry meterRegistry) {
+        this.containerInstanceRepository = containerInstanceRepository;
+        this.dockerService = dockerService;
+        this.bytesIn = Counter.builder("container.archive.bytes")
+                .description("Archive bytes copied into and out of containers")
+                .tag("direction", "in")
+                .register(meterRegistry);
+        this.bytesOut = Counter.builder("container.archive.bytes")
+                .description("Archive bytes copied into and out of containers")
+                .tag("direction", "out")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a tar stream of {@code path} in the instance's container. The caller must close it.
+     */
+    public InputStream openArchive(UUID instanceId, String path) {
+        String containerId = dockerContainerId(instanceId);
+        return new CountingInputStream(dockerService.copyArchiveFromContainer(containerId, path), bytesOut);
+    }
+
+    public void extractArchive(UUID instanceId, String path, InputStream tarStream) {
+        String containerId = dockerContainerId(instanceId);
+        dockerService.copyArchiveToContainer(containerId, path, new CountingInputStream(tarStream, bytesIn));
+    }
+
+    // Archives can be copied from and to stopped containers as well, so only the container must exist
+    private String dockerContainerId(UUID instanceId) {
+        ContainerInstance instance = containerInstanceRepository.findById(instanceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Container instance not found: " + instanceId));
+        if (instance.getDockerContainerId() == null) {
+            throw new IllegalStateException("Docker container ID is missing for instance: " + instanceId);
+        }
+        return instance.getDockerContainerId();
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private final Counter counter;
+
+        private CountingInputStream(InputStream in, Counter counter) {
+            super(in);
+            this.counter = counter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                counter.increment();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                counter.increment(read);
+            }
+            return read;
+        }
+    }
+}
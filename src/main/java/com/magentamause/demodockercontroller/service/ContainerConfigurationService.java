@@ -1,9 +1,15 @@
 package com.magentamause.demodockercontroller.service;
 
 import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
+import com.magentamause.demodockercontroller.dto.ContainerConfigurationRequest;
+import com.magentamause.demodockercontroller.event.ConfigurationChangedEvent;
+import com.magentamause.demodockercontroller.exception.ResourceNotFoundException;
+import com.magentamause.demodockercontroller.mapper.ContainerConfigurationMapper;
 import com.magentamause.demodockercontroller.repository.ContainerConfigurationRepository;
 import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.repository.StackRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,10 +23,41 @@ public class ContainerConfigurationService {
 
     private final ContainerConfigurationRepository configRepository;
     private final ContainerInstanceRepository instanceRepository;
+    private final StackRepository stackRepository;
+    private final ContainerConfigurationMapper configMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public ContainerConfiguration saveConfiguration(ContainerConfiguration configuration) {
-        return configRepository.save(configuration);
+        checkNameIsFree(configuration.getName(), configuration.getId());
+        ContainerConfiguration savedConfiguration = configRepository.save(configuration);
+        eventPublisher.publishEvent(new ConfigurationChangedEvent(savedConfiguration.getId(), false));
+        return savedConfiguration;
+    }
+
+    /**
+     * Replaces the configuration with the request. Its revision is bumped if the container spec changed; existing
+     * instances are left as they are.
+     */
+    @Transactional
+    public ContainerConfiguration updateConfiguration(UUID id, ContainerConfigurationRequest request) {
+        ContainerConfiguration configuration = configRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Configuration not found: " + id));
+        checkNameIsFree(request.getName(), id);
+        configMapper.updateEntityFromRequest(request, configuration);
+        ContainerConfiguration savedConfiguration = configRepository.save(configuration);
+        eventPublisher.publishEvent(new ConfigurationChangedEvent(id, false));
+        return savedConfiguration;
+    }
+
+    private void checkNameIsFree(String name, UUID id) {
+        if (name != null) {
+            configRepository.findByName(name)
+                    .filter(existing -> !existing.getId().equals(id))
+                    .ifPresent(existing -> {
+                        throw new IllegalStateException("A configuration named '" + name + "' already exists.");
+                    });
+        }
     }
 
     @Transactional(readOnly = true)
@@ -33,12 +70,26 @@ public class ContainerConfigurationService {
         return configRepository.findAll();
     }
 
+    @Transactional
+    public ContainerConfiguration updateDesiredReplicas(UUID id, Integer desiredReplicas) {
+        ContainerConfiguration configuration = configRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Configuration not found: " + id));
+        configuration.setDesiredReplicas(desiredReplicas);
+        ContainerConfiguration savedConfiguration = configRepository.save(configuration);
+        eventPublisher.publishEvent(new ConfigurationChangedEvent(id, false));
+        return savedConfiguration;
+    }
+
     @Transactional
     public void deleteConfiguration(UUID id) {
         // Check if there are active containers for this configuration
         if (!instanceRepository.findByConfigurationId(id).isEmpty()) {
             throw new IllegalStateException("Cannot delete configuration with active container instances.");
         }
+        if (stackRepository.existsByConfigurationId(id)) {
+            throw new IllegalStateException("Cannot delete configuration that is part of a stack.");
+        }
         configRepository.deleteById(id);
+        eventPublisher.publishEvent(new ConfigurationChangedEvent(id, true));
     }
 }
@@ -4,17 +4,31 @@ import com.github.dockerjava.api.command.InspectContainerResponse;
 import com.github.dockerjava.api.model.Container;
 import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
 import com.magentamause.demodockercontroller.domain.ContainerInstance;
+import com.magentamause.demodockercontroller.event.ContainerDeletedEvent;
+import com.magentamause.demodockercontroller.exception.ResourceNotFoundException;
 import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.HealthStatus;
+import com.magentamause.demodockercontroller.model.ResourceLimits;
+import com.magentamause.demodockercontroller.model.StatusTransitionSource;
+import com.magentamause.demodockercontroller.repository.ContainerConfigurationRepository;
 import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.service.docker.ContainerInspectCache;
+import com.magentamause.demodockercontroller.service.docker.ContainerSpecCache;
 import com.magentamause.demodockercontroller.service.docker.DockerService;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -26,47 +40,98 @@ public class ContainerLifecycleService {
 
     private final DockerService dockerService;
     private final ContainerInstanceRepository containerInstanceRepository;
+    private final ContainerConfigurationRepository configRepository;
+    private final ContainerSpecCache containerSpecCache;
+    private final ContainerInspectCache containerInspectCache;
+    private final StatusTransitionService statusTransitionService;
+    private final HostPortAllocator hostPortAllocator;
+    private final ExpectedExits expectedExits;
+    private final ApplicationEventPublisher eventPublisher;
 
+    /**
+     * Creates an instance of the configuration loaded within this transaction, for callers that run outside of a
+     * request and would otherwise hold a detached configuration with uninitialized collections.
+     */
     @Transactional
+    @Observed(name = "container.lifecycle", contextualName = "lifecycle create")
+    public ContainerInstance createContainer(UUID configurationId) {
+        ContainerConfiguration config = configRepository.findById(configurationId)
+                .orElseThrow(() -> new ResourceNotFoundException("Configuration not found: " + configurationId));
+        return createContainer(configurationId, config);
+    }
+
+    @Transactional
+    @Observed(name = "container.lifecycle", contextualName = "lifecycle create")
     public ContainerInstance createContainer(UUID configurationId, ContainerConfiguration config) {
         // TODO: Validate if config exists
         // TODO: Error handling for Docker operations
 
-        String dockerContainerId = dockerService.createContainer(
-                config.getImageName(),
-                config.getImageTag(),
-                config.getCommand(),
-                config.getPortMappings(),
-                config.getEnvVariables(),
-                config.getVolumeMounts(),
-                config.getResourceLimits()
-        );
+        Map<Integer, Integer> assignedHostPorts = config.getAutoPorts() != null && !config.getAutoPorts().isEmpty()
+                ? hostPortAllocator.allocate(config.getAutoPorts())
+                : Map.of();
+        hostPortAllocator.releaseOnRollback(assignedHostPorts.keySet());
+
+        Map<String, String> labels = assignedHostPorts.isEmpty()
+                ? Map.of()
+                : Map.of(HostPortAllocator.HOST_PORTS_LABEL, HostPortAllocator.toLabelValue(assignedHostPorts));
+
+        String dockerContainerId = dockerService.createContainer(containerSpecCache.get(config), assignedHostPorts, labels);
 
         ContainerInstance instance = new ContainerInstance();
         instance.setConfigurationId(configurationId);
         instance.setDockerContainerId(dockerContainerId);
         instance.setStatus(ContainerStatus.CREATED);
+        instance.setHealthStatus(hasHealthCheck(config) ? HealthStatus.STARTING : HealthStatus.NONE);
+        instance.setConfigurationRevision(config.getRevision());
+        instance.setResourceLimits(copyOf(config.getResourceLimits()));
         instance.setCreatedAt(Instant.now());
+        instance.setAssignedHostPorts(new HashMap<>(assignedHostPorts));
 
-        return containerInstanceRepository.save(instance);
+        ContainerInstance savedInstance = containerInstanceRepository.save(instance);
+        statusTransitionService.created(savedInstance, StatusTransitionSource.API);
+        return savedInstance;
     }
 
     @Transactional
+    @Observed(name = "container.lifecycle", contextualName = "lifecycle start")
     public ContainerInstance startContainer(UUID instanceId) {
+        return startContainer(instanceId, StatusTransitionSource.API);
+    }
+
+    @Transactional
+    @Observed(name = "container.lifecycle", contextualName = "lifecycle start")
+    public ContainerInstance startContainer(UUID instanceId, StatusTransitionSource source) {
         ContainerInstance instance = containerInstanceRepository.findById(instanceId)
                 .orElseThrow(() -> new RuntimeException("Container instance not found"));
 
         if (instance.getDockerContainerId() == null) {
             throw new IllegalStateException("Docker container ID is missing for instance: " + instanceId);
         }
+        if (instance.getStatus() == ContainerStatus.PAUSED) {
+            throw new IllegalStateException("Container instance " + instanceId + " is paused; resume it instead.");
+        }
 
+        // From here on an exit is unexpected again, even one that follows the start within milliseconds
+        expectedExits.clear(instanceId);
         dockerService.startContainer(instance.getDockerContainerId());
-        instance.setStatus(ContainerStatus.RUNNING);
+        containerInspectCache.invalidate(instance.getDockerContainerId());
+        statusTransitionService.transition(instance, ContainerStatus.RUNNING, source);
         instance.setStartedAt(Instant.now());
+        if (source == StatusTransitionSource.RESTART_POLICY) {
+            instance.setRestartCount(instance.getRestartCount() + 1);
+        } else if (source == StatusTransitionSource.API) {
+            // A manual start gives a crash-looping instance a fresh set of restart attempts
+            instance.setCrashLoopDetected(false);
+        }
+        if (instance.getHealthStatus() != null && instance.getHealthStatus() != HealthStatus.NONE) {
+            // Docker restarts health probing from scratch on every start
+            instance.setHealthStatus(HealthStatus.STARTING);
+        }
         return containerInstanceRepository.save(instance);
     }
 
     @Transactional
+    @Observed(name = "container.lifecycle", contextualName = "lifecycle stop")
     public ContainerInstance stopContainer(UUID instanceId) {
         ContainerInstance instance = containerInstanceRepository.findById(instanceId)
                 .orElseThrow(() -> new RuntimeException("Container instance not found"));
@@ -75,47 +140,134 @@ public class ContainerLifecycleService {
             throw new IllegalStateException("Docker container ID is missing for instance: " + instanceId);
         }
 
-        dockerService.stopContainer(instance.getDockerContainerId());
-        instance.setStatus(ContainerStatus.STOPPED);
+        // Docker's exit events can arrive before this transaction commits; they must not look like a crash
+        expectedExits.expect(instanceId);
+        try {
+            dockerService.stopContainer(instance.getDockerContainerId());
+        } catch (RuntimeException e) {
+            expectedExits.clear(instanceId);
+            throw e;
+        }
+        containerInspectCache.invalidate(instance.getDockerContainerId());
+        statusTransitionService.transition(instance, ContainerStatus.STOPPED, StatusTransitionSource.API);
         return containerInstanceRepository.save(instance);
     }
 
+    /**
+     * Freezes the processes of a running instance in place. Unlike a stop, memory and process state are kept,
+     * so {@link #resumeContainer} continues where the instance left off.
+     */
     @Transactional
+    @Observed(name = "container.lifecycle", contextualName = "lifecycle pause")
+    public ContainerInstance pauseContainer(UUID instanceId) {
+        ContainerInstance instance = containerInstanceRepository.findById(instanceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Container instance not found: " + instanceId));
+        if (instance.getStatus() != ContainerStatus.RUNNING || instance.getDockerContainerId() == null) {
+            throw new IllegalStateException("Only running instances can be paused; " + instanceId + " is " + instance.getStatus() + ".");
+        }
+
+        dockerService.pauseContainer(instance.getDockerContainerId());
+        containerInspectCache.invalidate(instance.getDockerContainerId());
+        statusTransitionService.transition(instance, ContainerStatus.PAUSED, StatusTransitionSource.API);
+        return containerInstanceRepository.save(instance);
+    }
+
+    @Transactional
+    @Observed(name = "container.lifecycle", contextualName = "lifecycle resume")
+    public ContainerInstance resumeContainer(UUID instanceId) {
+        ContainerInstance instance = containerInstanceRepository.findById(instanceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Container instance not found: " + instanceId));
+        if (instance.getStatus() != ContainerStatus.PAUSED || instance.getDockerContainerId() == null) {
+            throw new IllegalStateException("Only paused instances can be resumed; " + instanceId + " is " + instance.getStatus() + ".");
+        }
+
+        dockerService.unpauseContainer(instance.getDockerContainerId());
+        containerInspectCache.invalidate(instance.getDockerContainerId());
+        statusTransitionService.transition(instance, ContainerStatus.RUNNING, StatusTransitionSource.API);
+        return containerInstanceRepository.save(instance);
+    }
+
+    @Transactional
+    @Observed(name = "container.lifecycle", contextualName = "lifecycle delete")
     public void deleteContainer(UUID instanceId) {
         ContainerInstance instance = containerInstanceRepository.findById(instanceId)
                 .orElseThrow(() -> new RuntimeException("Container instance not found"));
 
         if (instance.getDockerContainerId() != null) {
-            dockerService.deleteContainer(instance.getDockerContainerId());
+            expectedExits.expect(instanceId);
+            try {
+                dockerService.deleteContainer(instance.getDockerContainerId());
+            } catch (RuntimeException e) {
+                expectedExits.clear(instanceId);
+                throw e;
+            }
+            containerInspectCache.invalidate(instance.getDockerContainerId());
         } else {
             log.warn("Container instance {} has no Docker container ID. Deleting from repository only.", instanceId);
         }
 
+        hostPortAllocator.releaseAfterCommit(new ArrayList<>(instance.getAssignedHostPorts().keySet()));
         containerInstanceRepository.delete(instance);
+        eventPublisher.publishEvent(new ContainerDeletedEvent(
+                instanceId, instance.getConfigurationId(), instance.getDockerContainerId(), instance.getStatus()));
         log.info("Deleted container instance {}.", instanceId);
     }
 
+    /**
+     * Deletes the rows of collected instances whose containers have already been removed. Instances that have
+     * left STOPPED or FAILED in the meantime are kept. Returns the number of deleted instances.
+     */
+    @Transactional
+    public int deleteCollectedInstances(Collection<UUID> instanceIds) {
+        List<ContainerInstance> instances = containerInstanceRepository.findAllById(instanceIds).stream()
+                .filter(instance -> instance.getStatus() == ContainerStatus.STOPPED || instance.getStatus() == ContainerStatus.FAILED)
+                .toList();
+        for (ContainerInstance instance : instances) {
+            hostPortAllocator.releaseAfterCommit(new ArrayList<>(instance.getAssignedHostPorts().keySet()));
+            eventPublisher.publishEvent(new ContainerDeletedEvent(
+                    instance.getId(), instance.getConfigurationId(), instance.getDockerContainerId(), instance.getStatus()));
+        }
+        containerInstanceRepository.deleteAll(instances);
+        return instances.size();
+    }
+
     @Transactional(readOnly = true)
     public Optional<ContainerInstance> getContainerInstance(UUID instanceId) {
         return containerInstanceRepository.findById(instanceId);
     }
 
-    @Transactional(readOnly = true)
-    public List<ContainerInstance> getAllContainerInstances() {
-        return containerInstanceRepository.findAll();
+    private boolean hasHealthCheck(ContainerConfiguration config) {
+        return config.getHealthCheck() != null && config.getHealthCheck().getTestCommand() != null;
+    }
+
+    // Embeddables must not be shared between entities
+    private static ResourceLimits copyOf(ResourceLimits limits) {
+        if (limits == null) {
+            return null;
+        }
+        ResourceLimits copy = new ResourceLimits();
+        copy.setMemoryBytes(limits.getMemoryBytes());
+        copy.setCpuCores(limits.getCpuCores());
+        return copy;
+    }
+
+    public InspectContainerResponse inspectLive(String dockerContainerId) {
+        return containerInspectCache.inspect(dockerContainerId);
     }
 
-    // This method will be used by reconciliation and potentially by inspect endpoint
     public ContainerStatus getDockerContainerStatus(String dockerContainerId) {
-        InspectContainerResponse inspectResponse = dockerService.inspectContainer(dockerContainerId);
+        InspectContainerResponse inspectResponse = containerInspectCache.inspect(dockerContainerId);
         if (inspectResponse == null || inspectResponse.getState() == null) {
             return ContainerStatus.FAILED; // Or some other appropriate status
         }
 
-        if (Boolean.TRUE.equals(inspectResponse.getState().getRunning())) {
+        // Paused containers also report running, so paused is checked first
+        if (Boolean.TRUE.equals(inspectResponse.getState().getPaused())) {
+            return ContainerStatus.PAUSED;
+        } else if (Boolean.TRUE.equals(inspectResponse.getState().getRestarting())) {
+            return ContainerStatus.FAILED; // Restarting containers also report running, but have exited
+        } else if (Boolean.TRUE.equals(inspectResponse.getState().getRunning())) {
             return ContainerStatus.RUNNING;
-        } else if (Boolean.TRUE.equals(inspectResponse.getState().getPaused())) {
-            return ContainerStatus.STOPPED; // Paused containers are not considered RUNNING
         } else if (Boolean.TRUE.equals(inspectResponse.getState().getDead())) {
             return ContainerStatus.FAILED; // Dead containers are failed
         } else if (Boolean.TRUE.equals(inspectResponse.getState().getOOMKilled())) {
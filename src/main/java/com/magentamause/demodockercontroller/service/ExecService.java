@@ -0,0 +1,328 @@
+package com.magentamause.demodockercontroller.service;
+
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.model.Frame;
+import com.github.dockerjava.api.model.StreamType;
+import com.magentamause.demodockercontroller.domain.ContainerInstance;
+import com.magentamause.demodockercontroller.dto.ExecRequest;
+import com.magentamause.demodockercontroller.dto.ExecResponse;
+import com.magentamause.demodockercontroller.event.ContainerDeletedEvent;
+import com.magentamause.demodockercontroller.exception.ResourceNotFoundException;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.service.docker.DockerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs one-off commands in the containers of RUNNING instances, either to completion (output buffered up to
+ * a cap) or streamed frame by frame as NDJSON. Concurrent execs are bounded per instance and globally;
+ * requests over either limit are rejected with 429 instead of queueing.
+ */
+@Service
+public class ExecService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecService.class);
+
+    private final ContainerInstanceRepository containerInstanceRepository;
+    private final DockerService dockerService;
+    private final JsonMapper jsonMapper;
+    private final Semaphore globalSlots;
+    private final Map<UUID, Semaphore> instanceSlots = new ConcurrentHashMap<>();
+    private final int maxPerInstance;
+    private final int maxOutputBytes;
+    private final int defaultTimeoutSeconds;
+    private final int maxTimeoutSeconds;
+
+    public ExecService(ContainerInstanceRepository containerInstanceRepository,
+                       DockerService dockerService,
+                       JsonMapper jsonMapper,
+                       @Value("${docker.exec.max-concurrent:16}") int maxConcurrent,
+                       @Value("${docker.exec.max-per-instance:2}") int maxPerInstance,
+                       @Value("${docker.exec.max-output-bytes:1048576}") int maxOutputBytes,
+                       @Value("${docker.exec.default-timeout-seconds:60}") int defaultTimeoutSeconds,
+                       @Value("${docker.exec.max-timeout-seconds:3600}") int maxTimeoutSeconds) {
+        this.containerInstanceRepository = containerInstanceRepository;
+        this.dockerService = dockerService;
+        this.jsonMapper = jsonMapper;
+        this.globalSlots = new Semaphore(maxConcurrent);
+        this.maxPerInstance = maxPerInstance;
+        this.maxOutputBytes = maxOutputBytes;
+        this.defaultTimeoutSeconds = defaultTimeoutSeconds;
+        this.maxTimeoutSeconds = maxTimeoutSeconds;
+    }
+
+    /**
+     * Reserves an exec slot and creates the exec in the instance's container. The slot is released by
+     * {@link #execute} or {@link #stream}, whichever consumes the prepared exec.
+     */
+    public PreparedExec prepare(UUID instanceId, ExecRequest request) {
+        ContainerInstance instance = containerInstanceRepository.findById(instanceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Container instance not found: " + instanceId));
+        if (instance.getStatus() != ContainerStatus.RUNNING || instance.getDockerContainerId() == null) {
+            throw new IllegalStateException("Container instance " + instanceId + " is not running.");
+        }
+        Semaphore slots = instanceSlots.computeIfAbsent(instanceId, id -> new Semaphore(maxPerInstance));
+        if (!slots.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Too many concurrent execs for container instance " + instanceId);
+        }
+        if (!globalSlots.tryAcquire()) {
+            slots.release();
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many concurrent execs");
+        }
+        try {
+            String execId = dockerService.createExec(instance.getDockerContainerId(), request.getCommand(),
+                    request.getEnv(), request.getWorkingDir(), request.getUser());
+            return new PreparedExec(instanceId, execId, timeoutSeconds(request), slots);
+        } catch (RuntimeException e) {
+            slots.release();
+            globalSlots.release();
+            throw e;
+        }
+    }
+
+    public ExecResponse execute(UUID instanceId, ExecRequest request) {
+        PreparedExec exec = prepare(instanceId, request);
+        long startNanos = System.nanoTime();
+        BufferingCallback output = new BufferingCallback(maxOutputBytes);
+        try {
+            dockerService.startExec(exec.execId(), output);
+            boolean completed = output.awaitCompletion(exec.timeoutSeconds(), TimeUnit.SECONDS);
+            ExecResponse response = new ExecResponse();
+            response.setTimedOut(!completed);
+            response.setExitCode(completed ? dockerService.getExecExitCode(exec.execId()) : null);
+            response.setStdout(output.stdout.toString());
+            response.setStderr(output.stderr.toString());
+            response.setStdoutTruncated(output.stdout.truncated);
+            response.setStderrTruncated(output.stderr.truncated);
+            response.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Exec interrupted", e);
+        } finally {
+            closeQuietly(output);
+            release(exec);
+        }
+    }
+
+    /**
+     * Runs a prepared exec and writes its output to {@code out} as NDJSON: one {@code {"stream":..,"data":..}}
+     * line per frame as it arrives, then a final line with the exit code (or {@code "timedOut":true}). Nothing
+     * is buffered beyond the current frame; a slow client slows down the exec's output instead.
+     */
+    public void stream(PreparedExec exec, OutputStream out) throws IOException {
+        StreamingCallback output = new StreamingCallback(out);
+        try {
+            dockerService.startExec(exec.execId(), output);
+            boolean completed = output.awaitCompletion(exec.timeoutSeconds(), TimeUnit.SECONDS);
+            if (output.writeFailure != null) {
+                throw output.writeFailure;
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            if (completed) {
+                output.writeRemainder();
+                result.put("exitCode", dockerService.getExecExitCode(exec.execId()));
+            } else {
+                result.put("timedOut", true);
+            }
+            output.writeLine(result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Exec interrupted", e);
+        } finally {
+            closeQuietly(output);
+            release(exec);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeleted(ContainerDeletedEvent event) {
+        instanceSlots.remove(event.instanceId());
+    }
+
+    private int timeoutSeconds(ExecRequest request) {
+        return request.getTimeoutSeconds() != null
+                ? Math.min(request.getTimeoutSeconds(), maxTimeoutSeconds)
+                : defaultTimeoutSeconds;
+    }
+
+    private void release(PreparedExec exec) {
+        exec.instanceSlots().release();
+        globalSlots.release();
+    }
+
+    private void closeQuietly(ResultCallback.Adapter<Frame> callback) {
+        try {
+            // Stops reading output of commands that outlived their timeout; the process itself keeps running
+            callback.close();
+        } catch (IOException e) {
+            log.debug("Failed to close exec output stream: {}", e.getMessage());
+        }
+    }
+
+    public record PreparedExec(UUID instanceId, String execId, int timeoutSeconds, Semaphore instanceSlots) {
+    }
+
+    private static final class BufferingCallback extends ResultCallback.Adapter<Frame> {
+        private final CappedBuffer stdout;
+        private final CappedBuffer stderr;
+
+        private BufferingCallback(int maxBytes) {
+            this.stdout = new CappedBuffer(maxBytes);
+            this.stderr = new CappedBuffer(maxBytes);
+        }
+
+        @Override
+        public void onNext(Frame frame) {
+            (frame.getStreamType() == StreamType.STDERR ? stderr : stdout).write(frame.getPayload());
+        }
+    }
+
+    private static final class CappedBuffer {
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private final int maxBytes;
+        private boolean truncated;
+
+        private CappedBuffer(int maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        private synchronized void write(byte[] payload) {
+            int writable = Math.min(payload.length, maxBytes - buffer.size());
+            if (writable < payload.length) {
+                truncated = true;
+            }
+            if (writable > 0) {
+                buffer.write(payload, 0, writable);
+            }
+        }
+
+        @Override
+        public synchronized String toString() {
+            byte[] bytes = buffer.toByteArray();
+            return new String(bytes, 0, truncated ? completeLength(bytes) : bytes.length, StandardCharsets.UTF_8);
+        }
+
+        // A character cut off by the cap is dropped instead of being decoded into a replacement character
+        private static int completeLength(byte[] bytes) {
+            int lead = bytes.length - 1;
+            while (lead > 0 && lead > bytes.length - 4 && (bytes[lead] & 0xC0) == 0x80) {
+                lead--;
+            }
+            if (lead < 0) {
+                return bytes.length;
+            }
+            int sequenceLength = (bytes[lead] & 0xE0) == 0xC0 ? 2
+                    : (bytes[lead] & 0xF0) == 0xE0 ? 3
+                    : (bytes[lead] & 0xF8) == 0xF0 ? 4
+                    : 1;
+            return lead + sequenceLength > bytes.length ? lead : bytes.length;
+        }
+    }
+
+    /**
+     * Decodes one output stream frame by frame. Docker splits frames at arbitrary byte offsets, so the bytes of
+     * a character split across frames are held back until the next frame completes it.
+     */
+    private static final class StreamDecoder {
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private byte[] remainder = new byte[0];
+
+        private String decode(byte[] payload, boolean endOfInput) {
+            ByteBuffer in = ByteBuffer.allocate(remainder.length + payload.length).put(remainder).put(payload).flip();
+            CharBuffer out = CharBuffer.allocate(in.remaining() + 1);
+            decoder.decode(in, out, endOfInput);
+            if (endOfInput) {
+                decoder.flush(out);
+            }
+            remainder = new byte[in.remaining()];
+            in.get(remainder);
+            return out.flip().toString();
+        }
+    }
+
+    private final class StreamingCallback extends ResultCallback.Adapter<Frame> {
+        private final OutputStream out;
+        // Not synchronized: a virtual thread blocked on the client socket inside a monitor would pin its carrier
+        private final ReentrantLock writeLock = new ReentrantLock();
+        private final StreamDecoder stdout = new StreamDecoder();
+        private final StreamDecoder stderr = new StreamDecoder();
+        private volatile IOException writeFailure;
+
+        private StreamingCallback(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void onNext(Frame frame) {
+            boolean isStderr = frame.getStreamType() == StreamType.STDERR;
+            String data = (isStderr ? stderr : stdout).decode(frame.getPayload(), false);
+            if (data.isEmpty()) {
+                return;
+            }
+            try {
+                writeData(isStderr ? "stderr" : "stdout", data);
+            } catch (IOException e) {
+                // Client went away; stop consuming output
+                writeFailure = e;
+                onComplete();
+            }
+        }
+
+        // Bytes still held back once the exec has finished belong to truncated characters
+        private void writeRemainder() throws IOException {
+            String stdoutData = stdout.decode(new byte[0], true);
+            if (!stdoutData.isEmpty()) {
+                writeData("stdout", stdoutData);
+            }
+            String stderrData = stderr.decode(new byte[0], true);
+            if (!stderrData.isEmpty()) {
+                writeData("stderr", stderrData);
+            }
+        }
+
+        private void writeData(String stream, String data) throws IOException {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("stream", stream);
+            line.put("data", data);
+            writeLine(line);
+        }
+
+        private void writeLine(Map<String, Object> line) throws IOException {
+            writeLock.lock();
+            try {
+                out.write(jsonMapper.writeValueAsBytes(line));
+                out.write('\n');
+                out.flush();
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.magentamause.demodockercontroller.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Instances that are being stopped or removed on purpose. Docker reports a deliberate stop with the same die and
+ * stop events as a crash, and those events can arrive before the stopping transaction has committed, so callers
+ * mark the instance before they call Docker. Marks are cleared when the instance is started again and expire
+ * after {@code docker.restart.expected-exit-ttl-seconds}, so a stop that never produced an event cannot hide a
+ * later crash forever.
+ */
+@Component
+public class ExpectedExits {
+
+    private final Map<UUID, Long> expiresAtNanos = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+
+    public ExpectedExits(@Value("${docker.restart.expected-exit-ttl-seconds:300}") long ttlSeconds) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    public void expect(UUID instanceId) {
+        expiresAtNanos.put(instanceId, System.nanoTime() + ttlNanos);
+    }
+
+    public void clear(UUID instanceId) {
+        expiresAtNanos.remove(instanceId);
+    }
+
+    public boolean isExpected(UUID instanceId) {
+        Long expiresAt = expiresAtNanos.get(instanceId);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (expiresAt - System.nanoTime() < 0) {
+            expiresAtNanos.remove(instanceId, expiresAt);
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,161 @@
+package com.magentamause.demodockercontroller.service;
+
+import com.magentamause.demodockercontroller.domain.ContainerInstance;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.StatusTransitionSource;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.service.docker.DockerService;
+import com.magentamause.demodockercontroller.util.ExecutorFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Service
+public class FleetShutdownService {
+
+    private static final Logger log = LoggerFactory.getLogger(FleetShutdownService.class);
+
+    // Time kept in reserve before the deadline to escalate stragglers to a kill, at most half of the deadline
+    private static final int KILL_RESERVE_SECONDS = 5;
+
+    private final ContainerInstanceRepository containerInstanceRepository;
+    private final DockerService dockerService;
+    private final StatusTransitionService statusTransitionService;
+    private final ExecutorFactory executorFactory;
+    private final boolean stopContainersOnShutdown;
+    private final int deadlineSeconds;
+    private final int parallelism;
+
+    public FleetShutdownService(ContainerInstanceRepository containerInstanceRepository,
+                                DockerService dockerService,
+                                StatusTransitionService statusTransitionService,
+                                ExecutorFactory executorFactory,
+                                @Value("${docker.shutdown.stop-containers:false}") boolean stopContainersOnShutdown,
+                                @Value("${docker.shutdown.deadline-seconds:30}") int deadlineSeconds,
+                                @Value("${docker.shutdown.parallelism:32}") int parallelism) {
+        this.containerInstanceRepository = containerInstanceRepository;
+        this.dockerService = dockerService;
+        this.statusTransitionService = statusTransitionService;
+        this.executorFactory = executorFactory;
+        this.stopContainersOnShutdown = stopContainersOnShutdown;
+        this.deadlineSeconds = deadlineSeconds;
+        this.parallelism = parallelism;
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void onContextClosed() {
+        if (!stopContainersOnShutdown) {
+            log.debug("Graceful fleet shutdown disabled; leaving managed containers running.");
+            return;
+        }
+        drainRunningContainers();
+    }
+
+    public void drainRunningContainers() {
+        long startNanos = System.nanoTime();
+        List<ContainerInstance> runningInstances = new ArrayList<>(containerInstanceRepository.findByStatus(ContainerStatus.RUNNING));
+        // Docker stops paused containers without unpausing them first
+        runningInstances.addAll(containerInstanceRepository.findByStatus(ContainerStatus.PAUSED));
+        if (runningInstances.isEmpty()) {
+            log.info("Graceful fleet shutdown: no running containers to stop.");
+            return;
+        }
+
+        // Every wait below is bounded by what is left of this one deadline
+        long deadlineNanos = startNanos + TimeUnit.SECONDS.toNanos(deadlineSeconds);
+        long killReserveNanos = Math.min(TimeUnit.SECONDS.toNanos(KILL_RESERVE_SECONDS),
+                TimeUnit.SECONDS.toNanos(deadlineSeconds) / 2);
+        long stopDeadlineNanos = deadlineNanos - killReserveNanos;
+        int stopTimeoutSeconds = (int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(stopDeadlineNanos - startNanos));
+        log.info("Graceful fleet shutdown: stopping {} running containers (stop timeout {}s, deadline {}s).",
+                runningInstances.size(), stopTimeoutSeconds, deadlineSeconds);
+
+        ExecutorService stopExecutor = executorFactory.newFixedThreadPool("fleet-shutdown",
+                Math.min(parallelism, runningInstances.size()));
+        ExecutorService killExecutor = null;
+        int stopped = 0;
+        int killed = 0;
+        int failed = 0;
+        try {
+            List<Future<?>> stops = new ArrayList<>();
+            for (ContainerInstance instance : runningInstances) {
+                stops.add(stopExecutor.submit(() ->
+                        dockerService.stopContainer(instance.getDockerContainerId(), stopTimeoutSeconds)));
+            }
+
+            List<ContainerInstance> stragglers = new ArrayList<>();
+            for (int i = 0; i < runningInstances.size(); i++) {
+                ContainerInstance instance = runningInstances.get(i);
+                try {
+                    stops.get(i).get(remaining(stopDeadlineNanos), TimeUnit.NANOSECONDS);
+                    statusTransitionService.transition(instance, ContainerStatus.STOPPED, StatusTransitionSource.SHUTDOWN);
+                    stopped++;
+                } catch (TimeoutException e) {
+                    log.warn("Container {} did not stop before the shutdown deadline. Escalating to kill.",
+                            instance.getDockerContainerId());
+                    stops.get(i).cancel(true);
+                    stragglers.add(instance);
+                } catch (ExecutionException e) {
+                    log.error("Failed to stop container {} during shutdown: {}",
+                            instance.getDockerContainerId(), e.getCause().getMessage());
+                    statusTransitionService.transition(instance, ContainerStatus.FAILED, StatusTransitionSource.SHUTDOWN);
+                    failed++;
+                }
+            }
+            // Hung stops may keep their threads despite the cancellation, so kills get threads of their own
+            stopExecutor.shutdownNow();
+
+            if (!stragglers.isEmpty()) {
+                killExecutor = executorFactory.newFixedThreadPool("fleet-shutdown-kill",
+                        Math.min(parallelism, stragglers.size()));
+                List<Future<?>> kills = new ArrayList<>();
+                for (ContainerInstance instance : stragglers) {
+                    kills.add(killExecutor.submit(() -> dockerService.killContainer(instance.getDockerContainerId())));
+                }
+                for (int i = 0; i < stragglers.size(); i++) {
+                    ContainerInstance instance = stragglers.get(i);
+                    try {
+                        kills.get(i).get(remaining(deadlineNanos), TimeUnit.NANOSECONDS);
+                        statusTransitionService.transition(instance, ContainerStatus.STOPPED, StatusTransitionSource.SHUTDOWN);
+                        killed++;
+                    } catch (TimeoutException | ExecutionException e) {
+                        log.error("Failed to kill container {} during shutdown.", instance.getDockerContainerId());
+                        kills.get(i).cancel(true);
+                        statusTransitionService.transition(instance, ContainerStatus.FAILED, StatusTransitionSource.SHUTDOWN);
+                        failed++;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Graceful fleet shutdown interrupted. Persisting statuses collected so far.");
+        } finally {
+            stopExecutor.shutdownNow();
+            if (killExecutor != null) {
+                killExecutor.shutdownNow();
+            }
+        }
+
+        // Persist all final statuses in a single batch
+        containerInstanceRepository.saveAll(runningInstances);
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        log.info("Graceful fleet shutdown completed in {} ms: {} stopped, {} killed, {} failed.",
+                elapsedMillis, stopped, killed, failed);
+    }
+
+    private static long remaining(long deadlineNanos) {
+        return Math.max(0, deadlineNanos - System.nanoTime());
+    }
+}
@@ -0,0 +1,328 @@
+package com.magentamause.demodockercontroller.service;
+
+import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
+import com.magentamause.demodockercontroller.domain.ContainerInstance;
+import com.magentamause.demodockercontroller.domain.ManagedImage;
+import com.magentamause.demodockercontroller.event.ConfigurationChangedEvent;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.RetentionPolicySpec;
+import com.magentamause.demodockercontroller.repository.ContainerConfigurationRepository;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.repository.ExpiredInstanceFilter;
+import com.magentamause.demodockercontroller.repository.ManagedImageRepository;
+import com.magentamause.demodockercontroller.service.docker.ContainerInspectCache;
+import com.magentamause.demodockercontroller.service.docker.DockerService;
+import com.magentamause.demodockercontroller.util.ExecutorFactory;
+import com.magentamause.demodockercontroller.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Removes STOPPED and FAILED instances (container and row) once they have been in that status longer than
+ * their TTL, and prunes images that no configuration references anymore. TTLs default per status and can be
+ * overridden per configuration. Each pass has a fixed budget, and every daemon call takes a permit from a
+ * low-rate token bucket, so collection trickles along in the background instead of competing with
+ * foreground operations. Runs on its own thread so waiting for permits never delays other scheduled tasks.
+ */
+@Service
+public class GarbageCollectionService {
+
+    private static final Logger log = LoggerFactory.getLogger(GarbageCollectionService.class);
+
+    private static final List<ContainerStatus> COLLECTED_STATUSES = List.of(ContainerStatus.STOPPED, ContainerStatus.FAILED);
+
+    private final ContainerConfigurationRepository configRepository;
+    private final ContainerInstanceRepository containerInstanceRepository;
+    private final ManagedImageRepository managedImageRepository;
+    private final ContainerLifecycleService containerLifecycleService;
+    private final ReconciliationService reconciliationService;
+    private final DockerService dockerService;
+    private final ContainerInspectCache containerInspectCache;
+    private final ScheduledExecutorService scheduler;
+    private final TransactionTemplate recordTransaction;
+    private final TokenBucket daemonRateLimiter;
+    private final Counter instancesCollected;
+    private final Counter imagesPruned;
+
+    private final boolean enabled;
+    private final long intervalMillis;
+    private final Duration stoppedTtl;
+    private final Duration failedTtl;
+    private final int batchSize;
+    private final int maxInstancesPerPass;
+    private final boolean imagesEnabled;
+    private final Duration imageGracePeriod;
+    private final int maxImagesPerPass;
+
+    private volatile boolean shuttingDown;
+
+    public GarbageCollectionService(ContainerConfigurationRepository configRepository,
+                                    ContainerInstanceRepository containerInstanceRepository,
+                                    ManagedImageRepository managedImageRepository,
+                                    ContainerLifecycleService containerLifecycleService,
+                                    ReconciliationService reconciliationService,
+                                    DockerService dockerService,
+                                    ContainerInspectCache containerInspectCache,
+                                    MeterRegistry meterRegistry,
+                                    ExecutorFactory executorFactory,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${docker.gc.enabled:true}") boolean enabled,
+                                    @Value("${docker.gc.interval-ms:60000}") long intervalMillis,
+                                    @Value("${docker.gc.stopped-ttl-seconds:604800}") long stoppedTtlSeconds,
+                                    @Value("${docker.gc.failed-ttl-seconds:86400}") long failedTtlSeconds,
+                                    @Value("${docker.gc.batch-size:20}") int batchSize,
+                                    @Value("${docker.gc.max-instances-per-pass:200}") int maxInstancesPerPass,
+                                    @Value("${docker.gc.daemon-operations-per-second:2}") double daemonOperationsPerSecond,
+                                    @Value("${docker.gc.images.enabled:true}") boolean imagesEnabled,
+                                    @Value("${docker.gc.images.grace-period-seconds:3600}") long imageGracePeriodSeconds,
+                                    @Value("${docker.gc.images.max-per-pass:5}") int maxImagesPerPass) {
+        this.configRepository = configRepository;
+        this.containerInstanceRepository = containerInstanceRepository;
+        this.managedImageRepository = managedImageRepository;
+        this.containerLifecycleService = containerLifecycleService;
+        this.reconciliationService = reconciliationService;
+        this.dockerService = dockerService;
+        this.containerInspectCache = containerInspectCache;
+        this.scheduler = executorFactory.newScheduledThreadPool("garbage-collection", 1);
+        // Configuration events are handled after their transaction has committed, where joining it would never flush
+        this.recordTransaction = new TransactionTemplate(transactionManager);
+        this.recordTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.intervalMillis = intervalMillis;
+        this.stoppedTtl = Duration.ofSeconds(stoppedTtlSeconds);
+        this.failedTtl = Duration.ofSeconds(failedTtlSeconds);
+        this.batchSize = batchSize;
+        this.maxInstancesPerPass = maxInstancesPerPass;
+        this.imagesEnabled = imagesEnabled;
+        this.imageGracePeriod = Duration.ofSeconds(imageGracePeriodSeconds);
+        this.maxImagesPerPass = maxImagesPerPass;
+        // Burst of one: collection never issues more than the configured rate, even after idle periods
+        this.daemonRateLimiter = new TokenBucket(daemonOperationsPerSecond, 1);
+        this.instancesCollected = Counter.builder("gc.instances.collected")
+                .description("Stopped and failed instances removed by the garbage collector")
+                .register(meterRegistry);
+        this.imagesPruned = Counter.builder("gc.images.pruned")
+                .description("Unreferenced images removed by the garbage collector")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            scheduler.scheduleWithFixedDelay(this::collect, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConfigurationChanged(ConfigurationChangedEvent event) {
+        // Recorded right away so the image of a configuration deleted before the next pass is still pruned
+        if (!event.deleted()) {
+            recordTransaction.executeWithoutResult(status -> configRepository.findById(event.configurationId())
+                    .ifPresent(configuration -> managedImageRepository.save(new ManagedImage(
+                            configuration.getImageName() + ":" + configuration.getImageTag(), Instant.now()))));
+        }
+    }
+
+    private void collect() {
+        // Statuses are not trustworthy before reconciliation has compared them with the daemon
+        if (shuttingDown || !reconciliationService.isCompleted()) {
+            return;
+        }
+        try {
+            int collected = collectInstances();
+            if (collected > 0) {
+                log.info("Garbage collection removed {} stopped or failed instances.", collected);
+            }
+        } catch (Exception e) {
+            log.error("Instance garbage collection failed: {}", e.getMessage());
+        }
+        if (!imagesEnabled) {
+            return;
+        }
+        try {
+            int pruned = pruneImages();
+            if (pruned > 0) {
+                log.info("Garbage collection pruned {} unreferenced images.", pruned);
+            }
+        } catch (Exception e) {
+            log.error("Image garbage collection failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Runs one budgeted pass over expired instances. Returns the number of collected instances.
+     */
+    public int collectInstances() {
+        Instant now = Instant.now();
+        Map<UUID, RetentionPolicySpec> overrides = configRepository.findWithRetentionPolicy().stream()
+                .collect(Collectors.toMap(ContainerConfiguration::getId, ContainerConfiguration::getRetentionPolicy));
+        Pass pass = new Pass(maxInstancesPerPass);
+        for (ContainerStatus status : COLLECTED_STATUSES) {
+            Duration defaultTtl = defaultTtl(status);
+            if (defaultTtl.isPositive()) {
+                collectExpired(pass, new ExpiredInstanceFilter(
+                        status, now.minus(defaultTtl), null, overrides.keySet(), pass.skipped));
+            }
+            for (Map.Entry<UUID, RetentionPolicySpec> override : overrides.entrySet()) {
+                Long ttlSeconds = status == ContainerStatus.STOPPED
+                        ? override.getValue().getStoppedTtlSeconds()
+                        : override.getValue().getFailedTtlSeconds();
+                Duration ttl = ttlSeconds != null ? Duration.ofSeconds(ttlSeconds) : defaultTtl;
+                if (ttl.isPositive()) {
+                    collectExpired(pass, new ExpiredInstanceFilter(
+                            status, now.minus(ttl), override.getKey(), Set.of(), pass.skipped));
+                }
+            }
+        }
+        return pass.collected;
+    }
+
+    private void collectExpired(Pass pass, ExpiredInstanceFilter filter) {
+        while (pass.remaining > 0 && !shuttingDown) {
+            List<ContainerInstance> batch = containerInstanceRepository.findBy(filter.toSpecification(), query -> query
+                    .sortBy(Sort.by("statusChangedAt"))
+                    .limit(Math.min(batchSize, pass.remaining))
+                    .all());
+            if (batch.isEmpty()) {
+                return;
+            }
+            pass.remaining -= batch.size();
+            List<UUID> removable = new ArrayList<>();
+            for (ContainerInstance instance : batch) {
+                String dockerContainerId = instance.getDockerContainerId();
+                if (dockerContainerId == null) {
+                    removable.add(instance.getId());
+                } else if (!acquirePermit()) {
+                    break;
+                } else if (removeContainer(instance)) {
+                    removable.add(instance.getId());
+                } else {
+                    // Not removable right now; keep it out of the remaining batches of this pass
+                    pass.skipped.add(instance.getId());
+                }
+            }
+            if (!removable.isEmpty()) {
+                int deleted = containerLifecycleService.deleteCollectedInstances(removable);
+                pass.collected += deleted;
+                instancesCollected.increment(deleted);
+            }
+        }
+    }
+
+    private boolean removeContainer(ContainerInstance instance) {
+        try {
+            // False if the container is running after all; its stale status is corrected by events
+            return dockerService.removeContainer(instance.getDockerContainerId());
+        } catch (Exception e) {
+            log.warn("Failed to remove container {} of instance {}: {}",
+                    instance.getDockerContainerId(), instance.getId(), e.getMessage());
+            return false;
+        } finally {
+            containerInspectCache.invalidate(instance.getDockerContainerId());
+        }
+    }
+
+    /**
+     * Refreshes the images referenced by configurations and removes managed images that have not been
+     * referenced for the grace period and are not used by any container. Returns the number of pruned images.
+     */
+    public int pruneImages() {
+        Instant now = Instant.now();
+        List<ManagedImage> referenced = configRepository.findAllImageReferences().stream()
+                .map(reference -> new ManagedImage(reference, now))
+                .toList();
+        managedImageRepository.saveAll(referenced);
+        Set<String> referencedNames = referenced.stream()
+                .map(ManagedImage::getReference)
+                .collect(Collectors.toSet());
+
+        int pruned = 0;
+        for (ManagedImage image : managedImageRepository.findByLastReferencedAtBeforeOrderByLastReferencedAt(
+                now.minus(imageGracePeriod), Limit.of(maxImagesPerPass))) {
+            if (referencedNames.contains(image.getReference())) {
+                continue;
+            }
+            if (!acquirePermit()) {
+                break;
+            }
+            try {
+                if (dockerService.removeImage(image.getReference())) {
+                    managedImageRepository.delete(image);
+                    imagesPruned.increment();
+                    pruned++;
+                }
+            } catch (Exception e) {
+                log.warn("Failed to prune image {}: {}", image.getReference(), e.getMessage());
+            }
+        }
+        return pruned;
+    }
+
+    private Duration defaultTtl(ContainerStatus status) {
+        return status == ContainerStatus.STOPPED ? stoppedTtl : failedTtl;
+    }
+
+    private boolean acquirePermit() {
+        while (!daemonRateLimiter.tryAcquire()) {
+            if (shuttingDown) {
+                return false;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(daemonRateLimiter.nanosUntilAvailable());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return !shuttingDown;
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onContextClosed() {
+        shuttingDown = true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private static final class Pass {
+        private final Set<UUID> skipped = new HashSet<>();
+        private int remaining;
+        private int collected;
+
+        private Pass(int budget) {
+            this.remaining = budget;
+        }
+    }
+}
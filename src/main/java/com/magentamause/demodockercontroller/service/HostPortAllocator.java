@@ -0,0 +1,173 @@
+package com.magentamause.demodockercontroller.service;
+
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.util.AtomicBitSet;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Hands out host ports from {@code docker.ports.range-start}..{@code docker.ports.range-end} for the
+ * {@code autoPorts} of a configuration. Free ports are tracked in a lock-free bit set; a rotating cursor
+ * spreads allocations over the range so recently released ports are not reused immediately.
+ * <p>
+ * Assigned ports are persisted per instance and recorded in a container label, so the pool is rebuilt from
+ * the database on startup and from container labels during reconciliation.
+ */
+@Service
+public class HostPortAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(HostPortAllocator.class);
+
+    // Container label holding the host port assignments, formatted as "hostPort:containerPort,..."
+    public static final String HOST_PORTS_LABEL = "demo-docker-controller.host-ports";
+
+    private final ContainerInstanceRepository containerInstanceRepository;
+    private final int rangeStart;
+    private final int rangeEnd;
+    private final AtomicBitSet usedPorts;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    public HostPortAllocator(ContainerInstanceRepository containerInstanceRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${docker.ports.range-start:30000}") int rangeStart,
+                             @Value("${docker.ports.range-end:32767}") int rangeEnd) {
+        if (rangeStart < 1 || rangeEnd > 65535 || rangeEnd < rangeStart) {
+            throw new IllegalArgumentException("Invalid host port range " + rangeStart + "-" + rangeEnd);
+        }
+        this.containerInstanceRepository = containerInstanceRepository;
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+        this.usedPorts = new AtomicBitSet(rangeEnd - rangeStart + 1);
+        Gauge.builder("host.ports.allocated", usedPorts, AtomicBitSet::cardinality)
+                .description("Host ports assigned from the automatic allocation range")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        // Seeded synchronously so no port recorded in the database is handed out before reconciliation ran
+        reserveAll(containerInstanceRepository.findAllAssignedHostPorts());
+    }
+
+    /**
+     * Assigns a host port to each given container port. Returns host port → container port, in the same
+     * shape as {@code portMappings}. All ports are released again if the range is exhausted.
+     */
+    public Map<Integer, Integer> allocate(Collection<Integer> containerPorts) {
+        Map<Integer, Integer> assigned = new LinkedHashMap<>();
+        for (Integer containerPort : containerPorts) {
+            int index = usedPorts.setNextClear(cursor.getAndIncrement());
+            if (index < 0) {
+                release(assigned.keySet());
+                throw new IllegalStateException("No free host port left in range " + rangeStart + "-" + rangeEnd);
+            }
+            cursor.set(index + 1);
+            assigned.put(rangeStart + index, containerPort);
+        }
+        return assigned;
+    }
+
+    public void release(Collection<Integer> hostPorts) {
+        for (Integer hostPort : hostPorts) {
+            if (inRange(hostPort)) {
+                usedPorts.clear(hostPort - rangeStart);
+            }
+        }
+    }
+
+    /**
+     * Releases the ports once the surrounding transaction has committed, so a rolled-back delete keeps them.
+     */
+    public void releaseAfterCommit(Collection<Integer> hostPorts) {
+        if (hostPorts.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(hostPorts);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release(hostPorts);
+            }
+        });
+    }
+
+    /**
+     * Releases the ports if the surrounding transaction rolls back, e.g. because the container could not be created.
+     */
+    public void releaseOnRollback(Collection<Integer> hostPorts) {
+        if (hostPorts.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    release(hostPorts);
+                }
+            }
+        });
+    }
+
+    /**
+     * Marks ports as in use, e.g. ports found in the database or in container labels. Ports outside the range
+     * are ignored, since they were configured as fixed mappings.
+     */
+    public void reserveAll(Collection<Integer> hostPorts) {
+        int reserved = 0;
+        for (Integer hostPort : hostPorts) {
+            if (inRange(hostPort) && usedPorts.set(hostPort - rangeStart)) {
+                reserved++;
+            }
+        }
+        if (reserved > 0) {
+            log.info("Reserved {} host ports already assigned to containers.", reserved);
+        }
+    }
+
+    public boolean isAllocated(int hostPort) {
+        return inRange(hostPort) && usedPorts.get(hostPort - rangeStart);
+    }
+
+    public static String toLabelValue(Map<Integer, Integer> hostPorts) {
+        return hostPorts.entrySet().stream()
+                .map(entry -> entry.getKey() + ":" + entry.getValue())
+                .collect(Collectors.joining(","));
+    }
+
+    public static Map<Integer, Integer> fromLabels(Map<String, String> labels) {
+        Map<Integer, Integer> hostPorts = new LinkedHashMap<>();
+        String value = labels != null ? labels.get(HOST_PORTS_LABEL) : null;
+        if (value == null || value.isBlank()) {
+            return hostPorts;
+        }
+        for (String pair : value.split(",")) {
+            String[] parts = pair.split(":");
+            try {
+                hostPorts.put(Integer.parseInt(parts[0].trim()), parts.length > 1 ? Integer.parseInt(parts[1].trim()) : null);
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring malformed host port label entry '{}'.", pair);
+            }
+        }
+        return hostPorts;
+    }
+
+    private boolean inRange(Integer hostPort) {
+        return hostPort != null && hostPort >= rangeStart && hostPort <= rangeEnd;
+    }
+}
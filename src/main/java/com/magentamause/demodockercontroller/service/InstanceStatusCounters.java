@@ -0,0 +1,132 @@
+package com.magentamause.demodockercontroller.service;
+
+import com.magentamause.demodockercontroller.dto.ContainerSummaryResponse;
+import com.magentamause.demodockercontroller.event.ContainerDeletedEvent;
+import com.magentamause.demodockercontroller.event.ContainerStatusChangedEvent;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.state.FleetStateStore;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory instance counts per status and per configuration, so summaries never hit the database. Counts
+ * follow committed status changes and deletes, and are rebuilt from the fleet state table after
+ * reconciliation. The table, not the database, is the source: event transitions reach the database only
+ * through the write-behind flush.
+ */
+@Service
+public class InstanceStatusCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(InstanceStatusCounters.class);
+
+    private static final ContainerStatus[] STATUSES = ContainerStatus.values();
+
+    private final FleetStateStore fleetStateStore;
+    // Updates share the read lock and only touch atomics; a rebuild takes the write lock to swap in new counts
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile AtomicLongArray totals = new AtomicLongArray(STATUSES.length);
+    private volatile Map<UUID, AtomicLongArray> byConfiguration = new ConcurrentHashMap<>();
+
+    public InstanceStatusCounters(FleetStateStore fleetStateStore) {
+        this.fleetStateStore = fleetStateStore;
+    }
+
+    @PostConstruct
+    public void init() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(ContainerStatusChangedEvent event) {
+        update(event.configurationId(), event.previousStatus(), event.status());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeleted(ContainerDeletedEvent event) {
+        update(event.configurationId(), event.status(), null);
+    }
+
+    private void update(UUID configurationId, ContainerStatus from, ContainerStatus to) {
+        lock.readLock().lock();
+        try {
+            AtomicLongArray configurationCounts = configurationId != null
+                    ? byConfiguration.computeIfAbsent(configurationId, id -> new AtomicLongArray(STATUSES.length))
+                    : null;
+            if (from != null) {
+                totals.decrementAndGet(from.ordinal());
+                if (configurationCounts != null) {
+                    configurationCounts.decrementAndGet(from.ordinal());
+                }
+            }
+            if (to != null) {
+                totals.incrementAndGet(to.ordinal());
+                if (configurationCounts != null) {
+                    configurationCounts.incrementAndGet(to.ordinal());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            AtomicLongArray newTotals = new AtomicLongArray(STATUSES.length);
+            Map<UUID, AtomicLongArray> newByConfiguration = new ConcurrentHashMap<>();
+            fleetStateStore.countByConfigurationAndStatus().forEach((configurationId, counts) -> {
+                AtomicLongArray configurationCounts = configurationId != null ? new AtomicLongArray(counts) : null;
+                for (int index = 0; index < counts.length; index++) {
+                    newTotals.addAndGet(index, counts[index]);
+                }
+                if (configurationCounts != null) {
+                    newByConfiguration.put(configurationId, configurationCounts);
+                }
+            });
+            totals = newTotals;
+            byConfiguration = newByConfiguration;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Rebuilt instance status counters.");
+    }
+
+    public long count(ContainerStatus status) {
+        return totals.get(status.ordinal());
+    }
+
+    public ContainerSummaryResponse getSummary() {
+        ContainerSummaryResponse summary = new ContainerSummaryResponse();
+        summary.setByStatus(toMap(totals));
+        summary.setTotal(summary.getByStatus().values().stream().mapToLong(Long::longValue).sum());
+        Map<UUID, Map<ContainerStatus, Long>> configurations = new LinkedHashMap<>();
+        byConfiguration.forEach((configurationId, counts) -> {
+            Map<ContainerStatus, Long> statusCounts = toMap(counts);
+            if (statusCounts.values().stream().anyMatch(count -> count != 0)) {
+                configurations.put(configurationId, statusCounts);
+            }
+        });
+        summary.setByConfiguration(configurations);
+        return summary;
+    }
+
+    private Map<ContainerStatus, Long> toMap(AtomicLongArray counts) {
+        Map<ContainerStatus, Long> map = new EnumMap<>(ContainerStatus.class);
+        for (ContainerStatus status : STATUSES) {
+            map.put(status, counts.get(status.ordinal()));
+        }
+        return map;
+    }
+}
@@ -2,24 +2,30 @@ package com.magentamause.demodockercontroller.service;
 
 import com.github.dockerjava.api.model.Container;
 import com.magentamause.demodockercontroller.domain.ContainerInstance;
+import com.magentamause.demodockercontroller.dto.ReconciliationStatusResponse;
 import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.StatusTransitionSource;
 import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
 import com.magentamause.demodockercontroller.service.docker.DockerService;
-import lombok.RequiredArgsConstructor;
+import com.magentamause.demodockercontroller.util.ExecutorFactory;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 public class ReconciliationService {
 
     private static final Logger log = LoggerFactory.getLogger(ReconciliationService.class);
@@ -27,55 +33,176 @@ public class ReconciliationService {
     private final ContainerInstanceRepository containerInstanceRepository;
     private final DockerService dockerService;
     private final ContainerLifecycleService containerLifecycleService;
+    private final StatusTransitionService statusTransitionService;
+    private final HostPortAllocator hostPortAllocator;
+    private final InstanceStatusCounters instanceStatusCounters;
+    private final ExecutorService executorService;
+    private final int batchSize;
+    private final long initialRetryDelayMillis;
+    private final long maxRetryDelayMillis;
+
+    private final AtomicInteger attempt = new AtomicInteger();
+    private final AtomicInteger totalInstances = new AtomicInteger();
+    private final AtomicInteger processedInstances = new AtomicInteger();
+    private volatile boolean completed;
+    private volatile Instant startedAt;
+    private volatile Instant completedAt;
+    private volatile String lastError;
+
+    public ReconciliationService(ContainerInstanceRepository containerInstanceRepository,
+                                 DockerService dockerService,
+                                 ContainerLifecycleService containerLifecycleService,
+                                 StatusTransitionService statusTransitionService,
+                                 HostPortAllocator hostPortAllocator,
+                                 InstanceStatusCounters instanceStatusCounters,
+                                 ExecutorFactory executorFactory,
+                                 @Value("${docker.reconciliation.batch-size:500}") int batchSize,
+                                 @Value("${docker.reconciliation.retry-initial-delay-ms:5000}") long initialRetryDelayMillis,
+                                 @Value("${docker.reconciliation.retry-max-delay-ms:60000}") long maxRetryDelayMillis) {
+        this.containerInstanceRepository = containerInstanceRepository;
+        this.dockerService = dockerService;
+        this.containerLifecycleService = containerLifecycleService;
+        this.statusTransitionService = statusTransitionService;
+        this.hostPortAllocator = hostPortAllocator;
+        this.instanceStatusCounters = instanceStatusCounters;
+        this.executorService = executorFactory.newSingleThreadExecutor("reconciliation");
+        this.batchSize = batchSize;
+        this.initialRetryDelayMillis = initialRetryDelayMillis;
+        this.maxRetryDelayMillis = maxRetryDelayMillis;
+    }
 
     @EventListener(ApplicationReadyEvent.class)
-    @Transactional
     public void reconcileContainersOnStartup() {
+        executorService.submit(this::reconcileWithRetry);
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public ReconciliationStatusResponse getStatus() {
+        ReconciliationStatusResponse status = new ReconciliationStatusResponse();
+        status.setCompleted(completed);
+        status.setAttempt(attempt.get());
+        status.setTotalInstances(totalInstances.get());
+        status.setProcessedInstances(processedInstances.get());
+        status.setStartedAt(startedAt);
+        status.setCompletedAt(completedAt);
+        status.setLastError(lastError);
+        return status;
+    }
+
+    private void reconcileWithRetry() {
+        startedAt = Instant.now();
+        long retryDelayMillis = initialRetryDelayMillis;
+        while (!Thread.currentThread().isInterrupted()) {
+            attempt.incrementAndGet();
+            try {
+                reconcileContainers();
+                instanceStatusCounters.rebuild();
+                lastError = null;
+                completedAt = Instant.now();
+                completed = true;
+                return;
+            } catch (Exception e) {
+                lastError = e.getMessage();
+                log.error("Container reconciliation attempt {} failed. Retrying in {} ms.", attempt.get(), retryDelayMillis, e);
+                try {
+                    Thread.sleep(retryDelayMillis);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                retryDelayMillis = Math.min(retryDelayMillis * 2, maxRetryDelayMillis);
+            }
+        }
+    }
+
+    private void reconcileContainers() {
         log.info("Starting container reconciliation on application startup.");
 
-        List<ContainerInstance> dbInstances = containerInstanceRepository.findAll();
         List<Container> dockerContainers = dockerService.listAllContainers();
+        List<ContainerInstance> dbInstances = containerInstanceRepository.findAll();
+        totalInstances.set(dbInstances.size());
+        processedInstances.set(0);
 
         Map<String, Container> dockerContainerMap = dockerContainers.stream()
                 .collect(Collectors.toMap(Container::getId, Function.identity()));
 
+        // Ports recorded in labels also cover containers whose database record is gone
+        hostPortAllocator.reserveAll(containerInstanceRepository.findAllAssignedHostPorts());
+        for (Container dockerContainer : dockerContainers) {
+            hostPortAllocator.reserveAll(HostPortAllocator.fromLabels(dockerContainer.getLabels()).keySet());
+        }
+
+        // Changes are persisted in small batches, each in its own transaction, so a large fleet
+        // never holds one long-running transaction open.
+        List<ContainerInstance> changed = new ArrayList<>();
         for (ContainerInstance dbInstance : dbInstances) {
-            String dockerContainerId = dbInstance.getDockerContainerId();
-            if (dockerContainerId == null) {
-                log.warn("Database instance {} has no Docker Container ID. Setting status to FAILED.", dbInstance.getId());
-                dbInstance.setStatus(ContainerStatus.FAILED);
-                containerInstanceRepository.save(dbInstance);
-                continue;
+            if (reconcileInstance(dbInstance, dockerContainerMap)) {
+                changed.add(dbInstance);
+            }
+            if (changed.size() >= batchSize) {
+                containerInstanceRepository.saveAll(changed);
+                changed.clear();
             }
+            processedInstances.incrementAndGet();
+        }
+        if (!changed.isEmpty()) {
+            containerInstanceRepository.saveAll(changed);
+        }
+        log.info("Container reconciliation completed for {} instances.", dbInstances.size());
+    }
 
-            if (dockerContainerMap.containsKey(dockerContainerId)) {
-                // Container exists in Docker, update status based on Docker's state
-                Container dockerContainer = dockerContainerMap.get(dockerContainerId);
-                ContainerStatus currentDockerStatus = getDockerStatus(dockerContainer);
+    private boolean reconcileInstance(ContainerInstance dbInstance, Map<String, Container> dockerContainerMap) {
+        String dockerContainerId = dbInstance.getDockerContainerId();
+        if (dockerContainerId == null) {
+            log.warn("Database instance {} has no Docker Container ID. Setting status to FAILED.", dbInstance.getId());
+            return statusTransitionService.transition(dbInstance, ContainerStatus.FAILED, StatusTransitionSource.RECONCILIATION);
+        }
 
-                if (dbInstance.getStatus() != currentDockerStatus) {
-                    log.info("Reconciling instance {}: DB status {} -> Docker status {}",
-                            dbInstance.getId(), dbInstance.getStatus(), currentDockerStatus);
-                    dbInstance.setStatus(currentDockerStatus);
-                    containerInstanceRepository.save(dbInstance);
-                }
-            } else {
-                // Container does not exist in Docker, mark as FAILED in DB if it was not already
-                if (dbInstance.getStatus() != ContainerStatus.FAILED && dbInstance.getStatus() != ContainerStatus.STOPPED) {
-                    log.warn("Docker container {} for instance {} not found. Setting DB status to FAILED.",
-                            dockerContainerId, dbInstance.getId());
-                    dbInstance.setStatus(ContainerStatus.FAILED);
-                    containerInstanceRepository.save(dbInstance);
-                }
+        if (dockerContainerMap.containsKey(dockerContainerId)) {
+            // Container exists in Docker, update status based on Docker's state
+            Container dockerContainer = dockerContainerMap.get(dockerContainerId);
+            ContainerStatus currentDockerStatus = getDockerStatus(dockerContainer);
+
+            if (dbInstance.getStatus() != currentDockerStatus) {
+                log.info("Reconciling instance {}: DB status {} -> Docker status {}",
+                        dbInstance.getId(), dbInstance.getStatus(), currentDockerStatus);
+                return statusTransitionService.transition(dbInstance, currentDockerStatus, StatusTransitionSource.RECONCILIATION);
+            }
+        } else {
+            // Container does not exist in Docker, mark as FAILED in DB if it was not already
+            if (dbInstance.getStatus() != ContainerStatus.FAILED && dbInstance.getStatus() != ContainerStatus.STOPPED) {
+                log.warn("Docker container {} for instance {} not found. Setting DB status to FAILED.",
+                        dockerContainerId, dbInstance.getId());
+                return statusTransitionService.transition(dbInstance, ContainerStatus.FAILED, StatusTransitionSource.RECONCILIATION);
             }
         }
-        log.info("Container reconciliation completed.");
+        return false;
     }
 
     private ContainerStatus getDockerStatus(Container dockerContainer) {
-        // Docker-java container status strings can be varied (e.g., "running", "exited", "created")
+        // The state is a single word; the status is a description such as "Up 2 hours (Paused)"
+        String state = dockerContainer.getState() != null ? dockerContainer.getState().toLowerCase() : "";
+        ContainerStatus fromState = switch (state) {
+            case "running" -> ContainerStatus.RUNNING;
+            case "paused" -> ContainerStatus.PAUSED;
+            case "exited" -> ContainerStatus.STOPPED;
+            case "created" -> ContainerStatus.CREATED;
+            // A restarting container has exited and is waiting out Docker's own restart delay
+            case "restarting", "dead" -> ContainerStatus.FAILED;
+            default -> null;
+        };
+        if (fromState != null) {
+            return fromState;
+        }
         String status = dockerContainer.getStatus() != null ? dockerContainer.getStatus().toLowerCase() : "";
-        if (status.contains("running")) {
+        if (status.contains("paused")) {
+            return ContainerStatus.PAUSED;
+        } else if (status.contains("restarting")) {
+            return ContainerStatus.FAILED;
+        } else if (status.contains("running")) {
             return ContainerStatus.RUNNING;
         } else if (status.contains("exited")) {
             return ContainerStatus.STOPPED;
@@ -85,4 +212,9 @@ public class ReconciliationService {
         // Fallback or more detailed inspection if needed
         return containerLifecycleService.getDockerContainerStatus(dockerContainer.getId());
     }
+
+    @PreDestroy
+    public void shutdown() {
+        executorService.shutdownNow();
+    }
 }
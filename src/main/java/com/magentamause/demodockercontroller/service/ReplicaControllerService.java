@@ -0,0 +1,242 @@
+package com.magentamause.demodockercontroller.service;
+
+import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
+import com.magentamause.demodockercontroller.domain.ContainerInstance;
+import com.magentamause.demodockercontroller.event.ConfigurationChangedEvent;
+import com.magentamause.demodockercontroller.event.ContainerStatusChangedEvent;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.StatusTransitionSource;
+import com.magentamause.demodockercontroller.repository.ContainerConfigurationRepository;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.util.ExecutorFactory;
+import com.magentamause.demodockercontroller.util.RateLimitedWorkQueue;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converges the number of RUNNING instances of each configuration with a desired replica count towards
+ * that count. Work is keyed by configuration ID on a deduplicating, rate-limited queue that is fed by
+ * status changes, configuration changes and a periodic resync, and drained by parallel workers.
+ */
+@Service
+public class ReplicaControllerService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaControllerService.class);
+
+    // Retry interval while startup reconciliation has not finished yet
+    private static final long NOT_READY_RETRY_MILLIS = 5_000;
+
+    private final ContainerConfigurationRepository configRepository;
+    private final ContainerInstanceRepository containerInstanceRepository;
+    private final ContainerLifecycleService containerLifecycleService;
+    private final ReconciliationService reconciliationService;
+    private final RolloutService rolloutService;
+    private final RestartPolicyService restartPolicyService;
+    private final RateLimitedWorkQueue<UUID> workQueue;
+    private final int workerCount;
+    private final int maxOperationsPerPass;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService delayScheduler;
+    private final Timer reconcileTimer;
+    private final Timer queueWaitTimer;
+
+    private volatile boolean shuttingDown;
+
+    public ReplicaControllerService(ContainerConfigurationRepository configRepository,
+                                    ContainerInstanceRepository containerInstanceRepository,
+                                    ContainerLifecycleService containerLifecycleService,
+                                    ReconciliationService reconciliationService,
+                                    RolloutService rolloutService,
+                                    RestartPolicyService restartPolicyService,
+                                    MeterRegistry meterRegistry,
+                                    ExecutorFactory executorFactory,
+                                    @Value("${docker.replicas.workers:4}") int workerCount,
+                                    @Value("${docker.replicas.max-operations-per-pass:10}") int maxOperationsPerPass,
+                                    @Value("${docker.replicas.retry-base-delay-ms:1000}") long retryBaseDelayMillis,
+                                    @Value("${docker.replicas.retry-max-delay-ms:60000}") long retryMaxDelayMillis,
+                                    @Value("${docker.replicas.retries-per-second:10}") double retriesPerSecond) {
+        this.configRepository = configRepository;
+        this.containerInstanceRepository = containerInstanceRepository;
+        this.containerLifecycleService = containerLifecycleService;
+        this.reconciliationService = reconciliationService;
+        this.rolloutService = rolloutService;
+        this.restartPolicyService = restartPolicyService;
+        this.delayScheduler = executorFactory.newScheduledThreadPool("replica-controller-retry", 1);
+        this.workQueue = new RateLimitedWorkQueue<>(delayScheduler, retryBaseDelayMillis, retryMaxDelayMillis, retriesPerSecond, 100);
+        this.workerCount = workerCount;
+        this.maxOperationsPerPass = maxOperationsPerPass;
+        this.workers = executorFactory.newFixedThreadPool("replica-controller", workerCount);
+        this.reconcileTimer = Timer.builder("replica.controller.reconcile")
+                .description("Time spent converging one configuration")
+                .register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("replica.controller.queue.wait")
+                .description("Time a configuration waited in the work queue")
+                .register(meterRegistry);
+        Gauge.builder("replica.controller.queue.depth", workQueue, RateLimitedWorkQueue::depth)
+                .description("Configurations waiting to be reconciled")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        for (int i = 0; i < workerCount; i++) {
+            workers.submit(this::runWorker);
+        }
+    }
+
+    public void enqueue(UUID configurationId) {
+        if (configurationId != null && !shuttingDown) {
+            workQueue.add(configurationId);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(ContainerStatusChangedEvent event) {
+        enqueue(event.configurationId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConfigurationChanged(ConfigurationChangedEvent event) {
+        if (!event.deleted()) {
+            enqueue(event.configurationId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${docker.replicas.resync-interval-ms:30000}")
+    public void resync() {
+        for (ContainerConfiguration configuration : configRepository.findByDesiredReplicasIsNotNull()) {
+            enqueue(configuration.getId());
+        }
+    }
+
+    private void runWorker() {
+        while (!Thread.currentThread().isInterrupted()) {
+            RateLimitedWorkQueue.Item<UUID> item;
+            try {
+                item = workQueue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (item == null) {
+                return;
+            }
+            UUID configurationId = item.key();
+            queueWaitTimer.record(item.queuedNanos(), TimeUnit.NANOSECONDS);
+            long start = System.nanoTime();
+            try {
+                if (!reconciliationService.isCompleted()) {
+                    workQueue.addAfter(configurationId, NOT_READY_RETRY_MILLIS);
+                } else if (reconcile(configurationId)) {
+                    workQueue.forget(configurationId);
+                } else {
+                    // Operation budget for this pass used up; continue after other configurations had their turn
+                    workQueue.add(configurationId);
+                }
+            } catch (Exception e) {
+                log.error("Failed to reconcile replicas of configuration {}: {}", configurationId, e.getMessage());
+                workQueue.addRateLimited(configurationId);
+            } finally {
+                workQueue.done(configurationId);
+                reconcileTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    // Returns true once the configuration has converged, false if more work remains
+    private boolean reconcile(UUID configurationId) {
+        if (shuttingDown) {
+            return true;
+        }
+        if (rolloutService.isActive(configurationId)) {
+            // The rollout owns the instances until it finishes, then hands the configuration back
+            return true;
+        }
+        ContainerConfiguration configuration = configRepository.findById(configurationId).orElse(null);
+        if (configuration == null || configuration.getDesiredReplicas() == null) {
+            return true;
+        }
+        int desired = configuration.getDesiredReplicas();
+        List<ContainerInstance> instances = containerInstanceRepository.findByConfigurationId(configurationId);
+        // Paused instances still count as replicas; they were suspended on purpose and resume without a start.
+        // So do instances with a restart scheduled by their restart policy, which are about to come back.
+        List<ContainerInstance> running = instances.stream()
+                .filter(instance -> instance.getStatus() == ContainerStatus.RUNNING || instance.getStatus() == ContainerStatus.PAUSED
+                        || restartPolicyService.isRestartPending(instance.getId()))
+                .sorted(Comparator.comparing(ContainerInstance::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+
+        int operations = 0;
+        if (running.size() < desired) {
+            int missing = desired - running.size();
+            List<ContainerInstance> startable = instances.stream()
+                    .filter(instance -> instance.getStatus() == ContainerStatus.CREATED || instance.getStatus() == ContainerStatus.STOPPED)
+                    .filter(instance -> !instance.isCrashLoopDetected())
+                    .filter(instance -> !restartPolicyService.isRestartPending(instance.getId()))
+                    .toList();
+            for (ContainerInstance instance : startable) {
+                if (missing == 0 || operations == maxOperationsPerPass) {
+                    break;
+                }
+                containerLifecycleService.startContainer(instance.getId(), StatusTransitionSource.REPLICA_CONTROLLER);
+                missing--;
+                operations++;
+            }
+            while (missing > 0 && operations < maxOperationsPerPass) {
+                ContainerInstance created = containerLifecycleService.createContainer(configurationId);
+                containerLifecycleService.startContainer(created.getId(), StatusTransitionSource.REPLICA_CONTROLLER);
+                missing--;
+                operations++;
+            }
+            log.info("Scaled configuration {} up towards {} replicas ({} operations).", configurationId, desired, operations);
+            return missing == 0;
+        }
+
+        if (running.size() > desired) {
+            // Remove the newest instances first so long-running replicas are kept
+            int excess = running.size() - desired;
+            for (int i = running.size() - 1; i >= 0 && excess > 0 && operations < maxOperationsPerPass; i--) {
+                containerLifecycleService.deleteContainer(running.get(i).getId());
+                excess--;
+                operations++;
+            }
+            log.info("Scaled configuration {} down towards {} replicas ({} operations).", configurationId, desired, operations);
+            return excess == 0;
+        }
+        return true;
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onContextClosed() {
+        // Do not replace containers that are being stopped during shutdown
+        shuttingDown = true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workQueue.shutDown();
+        workers.shutdownNow();
+        delayScheduler.shutdownNow();
+    }
+}
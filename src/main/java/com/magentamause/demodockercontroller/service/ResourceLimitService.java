@@ -0,0 +1,213 @@
+package com.magentamause.demodockercontroller.service;
+
+import com.github.dockerjava.api.model.Info;
+import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
+import com.magentamause.demodockercontroller.domain.ContainerInstance;
+import com.magentamause.demodockercontroller.dto.HostCapacityResponse;
+import com.magentamause.demodockercontroller.dto.ResourceLimitsDto;
+import com.magentamause.demodockercontroller.dto.ResourceUpdateError;
+import com.magentamause.demodockercontroller.dto.ResourceUpdateResponse;
+import com.magentamause.demodockercontroller.exception.ResourceNotFoundException;
+import com.magentamause.demodockercontroller.model.ResourceLimits;
+import com.magentamause.demodockercontroller.repository.ContainerConfigurationRepository;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceFilter;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.service.docker.ContainerInspectCache;
+import com.magentamause.demodockercontroller.service.docker.DockerService;
+import com.magentamause.demodockercontroller.state.FleetStateStore;
+import com.magentamause.demodockercontroller.state.FleetStateTable.CommittedResources;
+import com.magentamause.demodockercontroller.state.InstanceState;
+import com.magentamause.demodockercontroller.util.ExecutorFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Applies new resource limits to existing containers in place, without recreating them. The limits each instance
+ * runs with are persisted on the instance, so the committed capacity of the host can be summed from the fleet state.
+ */
+@Service
+public class ResourceLimitService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceLimitService.class);
+
+    // Docker refuses memory limits below 6 MiB
+    private static final long MIN_MEMORY_BYTES = 6L * 1024 * 1024;
+
+    private final ContainerInstanceRepository instanceRepository;
+    private final ContainerConfigurationRepository configRepository;
+    private final FleetStateStore fleetStateStore;
+    private final RolloutService rolloutService;
+    private final DockerService dockerService;
+    private final ContainerInspectCache containerInspectCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService workers;
+
+    private volatile Info hostInfo;
+
+    public ResourceLimitService(ContainerInstanceRepository instanceRepository,
+                                ContainerConfigurationRepository configRepository,
+                                FleetStateStore fleetStateStore,
+                                RolloutService rolloutService,
+                                DockerService dockerService,
+                                ContainerInspectCache containerInspectCache,
+                                PlatformTransactionManager transactionManager,
+                                ExecutorFactory executorFactory,
+                                MeterRegistry meterRegistry,
+                                @Value("${docker.resources.parallelism:8}") int parallelism) {
+        this.instanceRepository = instanceRepository;
+        this.configRepository = configRepository;
+        this.fleetStateStore = fleetStateStore;
+        this.rolloutService = rolloutService;
+        this.dockerService = dockerService;
+        this.containerInspectCache = containerInspectCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.workers = executorFactory.newFixedThreadPool("resource-update", parallelism);
+        Gauge.builder("host.committed.memory", fleetStateStore, store -> store.committedResources().memoryBytes())
+                .description("Sum of the memory limits of running and paused instances")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("host.committed.cpus", fleetStateStore, store -> store.committedResources().nanoCpus() / 1e9)
+                .description("Sum of the CPU limits of running and paused instances")
+                .register(meterRegistry);
+    }
+
+    public ResourceUpdateResponse updateInstance(UUID instanceId, ResourceLimitsDto limits) {
+        validate(limits);
+        InstanceState instance = fleetStateStore.get(instanceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Container instance not found: " + instanceId));
+        if (instance.dockerContainerId() == null) {
+            throw new IllegalStateException("Docker container ID is missing for instance: " + instanceId);
+        }
+        return apply(List.of(instance), limits);
+    }
+
+    /**
+     * Sets the limits of the configuration and applies them to all of its instances. The revision is kept, since
+     * the instances are updated instead of replaced; instances created later start with the new limits.
+     */
+    public ResourceUpdateResponse updateConfiguration(UUID configurationId, ResourceLimitsDto limits) {
+        validate(limits);
+        if (rolloutService.isActive(configurationId)) {
+            throw new IllegalStateException("A rollout of configuration " + configurationId + " is in progress.");
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            ContainerConfiguration configuration = configRepository.findById(configurationId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Configuration not found: " + configurationId));
+            configuration.setResourceLimits(toResourceLimits(limits));
+        });
+        List<InstanceState> instances = fleetStateStore.find(
+                        new ContainerInstanceFilter(null, null, configurationId, null, null, null, null)).stream()
+                .filter(instance -> instance.dockerContainerId() != null)
+                .toList();
+        return apply(instances, limits);
+    }
+
+    public HostCapacityResponse getCapacity() {
+        CommittedResources committed = fleetStateStore.committedResources();
+        HostCapacityResponse response = new HostCapacityResponse();
+        response.setRunningInstances(committed.runningInstances());
+        response.setCommittedMemoryBytes(committed.memoryBytes());
+        response.setCommittedCpuCores(committed.nanoCpus() / 1e9);
+        response.setInstancesWithoutMemoryLimit(committed.withoutMemoryLimit());
+        response.setInstancesWithoutCpuLimit(committed.withoutCpuLimit());
+        Info info = hostInfo();
+        if (info != null) {
+            response.setHostMemoryBytes(info.getMemTotal());
+            response.setHostCpus(info.getNCPU());
+        }
+        return response;
+    }
+
+    private ResourceUpdateResponse apply(List<InstanceState> instances, ResourceLimitsDto limits) {
+        List<CompletableFuture<ResourceUpdateError>> updates = instances.stream()
+                .map(instance -> CompletableFuture.supplyAsync(() -> {
+                    try {
+                        update(instance, limits);
+                        return null;
+                    } catch (RuntimeException e) {
+                        log.warn("Failed to update the resources of instance {}: {}", instance.id(), e.getMessage());
+                        return new ResourceUpdateError(instance.id(), e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+                    }
+                }, workers))
+                .toList();
+        List<UUID> updated = new ArrayList<>();
+        List<ResourceUpdateError> failures = new ArrayList<>();
+        for (int i = 0; i < instances.size(); i++) {
+            ResourceUpdateError failure = updates.get(i).join();
+            if (failure == null) {
+                updated.add(instances.get(i).id());
+            } else {
+                failures.add(failure);
+            }
+        }
+        ResourceUpdateResponse response = new ResourceUpdateResponse();
+        response.setResourceLimits(limits);
+        response.setUpdatedInstanceIds(updated);
+        response.setFailures(failures);
+        response.setCapacity(getCapacity());
+        return response;
+    }
+
+    private void update(InstanceState instance, ResourceLimitsDto limits) {
+        dockerService.updateContainerResources(instance.dockerContainerId(), limits.getMemoryBytes(), toNanoCpus(limits.getCpuCores()));
+        containerInspectCache.invalidate(instance.dockerContainerId());
+        transactionTemplate.executeWithoutResult(status -> {
+            ContainerInstance entity = instanceRepository.findById(instance.id())
+                    .orElseThrow(() -> new ResourceNotFoundException("Container instance not found: " + instance.id()));
+            entity.setResourceLimits(toResourceLimits(limits));
+        });
+    }
+
+    private Info hostInfo() {
+        Info info = hostInfo;
+        if (info == null) {
+            try {
+                info = dockerService.getInfo();
+                hostInfo = info;
+            } catch (RuntimeException e) {
+                log.debug("Docker host info unavailable: {}", e.getMessage());
+            }
+        }
+        return info;
+    }
+
+    private static void validate(ResourceLimitsDto limits) {
+        if (limits.getMemoryBytes() < MIN_MEMORY_BYTES) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "memoryBytes must be at least " + MIN_MEMORY_BYTES);
+        }
+        if (limits.getCpuCores() <= 0 || toNanoCpus(limits.getCpuCores()) <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "cpuCores must be positive");
+        }
+    }
+
+    private static ResourceLimits toResourceLimits(ResourceLimitsDto dto) {
+        ResourceLimits limits = new ResourceLimits();
+        limits.setMemoryBytes(dto.getMemoryBytes());
+        limits.setCpuCores(dto.getCpuCores());
+        return limits;
+    }
+
+    private static long toNanoCpus(double cpuCores) {
+        return Math.round(cpuCores * 1_000_000_000);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,285 @@
+package com.magentamause.demodockercontroller.service;
+
+import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
+import com.magentamause.demodockercontroller.event.ContainerStatusChangedEvent;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.RestartPolicySpec;
+import com.magentamause.demodockercontroller.model.RestartPolicyType;
+import com.magentamause.demodockercontroller.model.StatusTransitionSource;
+import com.magentamause.demodockercontroller.repository.ContainerConfigurationRepository;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.state.FleetStateStore;
+import com.magentamause.demodockercontroller.state.InstanceState;
+import com.magentamause.demodockercontroller.util.ExecutorFactory;
+import com.magentamause.demodockercontroller.util.TokenBucket;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Restarts instances that exit unexpectedly according to their configuration's restart policy.
+ * Restarts are delayed with exponential backoff and jitter, instances that fail too often within a
+ * window are flagged as crash-looping and left alone, and all restarts share a global rate limit.
+ */
+@Service
+public class RestartPolicyService {
+
+    private static final Logger log = LoggerFactory.getLogger(RestartPolicyService.class);
+
+    private final ContainerConfigurationRepository configRepository;
+    private final ContainerInstanceRepository containerInstanceRepository;
+    private final ContainerLifecycleService containerLifecycleService;
+    private final ExpectedExits expectedExits;
+    private final FleetStateStore fleetStateStore;
+    private final TransactionTemplate flagTransaction;
+    private final ScheduledExecutorService scheduler;
+    private final Map<UUID, RestartState> restartStates = new ConcurrentHashMap<>();
+    private final Set<UUID> pendingRestarts = ConcurrentHashMap.newKeySet();
+    private final TokenBucket restartRateLimiter;
+
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final int crashLoopThreshold;
+    private final long crashLoopWindowMillis;
+    private final long resetAfterMillis;
+
+    private volatile boolean shuttingDown;
+
+    public RestartPolicyService(ContainerConfigurationRepository configRepository,
+                                ContainerInstanceRepository containerInstanceRepository,
+                                ContainerLifecycleService containerLifecycleService,
+                                ExpectedExits expectedExits,
+                                FleetStateStore fleetStateStore,
+                                PlatformTransactionManager transactionManager,
+                                ExecutorFactory executorFactory,
+                                @Value("${docker.restart.initial-backoff-ms:1000}") long initialBackoffMillis,
+                                @Value("${docker.restart.max-backoff-ms:300000}") long maxBackoffMillis,
+                                @Value("${docker.restart.crash-loop-threshold:5}") int crashLoopThreshold,
+                                @Value("${docker.restart.crash-loop-window-seconds:600}") long crashLoopWindowSeconds,
+                                @Value("${docker.restart.reset-after-seconds:600}") long resetAfterSeconds,
+                                @Value("${docker.restart.max-restarts-per-second:2}") double maxRestartsPerSecond,
+                                @Value("${docker.restart.burst:10}") int burst) {
+        this.configRepository = configRepository;
+        this.containerInstanceRepository = containerInstanceRepository;
+        this.containerLifecycleService = containerLifecycleService;
+        this.expectedExits = expectedExits;
+        this.fleetStateStore = fleetStateStore;
+        // The flag may be written after the transaction that reported the exit has committed, where joining it would never flush
+        this.flagTransaction = new TransactionTemplate(transactionManager);
+        this.flagTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.scheduler = executorFactory.newScheduledThreadPool("restart-policy", 4);
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.crashLoopThreshold = crashLoopThreshold;
+        this.crashLoopWindowMillis = TimeUnit.SECONDS.toMillis(crashLoopWindowSeconds);
+        this.resetAfterMillis = TimeUnit.SECONDS.toMillis(resetAfterSeconds);
+        this.restartRateLimiter = new TokenBucket(maxRestartsPerSecond, burst);
+    }
+
+    // Runs before the replica controller's listener, so a restart scheduled here is seen when it counts replicas
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onStatusChanged(ContainerStatusChangedEvent event) {
+        if (shuttingDown) {
+            return;
+        }
+        if (event.source() == StatusTransitionSource.API && event.status() == ContainerStatus.RUNNING) {
+            restartStates.remove(event.instanceId());
+            return;
+        }
+        if (event.source() != StatusTransitionSource.EVENT
+                || (event.previousStatus() != ContainerStatus.RUNNING && event.previousStatus() != ContainerStatus.PAUSED)) {
+            return;
+        }
+        if (event.status() != ContainerStatus.FAILED && event.status() != ContainerStatus.STOPPED) {
+            return;
+        }
+        if (expectedExits.isExpected(event.instanceId())) {
+            log.debug("Instance {} was stopped on purpose; not restarting it.", event.instanceId());
+            return;
+        }
+
+        RestartPolicySpec policy = configRepository.findById(event.configurationId())
+                .map(ContainerConfiguration::getRestartPolicy)
+                .orElse(null);
+        if (policy == null || policy.getType() == null || policy.getType() == RestartPolicyType.NEVER) {
+            return;
+        }
+        if (policy.getType() == RestartPolicyType.ON_FAILURE && event.status() != ContainerStatus.FAILED) {
+            return;
+        }
+        handleExit(event.instanceId(), policy);
+    }
+
+    /**
+     * Whether a restart of the instance is scheduled but has not run yet. The replica controller counts such
+     * instances as replicas, so it does not replace an instance that is about to come back.
+     */
+    public boolean isRestartPending(UUID instanceId) {
+        return pendingRestarts.contains(instanceId);
+    }
+
+    private void handleExit(UUID instanceId, RestartPolicySpec policy) {
+        long now = System.currentTimeMillis();
+        RestartState state = restartStates.computeIfAbsent(instanceId, id -> new RestartState());
+        long delayMillis;
+        synchronized (state) {
+            if (state.lastRestartMillis > 0 && now - state.lastRestartMillis > resetAfterMillis) {
+                // The last restart ran long enough to count as healthy again
+                state.attempts = 0;
+                state.recentFailures.clear();
+            }
+            state.recentFailures.addLast(now);
+            while (!state.recentFailures.isEmpty() && now - state.recentFailures.peekFirst() > crashLoopWindowMillis) {
+                state.recentFailures.removeFirst();
+            }
+
+            if (state.recentFailures.size() >= crashLoopThreshold) {
+                log.warn("Instance {} failed {} times within {} s. Crash loop detected; automatic restarts suspended.",
+                        instanceId, state.recentFailures.size(), TimeUnit.MILLISECONDS.toSeconds(crashLoopWindowMillis));
+                restartStates.remove(instanceId);
+                pendingRestarts.remove(instanceId);
+                markCrashLoop(instanceId);
+                return;
+            }
+            if (policy.getType() == RestartPolicyType.ON_FAILURE && policy.getMaxRetries() != null
+                    && state.attempts >= policy.getMaxRetries()) {
+                log.warn("Instance {} reached its maximum of {} restart attempts. Giving up.", instanceId, policy.getMaxRetries());
+                restartStates.remove(instanceId);
+                pendingRestarts.remove(instanceId);
+                return;
+            }
+            delayMillis = backoffMillis(state.attempts);
+            state.attempts++;
+        }
+
+        log.info("Scheduling restart of instance {} in {} ms.", instanceId, delayMillis);
+        pendingRestarts.add(instanceId);
+        scheduler.schedule(() -> restart(instanceId, policy), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void restart(UUID instanceId, RestartPolicySpec policy) {
+        if (shuttingDown) {
+            return;
+        }
+        if (!restartRateLimiter.tryAcquire()) {
+            // Global restart budget exhausted; retry once a permit is available, spread out by jitter
+            long retryMillis = TimeUnit.NANOSECONDS.toMillis(restartRateLimiter.nanosUntilAvailable())
+                    + ThreadLocalRandom.current().nextLong(1, 1000);
+            scheduler.schedule(() -> restart(instanceId, policy), retryMillis, TimeUnit.MILLISECONDS);
+            return;
+        }
+
+        RestartState state = restartStates.get(instanceId);
+        if (!stillRestartable(instanceId)) {
+            restartStates.remove(instanceId);
+            pendingRestarts.remove(instanceId);
+            return;
+        }
+        try {
+            containerLifecycleService.startContainer(instanceId, StatusTransitionSource.RESTART_POLICY);
+            pendingRestarts.remove(instanceId);
+            if (state != null) {
+                synchronized (state) {
+                    state.lastRestartMillis = System.currentTimeMillis();
+                }
+            }
+            log.info("Restarted instance {} according to its {} restart policy.", instanceId, policy.getType());
+        } catch (Exception e) {
+            if (!containerInstanceRepository.existsById(instanceId)) {
+                restartStates.remove(instanceId);
+                pendingRestarts.remove(instanceId);
+                return;
+            }
+            log.error("Failed to restart instance {}: {}", instanceId, e.getMessage());
+            handleExit(instanceId, policy);
+        }
+    }
+
+    // The backoff leaves time for a stop, start, delete or crash-loop flag to overtake the scheduled restart. The
+    // fleet state is read rather than the database, which event transitions only reach through the write-behind.
+    private boolean stillRestartable(UUID instanceId) {
+        if (expectedExits.isExpected(instanceId)) {
+            return false;
+        }
+        InstanceState instance = fleetStateStore.get(instanceId).orElse(null);
+        if (instance == null || instance.crashLoopDetected()) {
+            return false;
+        }
+        if (instance.status() != ContainerStatus.STOPPED && instance.status() != ContainerStatus.FAILED) {
+            log.debug("Instance {} is {} again; dropping its scheduled restart.", instanceId, instance.status());
+            return false;
+        }
+        RestartPolicySpec policy = configRepository.findById(instance.configurationId())
+                .map(ContainerConfiguration::getRestartPolicy)
+                .orElse(null);
+        return policy != null && policy.getType() != null && policy.getType() != RestartPolicyType.NEVER;
+    }
+
+    // Written once the transition that reported the exit has committed, so a later save in that transaction
+    // cannot overwrite the flag. Event transitions run outside a transaction and are written right away; the
+    // entity is loaded with the status the write-behind has not persisted yet, so saving it keeps that status.
+    private void markCrashLoop(UUID instanceId) {
+        Runnable mark = () -> flagTransaction.executeWithoutResult(status ->
+                containerInstanceRepository.findById(instanceId).ifPresent(instance -> {
+                    instance.setCrashLoopDetected(true);
+                    containerInstanceRepository.save(instance);
+                }));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    mark.run();
+                }
+            });
+        } else {
+            mark.run();
+        }
+    }
+
+    private long backoffMillis(int attempts) {
+        long exponential = initialBackoffMillis << Math.min(attempts, 30);
+        long capped = Math.min(maxBackoffMillis, exponential > 0 ? exponential : maxBackoffMillis);
+        // Equal jitter: half fixed, half random, so simultaneous failures do not restart in lockstep
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onContextClosed() {
+        // Containers stopped during shutdown must not be restarted
+        shuttingDown = true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private static final class RestartState {
+        private int attempts;
+        private long lastRestartMillis;
+        private final Deque<Long> recentFailures = new ArrayDeque<>();
+    }
+}
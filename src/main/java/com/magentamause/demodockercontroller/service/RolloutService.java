@@ -0,0 +1,469 @@
+package com.magentamause.demodockercontroller.service;
+
+import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
+import com.magentamause.demodockercontroller.domain.ContainerInstance;
+import com.magentamause.demodockercontroller.dto.ContainerConfigurationRequest;
+import com.magentamause.demodockercontroller.dto.ContainerConfigurationResponse;
+import com.magentamause.demodockercontroller.dto.RolloutStatusResponse;
+import com.magentamause.demodockercontroller.dto.RolloutStatusResponse.State;
+import com.magentamause.demodockercontroller.event.ConfigurationChangedEvent;
+import com.magentamause.demodockercontroller.exception.ResourceNotFoundException;
+import com.magentamause.demodockercontroller.mapper.ContainerConfigurationMapper;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.HealthStatus;
+import com.magentamause.demodockercontroller.repository.ContainerConfigurationRepository;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceFilter;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.state.FleetStateStore;
+import com.magentamause.demodockercontroller.state.InstanceState;
+import com.magentamause.demodockercontroller.util.ExecutorFactory;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Rolls the instances of a configuration onto a new revision in batches. Each step deletes as many outdated
+ * instances as {@code maxUnavailable} allows and creates as many new ones as {@code maxSurge} allows, all in
+ * parallel, and the next step only counts new instances once they are running (and healthy, with a health check).
+ * While a rollout is active the replica controller leaves the configuration alone.
+ */
+@Service
+public class RolloutService {
+
+    private static final Logger log = LoggerFactory.getLogger(RolloutService.class);
+
+    private final ContainerConfigurationService configService;
+    private final ContainerConfigurationRepository configRepository;
+    private final ContainerInstanceRepository containerInstanceRepository;
+    private final ContainerLifecycleService lifecycleService;
+    private final FleetStateStore fleetStateStore;
+    private final ContainerConfigurationMapper configMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService coordinators;
+    private final ExecutorService workers;
+    // Latest rollout per configuration, kept after it finished so it can be inspected and rolled back
+    private final Map<UUID, Rollout> rollouts = new ConcurrentHashMap<>();
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    private final int defaultMaxSurge;
+    private final int defaultMaxUnavailable;
+    private final Duration readyTimeout;
+    private final long pollIntervalMillis;
+    private final Duration cancelTimeout;
+
+    public RolloutService(ContainerConfigurationService configService,
+                          ContainerConfigurationRepository configRepository,
+                          ContainerInstanceRepository containerInstanceRepository,
+                          ContainerLifecycleService lifecycleService,
+                          FleetStateStore fleetStateStore,
+                          ContainerConfigurationMapper configMapper,
+                          ApplicationEventPublisher eventPublisher,
+                          PlatformTransactionManager transactionManager,
+                          ExecutorFactory executorFactory,
+                          @Value("${docker.rollouts.max-surge:1}") int defaultMaxSurge,
+                          @Value("${docker.rollouts.max-unavailable:0}") int defaultMaxUnavailable,
+                          @Value("${docker.rollouts.max-concurrent:4}") int maxConcurrent,
+                          @Value("${docker.rollouts.parallelism:8}") int parallelism,
+                          @Value("${docker.rollouts.ready-timeout-seconds:120}") long readyTimeoutSeconds,
+                          @Value("${docker.rollouts.poll-interval-ms:250}") long pollIntervalMillis,
+                          @Value("${docker.rollouts.cancel-timeout-seconds:30}") long cancelTimeoutSeconds) {
+        this.configService = configService;
+        this.configRepository = configRepository;
+        this.containerInstanceRepository = containerInstanceRepository;
+        this.lifecycleService = lifecycleService;
+        this.fleetStateStore = fleetStateStore;
+        this.configMapper = configMapper;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.defaultMaxSurge = defaultMaxSurge;
+        this.defaultMaxUnavailable = defaultMaxUnavailable;
+        this.readyTimeout = Duration.ofSeconds(readyTimeoutSeconds);
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.cancelTimeout = Duration.ofSeconds(cancelTimeoutSeconds);
+        // Coordinators run one pass of a rollout at a time and reschedule it while it waits for instances or is paused;
+        // the Docker calls of a batch run on the workers
+        this.coordinators = executorFactory.newScheduledThreadPool("rollout", maxConcurrent);
+        this.workers = executorFactory.newFixedThreadPool("rollout-worker", parallelism);
+    }
+
+    /**
+     * Replaces the configuration. If {@code rollOut} is set and the container spec changed, running instances are
+     * replaced by instances of the new revision in the background.
+     */
+    public ContainerConfigurationResponse updateConfiguration(UUID id, ContainerConfigurationRequest request, boolean rollOut,
+                                                              Integer maxSurge, Integer maxUnavailable) {
+        int surge = maxSurge != null ? maxSurge : defaultMaxSurge;
+        int unavailable = maxUnavailable != null ? maxUnavailable : defaultMaxUnavailable;
+        if (rollOut && (surge < 0 || unavailable < 0 || surge + unavailable == 0)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "maxSurge and maxUnavailable must not be negative, and not both 0");
+        }
+        updateLock.lock();
+        try {
+            Rollout active = rollouts.get(id);
+            if (active != null && active.isActive()) {
+                throw new IllegalStateException("A rollout of configuration " + id + " is in progress; wait for it or roll it back.");
+            }
+            Update update = transactionTemplate.execute(status -> update(id, request));
+            if (update.toRevision() != update.fromRevision()) {
+                if (rollOut) {
+                    // Without a desired replica count, as many instances as are running now are replaced
+                    int replicas = update.desiredReplicas() != null
+                            ? update.desiredReplicas()
+                            : fleetStateStore.countByConfiguration(id, ContainerStatus.RUNNING);
+                    if (replicas > 0) {
+                        start(id, update, replicas, surge, unavailable);
+                    } else {
+                        // Nothing runs that could be replaced; stopped and paused instances keep their revision
+                        log.info("No running instances of configuration {} to roll out revision {} to.", id, update.toRevision());
+                        rollouts.remove(id);
+                    }
+                } else {
+                    // A rollback would no longer restore the spec before this update
+                    rollouts.remove(id);
+                }
+            }
+            return update.response();
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    public RolloutStatusResponse getRollout(UUID id) {
+        return toResponse(latest(id));
+    }
+
+    public RolloutStatusResponse pause(UUID id) {
+        Rollout rollout = active(id);
+        rollout.paused = true;
+        log.info("Paused rollout of configuration {} to revision {}.", id, rollout.toRevision);
+        return toResponse(rollout);
+    }
+
+    public RolloutStatusResponse resume(UUID id) {
+        Rollout rollout = active(id);
+        rollout.paused = false;
+        log.info("Resumed rollout of configuration {} to revision {}.", id, rollout.toRevision);
+        return toResponse(rollout);
+    }
+
+    /**
+     * Stops the latest rollout, restores the spec from before it as a new revision and rolls out to that. Instances
+     * that were not replaced yet already run that spec, so they are carried over instead of being replaced again.
+     */
+    public RolloutStatusResponse rollback(UUID id) {
+        Rollout rollout;
+        updateLock.lock();
+        try {
+            rollout = latest(id);
+            checkNotRolledBack(rollout);
+            rollout.cancelled = true;
+        } finally {
+            updateLock.unlock();
+        }
+        // Cancelled rollouts stay active, so no update can start while the coordinator winds down
+        try {
+            if (!rollout.exited.await(cancelTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("The rollout of configuration " + id + " did not stop within "
+                        + cancelTimeout.toSeconds() + " s; try the rollback again.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rolling back configuration " + id, e);
+        }
+        updateLock.lock();
+        try {
+            if (rollouts.get(id) != rollout) {
+                throw new IllegalStateException("The configuration " + id + " was updated while its rollout was rolled back.");
+            }
+            checkNotRolledBack(rollout);
+            Update update = transactionTemplate.execute(status -> {
+                ContainerConfiguration current = configRepository.findById(id)
+                        .orElseThrow(() -> new ResourceNotFoundException("Configuration not found: " + id));
+                ContainerConfigurationRequest previous = rollout.previous;
+                previous.setName(current.getName());
+                previous.setDesiredReplicas(current.getDesiredReplicas());
+                Update restored = update(id, previous);
+                for (ContainerInstance instance : containerInstanceRepository.findByConfigurationId(id)) {
+                    if (instance.getConfigurationRevision() == rollout.fromRevision) {
+                        instance.setConfigurationRevision(restored.toRevision());
+                        containerInstanceRepository.save(instance);
+                    }
+                }
+                return restored;
+            });
+            // The surge of the rolled back rollout is running as well, so its replica count is kept
+            Rollout back = start(id, update, rollout.replicas, rollout.maxSurge, rollout.maxUnavailable);
+            rollout.state = State.ROLLED_BACK;
+            rollout.finishedAt = Instant.now();
+            log.info("Rolling configuration {} back from revision {} as revision {}.", id, rollout.toRevision, back.toRevision);
+            return toResponse(back);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private static void checkNotRolledBack(Rollout rollout) {
+        if (rollout.state == State.ROLLED_BACK) {
+            throw new IllegalStateException("The rollout of configuration " + rollout.configurationId + " was already rolled back.");
+        }
+    }
+
+    public boolean isActive(UUID configurationId) {
+        Rollout rollout = rollouts.get(configurationId);
+        return rollout != null && rollout.isActive();
+    }
+
+    // Runs in a transaction; maps the response while the configuration's collections can still be loaded
+    private Update update(UUID id, ContainerConfigurationRequest request) {
+        ContainerConfiguration current = configRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Configuration not found: " + id));
+        ContainerConfigurationRequest previous = configMapper.toRequest(current);
+        int fromRevision = current.getRevision();
+        ContainerConfiguration updated = configService.updateConfiguration(id, request);
+        return new Update(previous, fromRevision, updated.getRevision(), updated.getDesiredReplicas(), configMapper.toResponse(updated));
+    }
+
+    private Rollout start(UUID id, Update update, int replicas, int maxSurge, int maxUnavailable) {
+        Rollout rollout = new Rollout(id, update.fromRevision(), update.toRevision(), update.previous(),
+                replicas, maxSurge, maxUnavailable);
+        rollouts.put(id, rollout);
+        coordinators.execute(() -> run(rollout));
+        log.info("Rolling out revision {} of configuration {} to {} replicas (maxSurge {}, maxUnavailable {}).",
+                rollout.toRevision, id, replicas, maxSurge, maxUnavailable);
+        return rollout;
+    }
+
+    private void run(Rollout rollout) {
+        boolean parked = false;
+        try {
+            while (!rollout.cancelled) {
+                Step step = step(rollout);
+                if (step == Step.COMPLETED) {
+                    break;
+                }
+                if (step == Step.WAITING) {
+                    // Give the coordinator back while the rollout is paused or its new instances are starting
+                    coordinators.schedule(() -> run(rollout), pollIntervalMillis, TimeUnit.MILLISECONDS);
+                    parked = true;
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Rollout of configuration {} to revision {} failed: {}", rollout.configurationId, rollout.toRevision, describe(e));
+            rollout.fail(describe(e));
+        } finally {
+            if (!parked) {
+                rollout.exited.countDown();
+            }
+        }
+        if (!rollout.cancelled) {
+            // Hand the configuration back to the replica controller
+            eventPublisher.publishEvent(new ConfigurationChangedEvent(rollout.configurationId, false));
+        }
+    }
+
+    private Step step(Rollout rollout) {
+        if (rollout.paused) {
+            return Step.WAITING;
+        }
+        List<InstanceState> instances = fleetStateStore.find(
+                new ContainerInstanceFilter(null, null, rollout.configurationId, null, null, null, null));
+        List<InstanceState> outdated = instances.stream()
+                .filter(instance -> instance.configurationRevision() != rollout.toRevision && instance.status() == ContainerStatus.RUNNING)
+                .sorted(Comparator.comparing(InstanceState::createdAt, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+        outdated.forEach(instance -> rollout.replacing.add(instance.id()));
+        List<InstanceState> updated = instances.stream()
+                .filter(instance -> instance.configurationRevision() == rollout.toRevision)
+                .toList();
+        int ready = 0;
+        for (InstanceState instance : updated) {
+            checkNotFailed(instance);
+            if (instance.ready()) {
+                ready++;
+            }
+        }
+
+        if (outdated.isEmpty() && ready >= rollout.replicas) {
+            // Instances that were running when the rollout saw them but stopped before they were replaced would
+            // otherwise be started again with the old spec; instances that were stopped or paused all along are kept
+            for (InstanceState instance : instances) {
+                if (instance.configurationRevision() != rollout.toRevision && rollout.replacing.contains(instance.id())) {
+                    lifecycleService.deleteContainer(instance.id());
+                }
+            }
+            rollout.state = State.COMPLETED;
+            rollout.finishedAt = Instant.now();
+            log.info("Rolled out revision {} of configuration {}.", rollout.toRevision, rollout.configurationId);
+            return Step.COMPLETED;
+        }
+
+        int available = outdated.size() + ready;
+        int toDelete = clamp(available - (rollout.replicas - rollout.maxUnavailable), 0, outdated.size());
+        int total = outdated.size() - toDelete + updated.size();
+        int toCreate = clamp(Math.min(rollout.replicas - updated.size(), rollout.replicas + rollout.maxSurge - total),
+                0, Integer.MAX_VALUE);
+        if (toDelete == 0 && toCreate == 0) {
+            return Step.WAITING;
+        }
+
+        List<CompletableFuture<Void>> batch = new ArrayList<>();
+        for (InstanceState instance : outdated.subList(0, toDelete)) {
+            batch.add(CompletableFuture.runAsync(() -> lifecycleService.deleteContainer(instance.id()), workers));
+        }
+        for (int i = 0; i < toCreate; i++) {
+            batch.add(CompletableFuture.runAsync(() -> {
+                UUID instanceId = lifecycleService.createContainer(rollout.configurationId).getId();
+                lifecycleService.startContainer(instanceId);
+            }, workers));
+        }
+        CompletableFuture.allOf(batch.toArray(CompletableFuture[]::new)).join();
+        log.debug("Rollout of configuration {}: deleted {} outdated and created {} instances.", rollout.configurationId, toDelete, toCreate);
+        return Step.PROGRESSED;
+    }
+
+    private void checkNotFailed(InstanceState instance) {
+        if (instance.status() == ContainerStatus.FAILED || instance.status() == ContainerStatus.STOPPED
+                || instance.healthStatus() == HealthStatus.UNHEALTHY) {
+            throw new IllegalStateException("Instance " + instance.id() + " is "
+                    + (instance.healthStatus() == HealthStatus.UNHEALTHY ? "unhealthy" : instance.status()));
+        }
+        if (!instance.ready() && instance.createdAt() != null
+                && instance.createdAt().plus(readyTimeout).isBefore(Instant.now())) {
+            throw new IllegalStateException("Instance " + instance.id() + " did not become ready within " + readyTimeout.toSeconds() + " s");
+        }
+    }
+
+    private Rollout latest(UUID id) {
+        Rollout rollout = rollouts.get(id);
+        if (rollout == null) {
+            throw new ResourceNotFoundException("No rollout found for configuration: " + id);
+        }
+        return rollout;
+    }
+
+    private Rollout active(UUID id) {
+        Rollout rollout = latest(id);
+        if (!rollout.isActive()) {
+            throw new IllegalStateException("The rollout of configuration " + id + " is " + rollout.state + ".");
+        }
+        return rollout;
+    }
+
+    private RolloutStatusResponse toResponse(Rollout rollout) {
+        List<InstanceState> instances = fleetStateStore.find(
+                new ContainerInstanceFilter(null, null, rollout.configurationId, null, null, null, null));
+        RolloutStatusResponse response = new RolloutStatusResponse();
+        response.setConfigurationId(rollout.configurationId);
+        response.setFromRevision(rollout.fromRevision);
+        response.setToRevision(rollout.toRevision);
+        response.setState(rollout.state == State.ROLLING && rollout.paused ? State.PAUSED : rollout.state);
+        response.setReplicas(rollout.replicas);
+        response.setMaxSurge(rollout.maxSurge);
+        response.setMaxUnavailable(rollout.maxUnavailable);
+        response.setUpdatedReplicas((int) instances.stream()
+                .filter(instance -> instance.configurationRevision() == rollout.toRevision && instance.ready())
+                .count());
+        response.setOutdatedReplicas((int) instances.stream()
+                .filter(instance -> instance.configurationRevision() != rollout.toRevision && instance.status() == ContainerStatus.RUNNING)
+                .count());
+        response.setStartedAt(rollout.startedAt);
+        response.setFinishedAt(rollout.finishedAt);
+        response.setError(rollout.error);
+        return response;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static String describe(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        return cause.getMessage() != null ? cause.getClass().getSimpleName() + ": " + cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinators.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private enum Step {
+        PROGRESSED,
+        // Paused, or waiting for new instances to become ready
+        WAITING,
+        COMPLETED
+    }
+
+    private record Update(ContainerConfigurationRequest previous, int fromRevision, int toRevision, Integer desiredReplicas,
+                          ContainerConfigurationResponse response) {
+    }
+
+    private static final class Rollout {
+        private final UUID configurationId;
+        private final int fromRevision;
+        private final int toRevision;
+        // Spec before the rollout, restored by a rollback
+        private final ContainerConfigurationRequest previous;
+        private final int replicas;
+        private final int maxSurge;
+        private final int maxUnavailable;
+        private final Instant startedAt = Instant.now();
+        private final CountDownLatch exited = new CountDownLatch(1);
+        // Instances of older revisions that were running at some step, so this rollout replaces them
+        private final Set<UUID> replacing = ConcurrentHashMap.newKeySet();
+
+        private volatile State state = State.ROLLING;
+        private volatile boolean paused;
+        private volatile boolean cancelled;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        private Rollout(UUID configurationId, int fromRevision, int toRevision, ContainerConfigurationRequest previous,
+                        int replicas, int maxSurge, int maxUnavailable) {
+            this.configurationId = configurationId;
+            this.fromRevision = fromRevision;
+            this.toRevision = toRevision;
+            this.previous = previous;
+            this.replicas = replicas;
+            this.maxSurge = maxSurge;
+            this.maxUnavailable = maxUnavailable;
+        }
+
+        // Cancelled rollouts stay active until the rollback replaced them, so the replica controller keeps out
+        private boolean isActive() {
+            return state == State.ROLLING;
+        }
+
+        private void fail(String error) {
+            this.error = error;
+            this.finishedAt = Instant.now();
+            this.state = State.FAILED;
+        }
+    }
+}
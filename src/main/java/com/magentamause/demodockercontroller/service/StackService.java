@@ -0,0 +1,371 @@
+package com.magentamause.demodockercontroller.service;
+
+import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
+import com.magentamause.demodockercontroller.domain.Stack;
+import com.magentamause.demodockercontroller.domain.StackDependency;
+import com.magentamause.demodockercontroller.dto.StackNodeResult;
+import com.magentamause.demodockercontroller.dto.StackOperationResponse;
+import com.magentamause.demodockercontroller.dto.StackOperationResponse.Operation;
+import com.magentamause.demodockercontroller.dto.StackRequest;
+import com.magentamause.demodockercontroller.dto.StackResponse;
+import com.magentamause.demodockercontroller.dto.StackServiceDto;
+import com.magentamause.demodockercontroller.exception.ResourceNotFoundException;
+import com.magentamause.demodockercontroller.mapper.StackMapper;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.HealthStatus;
+import com.magentamause.demodockercontroller.repository.ContainerConfigurationRepository;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceFilter;
+import com.magentamause.demodockercontroller.repository.StackRepository;
+import com.magentamause.demodockercontroller.state.FleetStateStore;
+import com.magentamause.demodockercontroller.state.InstanceState;
+import com.magentamause.demodockercontroller.util.ExecutorFactory;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Starts and stops the configurations of a stack along their dependency graph. Every service is started as soon as
+ * all of its dependencies are running (and healthy, if they have a health check), so independent branches of the
+ * graph proceed in parallel instead of level by level. Stopping walks the graph the other way around.
+ */
+@Service
+public class StackService {
+
+    private static final Logger log = LoggerFactory.getLogger(StackService.class);
+
+    private final StackRepository stackRepository;
+    private final ContainerConfigurationRepository configRepository;
+    private final ContainerLifecycleService lifecycleService;
+    private final FleetStateStore fleetStateStore;
+    private final StackMapper stackMapper;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService scheduler;
+    private final Set<UUID> stacksInOperation = ConcurrentHashMap.newKeySet();
+
+    private final long readyTimeoutNanos;
+    private final long readyPollIntervalMillis;
+
+    public StackService(StackRepository stackRepository,
+                        ContainerConfigurationRepository configRepository,
+                        ContainerLifecycleService lifecycleService,
+                        FleetStateStore fleetStateStore,
+                        StackMapper stackMapper,
+                        ExecutorFactory executorFactory,
+                        @Value("${docker.stacks.parallelism:8}") int parallelism,
+                        @Value("${docker.stacks.ready-timeout-seconds:120}") long readyTimeoutSeconds,
+                        @Value("${docker.stacks.ready-poll-interval-ms:250}") long readyPollIntervalMillis) {
+        this.stackRepository = stackRepository;
+        this.configRepository = configRepository;
+        this.lifecycleService = lifecycleService;
+        this.fleetStateStore = fleetStateStore;
+        this.stackMapper = stackMapper;
+        this.readyTimeoutNanos = TimeUnit.SECONDS.toNanos(readyTimeoutSeconds);
+        this.readyPollIntervalMillis = readyPollIntervalMillis;
+        // Workers make the blocking Docker calls; readiness is polled from the scheduler without holding a worker
+        this.workers = executorFactory.newFixedThreadPool("stack-worker", parallelism);
+        this.scheduler = executorFactory.newScheduledThreadPool("stack-readiness", 1);
+    }
+
+    @Transactional
+    public StackResponse createStack(StackRequest request) {
+        stackRepository.findByName(request.getName()).ifPresent(existing -> {
+            throw new IllegalStateException("A stack named '" + request.getName() + "' already exists.");
+        });
+        Stack stack = stackMapper.toEntity(request);
+        if (stack.getConfigurationIds().size() != request.getServices().size()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Each configuration may only appear once in a stack");
+        }
+        for (StackServiceDto service : request.getServices()) {
+            if (service.getDependsOn() == null) {
+                continue;
+            }
+            for (UUID dependsOn : service.getDependsOn()) {
+                if (!stack.getConfigurationIds().contains(dependsOn)) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "Configuration " + service.getConfigurationId() + " depends on " + dependsOn + ", which is not part of the stack");
+                }
+            }
+        }
+        List<UUID> startOrder = startOrder(stack);
+        Set<UUID> existing = configRepository.findAllById(stack.getConfigurationIds()).stream()
+                .map(ContainerConfiguration::getId)
+                .collect(Collectors.toSet());
+        for (UUID configurationId : stack.getConfigurationIds()) {
+            if (!existing.contains(configurationId)) {
+                throw new ResourceNotFoundException("Configuration not found: " + configurationId);
+            }
+        }
+        stack.setCreatedAt(Instant.now());
+        return stackMapper.toResponse(stackRepository.save(stack), startOrder);
+    }
+
+    @Transactional(readOnly = true)
+    public List<StackResponse> getStacks() {
+        return stackRepository.findAll().stream()
+                .map(stack -> stackMapper.toResponse(stack, startOrder(stack)))
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public StackResponse getStack(UUID id) {
+        Stack stack = findStack(id);
+        return stackMapper.toResponse(stack, startOrder(stack));
+    }
+
+    // Only removes the definition; instances of its configurations keep running
+    @Transactional
+    public void deleteStack(UUID id) {
+        stackRepository.delete(findStack(id));
+    }
+
+    public StackOperationResponse startStack(UUID id) {
+        return run(findStack(id), Operation.START);
+    }
+
+    public StackOperationResponse stopStack(UUID id) {
+        return run(findStack(id), Operation.STOP);
+    }
+
+    private Stack findStack(UUID id) {
+        return stackRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Stack not found: " + id));
+    }
+
+    private StackOperationResponse run(Stack stack, Operation operation) {
+        if (!stacksInOperation.add(stack.getId())) {
+            throw new IllegalStateException("Another operation is in progress for stack: " + stack.getId());
+        }
+        try {
+            List<UUID> order = startOrder(stack);
+            Map<UUID, Set<UUID>> waitsFor = new HashMap<>();
+            order.forEach(configurationId -> waitsFor.put(configurationId, new HashSet<>()));
+            for (StackDependency dependency : stack.getDependencies()) {
+                if (operation == Operation.START) {
+                    waitsFor.get(dependency.getConfigurationId()).add(dependency.getDependsOnConfigurationId());
+                } else {
+                    waitsFor.get(dependency.getDependsOnConfigurationId()).add(dependency.getConfigurationId());
+                }
+            }
+            if (operation == Operation.STOP) {
+                order = order.reversed();
+            }
+            Map<UUID, String> names = new HashMap<>();
+            configRepository.findAllById(order).forEach(configuration -> names.put(configuration.getId(), configuration.getName()));
+
+            long operationStart = System.nanoTime();
+            Map<UUID, CompletableFuture<StackNodeResult>> results = new HashMap<>();
+            // Every node is chained onto the nodes it waits for, which come earlier in the order
+            for (UUID configurationId : order) {
+                List<CompletableFuture<StackNodeResult>> prerequisites = waitsFor.get(configurationId).stream()
+                        .map(results::get)
+                        .toList();
+                results.put(configurationId, CompletableFuture.allOf(prerequisites.toArray(CompletableFuture[]::new))
+                        .thenCompose(ignored -> {
+                            StackNodeResult result = new StackNodeResult();
+                            result.setConfigurationId(configurationId);
+                            result.setConfigurationName(names.get(configurationId));
+                            result.setStartedAfterMillis(millisSince(operationStart));
+                            // A failed dependent does not hold up stopping its dependencies
+                            StackNodeResult failedDependency = operation == Operation.START
+                                    ? prerequisites.stream().map(CompletableFuture::join)
+                                            .filter(prerequisite -> prerequisite.getOutcome() != StackNodeResult.Outcome.SUCCEEDED)
+                                            .findFirst().orElse(null)
+                                    : null;
+                            if (failedDependency != null) {
+                                result.setOutcome(StackNodeResult.Outcome.SKIPPED);
+                                result.setInstanceIds(List.of());
+                                result.setError("Dependency " + failedDependency.getConfigurationId() + " did not start");
+                                return CompletableFuture.completedFuture(result);
+                            }
+                            return execute(configurationId, operation, result);
+                        }));
+            }
+
+            List<StackNodeResult> nodes = order.stream().map(results::get).map(CompletableFuture::join).toList();
+            StackOperationResponse response = new StackOperationResponse();
+            response.setStackId(stack.getId());
+            response.setOperation(operation);
+            response.setSucceeded(nodes.stream().allMatch(node -> node.getOutcome() == StackNodeResult.Outcome.SUCCEEDED));
+            response.setDurationMillis(millisSince(operationStart));
+            response.setNodes(nodes);
+            log.info("{} of stack {} {} after {} ms.", operation, stack.getName(),
+                    response.isSucceeded() ? "succeeded" : "failed", response.getDurationMillis());
+            return response;
+        } finally {
+            stacksInOperation.remove(stack.getId());
+        }
+    }
+
+    private CompletableFuture<StackNodeResult> execute(UUID configurationId, Operation operation, StackNodeResult result) {
+        long nodeStart = System.nanoTime();
+        CompletableFuture<List<UUID>> done = CompletableFuture.supplyAsync(() -> operation == Operation.START
+                ? startInstances(configurationId)
+                : stopInstances(configurationId), workers);
+        if (operation == Operation.START) {
+            done = done.thenCompose(instanceIds -> awaitReady(instanceIds, nodeStart + readyTimeoutNanos)
+                    .thenApply(ignored -> instanceIds));
+        }
+        return done.handle((instanceIds, failure) -> {
+            result.setDurationMillis(millisSince(nodeStart));
+            if (failure != null) {
+                log.warn("Could not {} configuration {}: {}", operation.name().toLowerCase(), configurationId, describe(failure));
+                result.setOutcome(StackNodeResult.Outcome.FAILED);
+                result.setInstanceIds(List.of());
+                result.setError(describe(failure));
+            } else {
+                result.setOutcome(StackNodeResult.Outcome.SUCCEEDED);
+                result.setInstanceIds(instanceIds);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Starts every instance of the configuration that is not running, or creates one if there are none. Further
+     * replicas are left to the replica controller.
+     */
+    private List<UUID> startInstances(UUID configurationId) {
+        List<InstanceState> instances = instancesOf(configurationId);
+        if (instances.isEmpty()) {
+            UUID instanceId = lifecycleService.createContainer(configurationId).getId();
+            lifecycleService.startContainer(instanceId);
+            return List.of(instanceId);
+        }
+        List<UUID> instanceIds = new ArrayList<>();
+        for (InstanceState instance : instances) {
+            if (instance.status() == ContainerStatus.PAUSED) {
+                lifecycleService.resumeContainer(instance.id());
+            } else if (instance.status() != ContainerStatus.RUNNING) {
+                lifecycleService.startContainer(instance.id());
+            }
+            instanceIds.add(instance.id());
+        }
+        return instanceIds;
+    }
+
+    private List<UUID> stopInstances(UUID configurationId) {
+        List<UUID> instanceIds = new ArrayList<>();
+        for (InstanceState instance : instancesOf(configurationId)) {
+            if (instance.status() == ContainerStatus.RUNNING || instance.status() == ContainerStatus.PAUSED) {
+                lifecycleService.stopContainer(instance.id());
+                instanceIds.add(instance.id());
+            }
+        }
+        return instanceIds;
+    }
+
+    private List<InstanceState> instancesOf(UUID configurationId) {
+        return fleetStateStore.find(new ContainerInstanceFilter(null, null, configurationId, null, null, null, null));
+    }
+
+    private CompletableFuture<Void> awaitReady(List<UUID> instanceIds, long deadlineNanos) {
+        CompletableFuture<Void> ready = new CompletableFuture<>();
+        ScheduledFuture<?> poll = scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                if (isReady(instanceIds)) {
+                    ready.complete(null);
+                } else if (System.nanoTime() - deadlineNanos > 0) {
+                    ready.completeExceptionally(new TimeoutException("Instances did not become ready in time"));
+                }
+            } catch (RuntimeException e) {
+                ready.completeExceptionally(e);
+            }
+        }, 0, readyPollIntervalMillis, TimeUnit.MILLISECONDS);
+        ready.whenComplete((ignored, failure) -> poll.cancel(false));
+        return ready;
+    }
+
+    private boolean isReady(Collection<UUID> instanceIds) {
+        boolean ready = true;
+        for (UUID instanceId : instanceIds) {
+            InstanceState state = fleetStateStore.get(instanceId)
+                    .orElseThrow(() -> new IllegalStateException("Instance " + instanceId + " was deleted"));
+            if (state.status() == ContainerStatus.FAILED || state.status() == ContainerStatus.STOPPED) {
+                throw new IllegalStateException("Instance " + instanceId + " is " + state.status());
+            }
+            if (state.healthStatus() == HealthStatus.UNHEALTHY) {
+                throw new IllegalStateException("Instance " + instanceId + " is unhealthy");
+            }
+            ready &= state.ready();
+        }
+        return ready;
+    }
+
+    /**
+     * Orders the configurations so that each comes after everything it depends on (Kahn's algorithm), rejecting
+     * dependency cycles.
+     */
+    private static List<UUID> startOrder(Stack stack) {
+        Map<UUID, Integer> unmetDependencies = new HashMap<>();
+        Map<UUID, List<UUID>> dependents = new HashMap<>();
+        stack.getConfigurationIds().forEach(configurationId -> unmetDependencies.put(configurationId, 0));
+        for (StackDependency dependency : stack.getDependencies()) {
+            unmetDependencies.merge(dependency.getConfigurationId(), 1, Integer::sum);
+            dependents.computeIfAbsent(dependency.getDependsOnConfigurationId(), key -> new ArrayList<>())
+                    .add(dependency.getConfigurationId());
+        }
+        Deque<UUID> ready = new ArrayDeque<>();
+        unmetDependencies.forEach((configurationId, count) -> {
+            if (count == 0) {
+                ready.add(configurationId);
+            }
+        });
+        List<UUID> order = new ArrayList<>();
+        while (!ready.isEmpty()) {
+            UUID configurationId = ready.poll();
+            order.add(configurationId);
+            for (UUID dependent : dependents.getOrDefault(configurationId, List.of())) {
+                if (unmetDependencies.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        if (order.size() != unmetDependencies.size()) {
+            Set<UUID> cyclic = new HashSet<>(unmetDependencies.keySet());
+            order.forEach(cyclic::remove);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Dependency cycle between configurations " + cyclic);
+        }
+        return order;
+    }
+
+    private static long millisSince(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static String describe(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        return cause.getMessage() != null ? cause.getClass().getSimpleName() + ": " + cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,82 @@
+package com.magentamause.demodockercontroller.service;
+
+import com.magentamause.demodockercontroller.domain.ContainerInstance;
+import com.magentamause.demodockercontroller.event.ContainerStatusChangedEvent;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.StatusTransitionSource;
+import com.magentamause.demodockercontroller.state.FleetStateStore;
+import com.magentamause.demodockercontroller.state.InstanceState;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+/**
+ * Single entry point for instance status changes. Callers remain responsible for persisting the instance,
+ * except for transitions by Docker container ID, which the fleet state store writes behind; listeners of
+ * {@link ContainerStatusChangedEvent} are notified synchronously.
+ */
+@Service
+@RequiredArgsConstructor
+public class StatusTransitionService {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final FleetStateStore fleetStateStore;
+
+    public boolean transition(ContainerInstance instance, ContainerStatus status, StatusTransitionSource source) {
+        return transition(instance, status, source, null);
+    }
+
+    public boolean transition(ContainerInstance instance, ContainerStatus status, StatusTransitionSource source, Integer exitCode) {
+        ContainerStatus previousStatus = instance.getStatus();
+        if (previousStatus == status) {
+            return false;
+        }
+        instance.setStatus(status);
+        instance.setStatusChangedAt(Instant.now());
+        publish(instance, previousStatus, source, exitCode);
+        return true;
+    }
+
+    /**
+     * Transitions the instance running in the given container if it currently has the expected status. Only
+     * the in-memory fleet state changes; the database catches up through the store's write-behind.
+     */
+    public boolean transition(String dockerContainerId, ContainerStatus expected, ContainerStatus status,
+                              StatusTransitionSource source, Integer exitCode) {
+        InstanceState changed = fleetStateStore.transition(dockerContainerId, expected, status);
+        if (changed == null) {
+            return false;
+        }
+        eventPublisher.publishEvent(new ContainerStatusChangedEvent(
+                changed.id(),
+                changed.configurationId(),
+                changed.dockerContainerId(),
+                expected,
+                changed.status(),
+                source,
+                exitCode,
+                Instant.now()));
+        return true;
+    }
+
+    public void created(ContainerInstance instance, StatusTransitionSource source) {
+        if (instance.getStatusChangedAt() == null) {
+            instance.setStatusChangedAt(instance.getCreatedAt());
+        }
+        publish(instance, null, source, null);
+    }
+
+    private void publish(ContainerInstance instance, ContainerStatus previousStatus, StatusTransitionSource source, Integer exitCode) {
+        eventPublisher.publishEvent(new ContainerStatusChangedEvent(
+                instance.getId(),
+                instance.getConfigurationId(),
+                instance.getDockerContainerId(),
+                previousStatus,
+                instance.getStatus(),
+                source,
+                exitCode,
+                Instant.now()));
+    }
+}
@@ -0,0 +1,410 @@
+package com.magentamause.demodockercontroller.service;
+
+import com.magentamause.demodockercontroller.domain.WebhookDeadLetter;
+import com.magentamause.demodockercontroller.domain.WebhookSubscription;
+import com.magentamause.demodockercontroller.dto.WebhookDeadLetterResponse;
+import com.magentamause.demodockercontroller.dto.WebhookEvent;
+import com.magentamause.demodockercontroller.dto.WebhookSubscriptionRequest;
+import com.magentamause.demodockercontroller.dto.WebhookSubscriptionResponse;
+import com.magentamause.demodockercontroller.event.ContainerStatusChangedEvent;
+import com.magentamause.demodockercontroller.exception.ResourceNotFoundException;
+import com.magentamause.demodockercontroller.mapper.WebhookMapper;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.repository.WebhookDeadLetterRepository;
+import com.magentamause.demodockercontroller.repository.WebhookSubscriptionRepository;
+import com.magentamause.demodockercontroller.util.ExecutorFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fans committed instance status changes out to webhook subscribers. Each subscriber has a bounded in-memory
+ * outbox that is drained in batches, one delivery in flight at a time, so events arrive in order. Failed
+ * deliveries are retried with exponential backoff and dead-lettered once the attempts are used up. Ingestion
+ * only appends to the outboxes (dropping the oldest event when one is full) and never waits for a subscriber.
+ */
+@Service
+public class WebhookService {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookService.class);
+
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    private final WebhookSubscriptionRepository subscriptionRepository;
+    private final WebhookDeadLetterRepository deadLetterRepository;
+    private final WebhookMapper webhookMapper;
+    private final JsonMapper jsonMapper;
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService scheduler;
+    private final Map<UUID, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final Counter eventsDropped;
+    private final Counter batchesDelivered;
+    private final Counter deliveryFailures;
+    private final Counter batchesDeadLettered;
+
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final int outboxCapacity;
+    private final Duration requestTimeout;
+    private final int maxAttempts;
+    private final long retryBaseDelayMillis;
+    private final long retryMaxDelayMillis;
+
+    public WebhookService(WebhookSubscriptionRepository subscriptionRepository,
+                          WebhookDeadLetterRepository deadLetterRepository,
+                          WebhookMapper webhookMapper,
+                          JsonMapper jsonMapper,
+                          ExecutorFactory executorFactory,
+                          MeterRegistry meterRegistry,
+                          @Value("${docker.webhooks.batch-size:100}") int batchSize,
+                          @Value("${docker.webhooks.flush-interval-ms:1000}") long flushIntervalMillis,
+                          @Value("${docker.webhooks.outbox-capacity:10000}") int outboxCapacity,
+                          @Value("${docker.webhooks.request-timeout-ms:10000}") long requestTimeoutMillis,
+                          @Value("${docker.webhooks.max-attempts:8}") int maxAttempts,
+                          @Value("${docker.webhooks.retry-base-delay-ms:1000}") long retryBaseDelayMillis,
+                          @Value("${docker.webhooks.retry-max-delay-ms:300000}") long retryMaxDelayMillis) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.deadLetterRepository = deadLetterRepository;
+        this.webhookMapper = webhookMapper;
+        this.jsonMapper = jsonMapper;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.outboxCapacity = outboxCapacity;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMillis);
+        this.maxAttempts = maxAttempts;
+        this.retryBaseDelayMillis = retryBaseDelayMillis;
+        this.retryMaxDelayMillis = retryMaxDelayMillis;
+        // Deliveries are asynchronous, so this thread only ever starts requests and never waits on a subscriber
+        this.scheduler = executorFactory.newScheduledThreadPool("webhook-delivery", 1);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(requestTimeout)
+                .build();
+        this.eventsDropped = Counter.builder("webhook.events.dropped")
+                .description("Events dropped because a subscriber's outbox was full")
+                .register(meterRegistry);
+        this.batchesDelivered = Counter.builder("webhook.batches.delivered")
+                .register(meterRegistry);
+        this.deliveryFailures = Counter.builder("webhook.delivery.failures")
+                .description("Failed delivery attempts, including ones that are retried")
+                .register(meterRegistry);
+        this.batchesDeadLettered = Counter.builder("webhook.batches.dead_lettered")
+                .register(meterRegistry);
+        Gauge.builder("webhook.outbox.depth", subscribers,
+                        all -> all.values().stream().mapToInt(Subscriber::pendingEvents).sum())
+                .description("Events waiting for delivery across all subscribers")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        for (WebhookSubscription subscription : subscriptionRepository.findAll()) {
+            try {
+                register(subscription, parseUrl(subscription.getUrl()));
+            } catch (IllegalArgumentException e) {
+                // Subscriptions stored before URLs were parsed on creation must not keep the application from starting
+                log.warn("Skipping webhook subscription {} with invalid URL {}: {}", subscription.getId(), subscription.getUrl(), e.getMessage());
+            }
+        }
+    }
+
+    public WebhookSubscriptionResponse createSubscription(WebhookSubscriptionRequest request) {
+        URI uri;
+        try {
+            uri = parseUrl(request.getUrl());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "url is not a valid http or https URL: " + e.getMessage());
+        }
+        WebhookSubscription subscription = webhookMapper.toEntity(request);
+        subscription.setCreatedAt(Instant.now());
+        subscription = subscriptionRepository.save(subscription);
+        register(subscription, uri);
+        return webhookMapper.toResponse(subscription, 0);
+    }
+
+    public List<WebhookSubscriptionResponse> getSubscriptions() {
+        return subscriptionRepository.findAll().stream()
+                .map(subscription -> webhookMapper.toResponse(subscription, pendingEvents(subscription.getId())))
+                .toList();
+    }
+
+    public void deleteSubscription(UUID id) {
+        WebhookSubscription subscription = subscriptionRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Webhook subscription not found: " + id));
+        Subscriber subscriber = subscribers.remove(id);
+        if (subscriber != null) {
+            subscriber.close();
+        }
+        deadLetterRepository.deleteBySubscriptionId(id);
+        subscriptionRepository.delete(subscription);
+    }
+
+    public List<WebhookDeadLetterResponse> getDeadLetters(UUID subscriptionId) {
+        if (!subscriptionRepository.existsById(subscriptionId)) {
+            throw new ResourceNotFoundException("Webhook subscription not found: " + subscriptionId);
+        }
+        return deadLetterRepository.findBySubscriptionIdOrderByCreatedAt(subscriptionId).stream()
+                .map(webhookMapper::toResponse)
+                .toList();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(ContainerStatusChangedEvent event) {
+        WebhookEvent webhookEvent = null;
+        for (Subscriber subscriber : subscribers.values()) {
+            if (subscriber.matches(event)) {
+                if (webhookEvent == null) {
+                    webhookEvent = webhookMapper.toEvent(event);
+                }
+                subscriber.offer(webhookEvent);
+            }
+        }
+    }
+
+    private void register(WebhookSubscription subscription, URI uri) {
+        subscribers.put(subscription.getId(), new Subscriber(subscription, uri));
+    }
+
+    // The request pattern only checks the scheme; the HTTP client also needs a URI it can parse and a host
+    private static URI parseUrl(String url) {
+        URI uri = URI.create(url);
+        if (!"http".equalsIgnoreCase(uri.getScheme()) && !"https".equalsIgnoreCase(uri.getScheme())) {
+            throw new IllegalArgumentException("scheme must be http or https");
+        }
+        if (uri.getHost() == null) {
+            throw new IllegalArgumentException("host is missing");
+        }
+        return uri;
+    }
+
+    private int pendingEvents(UUID subscriptionId) {
+        Subscriber subscriber = subscribers.get(subscriptionId);
+        return subscriber != null ? subscriber.pendingEvents() : 0;
+    }
+
+    private void schedule(Runnable task, long delayMillis) {
+        try {
+            scheduler.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.debug("Webhook delivery scheduler is shut down; dropping scheduled task.");
+        }
+    }
+
+    private long backoffMillis(int attempt) {
+        long exponential = retryBaseDelayMillis << Math.min(attempt - 1, 30);
+        long capped = Math.min(retryMaxDelayMillis, exponential > 0 ? exponential : retryMaxDelayMillis);
+        // Equal jitter, so subscribers that failed together do not retry in lockstep
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    }
+
+    private static String describe(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        return cause.getMessage() != null ? cause.getClass().getSimpleName() + ": " + cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        httpClient.shutdownNow();
+    }
+
+    private final class Subscriber {
+        private final UUID id;
+        private final URI uri;
+        private final UUID configurationId;
+        private final Set<ContainerStatus> statuses;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Deque<WebhookEvent> outbox = new ArrayDeque<>();
+        // Size of the batch currently being delivered (including retries), 0 if none
+        private int inFlightEvents;
+        private boolean flushPending;
+        private boolean timerPending;
+        private volatile boolean closed;
+
+        private Subscriber(WebhookSubscription subscription, URI uri) {
+            this.id = subscription.getId();
+            this.uri = uri;
+            this.configurationId = subscription.getConfigurationId();
+            this.statuses = subscription.getStatuses() != null ? Set.copyOf(subscription.getStatuses()) : Set.of();
+        }
+
+        private boolean matches(ContainerStatusChangedEvent event) {
+            return (configurationId == null || configurationId.equals(event.configurationId()))
+                    && (statuses.isEmpty() || statuses.contains(event.status()));
+        }
+
+        private void offer(WebhookEvent event) {
+            long delayMillis;
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                if (outbox.size() >= outboxCapacity) {
+                    outbox.pollFirst();
+                    eventsDropped.increment();
+                }
+                outbox.addLast(event);
+                // While a batch is in flight, the next flush is scheduled when it completes
+                if (inFlightEvents > 0 || flushPending) {
+                    return;
+                }
+                if (outbox.size() >= batchSize) {
+                    flushPending = true;
+                    delayMillis = 0;
+                } else if (!timerPending) {
+                    timerPending = true;
+                    delayMillis = flushIntervalMillis;
+                } else {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            schedule(this::flush, delayMillis);
+        }
+
+        private void flush() {
+            List<WebhookEvent> batch;
+            lock.lock();
+            try {
+                flushPending = false;
+                timerPending = false;
+                if (closed || inFlightEvents > 0 || outbox.isEmpty()) {
+                    return;
+                }
+                batch = new ArrayList<>(Math.min(batchSize, outbox.size()));
+                while (batch.size() < batchSize && !outbox.isEmpty()) {
+                    batch.add(outbox.pollFirst());
+                }
+                inFlightEvents = batch.size();
+            } finally {
+                lock.unlock();
+            }
+            deliver(jsonMapper.writeValueAsBytes(batch), batch.size(), 1);
+        }
+
+        private void deliver(byte[] body, int eventCount, int attempt) {
+            if (closed) {
+                return;
+            }
+            try {
+                HttpRequest request = HttpRequest.newBuilder(uri)
+                        .timeout(requestTimeout)
+                        .header("Content-Type", "application/json")
+                        .header("X-Webhook-Subscription", id.toString())
+                        .header("X-Webhook-Attempt", String.valueOf(attempt))
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                        .build();
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, failure) -> onAttemptCompleted(body, eventCount, attempt, failure != null
+                                ? describe(failure)
+                                : response.statusCode() / 100 != 2 ? "HTTP " + response.statusCode() : null));
+            } catch (RuntimeException e) {
+                onAttemptCompleted(body, eventCount, attempt, describe(e));
+            }
+        }
+
+        private void onAttemptCompleted(byte[] body, int eventCount, int attempt, String error) {
+            if (error == null) {
+                batchesDelivered.increment();
+                completeBatch();
+                return;
+            }
+            deliveryFailures.increment();
+            if (attempt < maxAttempts && !closed) {
+                long delayMillis = backoffMillis(attempt);
+                log.debug("Webhook delivery to {} failed (attempt {}): {}. Retrying in {} ms.", uri, attempt, error, delayMillis);
+                schedule(() -> deliver(body, eventCount, attempt + 1), delayMillis);
+                return;
+            }
+            deadLetter(body, eventCount, attempt, error);
+            completeBatch();
+        }
+
+        private void deadLetter(byte[] body, int eventCount, int attempts, String error) {
+            if (closed) {
+                return;
+            }
+            WebhookDeadLetter deadLetter = new WebhookDeadLetter();
+            deadLetter.setSubscriptionId(id);
+            deadLetter.setPayload(new String(body, StandardCharsets.UTF_8));
+            deadLetter.setEventCount(eventCount);
+            deadLetter.setAttempts(attempts);
+            deadLetter.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+            deadLetter.setCreatedAt(Instant.now());
+            try {
+                deadLetterRepository.save(deadLetter);
+                batchesDeadLettered.increment();
+                log.warn("Dead-lettered {} webhook events for {} after {} attempts: {}", eventCount, uri, attempts, error);
+            } catch (RuntimeException e) {
+                log.error("Failed to dead-letter {} webhook events for {}: {}", eventCount, uri, e.getMessage());
+            }
+        }
+
+        private void completeBatch() {
+            lock.lock();
+            try {
+                inFlightEvents = 0;
+                if (closed || outbox.isEmpty() || flushPending) {
+                    return;
+                }
+                // Events that queued up during the delivery are already overdue
+                flushPending = true;
+            } finally {
+                lock.unlock();
+            }
+            schedule(this::flush, 0);
+        }
+
+        private int pendingEvents() {
+            lock.lock();
+            try {
+                return outbox.size() + inFlightEvents;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void close() {
+            closed = true;
+            lock.lock();
+            try {
+                outbox.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.magentamause.demodockercontroller.service.docker;
+
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short-lived cache of inspect results keyed by Docker container ID. Concurrent misses for the same container
+ * share a single in-flight inspect call. Entries are invalidated by container events and by lifecycle
+ * operations, so the TTL only bounds staleness for changes nobody reported.
+ */
+@Component
+public class ContainerInspectCache {
+
+    private final DockerService dockerService;
+    private final long ttlNanos;
+    private final Map<String, CachedInspect> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<InspectContainerResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+
+    public ContainerInspectCache(DockerService dockerService,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${docker.inspect.cache-ttl-ms:2000}") long ttlMillis) {
+        this.dockerService = dockerService;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.hits = counter(meterRegistry, "hit");
+        this.misses = counter(meterRegistry, "miss");
+        this.coalesced = counter(meterRegistry, "coalesced");
+    }
+
+    /**
+     * Returns the inspect result, or null if the container does not exist.
+     */
+    public InspectContainerResponse inspect(String dockerContainerId) {
+        CachedInspect cached = entries.get(dockerContainerId);
+        if (cached != null && System.nanoTime() - cached.expiresAtNanos() < 0) {
+            hits.increment();
+            return cached.response();
+        }
+
+        CompletableFuture<InspectContainerResponse> future = new CompletableFuture<>();
+        CompletableFuture<InspectContainerResponse> existing = inFlight.putIfAbsent(dockerContainerId, future);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        misses.increment();
+        try {
+            InspectContainerResponse response = dockerService.inspectContainer(dockerContainerId);
+            // Not cached if the entry was invalidated while the call was running; the result may predate the change
+            if (inFlight.remove(dockerContainerId, future)) {
+                entries.put(dockerContainerId, new CachedInspect(response, System.nanoTime() + ttlNanos));
+            }
+            future.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            inFlight.remove(dockerContainerId, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public boolean exists(String dockerContainerId) {
+        return inspect(dockerContainerId) != null;
+    }
+
+    public void invalidate(String dockerContainerId) {
+        inFlight.remove(dockerContainerId);
+        entries.remove(dockerContainerId);
+    }
+
+    @Scheduled(fixedDelayString = "${docker.inspect.cache-purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> now - entry.expiresAtNanos() >= 0);
+    }
+
+    private InspectContainerResponse await(CompletableFuture<InspectContainerResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("docker.inspect.cache")
+                .description("Container inspect lookups by cache result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record CachedInspect(InspectContainerResponse response, long expiresAtNanos) {
+    }
+}
@@ -0,0 +1,186 @@
+package com.magentamause.demodockercontroller.service.docker;
+
+import com.github.dockerjava.api.model.AccessMode;
+import com.github.dockerjava.api.model.Bind;
+import com.github.dockerjava.api.model.ExposedPort;
+import com.github.dockerjava.api.model.HealthCheck;
+import com.github.dockerjava.api.model.HostConfig;
+import com.github.dockerjava.api.model.PortBinding;
+import com.github.dockerjava.api.model.Ports;
+import com.github.dockerjava.api.model.Volume;
+import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
+import com.magentamause.demodockercontroller.model.HealthCheckSpec;
+import com.magentamause.demodockercontroller.model.ResourceLimits;
+import com.magentamause.demodockercontroller.model.VolumeMount;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link ContainerConfiguration} compiled into the docker-java objects sent with a create request. Compiled
+ * once per configuration and shared by all of its instances, so none of the parts may be modified after
+ * {@link #compile}. Only per-instance host port bindings are added at create time.
+ */
+public record ContainerSpec(
+        UUID configurationId,
+        int contentHash,
+        String imageName,
+        String imageTag,
+        String fullImageName,
+        String[] cmd,
+        String[] env,
+        ExposedPort[] exposedPorts,
+        PortBinding[] portBindings,
+        List<Bind> binds,
+        Long memoryBytes,
+        Long nanoCpus,
+        HealthCheck healthCheck,
+        HostConfig hostConfig) {
+
+    public static ContainerSpec compile(ContainerConfiguration config) {
+        Map<Integer, Integer> portMappings = config.getPortMappings() != null ? config.getPortMappings() : Map.of();
+
+        // Port mappings (host port -> container port); the container side is what gets exposed
+        Set<ExposedPort> exposed = new LinkedHashSet<>();
+        List<PortBinding> bindings = new ArrayList<>(portMappings.size());
+        portMappings.forEach((hostPort, containerPort) -> {
+            ExposedPort exposedPort = ExposedPort.tcp(containerPort);
+            exposed.add(exposedPort);
+            bindings.add(new PortBinding(Ports.Binding.bindPort(hostPort), exposedPort));
+        });
+        if (config.getAutoPorts() != null) {
+            for (Integer containerPort : config.getAutoPorts()) {
+                exposed.add(ExposedPort.tcp(containerPort));
+            }
+        }
+
+        List<Bind> binds = new ArrayList<>();
+        if (config.getVolumeMounts() != null) {
+            for (VolumeMount vm : config.getVolumeMounts()) {
+                if (vm != null) {
+                    binds.add(new Bind(vm.getHostPath(), new Volume(vm.getContainerPath()), vm.isReadOnly() ? AccessMode.ro : AccessMode.rw));
+                }
+            }
+        }
+
+        ResourceLimits resourceLimits = config.getResourceLimits();
+        Long memoryBytes = resourceLimits != null ? resourceLimits.getMemoryBytes() : null;
+        // NanoCpus maps directly to cores: 1_000_000_000 means one CPU core
+        Long nanoCpus = resourceLimits != null && resourceLimits.getCpuCores() != null
+                ? (long) (resourceLimits.getCpuCores() * 1_000_000_000)
+                : null;
+
+        String[] cmd = config.getCommand() != null && !config.getCommand().isEmpty()
+                ? config.getCommand().toArray(String[]::new)
+                : null;
+        String[] env = null;
+        if (config.getEnvVariables() != null && !config.getEnvVariables().isEmpty()) {
+            env = config.getEnvVariables().entrySet().stream()
+                    .map(entry -> entry.getKey() + "=" + entry.getValue())
+                    .toArray(String[]::new);
+        }
+
+        HealthCheck healthCheck = config.getHealthCheck() != null && config.getHealthCheck().getTestCommand() != null
+                ? toDockerHealthCheck(config.getHealthCheck())
+                : null;
+
+        PortBinding[] portBindings = bindings.toArray(PortBinding[]::new);
+        return new ContainerSpec(
+                config.getId(),
+                contentHash(config),
+                config.getImageName(),
+                config.getImageTag(),
+                config.getImageName() + ":" + config.getImageTag(),
+                cmd,
+                env,
+                exposed.toArray(ExposedPort[]::new),
+                portBindings,
+                List.copyOf(binds),
+                memoryBytes,
+                nanoCpus,
+                healthCheck,
+                hostConfig(portBindings, binds, memoryBytes, nanoCpus));
+    }
+
+    /**
+     * Host config for an instance. Without extra host ports the shared, precompiled host config is returned.
+     */
+    public HostConfig hostConfigFor(Map<Integer, Integer> assignedHostPorts) {
+        if (assignedHostPorts == null || assignedHostPorts.isEmpty()) {
+            return hostConfig;
+        }
+        PortBinding[] allBindings = new PortBinding[portBindings.length + assignedHostPorts.size()];
+        System.arraycopy(portBindings, 0, allBindings, 0, portBindings.length);
+        int i = portBindings.length;
+        for (Map.Entry<Integer, Integer> entry : assignedHostPorts.entrySet()) {
+            allBindings[i++] = new PortBinding(Ports.Binding.bindPort(entry.getKey()), ExposedPort.tcp(entry.getValue()));
+        }
+        return hostConfig(allBindings, binds, memoryBytes, nanoCpus);
+    }
+
+    /**
+     * Hash over everything that ends up in the compiled spec. Lists are hashed element by element, since
+     * Hibernate's bag collections only provide identity hash codes.
+     */
+    public static int contentHash(ContainerConfiguration config) {
+        int hash = Objects.hash(config.getImageName(), config.getImageTag(), config.getPortMappings(),
+                config.getEnvVariables(), config.getResourceLimits(), config.getHealthCheck());
+        hash = 31 * hash + elementsHash(config.getCommand());
+        hash = 31 * hash + elementsHash(config.getAutoPorts());
+        hash = 31 * hash + elementsHash(config.getVolumeMounts());
+        return hash;
+    }
+
+    private static int elementsHash(List<?> elements) {
+        if (elements == null) {
+            return 0;
+        }
+        int hash = 1;
+        for (Object element : elements) {
+            hash = 31 * hash + Objects.hashCode(element);
+        }
+        return hash;
+    }
+
+    private static HostConfig hostConfig(PortBinding[] portBindings, List<Bind> binds, Long memoryBytes, Long nanoCpus) {
+        HostConfig hostConfig = HostConfig.newHostConfig();
+        if (portBindings.length > 0) {
+            hostConfig.withPortBindings(new Ports(portBindings));
+        }
+        if (!binds.isEmpty()) {
+            hostConfig.withBinds(binds);
+        }
+        if (memoryBytes != null) {
+            hostConfig.withMemory(memoryBytes);
+        }
+        if (nanoCpus != null) {
+            hostConfig.withNanoCPUs(nanoCpus);
+        }
+        return hostConfig;
+    }
+
+    private static HealthCheck toDockerHealthCheck(HealthCheckSpec healthCheck) {
+        // Docker expects all durations in nanoseconds; unset values fall back to the daemon defaults
+        HealthCheck dockerHealthCheck = new HealthCheck()
+                .withTest(List.of("CMD-SHELL", healthCheck.getTestCommand()));
+        if (healthCheck.getIntervalSeconds() != null) {
+            dockerHealthCheck.withInterval(TimeUnit.SECONDS.toNanos(healthCheck.getIntervalSeconds()));
+        }
+        if (healthCheck.getTimeoutSeconds() != null) {
+            dockerHealthCheck.withTimeout(TimeUnit.SECONDS.toNanos(healthCheck.getTimeoutSeconds()));
+        }
+        if (healthCheck.getRetries() != null) {
+            dockerHealthCheck.withRetries(healthCheck.getRetries());
+        }
+        if (healthCheck.getStartPeriodSeconds() != null) {
+            dockerHealthCheck.withStartPeriod(TimeUnit.SECONDS.toNanos(healthCheck.getStartPeriodSeconds()));
+        }
+        return dockerHealthCheck;
+    }
+}
@@ -0,0 +1,48 @@
+package com.magentamause.demodockercontroller.service.docker;
+
+import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
+import com.magentamause.demodockercontroller.event.ConfigurationChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled {@link ContainerSpec}s keyed by configuration ID. A cached spec is only reused while the content
+ * hash of the configuration still matches; configuration changes also evict it eagerly.
+ */
+@Component
+public class ContainerSpecCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ContainerSpecCache.class);
+
+    private final Map<UUID, ContainerSpec> specs = new ConcurrentHashMap<>();
+
+    public ContainerSpec get(ContainerConfiguration config) {
+        if (config.getId() == null) {
+            return ContainerSpec.compile(config);
+        }
+        int contentHash = ContainerSpec.contentHash(config);
+        ContainerSpec spec = specs.get(config.getId());
+        if (spec != null && spec.contentHash() == contentHash) {
+            return spec;
+        }
+        spec = ContainerSpec.compile(config);
+        specs.put(config.getId(), spec);
+        log.debug("Compiled container spec for configuration {}.", config.getId());
+        return spec;
+    }
+
+    public int size() {
+        return specs.size();
+    }
+
+    @EventListener
+    public void onConfigurationChanged(ConfigurationChangedEvent event) {
+        specs.remove(event.configurationId());
+    }
+}
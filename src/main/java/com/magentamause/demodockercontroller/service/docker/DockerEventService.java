@@ -4,35 +4,45 @@ import com.github.dockerjava.api.DockerClient;
 import com.github.dockerjava.api.model.Event;
 import com.github.dockerjava.api.model.EventType;
 import com.github.dockerjava.core.command.EventsResultCallback;
-import com.magentamause.demodockercontroller.domain.ContainerInstance;
 import com.magentamause.demodockercontroller.model.ContainerStatus;
-import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.model.HealthStatus;
+import com.magentamause.demodockercontroller.model.StatusTransitionSource;
+import com.magentamause.demodockercontroller.service.StatusTransitionService;
+import com.magentamause.demodockercontroller.state.FleetStateStore;
+import com.magentamause.demodockercontroller.util.ExecutorFactory;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
-import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 @Service
 public class DockerEventService {
 
     private static final Logger log = LoggerFactory.getLogger(DockerEventService.class);
 
+    // Health events arrive as e.g. "health_status: healthy"
+    private static final String HEALTH_STATUS_ACTION_PREFIX = "health_status";
+
     private final DockerClient dockerClient;
-    private final ContainerInstanceRepository containerInstanceRepository;
-    private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+    private final FleetStateStore fleetStateStore;
+    private final StatusTransitionService statusTransitionService;
+    private final ContainerInspectCache containerInspectCache;
+    private final ExecutorService executorService;
 
     public DockerEventService(@Qualifier("dockerEventsClient") DockerClient dockerClient,
-                              ContainerInstanceRepository containerInstanceRepository) {
+                              FleetStateStore fleetStateStore,
+                              StatusTransitionService statusTransitionService,
+                              ContainerInspectCache containerInspectCache,
+                              ExecutorFactory executorFactory) {
         this.dockerClient = dockerClient;
-        this.containerInstanceRepository = containerInstanceRepository;
+        this.fleetStateStore = fleetStateStore;
+        this.statusTransitionService = statusTransitionService;
+        this.containerInspectCache = containerInspectCache;
+        this.executorService = executorFactory.newSingleThreadExecutor("docker-events");
     }
 
 
@@ -46,8 +56,17 @@ public class DockerEventService {
 			@Override
 			public void onNext(Event event) {
 				log.debug("Received Docker event: {}", event);
+				if (event.getType() == EventType.CONTAINER && event.getActor() != null && event.getActor().getId() != null) {
+					// Any container event may change what inspect reports
+					containerInspectCache.invalidate(event.getActor().getId());
+				}
 				if (event.getType() == EventType.CONTAINER && ("stop".equals(event.getAction()) || "die".equals(event.getAction()))) {
 					handleContainerExit(event);
+				} else if (event.getType() == EventType.CONTAINER && ("pause".equals(event.getAction()) || "unpause".equals(event.getAction()))) {
+					handleContainerPause(event);
+				} else if (event.getType() == EventType.CONTAINER && event.getAction() != null
+						&& event.getAction().startsWith(HEALTH_STATUS_ACTION_PREFIX)) {
+					handleHealthStatus(event);
 				}
 				super.onNext(event);
 			}
@@ -70,40 +89,92 @@ public class DockerEventService {
 		}
 	}
 
-	@Transactional
+	// Lookups and status changes go through the in-memory fleet state; the database is written behind
 	protected void handleContainerExit(Event event) {
 		if (event.getActor() == null || event.getActor().getId() == null) {
 			return;
 		}
 		String dockerContainerId = event.getActor().getId();
+		if (!fleetStateStore.isManaged(dockerContainerId)) {
+			log.debug("Received exit event for a Docker container not managed by this application: {}", dockerContainerId);
+			return;
+		}
 		log.info("Handling container exit event for Docker container ID: {}", dockerContainerId);
 
-		List<ContainerInstance> instances = containerInstanceRepository.findByDockerContainerId(dockerContainerId);
-		if (!instances.isEmpty()) {
-			for (ContainerInstance instance : instances) {
-				if (instance.getStatus() == ContainerStatus.RUNNING) {
-					// Update status based on event type
-					String action = event.getAction();
-					if ("die".equals(action)) {
-						// 'die' event can indicate a crash or an exit with a non-zero status
-						// Let's check the exit code if available
-						String exitCode = event.getActor().getAttributes().get("exitCode");
-						if (exitCode != null && !"0".equals(exitCode)) {
-							instance.setStatus(ContainerStatus.FAILED);
-							log.warn("Container {} exited with non-zero exit code {}. Marking as FAILED.", dockerContainerId, exitCode);
-						} else {
-							instance.setStatus(ContainerStatus.STOPPED);
-							log.info("Container {} exited with exit code 0. Marking as STOPPED.", dockerContainerId);
-						}
-					} else if ("stop".equals(action)) {
-						instance.setStatus(ContainerStatus.STOPPED);
-						log.info("Container {} was stopped. Marking as STOPPED.", dockerContainerId);
-					}
-					containerInstanceRepository.save(instance);
+		String action = event.getAction();
+		if ("die".equals(action)) {
+			// 'die' event can indicate a crash or an exit with a non-zero status
+			String exitCode = event.getActor().getAttributes().get("exitCode");
+			Integer parsedExitCode = parseExitCode(exitCode);
+			if (exitCode != null && !"0".equals(exitCode)) {
+				if (exited(dockerContainerId, ContainerStatus.FAILED, parsedExitCode)) {
+					log.warn("Container {} exited with non-zero exit code {}. Marking as FAILED.", dockerContainerId, exitCode);
 				}
+			} else if (exited(dockerContainerId, ContainerStatus.STOPPED, parsedExitCode)) {
+				log.info("Container {} exited with exit code 0. Marking as STOPPED.", dockerContainerId);
 			}
-		} else {
-			log.debug("Received exit event for a Docker container not managed by this application: {}", dockerContainerId);
+		} else if ("stop".equals(action)) {
+			if (exited(dockerContainerId, ContainerStatus.STOPPED, null)) {
+				log.info("Container {} was stopped. Marking as STOPPED.", dockerContainerId);
+			}
+		}
+	}
+
+	// Paused containers can be stopped or killed without being unpaused first
+	private boolean exited(String dockerContainerId, ContainerStatus status, Integer exitCode) {
+		return statusTransitionService.transition(dockerContainerId, ContainerStatus.RUNNING, status, StatusTransitionSource.EVENT, exitCode)
+				|| statusTransitionService.transition(dockerContainerId, ContainerStatus.PAUSED, status, StatusTransitionSource.EVENT, exitCode);
+	}
+
+	// Pauses made through the API have already been applied; these catch pauses made directly through Docker
+	protected void handleContainerPause(Event event) {
+		if (event.getActor() == null || event.getActor().getId() == null) {
+			return;
+		}
+		String dockerContainerId = event.getActor().getId();
+		boolean paused = "pause".equals(event.getAction());
+		ContainerStatus expected = paused ? ContainerStatus.RUNNING : ContainerStatus.PAUSED;
+		ContainerStatus status = paused ? ContainerStatus.PAUSED : ContainerStatus.RUNNING;
+		if (statusTransitionService.transition(dockerContainerId, expected, status, StatusTransitionSource.EVENT, null)) {
+			log.info("Container {} was {}. Marking as {}.", dockerContainerId, paused ? "paused" : "unpaused", status);
+		}
+	}
+
+	protected void handleHealthStatus(Event event) {
+		if (event.getActor() == null || event.getActor().getId() == null) {
+			return;
+		}
+		String dockerContainerId = event.getActor().getId();
+		HealthStatus healthStatus = parseHealthStatus(event.getAction());
+		if (healthStatus == null) {
+			log.debug("Ignoring unknown health status action '{}' for container {}", event.getAction(), dockerContainerId);
+			return;
+		}
+
+		if (fleetStateStore.updateHealth(dockerContainerId, healthStatus)) {
+			log.info("Container {} health changed to {}.", dockerContainerId, healthStatus);
+		}
+	}
+
+	private HealthStatus parseHealthStatus(String action) {
+		int separator = action.indexOf(':');
+		String value = separator >= 0 ? action.substring(separator + 1).trim() : "";
+		return switch (value) {
+			case "starting" -> HealthStatus.STARTING;
+			case "healthy" -> HealthStatus.HEALTHY;
+			case "unhealthy" -> HealthStatus.UNHEALTHY;
+			default -> null;
+		};
+	}
+
+	private Integer parseExitCode(String exitCode) {
+		if (exitCode == null) {
+			return null;
+		}
+		try {
+			return Integer.valueOf(exitCode);
+		} catch (NumberFormatException e) {
+			return null;
 		}
 	}
 
@@ -1,23 +1,42 @@
 package com.magentamause.demodockercontroller.service.docker;
 
+import com.github.dockerjava.api.async.ResultCallback;
 import com.github.dockerjava.api.command.InspectContainerResponse;
 import com.github.dockerjava.api.model.Container;
+import com.github.dockerjava.api.model.Frame;
+import com.github.dockerjava.api.model.Info;
 import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
-import com.magentamause.demodockercontroller.model.ResourceLimits;
-import com.magentamause.demodockercontroller.model.VolumeMount;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
 public interface DockerService {
     void pullImage(String imageName, String imageTag);
-    String createContainer(String imageName, String imageTag, List<String> command,
-                           Map<Integer, Integer> portMappings, Map<String, String> envVariables,
-                           List<VolumeMount> volumeMounts, ResourceLimits resourceLimits);
+    String createContainer(ContainerSpec spec, Map<Integer, Integer> assignedHostPorts, Map<String, String> labels);
     void startContainer(String containerId);
     void stopContainer(String containerId);
+    void stopContainer(String containerId, int timeoutSeconds);
+    void killContainer(String containerId);
+    void pauseContainer(String containerId);
+    void unpauseContainer(String containerId);
     void deleteContainer(String containerId);
+    // Changes the limits of a running or stopped container in place; null leaves a limit unchanged
+    void updateContainerResources(String containerId, Long memoryBytes, Long nanoCpus);
+    // Removes a container that is not running; false if it is running, true if it is gone
+    boolean removeContainer(String containerId);
+    // Removes an image no container uses; false if a container still uses it, true if it is gone
+    boolean removeImage(String imageReference);
     InspectContainerResponse inspectContainer(String containerId);
+    String createExec(String containerId, List<String> command, List<String> env, String workingDir, String user);
+    // Starts the exec without a TTY; stdout and stderr frames are delivered to the callback as they arrive
+    <T extends ResultCallback<Frame>> T startExec(String execId, T callback);
+    Long getExecExitCode(String execId);
+    // Streams a tar archive of the path; the caller must close the returned stream
+    InputStream copyArchiveFromContainer(String containerId, String path);
+    // Extracts a tar archive (optionally gzip, bzip2 or xz compressed) into the directory at path
+    void copyArchiveToContainer(String containerId, String path, InputStream tarStream);
     List<Container> listAllContainers();
+    Info getInfo();
     boolean containerExists(String containerId);
 }
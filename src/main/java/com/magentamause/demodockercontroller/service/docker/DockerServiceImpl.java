@@ -1,22 +1,29 @@
 package com.magentamause.demodockercontroller.service.docker;
 
 import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback;
 import com.github.dockerjava.api.command.CreateContainerCmd;
 import com.github.dockerjava.api.command.CreateContainerResponse;
+import com.github.dockerjava.api.command.ExecCreateCmd;
 import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.command.UpdateContainerCmd;
+import com.github.dockerjava.api.exception.ConflictException;
+import com.github.dockerjava.api.exception.DockerException;
 import com.github.dockerjava.api.exception.NotFoundException;
 import com.github.dockerjava.api.exception.NotModifiedException;
 import com.github.dockerjava.api.model.*;
 import com.github.dockerjava.core.command.PullImageResultCallback;
-import com.magentamause.demodockercontroller.model.ResourceLimits;
-import com.magentamause.demodockercontroller.model.VolumeMount;
+import com.magentamause.demodockercontroller.exception.ResourceNotFoundException;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import java.io.InputStream;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 @Service
 public class DockerServiceImpl implements DockerService {
@@ -24,210 +31,470 @@ public class DockerServiceImpl implements DockerService {
     private static final Logger log = LoggerFactory.getLogger(DockerServiceImpl.class);
 
     private final DockerClient dockerClient;
+    private final ObservationRegistry observationRegistry;
 
-    public DockerServiceImpl(@Qualifier("dockerClient") DockerClient dockerClient) {
+    public DockerServiceImpl(@Qualifier("dockerClient") DockerClient dockerClient, ObservationRegistry observationRegistry) {
         this.dockerClient = dockerClient;
+        this.observationRegistry = observationRegistry;
+    }
+
+    // Every daemon round trip becomes a "docker.client" observation, i.e. a client span when tracing is enabled
+    private <T> T observe(String operation, String containerId, String image, Supplier<T> call) {
+        Observation observation = Observation.createNotStarted("docker.client", observationRegistry)
+                .contextualName("docker " + operation)
+                .lowCardinalityKeyValue("docker.operation", operation);
+        if (containerId != null) {
+            observation.highCardinalityKeyValue("docker.container.id", containerId);
+        }
+        if (image != null) {
+            observation.highCardinalityKeyValue("docker.image", image);
+        }
+        return observation.observe(call);
+    }
+
+    private void observe(String operation, String containerId, String image, Runnable call) {
+        observe(operation, containerId, image, () -> {
+            call.run();
+            return null;
+        });
     }
 
     @Override
     public void pullImage(String imageName, String imageTag) {
-        String fullImageName = imageName + ":" + imageTag;
-        log.info("Attempting to pull image: {}", fullImageName);
-        try {
-            dockerClient.pullImageCmd(fullImageName)
-                    .exec(new PullImageResultCallback())
-                    .awaitCompletion();
-            log.info("Successfully pulled image: {}", fullImageName);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("Image pull interrupted for {}: {}", fullImageName, e.getMessage());
-            throw new RuntimeException("Image pull interrupted", e);
-        } catch (NotFoundException e) {
-            log.error("Image {} not found: {}", fullImageName, e.getMessage());
-            throw new RuntimeException("Image not found", e);
-        } catch (Exception e) {
-            log.error("Failed to pull image {}: {}", fullImageName, e.getMessage());
-            throw new RuntimeException("Failed to pull image", e);
-        }
+        observe("pull", null, imageName + ":" + imageTag, () -> {
+            String fullImageName = imageName + ":" + imageTag;
+            log.info("Attempting to pull image: {}", fullImageName);
+            try {
+                dockerClient.pullImageCmd(fullImageName)
+                        .exec(new PullImageResultCallback())
+                        .awaitCompletion();
+                log.info("Successfully pulled image: {}", fullImageName);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error("Image pull interrupted for {}: {}", fullImageName, e.getMessage());
+                throw new RuntimeException("Image pull interrupted", e);
+            } catch (NotFoundException e) {
+                log.error("Image {} not found: {}", fullImageName, e.getMessage());
+                throw new RuntimeException("Image not found", e);
+            } catch (Exception e) {
+                log.error("Failed to pull image {}: {}", fullImageName, e.getMessage());
+                throw new RuntimeException("Failed to pull image", e);
+            }
+        });
     }
 
     @Override
-    public String createContainer(String imageName, String imageTag, List<String> command,
-                                  Map<Integer, Integer> portMappings, Map<String, String> envVariables,
-                                  List<VolumeMount> volumeMounts, ResourceLimits resourceLimits) {
-        String fullImageName = imageName + ":" + imageTag;
-        log.info("Creating container from image: {}", fullImageName);
+    public String createContainer(ContainerSpec spec, Map<Integer, Integer> assignedHostPorts, Map<String, String> labels) {
+        return observe("create", null, spec.fullImageName(), () -> {
+            String fullImageName = spec.fullImageName();
+            log.info("Creating container from image: {}", fullImageName);
+
+            // Pull image if not present (or handle error if pull fails)
+            try {
+                dockerClient.inspectImageCmd(fullImageName).exec();
+            } catch (NotFoundException e) {
+                log.warn("Image {} not found locally, pulling...", fullImageName);
+                pullImage(spec.imageName(), spec.imageTag());
+            }
 
-        // Pull image if not present (or handle error if pull fails)
-        try {
-            dockerClient.inspectImageCmd(fullImageName).exec();
-        } catch (NotFoundException e) {
-            log.warn("Image {} not found locally, pulling...", fullImageName);
-            pullImage(imageName, imageTag);
+            try {
+                CreateContainerResponse containerResponse = buildCreateContainerCmd(spec, assignedHostPorts, labels).exec();
+                log.info("Container created with ID: {}", containerResponse.getId());
+                return containerResponse.getId();
+            } catch (Exception e) {
+                log.error("Failed to create container from image {}: {}", fullImageName, e.getMessage());
+                throw new RuntimeException("Failed to create container", e);
+            }
+        });
+    }
+
+    // Only assembles precompiled parts of the spec; nothing is derived from the configuration here
+    CreateContainerCmd buildCreateContainerCmd(ContainerSpec spec, Map<Integer, Integer> assignedHostPorts, Map<String, String> labels) {
+        CreateContainerCmd createContainerCmd = dockerClient.createContainerCmd(spec.fullImageName())
+                .withHostConfig(spec.hostConfigFor(assignedHostPorts))
+                .withExposedPorts(spec.exposedPorts())
+                .withAttachStderr(true)
+                .withAttachStdout(true);
+        if (labels != null && !labels.isEmpty()) {
+            createContainerCmd.withLabels(labels);
         }
+        if (spec.cmd() != null) {
+            createContainerCmd.withCmd(spec.cmd());
+        }
+        if (spec.env() != null) {
+            createContainerCmd.withEnv(spec.env());
+        }
+        if (spec.healthCheck() != null) {
+            createContainerCmd.withHealthcheck(spec.healthCheck());
+        }
+        return createContainerCmd;
+    }
 
-        HostConfig hostConfig = HostConfig.newHostConfig();
+    @Override
+    public void startContainer(String containerId) {
+        observe("start", containerId, null, () -> {
+            log.info("Starting container with ID: {}", containerId);
+            try {
+                dockerClient.startContainerCmd(containerId).exec();
+                log.info("Container {} started.", containerId);
+            } catch (NotFoundException e) {
+                log.error("Container {} not found for starting: {}", containerId, e.getMessage());
+                throw new RuntimeException("Container not found", e);
+            } catch (Exception e) {
+                log.error("Failed to start container {}: {}", containerId, e.getMessage());
+                throw new RuntimeException("Failed to start container", e);
+            }
+        });
+    }
 
-        // Port mappings
-        ExposedPort[] exposedPorts = Optional.ofNullable(portMappings).orElse(Collections.emptyMap()).keySet().stream()
-                .map(ExposedPort::tcp)
-                .toArray(ExposedPort[]::new);
+    @Override
+    public void stopContainer(String containerId) {
+        observe("stop", containerId, null, () -> {
+            log.info("Stopping container with ID: {}", containerId);
+            try {
+                dockerClient.stopContainerCmd(containerId).exec();
+                log.info("Container {} stopped.", containerId);
+            } catch (NotFoundException e) {
+                log.error("Container {} not found for stopping: {}", containerId, e.getMessage());
+                throw new RuntimeException("Container not found", e);
+            } catch (Exception e) {
+                log.error("Failed to stop container {}: {}", containerId, e.getMessage());
+                throw new RuntimeException("Failed to stop container", e);
+            }
+        });
+    }
 
-        if (portMappings != null && !portMappings.isEmpty()) {
-            Ports ports = new Ports();
-            portMappings.forEach((hostPort, containerPort) ->
-                    ports.bind(ExposedPort.tcp(containerPort), Ports.Binding.bindPort(hostPort)));
-            hostConfig.withPortBindings(ports);
-        }
+    @Override
+    public void stopContainer(String containerId, int timeoutSeconds) {
+        observe("stop", containerId, null, () -> {
+            log.info("Stopping container with ID: {} (timeout {}s)", containerId, timeoutSeconds);
+            try {
+                dockerClient.stopContainerCmd(containerId).withTimeout(timeoutSeconds).exec();
+                log.info("Container {} stopped.", containerId);
+            } catch (NotModifiedException e) {
+                log.info("Container {} was already stopped.", containerId);
+            } catch (NotFoundException e) {
+                log.error("Container {} not found for stopping: {}", containerId, e.getMessage());
+                throw new RuntimeException("Container not found", e);
+            } catch (Exception e) {
+                log.error("Failed to stop container {}: {}", containerId, e.getMessage());
+                throw new RuntimeException("Failed to stop container", e);
+            }
+        });
+    }
 
-        // Volume mounts
-        List<Bind> binds = Optional.ofNullable(volumeMounts).orElse(Collections.emptyList()).stream()
-                .filter(Objects::nonNull)
-                .map(vm -> new Bind(vm.getHostPath(), new Volume(vm.getContainerPath()), vm.isReadOnly() ? AccessMode.ro : AccessMode.rw))
-                .collect(Collectors.toList());
-        if (!binds.isEmpty()) {
-            hostConfig.withBinds(binds);
-        }
+    @Override
+    public void pauseContainer(String containerId) {
+        observe("pause", containerId, null, () -> {
+            log.info("Pausing container with ID: {}", containerId);
+            try {
+                dockerClient.pauseContainerCmd(containerId).exec();
+                log.info("Container {} paused.", containerId);
+            } catch (NotFoundException e) {
+                log.error("Container {} not found for pausing: {}", containerId, e.getMessage());
+                throw new RuntimeException("Container not found", e);
+            } catch (ConflictException e) {
+                // Already paused, or not running
+                log.warn("Cannot pause container {}: {}", containerId, e.getMessage());
+                throw new IllegalStateException("Cannot pause container " + containerId + ": " + e.getMessage(), e);
+            } catch (Exception e) {
+                log.error("Failed to pause container {}: {}", containerId, e.getMessage());
+                throw new RuntimeException("Failed to pause container", e);
+            }
+        });
+    }
 
-        // Resource limits
-        if (resourceLimits != null) {
-            if (resourceLimits.getMemoryBytes() != null) {
-                hostConfig.withMemory(resourceLimits.getMemoryBytes());
+    @Override
+    public void unpauseContainer(String containerId) {
+        observe("unpause", containerId, null, () -> {
+            log.info("Unpausing container with ID: {}", containerId);
+            try {
+                dockerClient.unpauseContainerCmd(containerId).exec();
+                log.info("Container {} unpaused.", containerId);
+            } catch (NotFoundException e) {
+                log.error("Container {} not found for unpausing: {}", containerId, e.getMessage());
+                throw new RuntimeException("Container not found", e);
+            } catch (ConflictException e) {
+                // Not paused
+                log.warn("Cannot unpause container {}: {}", containerId, e.getMessage());
+                throw new IllegalStateException("Cannot unpause container " + containerId + ": " + e.getMessage(), e);
+            } catch (Exception e) {
+                log.error("Failed to unpause container {}: {}", containerId, e.getMessage());
+                throw new RuntimeException("Failed to unpause container", e);
             }
-            if (resourceLimits.getCpuCores() != null) {
-                // Docker expects CPU period and quota for CPU limits
-                // For simplicity, let's use a common conversion or consider `NanoCpus`
-                // Here, we'll use a simple approximation: 1 core = 1024 shares, or directly NanoCpus
-                // For fine-grained control, period/quota are better.
-                // Let's use NanoCpus for simplicity as it maps directly to cores.
-                // A value of 1_000_000_000 (10^9) means 1 CPU core.
-                hostConfig.withNanoCPUs((long) (resourceLimits.getCpuCores() * 1_000_000_000));
+        });
+    }
+
+    @Override
+    public void updateContainerResources(String containerId, Long memoryBytes, Long nanoCpus) {
+        observe("update", containerId, null, () -> {
+            log.info("Updating resources of container {}: memory {} bytes, {} nano CPUs", containerId, memoryBytes, nanoCpus);
+            try {
+                try {
+                    // The swap limit is left as it is
+                    resourceUpdate(containerId, memoryBytes, nanoCpus).exec();
+                } catch (DockerException e) {
+                    if (memoryBytes == null || e.getMessage() == null || !e.getMessage().contains("memoryswap")) {
+                        throw e;
+                    }
+                    // Docker refuses a memory limit above the current swap limit unless swap is updated with it;
+                    // swap is then set equal to the memory limit, so the container gets no swap
+                    log.info("Memory limit of container {} exceeds its swap limit; setting swap to the memory limit.", containerId);
+                    resourceUpdate(containerId, memoryBytes, nanoCpus).withMemorySwap(memoryBytes).exec();
+                }
+                log.info("Resources of container {} updated.", containerId);
+            } catch (NotFoundException e) {
+                log.error("Container {} not found for updating: {}", containerId, e.getMessage());
+                throw new RuntimeException("Container not found", e);
+            } catch (Exception e) {
+                log.error("Failed to update container {}: {}", containerId, e.getMessage());
+                throw new RuntimeException("Failed to update container: " + e.getMessage(), e);
             }
+        });
+    }
+
+    private UpdateContainerCmd resourceUpdate(String containerId, Long memoryBytes, Long nanoCpus) {
+        UpdateContainerCmd command = dockerClient.updateContainerCmd(containerId);
+        if (memoryBytes != null) {
+            command.withMemory(memoryBytes);
         }
+        if (nanoCpus != null) {
+            command.withNanoCPUs(nanoCpus);
+        }
+        return command;
+    }
 
-        CreateContainerCmd createContainerCmd = dockerClient.createContainerCmd(fullImageName)
-                .withHostConfig(hostConfig)
-                .withExposedPorts(exposedPorts)
-                .withAttachStderr(true)
-                .withAttachStdout(true);
+    @Override
+    public void killContainer(String containerId) {
+        observe("kill", containerId, null, () -> {
+            log.info("Killing container with ID: {}", containerId);
+            try {
+                dockerClient.killContainerCmd(containerId).exec();
+                log.info("Container {} killed.", containerId);
+            } catch (NotFoundException e) {
+                log.error("Container {} not found for killing: {}", containerId, e.getMessage());
+                throw new RuntimeException("Container not found", e);
+            } catch (Exception e) {
+                log.error("Failed to kill container {}: {}", containerId, e.getMessage());
+                throw new RuntimeException("Failed to kill container", e);
+            }
+        });
+    }
 
-        // Command
-        if (command != null && !command.isEmpty()) {
-            createContainerCmd.withCmd(command);
-        }
+    @Override
+    public void deleteContainer(String containerId) {
+        observe("delete", containerId, null, () -> {
+            log.info("Deleting container with ID: {}", containerId);
+            try {
+                // First, stop the container. If it's already stopped, this will do nothing.
+                // A NotFoundException here means it's already gone, which is fine.
+                try {
+                    dockerClient.stopContainerCmd(containerId).exec();
+                    log.info("Container {} stopped before deletion.", containerId);
+                } catch (NotFoundException e) {
+                    log.warn("Container {} not found for stopping before deletion. It may have already been removed.", containerId);
+                    // If the container doesn't exist, we don't need to do anything else.
+                    return;
+                } catch (NotModifiedException e) {
+                    log.info("Container {} was already stopped.", containerId);
+                    // If container is already stopped, we can proceed to delete it.
+                }
 
-        // Environment variables
-        if (envVariables != null && !envVariables.isEmpty()) {
-            List<String> env = envVariables.entrySet().stream()
-                    .map(entry -> entry.getKey() + "=" + entry.getValue())
-                    .collect(Collectors.toList());
-            createContainerCmd.withEnv(env);
-        }
+                // Now, remove the container
+                dockerClient.removeContainerCmd(containerId).exec();
+                log.info("Container {} deleted successfully.", containerId);
+            } catch (NotFoundException e) {
+                log.warn("Container {} not found for deletion. It was likely already removed.", containerId);
+            } catch (Exception e) {
+                log.error("Failed to delete container {}: {}", containerId, e.getMessage());
+                throw new RuntimeException("Failed to delete container", e);
+            }
+        });
+    }
 
-        try {
-            CreateContainerResponse containerResponse = createContainerCmd.exec();
-            log.info("Container created with ID: {}", containerResponse.getId());
-            return containerResponse.getId();
-        } catch (Exception e) {
-            log.error("Failed to create container from image {}: {}", fullImageName, e.getMessage());
-            throw new RuntimeException("Failed to create container", e);
-        }
+    @Override
+    public boolean removeContainer(String containerId) {
+        return observe("remove", containerId, null, () -> {
+            try {
+                dockerClient.removeContainerCmd(containerId).exec();
+                log.info("Container {} removed.", containerId);
+                return true;
+            } catch (NotFoundException e) {
+                log.debug("Container {} was already removed.", containerId);
+                return true;
+            } catch (ConflictException e) {
+                log.warn("Container {} is running and was not removed.", containerId);
+                return false;
+            } catch (Exception e) {
+                log.error("Failed to remove container {}: {}", containerId, e.getMessage());
+                throw new RuntimeException("Failed to remove container", e);
+            }
+        });
     }
 
     @Override
-    public void startContainer(String containerId) {
-        log.info("Starting container with ID: {}", containerId);
-        try {
-            dockerClient.startContainerCmd(containerId).exec();
-            log.info("Container {} started.", containerId);
-        } catch (NotFoundException e) {
-            log.error("Container {} not found for starting: {}", containerId, e.getMessage());
-            throw new RuntimeException("Container not found", e);
-        } catch (Exception e) {
-            log.error("Failed to start container {}: {}", containerId, e.getMessage());
-            throw new RuntimeException("Failed to start container", e);
-        }
+    public boolean removeImage(String imageReference) {
+        return observe("remove image", null, imageReference, () -> {
+            try {
+                dockerClient.removeImageCmd(imageReference).exec();
+                log.info("Image {} removed.", imageReference);
+                return true;
+            } catch (NotFoundException e) {
+                log.debug("Image {} was already removed.", imageReference);
+                return true;
+            } catch (ConflictException e) {
+                log.debug("Image {} is still used by a container and was not removed.", imageReference);
+                return false;
+            } catch (Exception e) {
+                log.error("Failed to remove image {}: {}", imageReference, e.getMessage());
+                throw new RuntimeException("Failed to remove image", e);
+            }
+        });
     }
 
     @Override
-    public void stopContainer(String containerId) {
-        log.info("Stopping container with ID: {}", containerId);
-        try {
-            dockerClient.stopContainerCmd(containerId).exec();
-            log.info("Container {} stopped.", containerId);
-        } catch (NotFoundException e) {
-            log.error("Container {} not found for stopping: {}", containerId, e.getMessage());
-            throw new RuntimeException("Container not found", e);
-        } catch (Exception e) {
-            log.error("Failed to stop container {}: {}", containerId, e.getMessage());
-            throw new RuntimeException("Failed to stop container", e);
-        }
+    public String createExec(String containerId, List<String> command, List<String> env, String workingDir, String user) {
+        return observe("exec create", containerId, null, () -> {
+            try {
+                ExecCreateCmd execCreateCmd = dockerClient.execCreateCmd(containerId)
+                        .withCmd(command.toArray(String[]::new))
+                        .withAttachStdout(true)
+                        .withAttachStderr(true);
+                if (env != null && !env.isEmpty()) {
+                    execCreateCmd.withEnv(env);
+                }
+                if (workingDir != null) {
+                    execCreateCmd.withWorkingDir(workingDir);
+                }
+                if (user != null) {
+                    execCreateCmd.withUser(user);
+                }
+                String execId = execCreateCmd.exec().getId();
+                log.info("Created exec {} in container {}: {}", execId, containerId, command);
+                return execId;
+            } catch (NotFoundException e) {
+                log.error("Container {} not found for exec: {}", containerId, e.getMessage());
+                throw new RuntimeException("Container not found", e);
+            } catch (ConflictException e) {
+                throw new IllegalStateException("Container " + containerId + " is not running", e);
+            } catch (Exception e) {
+                log.error("Failed to create exec in container {}: {}", containerId, e.getMessage());
+                throw new RuntimeException("Failed to create exec", e);
+            }
+        });
     }
 
     @Override
-    public void deleteContainer(String containerId) {
-        log.info("Deleting container with ID: {}", containerId);
-        try {
-            // First, stop the container. If it's already stopped, this will do nothing.
-            // A NotFoundException here means it's already gone, which is fine.
+    public <T extends ResultCallback<Frame>> T startExec(String execId, T callback) {
+        // Only the start is observed; the output is consumed asynchronously by the callback
+        return observe("exec start", null, null, () -> {
             try {
-                dockerClient.stopContainerCmd(containerId).exec();
-                log.info("Container {} stopped before deletion.", containerId);
+                return dockerClient.execStartCmd(execId).withDetach(false).withTty(false).exec(callback);
+            } catch (Exception e) {
+                log.error("Failed to start exec {}: {}", execId, e.getMessage());
+                throw new RuntimeException("Failed to start exec", e);
+            }
+        });
+    }
+
+    @Override
+    public Long getExecExitCode(String execId) {
+        return observe("exec inspect", null, null, () -> {
+            try {
+                return dockerClient.inspectExecCmd(execId).exec().getExitCodeLong();
+            } catch (Exception e) {
+                log.error("Failed to inspect exec {}: {}", execId, e.getMessage());
+                throw new RuntimeException("Failed to inspect exec", e);
+            }
+        });
+    }
+
+    @Override
+    public InputStream copyArchiveFromContainer(String containerId, String path) {
+        return observe("archive get", containerId, null, () -> {
+            try {
+                return dockerClient.copyArchiveFromContainerCmd(containerId, path).exec();
             } catch (NotFoundException e) {
-                log.warn("Container {} not found for stopping before deletion. It may have already been removed.", containerId);
-                // If the container doesn't exist, we don't need to do anything else.
-                return;
-            } catch (NotModifiedException e) {
-                log.info("Container {} was already stopped.", containerId);
-                // If container is already stopped, we can proceed to delete it.
+                throw new ResourceNotFoundException("Path " + path + " not found in container " + containerId, e);
+            } catch (Exception e) {
+                log.error("Failed to copy {} from container {}: {}", path, containerId, e.getMessage());
+                throw new RuntimeException("Failed to copy archive from container", e);
             }
+        });
+    }
 
-            // Now, remove the container
-            dockerClient.removeContainerCmd(containerId).exec();
-            log.info("Container {} deleted successfully.", containerId);
-        } catch (NotFoundException e) {
-            log.warn("Container {} not found for deletion. It was likely already removed.", containerId);
-        } catch (Exception e) {
-            log.error("Failed to delete container {}: {}", containerId, e.getMessage());
-            throw new RuntimeException("Failed to delete container", e);
-        }
+    @Override
+    public void copyArchiveToContainer(String containerId, String path, InputStream tarStream) {
+        observe("archive put", containerId, null, () -> {
+            try {
+                // The stream is sent as a chunked request body, so it is never held in memory as a whole
+                dockerClient.copyArchiveToContainerCmd(containerId)
+                        .withRemotePath(path)
+                        .withTarInputStream(tarStream)
+                        .exec();
+                log.info("Extracted archive into {} of container {}.", path, containerId);
+            } catch (NotFoundException e) {
+                throw new ResourceNotFoundException("Path " + path + " not found in container " + containerId, e);
+            } catch (Exception e) {
+                log.error("Failed to copy archive into {} of container {}: {}", path, containerId, e.getMessage());
+                throw new RuntimeException("Failed to copy archive to container", e);
+            }
+        });
     }
 
     @Override
     public InspectContainerResponse inspectContainer(String containerId) {
-        log.debug("Inspecting container with ID: {}", containerId);
-        try {
-            return dockerClient.inspectContainerCmd(containerId).exec();
-        } catch (NotFoundException e) {
-            log.warn("Container {} not found during inspection: {}", containerId, e.getMessage());
-            return null;
-        } catch (Exception e) {
-            log.error("Failed to inspect container {}: {}", containerId, e.getMessage());
-            throw new RuntimeException("Failed to inspect container", e);
-        }
+        return observe("inspect", containerId, null, () -> {
+            log.debug("Inspecting container with ID: {}", containerId);
+            try {
+                return dockerClient.inspectContainerCmd(containerId).exec();
+            } catch (NotFoundException e) {
+                log.warn("Container {} not found during inspection: {}", containerId, e.getMessage());
+                return null;
+            } catch (Exception e) {
+                log.error("Failed to inspect container {}: {}", containerId, e.getMessage());
+                throw new RuntimeException("Failed to inspect container", e);
+            }
+        });
     }
 
     @Override
     public List<Container> listAllContainers() {
-        log.debug("Listing all containers.");
-        try {
-            return dockerClient.listContainersCmd().withShowAll(true).exec();
-        } catch (Exception e) {
-            log.error("Failed to list containers: {}", e.getMessage());
-            throw new RuntimeException("Failed to list containers", e);
-        }
+        return observe("list", null, null, () -> {
+            log.debug("Listing all containers.");
+            try {
+                return dockerClient.listContainersCmd().withShowAll(true).exec();
+            } catch (Exception e) {
+                log.error("Failed to list containers: {}", e.getMessage());
+                throw new RuntimeException("Failed to list containers", e);
+            }
+        });
+    }
+
+    @Override
+    public Info getInfo() {
+        return observe("info", null, null, () -> {
+            try {
+                return dockerClient.infoCmd().exec();
+            } catch (Exception e) {
+                log.error("Failed to get Docker host info: {}", e.getMessage());
+                throw new RuntimeException("Failed to get Docker host info", e);
+            }
+        });
     }
 
     @Override
     public boolean containerExists(String containerId) {
-        try {
-            dockerClient.inspectContainerCmd(containerId).exec();
-            return true;
-        } catch (NotFoundException e) {
-            return false;
-        } catch (Exception e) {
-            log.error("Error checking existence of container {}: {}", containerId, e.getMessage());
-            throw new RuntimeException("Error checking container existence", e);
-        }
+        return observe("inspect", containerId, null, () -> {
+            try {
+                dockerClient.inspectContainerCmd(containerId).exec();
+                return true;
+            } catch (NotFoundException e) {
+                return false;
+            } catch (Exception e) {
+                log.error("Error checking existence of container {}: {}", containerId, e.getMessage());
+                throw new RuntimeException("Error checking container existence", e);
+            }
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,337 @@
+package com.magentamause.demodockercontroller.state;
+
+import com.magentamause.demodockercontroller.domain.ContainerInstance;
+import com.magentamause.demodockercontroller.journal.StatusJournal;
+import com.magentamause.demodockercontroller.journal.StatusTransition;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.HealthStatus;
+import com.magentamause.demodockercontroller.model.StatusTransitionSource;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceFilter;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.service.ChangeVersionTracker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Authoritative in-memory state of all instances, backed by a {@link FleetStateTable}. Instance reads are
+ * served from the table. Changes committed through JPA are applied after commit (see
+ * {@code FleetStateEntityListener}); status and health changes from Docker events are applied to the table
+ * only and persisted by a batched write-behind flush. Those transitions are appended to the status journal
+ * as they are published, so changes that had not been flushed when the process died are replayed from the
+ * journal on startup.
+ */
+@Service
+public class FleetStateStore {
+
+    private static final Logger log = LoggerFactory.getLogger(FleetStateStore.class);
+
+    // The timestamp guard keeps a flush from overwriting a newer status committed through JPA in the meantime
+    private static final String FLUSH_SQL = "update container_instance set status = ?, health_status = ?, status_changed_at = ? "
+            + "where id = ? and (status_changed_at is null or status_changed_at < ?)";
+
+    private static final String LOAD_SQL = "select id, configuration_id, docker_container_id, status, health_status, created_at, "
+            + "started_at, status_changed_at, restart_count, configuration_revision, memory_limit_bytes, cpu_limit_cores, crash_loop_detected from container_instance";
+
+    private static final String LOAD_HOST_PORTS_SQL = "select instance_id, host_port, container_port from container_instance_host_ports";
+
+    private final FleetStateTable table = new FleetStateTable(1024);
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ContainerInstanceRepository containerInstanceRepository;
+    private final StatusJournal statusJournal;
+    private final ChangeVersionTracker changeVersionTracker;
+    private final int flushBatchSize;
+    private final long recoveryWindowMillis;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Timer flushTimer;
+    private final Counter flushFailures;
+
+    public FleetStateStore(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           ContainerInstanceRepository containerInstanceRepository,
+                           StatusJournal statusJournal,
+                           ChangeVersionTracker changeVersionTracker,
+                           MeterRegistry meterRegistry,
+                           @Value("${docker.state.flush-batch-size:1000}") int flushBatchSize,
+                           @Value("${docker.state.recovery-window-ms:600000}") long recoveryWindowMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.containerInstanceRepository = containerInstanceRepository;
+        this.statusJournal = statusJournal;
+        this.changeVersionTracker = changeVersionTracker;
+        this.flushBatchSize = flushBatchSize;
+        this.recoveryWindowMillis = recoveryWindowMillis;
+        this.flushTimer = Timer.builder("fleet.state.flush")
+                .description("Time spent persisting one write-behind batch")
+                .register(meterRegistry);
+        this.flushFailures = Counter.builder("fleet.state.flush.failures")
+                .description("Write-behind batches that failed and were retried")
+                .register(meterRegistry);
+        Gauge.builder("fleet.state.instances", table, FleetStateTable::size)
+                .description("Instances held in the in-memory state table")
+                .register(meterRegistry);
+        Gauge.builder("fleet.state.pending", table, FleetStateTable::pendingCount)
+                .description("Instances with changes not yet written behind to the database")
+                .register(meterRegistry);
+        Gauge.builder("fleet.state.memory", table, FleetStateTable::estimatedBytes)
+                .description("Approximate heap used by the in-memory state table")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("fleet.state.memory.per.100k.instances", table, FleetStateTable::estimatedBytesPer100k)
+                .description("Approximate heap the in-memory state table needs for 100,000 instances")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        long start = System.nanoTime();
+        table.replaceAll(loadAll());
+        int recovered = recover();
+        log.info("Loaded {} instances into the fleet state table in {} ms ({} recovered from the journal, ~{} KiB, ~{} KiB per 100k instances).",
+                table.size(), (System.nanoTime() - start) / 1_000_000, recovered,
+                table.estimatedBytes() / 1024, table.estimatedBytesPer100k() / 1024);
+        if (recovered > 0) {
+            flush();
+        }
+    }
+
+    /**
+     * Reloads the table from the database, e.g. after instances were changed behind JPA's back. Pending
+     * changes are flushed first.
+     */
+    public void reload() {
+        flush();
+        table.replaceAll(loadAll());
+        changeVersionTracker.instancesChanged();
+    }
+
+    public Optional<InstanceState> get(UUID instanceId) {
+        return Optional.ofNullable(table.get(instanceId));
+    }
+
+    public List<InstanceState> find(ContainerInstanceFilter filter) {
+        return table.select(filter);
+    }
+
+    public boolean isManaged(String dockerContainerId) {
+        return table.containsDockerId(dockerContainerId);
+    }
+
+    public int countByConfiguration(UUID configurationId, ContainerStatus status) {
+        return table.countByConfiguration(configurationId, status);
+    }
+
+    public Map<UUID, long[]> countByConfigurationAndStatus() {
+        return table.countByConfigurationAndStatus();
+    }
+
+    public FleetStateTable.CommittedResources committedResources() {
+        return table.committedResources();
+    }
+
+    /**
+     * Changes the status of the instance running in the given container in memory, if it currently has the
+     * expected status. The database catches up through the write-behind flush.
+     */
+    public InstanceState transition(String dockerContainerId, ContainerStatus expected, ContainerStatus status) {
+        InstanceState changed = table.transition(dockerContainerId, expected, status, System.currentTimeMillis());
+        if (changed != null) {
+            changeVersionTracker.instancesChanged();
+        }
+        return changed;
+    }
+
+    public boolean updateHealth(String dockerContainerId, HealthStatus healthStatus) {
+        boolean changed = table.updateHealth(dockerContainerId, healthStatus);
+        if (changed) {
+            changeVersionTracker.instancesChanged();
+        }
+        return changed;
+    }
+
+    // Called for JPA writes; the table follows the database once the transaction has committed, and the change
+    // version only moves once the table has the change
+
+    public void saved(ContainerInstance instance) {
+        InstanceState state = InstanceState.of(instance);
+        afterCommit(() -> {
+            table.upsert(state);
+            changeVersionTracker.instancesCommitted();
+        });
+    }
+
+    public void deleted(ContainerInstance instance) {
+        UUID instanceId = instance.getId();
+        afterCommit(() -> {
+            table.remove(instanceId);
+            changeVersionTracker.instancesCommitted();
+        });
+    }
+
+    /**
+     * Applies in-memory changes that have not been written behind yet to a freshly loaded entity, so JPA
+     * callers never act on (and save back) a status the table has already moved past.
+     */
+    public void loaded(ContainerInstance instance) {
+        if (instance.getId() == null) {
+            return;
+        }
+        InstanceState pending = table.pending(instance.getId());
+        if (pending != null) {
+            instance.setStatus(pending.status());
+            instance.setHealthStatus(pending.healthStatus());
+            instance.setStatusChangedAt(pending.statusChangedAt());
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${docker.state.flush-interval-ms:200}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<FleetStateTable.PendingWrite> writes;
+            while (!(writes = table.drainPending(flushBatchSize)).isEmpty()) {
+                if (!write(writes)) {
+                    return;
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private boolean write(List<FleetStateTable.PendingWrite> writes) {
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(FLUSH_SQL, writes, writes.size(), this::bind));
+            table.flushed(writes, true);
+            return true;
+        } catch (RuntimeException e) {
+            table.flushed(writes, false);
+            flushFailures.increment();
+            log.warn("Failed to write {} instance changes behind to the database; retrying with the next flush: {}",
+                    writes.size(), e.getMessage());
+            return false;
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void bind(PreparedStatement statement, FleetStateTable.PendingWrite write) throws SQLException {
+        setNullable(statement, 1, write.status() != null ? write.status().name() : null, Types.VARCHAR);
+        setNullable(statement, 2, write.healthStatus() != null ? write.healthStatus().name() : null, Types.VARCHAR);
+        Instant statusChangedAt = write.statusChangedAt() != null ? write.statusChangedAt() : Instant.now();
+        statement.setObject(3, OffsetDateTime.ofInstant(statusChangedAt, ZoneOffset.UTC));
+        statement.setObject(4, write.id());
+        // The table keeps millisecond precision, so a committed timestamp within the same millisecond is not newer
+        statement.setObject(5, OffsetDateTime.ofInstant(statusChangedAt.plusMillis(1), ZoneOffset.UTC));
+    }
+
+    private static void setNullable(PreparedStatement statement, int index, String value, int sqlType) throws SQLException {
+        if (value != null) {
+            statement.setString(index, value);
+        } else {
+            statement.setNull(index, sqlType);
+        }
+    }
+
+    // Event transitions are journaled synchronously but persisted asynchronously; replay those that are newer
+    // than the database. Everything older than the recovery window before the latest persisted change is
+    // known to have been flushed.
+    private int recover() {
+        Instant latest = containerInstanceRepository.findLatestStatusChange();
+        if (latest == null) {
+            return 0;
+        }
+        int recovered = 0;
+        for (StatusTransition transition : statusJournal.scan(latest.minusMillis(recoveryWindowMillis), null, Integer.MAX_VALUE)) {
+            if (transition.source() == StatusTransitionSource.EVENT
+                    && table.recover(transition.instanceId(), transition.status(), transition.timestamp().toEpochMilli())) {
+                recovered++;
+            }
+        }
+        return recovered;
+    }
+
+    private List<InstanceState> loadAll() {
+        Map<UUID, Map<Integer, Integer>> hostPorts = new HashMap<>();
+        jdbcTemplate.query(LOAD_HOST_PORTS_SQL, resultSet -> {
+            hostPorts.computeIfAbsent(resultSet.getObject("instance_id", UUID.class), id -> new HashMap<>())
+                    .put(resultSet.getInt("host_port"), resultSet.getInt("container_port"));
+        });
+        List<InstanceState> states = new ArrayList<>();
+        jdbcTemplate.query(LOAD_SQL, resultSet -> {
+            UUID id = resultSet.getObject("id", UUID.class);
+            String status = resultSet.getString("status");
+            String healthStatus = resultSet.getString("health_status");
+            states.add(new InstanceState(
+                    id,
+                    resultSet.getObject("configuration_id", UUID.class),
+                    resultSet.getString("docker_container_id"),
+                    status != null ? ContainerStatus.valueOf(status) : null,
+                    healthStatus != null ? HealthStatus.valueOf(healthStatus) : null,
+                    toInstant(resultSet.getObject("created_at", OffsetDateTime.class)),
+                    toInstant(resultSet.getObject("started_at", OffsetDateTime.class)),
+                    toInstant(resultSet.getObject("status_changed_at", OffsetDateTime.class)),
+                    resultSet.getInt("restart_count"),
+                    resultSet.getInt("configuration_revision"),
+                    resultSet.getObject("memory_limit_bytes", Long.class),
+                    resultSet.getObject("cpu_limit_cores", Double.class),
+                    resultSet.getBoolean("crash_loop_detected"),
+                    hostPorts.getOrDefault(id, Map.of())));
+        });
+        return states;
+    }
+
+    private static Instant toInstant(OffsetDateTime value) {
+        return value != null ? value.toInstant() : null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Nothing may be left only in memory once the database goes away
+        flush();
+    }
+}
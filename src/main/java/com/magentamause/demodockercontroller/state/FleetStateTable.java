@@ -0,0 +1,973 @@
+package com.magentamause.demodockercontroller.state;
+
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.HealthStatus;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceFilter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Columnar in-memory table of instance state. UUIDs are stored as pairs of longs, timestamps as epoch millis
+ * CPU limits as nano CPUs and statuses as enum ordinals in bytes; each Docker container ID is held once, as the first string instance
+ * seen for it. Rows are indexed by instance ID, Docker container ID and configuration ID with open-addressing
+ * hash tables over int arrays (linear probing, backward-shift deletion), and the rows of a configuration are
+ * chained through the slot arrays, so none of the lookups allocate. Allocation-free lookups read optimistically
+ * and only take the read lock when they overlap a write.
+ * <p>
+ * Rows changed by {@link #transition}, {@link #updateHealth} or {@link #recover} are pending until a
+ * write-behind flush has persisted them: {@link #drainPending} hands them out and {@link #flushed} settles them.
+ */
+public class FleetStateTable {
+
+    private static final int NO_SLOT = -1;
+    private static final long ABSENT = Long.MIN_VALUE;
+    private static final byte NONE = -1;
+
+    // Row flags
+    private static final byte LIVE = 1;
+    private static final byte HAS_CONFIGURATION = 2;
+    private static final byte CRASH_LOOP = 4;
+    private static final byte DIRTY = 8;      // changed in memory, not yet picked up by a flush
+    private static final byte FLUSHING = 16;  // picked up by a flush that has not completed yet
+    private static final byte PENDING = DIRTY | FLUSHING;
+
+    private static final int ID_INDEX = 0;
+    private static final int DOCKER_ID_INDEX = 1;
+    private static final int CONFIGURATION_INDEX = 2;
+
+    private static final ContainerStatus[] STATUSES = ContainerStatus.values();
+    private static final HealthStatus[] HEALTH_STATUSES = HealthStatus.values();
+
+    // Heap footprint with compressed oops: 9 long columns, 3 byte columns, 4 int columns, 2 reference
+    // columns and the free list per slot; three int index entries per slot at the 2x index sizing
+    private static final int BYTES_PER_SLOT = 9 * Long.BYTES + 3 + 4 * Integer.BYTES + 2 * Integer.BYTES + Integer.BYTES;
+    private static final int INDEX_BYTES_PER_SLOT = 3 * 2 * Integer.BYTES;
+    private static final int TYPICAL_DOCKER_ID_LENGTH = 64;
+    private static final int MIN_CAPACITY = 16;
+
+    private final StampedLock lock = new StampedLock();
+
+    private int capacity;
+    private int size;
+    private int highWater;  // slots at or above this index have never been used
+    private int[] freeSlots;
+    private int freeCount;
+    private int dirtyCount;
+    private int flushCursor;
+    private long variableBytes;  // Docker ID strings and host port arrays
+
+    private long[] idHigh;
+    private long[] idLow;
+    private long[] configurationHigh;
+    private long[] configurationLow;
+    private String[] dockerContainerIds;
+    private byte[] statuses;
+    private byte[] healthStatuses;
+    private byte[] flags;
+    private long[] createdAt;
+    private long[] startedAt;
+    private long[] statusChangedAt;
+    private int[] restartCounts;
+    private int[] configurationRevisions;
+    private long[] memoryLimits;
+    private long[] nanoCpuLimits;
+    private int[][] hostPorts;  // host port, container port pairs
+    private int[] nextOfConfiguration;
+    private int[] previousOfConfiguration;
+
+    // Entries are slot + 1, 0 marks an empty bucket; the configuration index points at the head of each chain
+    private int[] idIndex;
+    private int[] dockerIdIndex;
+    private int[] configurationIndex;
+
+    public FleetStateTable(int initialCapacity) {
+        reset(Math.max(MIN_CAPACITY, initialCapacity));
+    }
+
+    /**
+     * Replaces the content with the given rows. Pending rows that are newer than their replacement keep their
+     * in-memory status and stay pending.
+     */
+    public void replaceAll(Collection<InstanceState> states) {
+        long stamp = lock.writeLock();
+        try {
+            List<InstanceState> pending = new ArrayList<>();
+            for (int slot = 0; slot < highWater; slot++) {
+                if ((flags[slot] & LIVE) != 0 && (flags[slot] & PENDING) != 0) {
+                    pending.add(read(slot));
+                }
+            }
+            reset(Math.max(MIN_CAPACITY, tableSizeFor(states.size())));
+            for (InstanceState state : states) {
+                put(state);
+            }
+            for (InstanceState state : pending) {
+                int slot = findById(state.id().getMostSignificantBits(), state.id().getLeastSignificantBits());
+                if (slot != NO_SLOT) {
+                    recover(slot, ordinal(state.status()), ordinal(state.healthStatus()), toMillis(state.statusChangedAt()));
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Inserts or replaces a row with committed state. A pending in-memory status change that is newer than the
+     * committed one is kept.
+     */
+    public void upsert(InstanceState state) {
+        long stamp = lock.writeLock();
+        try {
+            put(state);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean remove(UUID id) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = findById(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (slot == NO_SLOT) {
+                return false;
+            }
+            setDockerContainerId(slot, null);
+            if ((flags[slot] & HAS_CONFIGURATION) != 0) {
+                unlink(slot);
+            }
+            removeEntry(ID_INDEX, slot);
+            if ((flags[slot] & DIRTY) != 0) {
+                dirtyCount--;
+            }
+            variableBytes -= hostPortBytes(hostPorts[slot]);
+            hostPorts[slot] = null;
+            flags[slot] = 0;
+            freeSlots[freeCount++] = slot;
+            size--;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Changes the status of the instance with the given Docker container ID if it currently has the expected
+     * status, and marks the row pending. Returns the changed row, or null if nothing changed.
+     */
+    public InstanceState transition(String dockerContainerId, ContainerStatus expected, ContainerStatus status, long nowMillis) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = findByDockerId(dockerContainerId);
+            if (slot == NO_SLOT || statuses[slot] != ordinal(expected) || expected == status) {
+                return null;
+            }
+            statuses[slot] = ordinal(status);
+            statusChangedAt[slot] = nowMillis;
+            markDirty(slot);
+            return read(slot);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean updateHealth(String dockerContainerId, HealthStatus healthStatus) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = findByDockerId(dockerContainerId);
+            if (slot == NO_SLOT || healthStatuses[slot] == ordinal(healthStatus)) {
+                return false;
+            }
+            healthStatuses[slot] = ordinal(healthStatus);
+            markDirty(slot);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Applies a status change that may not have reached the database, if it is newer than the row's current
+     * status. Used to replay the status journal after a restart.
+     */
+    public boolean recover(UUID id, ContainerStatus status, long statusChangedAtMillis) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = findById(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            return slot != NO_SLOT && recover(slot, ordinal(status), healthStatuses[slot], statusChangedAtMillis);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private boolean recover(int slot, byte status, byte healthStatus, long statusChangedAtMillis) {
+        if (statusChangedAt[slot] >= statusChangedAtMillis) {
+            return false;
+        }
+        statuses[slot] = status;
+        healthStatuses[slot] = healthStatus;
+        statusChangedAt[slot] = statusChangedAtMillis;
+        markDirty(slot);
+        return true;
+    }
+
+    /**
+     * Hands out up to {@code limit} rows changed since the last call. They stay pending until {@link #flushed}.
+     */
+    public List<PendingWrite> drainPending(int limit) {
+        long stamp = lock.writeLock();
+        try {
+            if (dirtyCount == 0) {
+                return List.of();
+            }
+            List<PendingWrite> writes = new ArrayList<>(Math.min(limit, dirtyCount));
+            int slot = flushCursor < highWater ? flushCursor : 0;
+            for (int scanned = 0; scanned < highWater && writes.size() < limit; scanned++) {
+                if ((flags[slot] & DIRTY) != 0) {
+                    flags[slot] = (byte) ((flags[slot] & ~DIRTY) | FLUSHING);
+                    dirtyCount--;
+                    writes.add(new PendingWrite(new UUID(idHigh[slot], idLow[slot]), toStatus(statuses[slot]),
+                            toHealth(healthStatuses[slot]), toInstant(statusChangedAt[slot])));
+                }
+                slot = slot + 1 < highWater ? slot + 1 : 0;
+            }
+            flushCursor = slot;
+            return writes;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Settles rows handed out by {@link #drainPending}; rows whose write failed are pending again.
+     */
+    public void flushed(List<PendingWrite> writes, boolean persisted) {
+        long stamp = lock.writeLock();
+        try {
+            for (PendingWrite write : writes) {
+                int slot = findById(write.id().getMostSignificantBits(), write.id().getLeastSignificantBits());
+                if (slot == NO_SLOT) {
+                    continue;
+                }
+                flags[slot] &= ~FLUSHING;
+                if (!persisted) {
+                    markDirty(slot);
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the row if it has in-memory changes that may not have been persisted yet, otherwise null.
+     */
+    public InstanceState pending(UUID id) {
+        long stamp = lock.readLock();
+        try {
+            int slot = findById(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            return slot != NO_SLOT && (flags[slot] & PENDING) != 0 ? read(slot) : null;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public InstanceState get(UUID id) {
+        long stamp = lock.readLock();
+        try {
+            int slot = findById(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            return slot != NO_SLOT ? read(slot) : null;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public List<InstanceState> select(ContainerInstanceFilter filter) {
+        long stamp = lock.readLock();
+        try {
+            List<InstanceState> result = new ArrayList<>();
+            if (filter.configurationId() != null) {
+                UUID configurationId = filter.configurationId();
+                int slot = findConfigurationHead(configurationId.getMostSignificantBits(), configurationId.getLeastSignificantBits());
+                for (; slot != NO_SLOT; slot = nextOfConfiguration[slot]) {
+                    if (matches(slot, filter)) {
+                        result.add(read(slot));
+                    }
+                }
+            } else {
+                for (int slot = 0; slot < highWater; slot++) {
+                    if ((flags[slot] & LIVE) != 0 && matches(slot, filter)) {
+                        result.add(read(slot));
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Allocation-free lookups
+
+    public boolean contains(UUID id) {
+        long high = id.getMostSignificantBits();
+        long low = id.getLeastSignificantBits();
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                boolean found = findById(high, low) != NO_SLOT;
+                if (lock.validate(stamp)) {
+                    return found;
+                }
+            } catch (RuntimeException e) {
+                // Torn read overlapping a resize; retried under the read lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return findById(high, low) != NO_SLOT;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public ContainerStatus statusOf(UUID id) {
+        long high = id.getMostSignificantBits();
+        long low = id.getLeastSignificantBits();
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                byte status = statusAt(findById(high, low));
+                if (lock.validate(stamp)) {
+                    return toStatus(status);
+                }
+            } catch (RuntimeException e) {
+                // Torn read overlapping a resize; retried under the read lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return toStatus(statusAt(findById(high, low)));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean containsDockerId(String dockerContainerId) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                boolean found = findByDockerId(dockerContainerId) != NO_SLOT;
+                if (lock.validate(stamp)) {
+                    return found;
+                }
+            } catch (RuntimeException e) {
+                // Torn read overlapping a resize; retried under the read lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return findByDockerId(dockerContainerId) != NO_SLOT;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public ContainerStatus statusOfDockerId(String dockerContainerId) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                byte status = statusAt(findByDockerId(dockerContainerId));
+                if (lock.validate(stamp)) {
+                    return toStatus(status);
+                }
+            } catch (RuntimeException e) {
+                // Torn read overlapping a resize; retried under the read lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return toStatus(statusAt(findByDockerId(dockerContainerId)));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Counts the instances of a configuration, optionally restricted to one status (null counts all).
+     */
+    public int countByConfiguration(UUID configurationId, ContainerStatus status) {
+        long high = configurationId.getMostSignificantBits();
+        long low = configurationId.getLeastSignificantBits();
+        byte ordinal = ordinal(status);
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                int count = countChain(high, low, status != null, ordinal);
+                if (lock.validate(stamp)) {
+                    return count;
+                }
+            } catch (RuntimeException e) {
+                // Torn read overlapping a resize; retried under the read lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return countChain(high, low, status != null, ordinal);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private int countChain(long high, long low, boolean filterStatus, byte ordinal) {
+        int count = 0;
+        // Bounded so a torn optimistic read can never loop forever
+        int slot = findConfigurationHead(high, low);
+        for (int steps = 0; slot != NO_SLOT && steps < capacity; steps++, slot = nextOfConfiguration[slot]) {
+            if (!filterStatus || statuses[slot] == ordinal) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts all instances per configuration and status, indexed by status ordinal. Instances without a
+     * configuration are counted under a null key, instances without a status are skipped.
+     */
+    public Map<UUID, long[]> countByConfigurationAndStatus() {
+        long stamp = lock.readLock();
+        try {
+            Map<UUID, long[]> counts = new HashMap<>();
+            for (int slot = 0; slot < highWater; slot++) {
+                if ((flags[slot] & LIVE) == 0 || statuses[slot] == NONE) {
+                    continue;
+                }
+                UUID configurationId = (flags[slot] & HAS_CONFIGURATION) != 0
+                        ? new UUID(configurationHigh[slot], configurationLow[slot]) : null;
+                counts.computeIfAbsent(configurationId, id -> new long[STATUSES.length])[statuses[slot]]++;
+            }
+            return counts;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Sums the limits of all running and paused instances (paused containers keep their memory). Instances
+     * without a memory or CPU limit are only counted.
+     */
+    public CommittedResources committedResources() {
+        long stamp = lock.readLock();
+        try {
+            byte running = ordinal(ContainerStatus.RUNNING);
+            byte paused = ordinal(ContainerStatus.PAUSED);
+            int instances = 0;
+            int withoutMemoryLimit = 0;
+            int withoutCpuLimit = 0;
+            long memoryBytes = 0;
+            long nanoCpus = 0;
+            for (int slot = 0; slot < highWater; slot++) {
+                if ((flags[slot] & LIVE) == 0 || (statuses[slot] != running && statuses[slot] != paused)) {
+                    continue;
+                }
+                instances++;
+                if (memoryLimits[slot] != ABSENT) {
+                    memoryBytes += memoryLimits[slot];
+                } else {
+                    withoutMemoryLimit++;
+                }
+                if (nanoCpuLimits[slot] != ABSENT) {
+                    nanoCpus += nanoCpuLimits[slot];
+                } else {
+                    withoutCpuLimit++;
+                }
+            }
+            return new CommittedResources(instances, memoryBytes, nanoCpus, withoutMemoryLimit, withoutCpuLimit);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int pendingCount() {
+        return dirtyCount;
+    }
+
+    /**
+     * Approximate heap footprint of the table, including indexes, Docker ID strings and host port arrays.
+     */
+    public long estimatedBytes() {
+        long stamp = lock.readLock();
+        try {
+            return (long) capacity * BYTES_PER_SLOT + 3L * idIndex.length * Integer.BYTES + variableBytes;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Approximate heap footprint of a table holding 100,000 instances, based on the Docker ID and host port
+     * sizes of the current rows (or full-length Docker IDs while the table is empty).
+     */
+    public long estimatedBytesPer100k() {
+        long stamp = lock.readLock();
+        try {
+            long variableBytesPerRow = size > 0 ? variableBytes / size : stringBytes(TYPICAL_DOCKER_ID_LENGTH);
+            return estimateBytes(100_000, variableBytesPerRow);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    static long estimateBytes(int rows, long variableBytesPerRow) {
+        long slots = tableSizeFor(Math.max(MIN_CAPACITY, rows));
+        return slots * (BYTES_PER_SLOT + INDEX_BYTES_PER_SLOT) + rows * variableBytesPerRow;
+    }
+
+    // Row maintenance; callers hold the write lock
+
+    private void put(InstanceState state) {
+        long high = state.id().getMostSignificantBits();
+        long low = state.id().getLeastSignificantBits();
+        int slot = findById(high, low);
+        boolean keepPendingStatus;
+        if (slot == NO_SLOT) {
+            slot = allocateSlot();
+            idHigh[slot] = high;
+            idLow[slot] = low;
+            flags[slot] = LIVE;
+            insertEntry(ID_INDEX, slot);
+            size++;
+            keepPendingStatus = false;
+        } else {
+            keepPendingStatus = (flags[slot] & PENDING) != 0 && statusChangedAt[slot] > toMillis(state.statusChangedAt());
+        }
+        setDockerContainerId(slot, state.dockerContainerId());
+        setConfiguration(slot, state.configurationId());
+        if (!keepPendingStatus) {
+            statuses[slot] = ordinal(state.status());
+            healthStatuses[slot] = ordinal(state.healthStatus());
+            statusChangedAt[slot] = toMillis(state.statusChangedAt());
+            if ((flags[slot] & DIRTY) != 0) {
+                flags[slot] &= ~DIRTY;
+                dirtyCount--;
+            }
+        }
+        createdAt[slot] = toMillis(state.createdAt());
+        startedAt[slot] = toMillis(state.startedAt());
+        restartCounts[slot] = state.restartCount();
+        configurationRevisions[slot] = state.configurationRevision();
+        memoryLimits[slot] = state.memoryLimitBytes() != null ? state.memoryLimitBytes() : ABSENT;
+        nanoCpuLimits[slot] = state.cpuLimitCores() != null ? toNanoCpus(state.cpuLimitCores()) : ABSENT;
+        flags[slot] = (byte) (state.crashLoopDetected() ? flags[slot] | CRASH_LOOP : flags[slot] & ~CRASH_LOOP);
+        variableBytes -= hostPortBytes(hostPorts[slot]);
+        hostPorts[slot] = packHostPorts(state.assignedHostPorts());
+        variableBytes += hostPortBytes(hostPorts[slot]);
+    }
+
+    private void setDockerContainerId(int slot, String dockerContainerId) {
+        String current = dockerContainerIds[slot];
+        if (Objects.equals(current, dockerContainerId)) {
+            // Keep the string already held, so each ID exists once however often it is written
+            return;
+        }
+        if (current != null) {
+            removeEntry(DOCKER_ID_INDEX, slot);
+            variableBytes -= stringBytes(current.length());
+        }
+        dockerContainerIds[slot] = dockerContainerId;
+        if (dockerContainerId != null) {
+            insertEntry(DOCKER_ID_INDEX, slot);
+            variableBytes += stringBytes(dockerContainerId.length());
+        }
+    }
+
+    private void setConfiguration(int slot, UUID configurationId) {
+        boolean hasConfiguration = (flags[slot] & HAS_CONFIGURATION) != 0;
+        if (hasConfiguration && configurationId != null
+                && configurationHigh[slot] == configurationId.getMostSignificantBits()
+                && configurationLow[slot] == configurationId.getLeastSignificantBits()) {
+            return;
+        }
+        if (hasConfiguration) {
+            unlink(slot);
+            flags[slot] &= ~HAS_CONFIGURATION;
+        }
+        if (configurationId != null) {
+            configurationHigh[slot] = configurationId.getMostSignificantBits();
+            configurationLow[slot] = configurationId.getLeastSignificantBits();
+            flags[slot] |= HAS_CONFIGURATION;
+            link(slot);
+        }
+    }
+
+    private void link(int slot) {
+        int head = findConfigurationHead(configurationHigh[slot], configurationLow[slot]);
+        previousOfConfiguration[slot] = NO_SLOT;
+        nextOfConfiguration[slot] = head;
+        if (head == NO_SLOT) {
+            insertEntry(CONFIGURATION_INDEX, slot);
+        } else {
+            previousOfConfiguration[head] = slot;
+            replaceEntry(CONFIGURATION_INDEX, head, slot);
+        }
+    }
+
+    private void unlink(int slot) {
+        int previous = previousOfConfiguration[slot];
+        int next = nextOfConfiguration[slot];
+        if (next != NO_SLOT) {
+            previousOfConfiguration[next] = previous;
+        }
+        if (previous != NO_SLOT) {
+            nextOfConfiguration[previous] = next;
+        } else if (next != NO_SLOT) {
+            replaceEntry(CONFIGURATION_INDEX, slot, next);
+        } else {
+            removeEntry(CONFIGURATION_INDEX, slot);
+        }
+    }
+
+    private void markDirty(int slot) {
+        if ((flags[slot] & DIRTY) == 0) {
+            flags[slot] |= DIRTY;
+            dirtyCount++;
+        }
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (highWater == capacity) {
+            grow(capacity * 2);
+        }
+        return highWater++;
+    }
+
+    private void reset(int newCapacity) {
+        capacity = newCapacity;
+        size = 0;
+        highWater = 0;
+        freeCount = 0;
+        dirtyCount = 0;
+        flushCursor = 0;
+        variableBytes = 0;
+        freeSlots = new int[newCapacity];
+        idHigh = new long[newCapacity];
+        idLow = new long[newCapacity];
+        configurationHigh = new long[newCapacity];
+        configurationLow = new long[newCapacity];
+        dockerContainerIds = new String[newCapacity];
+        statuses = new byte[newCapacity];
+        healthStatuses = new byte[newCapacity];
+        flags = new byte[newCapacity];
+        createdAt = new long[newCapacity];
+        startedAt = new long[newCapacity];
+        statusChangedAt = new long[newCapacity];
+        restartCounts = new int[newCapacity];
+        configurationRevisions = new int[newCapacity];
+        memoryLimits = new long[newCapacity];
+        nanoCpuLimits = new long[newCapacity];
+        hostPorts = new int[newCapacity][];
+        nextOfConfiguration = new int[newCapacity];
+        previousOfConfiguration = new int[newCapacity];
+        rebuildIndexes();
+    }
+
+    private void grow(int newCapacity) {
+        capacity = newCapacity;
+        freeSlots = Arrays.copyOf(freeSlots, newCapacity);
+        idHigh = Arrays.copyOf(idHigh, newCapacity);
+        idLow = Arrays.copyOf(idLow, newCapacity);
+        configurationHigh = Arrays.copyOf(configurationHigh, newCapacity);
+        configurationLow = Arrays.copyOf(configurationLow, newCapacity);
+        dockerContainerIds = Arrays.copyOf(dockerContainerIds, newCapacity);
+        statuses = Arrays.copyOf(statuses, newCapacity);
+        healthStatuses = Arrays.copyOf(healthStatuses, newCapacity);
+        flags = Arrays.copyOf(flags, newCapacity);
+        createdAt = Arrays.copyOf(createdAt, newCapacity);
+        startedAt = Arrays.copyOf(startedAt, newCapacity);
+        statusChangedAt = Arrays.copyOf(statusChangedAt, newCapacity);
+        restartCounts = Arrays.copyOf(restartCounts, newCapacity);
+        configurationRevisions = Arrays.copyOf(configurationRevisions, newCapacity);
+        memoryLimits = Arrays.copyOf(memoryLimits, newCapacity);
+        nanoCpuLimits = Arrays.copyOf(nanoCpuLimits, newCapacity);
+        hostPorts = Arrays.copyOf(hostPorts, newCapacity);
+        nextOfConfiguration = Arrays.copyOf(nextOfConfiguration, newCapacity);
+        previousOfConfiguration = Arrays.copyOf(previousOfConfiguration, newCapacity);
+        rebuildIndexes();
+    }
+
+    private void rebuildIndexes() {
+        int indexSize = tableSizeFor(capacity * 2);
+        idIndex = new int[indexSize];
+        dockerIdIndex = new int[indexSize];
+        configurationIndex = new int[indexSize];
+        for (int slot = 0; slot < highWater; slot++) {
+            if ((flags[slot] & LIVE) == 0) {
+                continue;
+            }
+            insertEntry(ID_INDEX, slot);
+            if (dockerContainerIds[slot] != null) {
+                insertEntry(DOCKER_ID_INDEX, slot);
+            }
+            if ((flags[slot] & HAS_CONFIGURATION) != 0 && previousOfConfiguration[slot] == NO_SLOT) {
+                insertEntry(CONFIGURATION_INDEX, slot);
+            }
+        }
+    }
+
+    // Hash indexes
+
+    private int findById(long high, long low) {
+        int[] index = idIndex;
+        int mask = index.length - 1;
+        for (int i = hash(high, low) & mask, probes = 0; probes <= mask; i = (i + 1) & mask, probes++) {
+            int entry = index[i];
+            if (entry == 0) {
+                return NO_SLOT;
+            }
+            if (idHigh[entry - 1] == high && idLow[entry - 1] == low) {
+                return entry - 1;
+            }
+        }
+        return NO_SLOT;
+    }
+
+    private int findByDockerId(String dockerContainerId) {
+        if (dockerContainerId == null) {
+            return NO_SLOT;
+        }
+        int[] index = dockerIdIndex;
+        int mask = index.length - 1;
+        for (int i = hash(dockerContainerId) & mask, probes = 0; probes <= mask; i = (i + 1) & mask, probes++) {
+            int entry = index[i];
+            if (entry == 0) {
+                return NO_SLOT;
+            }
+            if (dockerContainerId.equals(dockerContainerIds[entry - 1])) {
+                return entry - 1;
+            }
+        }
+        return NO_SLOT;
+    }
+
+    private int findConfigurationHead(long high, long low) {
+        int[] index = configurationIndex;
+        int mask = index.length - 1;
+        for (int i = hash(high, low) & mask, probes = 0; probes <= mask; i = (i + 1) & mask, probes++) {
+            int entry = index[i];
+            if (entry == 0) {
+                return NO_SLOT;
+            }
+            if (configurationHigh[entry - 1] == high && configurationLow[entry - 1] == low) {
+                return entry - 1;
+            }
+        }
+        return NO_SLOT;
+    }
+
+    private int[] index(int kind) {
+        return switch (kind) {
+            case ID_INDEX -> idIndex;
+            case DOCKER_ID_INDEX -> dockerIdIndex;
+            default -> configurationIndex;
+        };
+    }
+
+    private int home(int kind, int slot) {
+        return switch (kind) {
+            case ID_INDEX -> hash(idHigh[slot], idLow[slot]);
+            case DOCKER_ID_INDEX -> hash(dockerContainerIds[slot]);
+            default -> hash(configurationHigh[slot], configurationLow[slot]);
+        };
+    }
+
+    private void insertEntry(int kind, int slot) {
+        int[] index = index(kind);
+        int mask = index.length - 1;
+        int i = home(kind, slot) & mask;
+        while (index[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        index[i] = slot + 1;
+    }
+
+    // Moves an entry to another slot with the same key, e.g. when the head of a configuration chain changes
+    private void replaceEntry(int kind, int slot, int replacement) {
+        int[] index = index(kind);
+        int mask = index.length - 1;
+        int i = home(kind, slot) & mask;
+        while (index[i] != slot + 1) {
+            i = (i + 1) & mask;
+        }
+        index[i] = replacement + 1;
+    }
+
+    private void removeEntry(int kind, int slot) {
+        int[] index = index(kind);
+        int mask = index.length - 1;
+        int hole = home(kind, slot) & mask;
+        while (index[hole] != slot + 1) {
+            hole = (hole + 1) & mask;
+        }
+        // Backward-shift deletion: pull later entries of the probe run into the hole unless that would move
+        // them before their home bucket
+        int i = hole;
+        while (true) {
+            i = (i + 1) & mask;
+            int entry = index[i];
+            if (entry == 0) {
+                break;
+            }
+            int entryHome = home(kind, entry - 1) & mask;
+            boolean movable = hole <= i ? entryHome <= hole || entryHome > i : entryHome <= hole && entryHome > i;
+            if (movable) {
+                index[hole] = entry;
+                hole = i;
+            }
+        }
+        index[hole] = 0;
+    }
+
+    private static int hash(long high, long low) {
+        long h = (high ^ Long.rotateLeft(low, 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int hash(String value) {
+        int h = value.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int n) {
+        return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+
+    // Column conversions
+
+    private boolean matches(int slot, ContainerInstanceFilter filter) {
+        return (filter.status() == null || statuses[slot] == ordinal(filter.status()))
+                && (filter.healthStatus() == null || healthStatuses[slot] == ordinal(filter.healthStatus()))
+                && inRange(createdAt[slot], filter.createdFrom(), filter.createdTo())
+                && inRange(startedAt[slot], filter.startedFrom(), filter.startedTo());
+    }
+
+    private static boolean inRange(long millis, Instant from, Instant to) {
+        if (from == null && to == null) {
+            return true;
+        }
+        return millis != ABSENT
+                && (from == null || millis >= from.toEpochMilli())
+                && (to == null || millis < to.toEpochMilli());
+    }
+
+    private InstanceState read(int slot) {
+        return new InstanceState(
+                new UUID(idHigh[slot], idLow[slot]),
+                (flags[slot] & HAS_CONFIGURATION) != 0 ? new UUID(configurationHigh[slot], configurationLow[slot]) : null,
+                dockerContainerIds[slot],
+                toStatus(statuses[slot]),
+                toHealth(healthStatuses[slot]),
+                toInstant(createdAt[slot]),
+                toInstant(startedAt[slot]),
+                toInstant(statusChangedAt[slot]),
+                restartCounts[slot],
+                configurationRevisions[slot],
+                memoryLimits[slot] != ABSENT ? memoryLimits[slot] : null,
+                nanoCpuLimits[slot] != ABSENT ? nanoCpuLimits[slot] / 1e9 : null,
+                (flags[slot] & CRASH_LOOP) != 0,
+                unpackHostPorts(hostPorts[slot]));
+    }
+
+    private byte statusAt(int slot) {
+        return slot == NO_SLOT ? NONE : statuses[slot];
+    }
+
+    private static byte ordinal(Enum<?> value) {
+        return value != null ? (byte) value.ordinal() : NONE;
+    }
+
+    private static ContainerStatus toStatus(byte ordinal) {
+        return ordinal != NONE ? STATUSES[ordinal] : null;
+    }
+
+    private static HealthStatus toHealth(byte ordinal) {
+        return ordinal != NONE ? HEALTH_STATUSES[ordinal] : null;
+    }
+
+    private static long toMillis(Instant instant) {
+        return instant != null ? instant.toEpochMilli() : ABSENT;
+    }
+
+    private static Instant toInstant(long millis) {
+        return millis != ABSENT ? Instant.ofEpochMilli(millis) : null;
+    }
+
+    private static long toNanoCpus(double cpuCores) {
+        return Math.round(cpuCores * 1_000_000_000);
+    }
+
+    private static int[] packHostPorts(Map<Integer, Integer> ports) {
+        if (ports == null || ports.isEmpty()) {
+            return null;
+        }
+        int[] packed = new int[ports.size() * 2];
+        int i = 0;
+        for (Map.Entry<Integer, Integer> port : ports.entrySet()) {
+            packed[i++] = port.getKey();
+            packed[i++] = port.getValue();
+        }
+        return packed;
+    }
+
+    private static Map<Integer, Integer> unpackHostPorts(int[] packed) {
+        Map<Integer, Integer> ports = new HashMap<>();
+        if (packed != null) {
+            for (int i = 0; i < packed.length; i += 2) {
+                ports.put(packed[i], packed[i + 1]);
+            }
+        }
+        return ports;
+    }
+
+    private static long stringBytes(int length) {
+        // String object plus its Latin-1 byte array
+        return 24 + align(16 + length);
+    }
+
+    private static long hostPortBytes(int[] packed) {
+        return packed != null ? align(16 + 4L * packed.length) : 0;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * A pending row as handed to the write-behind flush.
+     */
+    public record PendingWrite(UUID id, ContainerStatus status, HealthStatus healthStatus, Instant statusChangedAt) {
+    }
+
+    /**
+     * Limits committed to the running and paused instances, as summed by {@link #committedResources}.
+     */
+    public record CommittedResources(int runningInstances, long memoryBytes, long nanoCpus,
+                                     int withoutMemoryLimit, int withoutCpuLimit) {
+    }
+}
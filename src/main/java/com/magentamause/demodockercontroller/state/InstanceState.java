@@ -0,0 +1,55 @@
+package com.magentamause.demodockercontroller.state;
+
+import com.magentamause.demodockercontroller.domain.ContainerInstance;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.HealthStatus;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable copy of one row of the {@link FleetStateTable}. Timestamps have millisecond precision.
+ */
+public record InstanceState(
+        UUID id,
+        UUID configurationId,
+        String dockerContainerId,
+        ContainerStatus status,
+        HealthStatus healthStatus,
+        Instant createdAt,
+        Instant startedAt,
+        Instant statusChangedAt,
+        int restartCount,
+        int configurationRevision,
+        Long memoryLimitBytes,
+        Double cpuLimitCores,
+        boolean crashLoopDetected,
+        Map<Integer, Integer> assignedHostPorts) {
+
+    public static InstanceState of(ContainerInstance instance) {
+        return new InstanceState(
+                instance.getId(),
+                instance.getConfigurationId(),
+                instance.getDockerContainerId(),
+                instance.getStatus(),
+                instance.getHealthStatus(),
+                instance.getCreatedAt(),
+                instance.getStartedAt(),
+                instance.getStatusChangedAt(),
+                instance.getRestartCount(),
+                instance.getConfigurationRevision(),
+                instance.getResourceLimits() != null ? instance.getResourceLimits().getMemoryBytes() : null,
+                instance.getResourceLimits() != null ? instance.getResourceLimits().getCpuCores() : null,
+                instance.isCrashLoopDetected(),
+                instance.getAssignedHostPorts() != null ? new HashMap<>(instance.getAssignedHostPorts()) : Map.of());
+    }
+
+    /**
+     * Running and, if the configuration has a health check, healthy.
+     */
+    public boolean ready() {
+        return status == ContainerStatus.RUNNING && healthStatus != HealthStatus.STARTING && healthStatus != HealthStatus.UNHEALTHY;
+    }
+}
@@ -0,0 +1,188 @@
+package com.magentamause.demodockercontroller.tracing;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes finished spans to daily files ({@code spans-YYYY-MM-DD.jsonl}), one OTLP/JSON
+ * {@code ExportTraceServiceRequest} per line. The format is the one read by the OpenTelemetry Collector's
+ * {@code otlpjsonfile} receiver, so traces recorded offline can be replayed into any OTLP backend later.
+ */
+public class OtlpJsonFileSpanExporter implements SpanExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(OtlpJsonFileSpanExporter.class);
+
+    private final Path directory;
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private BufferedWriter writer;
+    private LocalDate writerDate;
+
+    public OtlpJsonFileSpanExporter(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        if (spans.isEmpty()) {
+            return CompletableResultCode.ofSuccess();
+        }
+        try {
+            BufferedWriter out = writer();
+            out.write(jsonMapper.writeValueAsString(toRequest(spans)));
+            out.newLine();
+            out.flush();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to write {} spans to {}: {}", spans.size(), directory, e.getMessage());
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        closeWriter();
+        return CompletableResultCode.ofSuccess();
+    }
+
+    private BufferedWriter writer() throws IOException {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        if (writer == null || !today.equals(writerDate)) {
+            closeWriter();
+            Files.createDirectories(directory);
+            writer = Files.newBufferedWriter(directory.resolve("spans-" + today + ".jsonl"), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            writerDate = today;
+        }
+        return writer;
+    }
+
+    private void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.warn("Failed to close span file: {}", e.getMessage());
+        }
+        writer = null;
+    }
+
+    // Groups spans by resource and instrumentation scope, as in an OTLP export request
+    private Map<String, Object> toRequest(Collection<SpanData> spans) {
+        Map<Resource, Map<InstrumentationScopeInfo, List<Map<String, Object>>>> grouped = new LinkedHashMap<>();
+        for (SpanData span : spans) {
+            grouped.computeIfAbsent(span.getResource(), resource -> new LinkedHashMap<>())
+                    .computeIfAbsent(span.getInstrumentationScopeInfo(), scope -> new ArrayList<>())
+                    .add(toSpan(span));
+        }
+        List<Map<String, Object>> resourceSpans = new ArrayList<>();
+        grouped.forEach((resource, scopes) -> {
+            List<Map<String, Object>> scopeSpans = new ArrayList<>();
+            scopes.forEach((scope, scopeSpanList) -> {
+                Map<String, Object> scopeJson = new LinkedHashMap<>();
+                scopeJson.put("name", scope.getName());
+                if (scope.getVersion() != null) {
+                    scopeJson.put("version", scope.getVersion());
+                }
+                scopeSpans.add(Map.of("scope", scopeJson, "spans", scopeSpanList));
+            });
+            resourceSpans.add(Map.of(
+                    "resource", Map.of("attributes", toAttributes(resource.getAttributes())),
+                    "scopeSpans", scopeSpans));
+        });
+        return Map.of("resourceSpans", resourceSpans);
+    }
+
+    private Map<String, Object> toSpan(SpanData span) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("traceId", span.getTraceId());
+        json.put("spanId", span.getSpanId());
+        if (span.getParentSpanContext().isValid()) {
+            json.put("parentSpanId", span.getParentSpanId());
+        }
+        json.put("name", span.getName());
+        // OTLP span kinds are numbered from 1 (INTERNAL)
+        json.put("kind", span.getKind().ordinal() + 1);
+        // 64-bit integers are encoded as strings in OTLP/JSON
+        json.put("startTimeUnixNano", String.valueOf(span.getStartEpochNanos()));
+        json.put("endTimeUnixNano", String.valueOf(span.getEndEpochNanos()));
+        json.put("attributes", toAttributes(span.getAttributes()));
+        if (!span.getEvents().isEmpty()) {
+            List<Map<String, Object>> events = new ArrayList<>();
+            for (EventData event : span.getEvents()) {
+                events.add(Map.of(
+                        "timeUnixNano", String.valueOf(event.getEpochNanos()),
+                        "name", event.getName(),
+                        "attributes", toAttributes(event.getAttributes())));
+            }
+            json.put("events", events);
+        }
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("code", toStatusCode(span.getStatus().getStatusCode()));
+        if (!span.getStatus().getDescription().isEmpty()) {
+            status.put("message", span.getStatus().getDescription());
+        }
+        json.put("status", status);
+        return json;
+    }
+
+    private List<Map<String, Object>> toAttributes(Attributes attributes) {
+        List<Map<String, Object>> json = new ArrayList<>(attributes.size());
+        attributes.forEach((key, value) -> json.add(Map.of("key", key.getKey(), "value", toAnyValue(key, value))));
+        return json;
+    }
+
+    private Map<String, Object> toAnyValue(AttributeKey<?> key, Object value) {
+        return switch (key.getType()) {
+            case BOOLEAN -> Map.of("boolValue", value);
+            case LONG -> Map.of("intValue", String.valueOf(value));
+            case DOUBLE -> Map.of("doubleValue", value);
+            case STRING -> Map.of("stringValue", value);
+            default -> {
+                List<Map<String, Object>> values = new ArrayList<>();
+                for (Object element : (List<?>) value) {
+                    values.add(Map.of("stringValue", String.valueOf(element)));
+                }
+                yield Map.of("arrayValue", Map.of("values", values));
+            }
+        };
+    }
+
+    private int toStatusCode(StatusCode statusCode) {
+        return switch (statusCode) {
+            case UNSET -> 0;
+            case OK -> 1;
+            case ERROR -> 2;
+        };
+    }
+}
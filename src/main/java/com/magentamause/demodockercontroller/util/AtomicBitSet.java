@@ -0,0 +1,122 @@
+package com.magentamause.demodockercontroller.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, lock-free bit set. Bits are claimed and released with compare-and-set on 64-bit words,
+ * so concurrent callers never claim the same bit twice.
+ */
+public class AtomicBitSet {
+
+    private final int size;
+    private final AtomicLongArray words;
+
+    public AtomicBitSet(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Size must be positive: " + size);
+        }
+        this.size = size;
+        this.words = new AtomicLongArray((size + 63) >>> 6);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean get(int index) {
+        checkIndex(index);
+        return (words.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    /**
+     * Sets the bit. Returns true if it was clear before, false if it was already set.
+     */
+    public boolean set(int index) {
+        checkIndex(index);
+        int wordIndex = index >>> 6;
+        long mask = 1L << index;
+        while (true) {
+            long word = words.get(wordIndex);
+            if ((word & mask) != 0) {
+                return false;
+            }
+            if (words.compareAndSet(wordIndex, word, word | mask)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Clears the bit. Returns true if it was set before, false if it was already clear.
+     */
+    public boolean clear(int index) {
+        checkIndex(index);
+        int wordIndex = index >>> 6;
+        long mask = 1L << index;
+        while (true) {
+            long word = words.get(wordIndex);
+            if ((word & mask) == 0) {
+                return false;
+            }
+            if (words.compareAndSet(wordIndex, word, word & ~mask)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Claims a clear bit, searching upwards from {@code fromIndex} and wrapping around, so the bits below
+     * {@code fromIndex} are only handed out once every bit above it is set. Returns the claimed index, or -1 if
+     * every bit is set.
+     */
+    public int setNextClear(int fromIndex) {
+        int wordCount = words.length();
+        int start = Math.floorMod(fromIndex, size);
+        int startWord = start >>> 6;
+        // Bits at or above the start position within the start word (the shift only uses the low 6 bits)
+        long fromStart = -1L << start;
+        // The start word is visited twice: first from the start position up, and after wrapping around for the
+        // bits below it
+        for (int i = 0; i <= wordCount; i++) {
+            int wordIndex = (startWord + i) % wordCount;
+            long validMask = validMask(wordIndex);
+            if (i == 0) {
+                validMask &= fromStart;
+            } else if (i == wordCount) {
+                validMask &= ~fromStart;
+            }
+            while (true) {
+                long word = words.get(wordIndex);
+                long free = ~word & validMask;
+                if (free == 0) {
+                    break;
+                }
+                long lowest = Long.lowestOneBit(free);
+                if (words.compareAndSet(wordIndex, word, word | lowest)) {
+                    return (wordIndex << 6) + Long.numberOfTrailingZeros(lowest);
+                }
+            }
+        }
+        return -1;
+    }
+
+    public int cardinality() {
+        int count = 0;
+        for (int i = 0; i < words.length(); i++) {
+            count += Long.bitCount(words.get(i));
+        }
+        return count;
+    }
+
+    // The last word may extend past the end of the set; those bits are never handed out
+    private long validMask(int wordIndex) {
+        int remaining = size - (wordIndex << 6);
+        return remaining >= 64 ? -1L : (1L << remaining) - 1;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of range [0, " + size + ")");
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.magentamause.demodockercontroller.util;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads lines like {@link java.io.BufferedReader#readLine()}, but never holds more than {@code maxLength}
+ * characters of a line. Longer lines are skipped up to the next line break and reported as too long.
+ */
+public class BoundedLineReader {
+
+    private final Reader reader;
+    private final int maxLength;
+    private final StringBuilder line = new StringBuilder();
+    private long lineNumber;
+
+    public BoundedLineReader(Reader reader, int maxLength) {
+        this.reader = reader;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Returns the next line, or null at the end of the input.
+     */
+    public Line readLine() throws IOException {
+        line.setLength(0);
+        boolean tooLong = false;
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        while (c != -1 && c != '\n') {
+            if (line.length() < maxLength) {
+                line.append((char) c);
+            } else {
+                tooLong = true;
+            }
+            c = reader.read();
+        }
+        if (!tooLong && !line.isEmpty() && line.charAt(line.length() - 1) == '\r') {
+            line.setLength(line.length() - 1);
+        }
+        lineNumber++;
+        return new Line(lineNumber, tooLong ? null : line.toString(), tooLong);
+    }
+
+    public record Line(long number, String text, boolean tooLong) {
+    }
+}
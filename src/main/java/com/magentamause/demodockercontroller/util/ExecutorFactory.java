@@ -0,0 +1,42 @@
+package com.magentamause.demodockercontroller.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the application's background executors with named threads, backed by virtual threads when the
+ * virtual-thread execution mode is enabled. Pool sizes keep their meaning in both modes: they bound how
+ * much work runs concurrently (e.g. against the Docker daemon), not how many carrier threads are used.
+ */
+public class ExecutorFactory {
+
+    private final boolean virtualThreads;
+
+    public ExecutorFactory(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public ThreadFactory threadFactory(String name) {
+        return virtualThreads
+                ? Thread.ofVirtual().name(name + "-", 0).factory()
+                : Thread.ofPlatform().name(name + "-", 0).factory();
+    }
+
+    public ExecutorService newSingleThreadExecutor(String name) {
+        return Executors.newSingleThreadExecutor(threadFactory(name));
+    }
+
+    public ExecutorService newFixedThreadPool(String name, int threads) {
+        return Executors.newFixedThreadPool(threads, threadFactory(name));
+    }
+
+    public ScheduledExecutorService newScheduledThreadPool(String name, int threads) {
+        return Executors.newScheduledThreadPool(threads, threadFactory(name));
+    }
+}
@@ -0,0 +1,136 @@
+package com.magentamause.demodockercontroller.util;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Deduplicating work queue keyed by item. A key that is added several times before a worker picks it up is
+ * processed once; a key that is added while it is being processed is processed again afterwards, but never by
+ * two workers at the same time. Failed items are re-added with per-item exponential backoff, bounded by a
+ * global token bucket. Delayed adds run on a scheduler owned by the caller, who also shuts it down.
+ */
+public class RateLimitedWorkQueue<K> {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Queue<K> queue = new ArrayDeque<>();
+    private final Set<K> dirty = new HashSet<>();
+    private final Set<K> processing = new HashSet<>();
+    private final Map<K, Long> enqueuedAtNanos = new HashMap<>();
+    private final Map<K, Integer> failures = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService delayScheduler;
+    private final TokenBucket rateLimiter;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private boolean shuttingDown;
+
+    public RateLimitedWorkQueue(ScheduledExecutorService delayScheduler, long baseDelayMillis, long maxDelayMillis,
+                                double permitsPerSecond, int burst) {
+        this.delayScheduler = delayScheduler;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.rateLimiter = new TokenBucket(permitsPerSecond, burst);
+    }
+
+    public void add(K key) {
+        lock.lock();
+        try {
+            if (shuttingDown || dirty.contains(key)) {
+                return;
+            }
+            dirty.add(key);
+            enqueuedAtNanos.put(key, System.nanoTime());
+            if (!processing.contains(key)) {
+                queue.add(key);
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void addAfter(K key, long delayMillis) {
+        if (delayMillis <= 0) {
+            add(key);
+            return;
+        }
+        delayScheduler.schedule(() -> add(key), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void addRateLimited(K key) {
+        int attempts = failures.merge(key, 1, Integer::sum);
+        long itemDelayMillis = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempts - 1, 30));
+        long globalDelayMillis = rateLimiter.tryAcquire() ? 0 : TimeUnit.NANOSECONDS.toMillis(rateLimiter.nanosUntilAvailable());
+        addAfter(key, Math.max(itemDelayMillis, globalDelayMillis));
+    }
+
+    public void forget(K key) {
+        failures.remove(key);
+    }
+
+    /**
+     * Blocks until a key is available and marks it as processing. Returns null once the queue is shut down.
+     */
+    public Item<K> take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (queue.isEmpty() && !shuttingDown) {
+                notEmpty.await();
+            }
+            if (shuttingDown) {
+                return null;
+            }
+            K key = queue.poll();
+            dirty.remove(key);
+            processing.add(key);
+            Long enqueuedAt = enqueuedAtNanos.remove(key);
+            return new Item<>(key, enqueuedAt != null ? System.nanoTime() - enqueuedAt : 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void done(K key) {
+        lock.lock();
+        try {
+            processing.remove(key);
+            if (dirty.contains(key)) {
+                queue.add(key);
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int depth() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void shutDown() {
+        lock.lock();
+        try {
+            shuttingDown = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public record Item<K>(K key, long queuedNanos) {
+    }
+}
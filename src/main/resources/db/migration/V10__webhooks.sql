@@ -0,0 +1,29 @@
+create table webhook_subscription (
+    id uuid not null,
+    url varchar(2048) not null,
+    configuration_id uuid,
+    created_at timestamp(6) with time zone,
+    primary key (id)
+);
+
+-- Statuses a subscription is notified about; no rows means all statuses
+create table webhook_subscription_statuses (
+    subscription_id uuid not null,
+    status varchar(32) not null,
+    primary key (subscription_id, status),
+    constraint fk_webhook_statuses_subscription foreign key (subscription_id) references webhook_subscription
+);
+
+-- Batches that could not be delivered within the retry budget
+create table webhook_dead_letter (
+    id uuid not null,
+    subscription_id uuid not null,
+    payload clob not null,
+    event_count integer not null,
+    attempts integer not null,
+    last_error varchar(1024),
+    created_at timestamp(6) with time zone not null,
+    primary key (id),
+    constraint fk_webhook_dead_letter_subscription foreign key (subscription_id) references webhook_subscription
+);
+create index idx_webhook_dead_letter_subscription on webhook_dead_letter (subscription_id, created_at);
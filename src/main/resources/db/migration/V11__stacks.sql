@@ -0,0 +1,26 @@
+create table stack (
+    id uuid not null,
+    name varchar(255) not null,
+    created_at timestamp(6) with time zone,
+    primary key (id)
+);
+create unique index idx_stack_name on stack (name);
+
+-- Configurations that make up a stack
+create table stack_configurations (
+    stack_id uuid not null,
+    configuration_id uuid not null,
+    primary key (stack_id, configuration_id),
+    constraint fk_stack_configurations_stack foreign key (stack_id) references stack,
+    constraint fk_stack_configurations_configuration foreign key (configuration_id) references container_configuration
+);
+create index idx_stack_configurations_configuration on stack_configurations (configuration_id);
+
+-- Edges of the dependency graph: configuration_id is started after depends_on_configuration_id is ready
+create table stack_dependencies (
+    stack_id uuid not null,
+    configuration_id uuid not null,
+    depends_on_configuration_id uuid not null,
+    primary key (stack_id, configuration_id, depends_on_configuration_id),
+    constraint fk_stack_dependencies_stack foreign key (stack_id) references stack
+);
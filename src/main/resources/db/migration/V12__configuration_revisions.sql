@@ -0,0 +1,3 @@
+-- Revisions let rolling updates tell instances created from an older version of a configuration apart
+alter table container_configuration add column revision integer default 0 not null;
+alter table container_instance add column configuration_revision integer default 0 not null;
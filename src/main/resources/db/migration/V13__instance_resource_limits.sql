@@ -0,0 +1,7 @@
+-- Effective limits of each instance; in-place updates can move them away from those of the configuration
+alter table container_instance add column memory_limit_bytes bigint;
+alter table container_instance add column cpu_limit_cores float(53);
+
+update container_instance i
+set memory_limit_bytes = (select c.memory_bytes from container_configuration c where c.id = i.configuration_id),
+    cpu_limit_cores = (select c.cpu_cores from container_configuration c where c.id = i.configuration_id);
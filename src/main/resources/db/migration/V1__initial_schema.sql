@@ -0,0 +1,48 @@
+create table container_configuration (
+    id uuid not null,
+    image_name varchar(255),
+    image_tag varchar(255),
+    memory_bytes bigint,
+    cpu_cores float(53),
+    primary key (id)
+);
+
+create table container_configuration_command (
+    container_configuration_id uuid not null,
+    command varchar(255),
+    constraint fk_command_configuration foreign key (container_configuration_id) references container_configuration
+);
+
+create table container_port_mappings (
+    configuration_id uuid not null,
+    host_port integer not null,
+    container_port integer,
+    primary key (host_port, configuration_id),
+    constraint fk_port_mappings_configuration foreign key (configuration_id) references container_configuration
+);
+
+create table container_env_variables (
+    configuration_id uuid not null,
+    env_key varchar(255) not null,
+    env_value varchar(255),
+    primary key (configuration_id, env_key),
+    constraint fk_env_variables_configuration foreign key (configuration_id) references container_configuration
+);
+
+create table container_volume_mounts (
+    configuration_id uuid not null,
+    host_path varchar(255),
+    container_path varchar(255),
+    read_only boolean,
+    constraint fk_volume_mounts_configuration foreign key (configuration_id) references container_configuration
+);
+
+create table container_instance (
+    id uuid not null,
+    configuration_id uuid,
+    docker_container_id varchar(255),
+    status varchar(32),
+    created_at timestamp(6) with time zone,
+    started_at timestamp(6) with time zone,
+    primary key (id)
+);
@@ -0,0 +1,3 @@
+-- Looked up on every Docker event and on every configuration delete
+create index idx_container_instance_docker_container_id on container_instance (docker_container_id);
+create index idx_container_instance_configuration_id on container_instance (configuration_id);
@@ -0,0 +1,8 @@
+alter table container_configuration add column health_test_command varchar(1024);
+alter table container_configuration add column health_interval_seconds integer;
+alter table container_configuration add column health_timeout_seconds integer;
+alter table container_configuration add column health_retries integer;
+alter table container_configuration add column health_start_period_seconds integer;
+
+alter table container_instance add column health_status varchar(32);
+create index idx_container_instance_health_status on container_instance (health_status);
@@ -0,0 +1,5 @@
+alter table container_configuration add column restart_policy varchar(32);
+alter table container_configuration add column restart_max_retries integer;
+
+alter table container_instance add column restart_count integer default 0 not null;
+alter table container_instance add column crash_loop_detected boolean default false not null;
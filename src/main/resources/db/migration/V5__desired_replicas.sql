@@ -0,0 +1 @@
+alter table container_configuration add column desired_replicas integer;
@@ -0,0 +1,16 @@
+create table container_auto_ports (
+    configuration_id uuid not null,
+    container_port integer,
+    constraint fk_auto_ports_configuration foreign key (configuration_id) references container_configuration
+);
+
+create table container_instance_host_ports (
+    instance_id uuid not null,
+    host_port integer not null,
+    container_port integer,
+    primary key (instance_id, host_port),
+    constraint fk_instance_host_ports_instance foreign key (instance_id) references container_instance
+);
+
+-- A host port can only be assigned to one instance at a time
+create unique index idx_container_instance_host_ports_host_port on container_instance_host_ports (host_port);
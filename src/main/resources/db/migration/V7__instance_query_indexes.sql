@@ -0,0 +1,7 @@
+-- Instance filters: status alone, status within a configuration, and time ranges.
+-- The composite index also serves lookups by configuration alone, so it replaces the single-column one.
+create index idx_container_instance_status on container_instance (status);
+create index idx_container_instance_configuration_status on container_instance (configuration_id, status);
+drop index idx_container_instance_configuration_id;
+create index idx_container_instance_created_at on container_instance (created_at);
+create index idx_container_instance_started_at on container_instance (started_at);
@@ -0,0 +1,14 @@
+-- Instances are collected by how long they have been in their current status
+alter table container_instance add column status_changed_at timestamp(6) with time zone;
+update container_instance set status_changed_at = coalesce(started_at, created_at);
+create index idx_container_instance_status_changed_at on container_instance (status, status_changed_at);
+
+alter table container_configuration add column retention_stopped_ttl_seconds bigint;
+alter table container_configuration add column retention_failed_ttl_seconds bigint;
+
+-- Images referenced by a configuration at some point; only these are ever pruned
+create table managed_image (
+    reference varchar(512) not null,
+    last_referenced_at timestamp(6) with time zone not null,
+    primary key (reference)
+);
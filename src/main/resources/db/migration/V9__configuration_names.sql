@@ -0,0 +1,3 @@
+-- Optional unique name, used as the key for upserts when importing configurations
+alter table container_configuration add column name varchar(255);
+create unique index idx_container_configuration_name on container_configuration (name);
@@ -0,0 +1,140 @@
+package com.magentamause.demodockercontroller.controller;
+
+import com.magentamause.demodockercontroller.domain.ContainerInstance;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.service.docker.DockerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * Moves 256 MB archives through both endpoints, with the Docker side replaced by generated and counting streams.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ArchiveTransferTests {
+
+    private static final long ARCHIVE_BYTES = 256L * 1024 * 1024;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @MockitoBean
+    private DockerService dockerService;
+
+    @Autowired
+    private ContainerInstanceRepository containerInstanceRepository;
+
+    private ContainerInstance instance;
+
+    @BeforeEach
+    void setUp() {
+        instance = new ContainerInstance();
+        instance.setDockerContainerId("container-1");
+        instance.setStatus(ContainerStatus.STOPPED);
+        instance = containerInstanceRepository.save(instance);
+    }
+
+    @AfterEach
+    void tearDown() {
+        containerInstanceRepository.deleteAll();
+    }
+
+    @Test
+    void downloadStreamsTheArchiveFromTheContainer() throws Exception {
+        when(dockerService.copyArchiveFromContainer("container-1", "/var/crash/")).thenReturn(new GeneratedStream(ARCHIVE_BYTES));
+
+        HttpResponse<InputStream> response = httpClient.send(
+                HttpRequest.newBuilder(uri("/containers/" + instance.getId() + "/archive?path=/var/crash/")).build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValue("application/x-tar");
+        assertThat(response.headers().firstValue("Content-Disposition")).hasValueSatisfying(
+                value -> assertThat(value).contains("crash.tar"));
+        try (InputStream body = response.body()) {
+            assertThat(body.transferTo(OutputStream.nullOutputStream())).isEqualTo(ARCHIVE_BYTES);
+        }
+    }
+
+    @Test
+    void uploadStreamsTheRequestBodyIntoTheContainer() throws Exception {
+        AtomicLong received = new AtomicLong();
+        doAnswer(invocation -> {
+            InputStream tarStream = invocation.getArgument(2);
+            received.set(tarStream.transferTo(OutputStream.nullOutputStream()));
+            return null;
+        }).when(dockerService).copyArchiveToContainer(eq("container-1"), eq("/etc/app"), any());
+
+        HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(uri("/containers/" + instance.getId() + "/archive?path=/etc/app"))
+                        .header("Content-Type", "application/x-tar")
+                        .PUT(HttpRequest.BodyPublishers.ofInputStream(() -> new GeneratedStream(ARCHIVE_BYTES)))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+
+        assertThat(response.statusCode()).isEqualTo(204);
+        assertThat(received.get()).isEqualTo(ARCHIVE_BYTES);
+    }
+
+    @Test
+    void relativePathsAreRejected() throws Exception {
+        HttpResponse<Void> response = httpClient.send(
+                HttpRequest.newBuilder(uri("/containers/" + instance.getId() + "/archive?path=etc")).build(),
+                HttpResponse.BodyHandlers.discarding());
+
+        assertThat(response.statusCode()).isEqualTo(400);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static final class GeneratedStream extends InputStream {
+        private long remaining;
+
+        private GeneratedStream(long size) {
+            this.remaining = size;
+        }
+
+        @Override
+        public int read() {
+            if (remaining == 0) {
+                return -1;
+            }
+            remaining--;
+            return 'x';
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (remaining == 0) {
+                return -1;
+            }
+            int count = (int) Math.min(length, remaining);
+            Arrays.fill(buffer, offset, offset + count, (byte) 'x');
+            remaining -= count;
+            return count;
+        }
+    }
+}
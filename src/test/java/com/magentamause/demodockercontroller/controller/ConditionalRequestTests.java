@@ -0,0 +1,137 @@
+package com.magentamause.demodockercontroller.controller;
+
+import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
+import com.magentamause.demodockercontroller.repository.ContainerConfigurationRepository;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.service.ChangeVersionTracker;
+import com.magentamause.demodockercontroller.service.ContainerLifecycleService;
+import com.magentamause.demodockercontroller.service.ReconciliationService;
+import com.magentamause.demodockercontroller.service.docker.DockerService;
+import com.magentamause.demodockercontroller.state.FleetStateStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+class ConditionalRequestTests {
+
+    @MockitoBean
+    private DockerService dockerService;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private ChangeVersionTracker changeVersionTracker;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private ContainerLifecycleService lifecycleService;
+
+    @Autowired
+    private FleetStateStore fleetStateStore;
+
+    @Autowired
+    private ContainerInstanceRepository containerInstanceRepository;
+
+    @Autowired
+    private ContainerConfigurationRepository configRepository;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        when(dockerService.createContainer(any(), anyMap(), anyMap()))
+                .thenAnswer(invocation -> UUID.randomUUID().toString().replace("-", ""));
+        // Instance ETags change once when startup reconciliation completes
+        await().atMost(Duration.ofSeconds(10)).until(reconciliationService::isCompleted);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fleetStateStore.flush();
+        containerInstanceRepository.deleteAll();
+        configRepository.deleteAll();
+    }
+
+    @Test
+    void configurationListIsNotModifiedUntilAConfigurationChanges() throws Exception {
+        String eTag = eTagOf("/configurations");
+        assertThat(eTag).startsWith("W/\"" + changeVersionTracker.getEpoch() + "-");
+        mockMvc.perform(get("/configurations").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        configuration();
+
+        String changed = mockMvc.perform(get("/configurations").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(changed).isNotEqualTo(eTag);
+        mockMvc.perform(get("/configurations").header(HttpHeaders.IF_NONE_MATCH, changed))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void instanceListIsNotModifiedUntilAnInstanceChanges() throws Exception {
+        ContainerConfiguration configuration = configuration();
+        String eTag = eTagOf("/containers");
+        mockMvc.perform(get("/containers").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        UUID instanceId = lifecycleService.createContainer(configuration.getId()).getId();
+
+        String changed = mockMvc.perform(get("/containers").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(changed).isNotEqualTo(eTag);
+        mockMvc.perform(get("/containers/" + instanceId).header(HttpHeaders.IF_NONE_MATCH, changed))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void eTagsFromAnotherBootDoNotMatch() throws Exception {
+        String eTag = eTagOf("/configurations");
+        // Same change version, but issued by a process with a different epoch
+        String previousBoot = "W/\"previous" + eTag.substring(eTag.indexOf('-'));
+
+        mockMvc.perform(get("/configurations").header(HttpHeaders.IF_NONE_MATCH, previousBoot))
+                .andExpect(status().isOk());
+    }
+
+    private String eTagOf(String path) throws Exception {
+        String eTag = mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isNotNull();
+        return eTag;
+    }
+
+    private ContainerConfiguration configuration() {
+        ContainerConfiguration configuration = new ContainerConfiguration();
+        configuration.setName("app");
+        configuration.setImageName("app");
+        configuration.setImageTag("1");
+        return configRepository.save(configuration);
+    }
+}
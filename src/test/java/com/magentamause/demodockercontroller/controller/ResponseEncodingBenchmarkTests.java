@@ -0,0 +1,109 @@
+package com.magentamause.demodockercontroller.controller;
+
+import com.magentamause.demodockercontroller.dto.ContainerConfigurationResponse;
+import com.magentamause.demodockercontroller.dto.ContainerInstanceResponse;
+import com.magentamause.demodockercontroller.dto.HealthCheckDto;
+import com.magentamause.demodockercontroller.dto.ResourceLimitsDto;
+import com.magentamause.demodockercontroller.dto.VolumeMountDto;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.HealthStatus;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares payload size and encode time of JSON, CBOR and Smile for 10k-element response lists.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ResponseEncodingBenchmarkTests {
+
+    private static final int ELEMENT_COUNT = 10_000;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+
+    private final Map<String, ObjectMapper> mappers = Map.of(
+            "json", JsonMapper.builder().build(),
+            "cbor", CBORMapper.builder().build(),
+            "smile", SmileMapper.builder().build());
+
+    @Test
+    void instanceListEncoding() {
+        List<ContainerInstanceResponse> instances = new ArrayList<>(ELEMENT_COUNT);
+        for (int i = 0; i < ELEMENT_COUNT; i++) {
+            ContainerInstanceResponse instance = new ContainerInstanceResponse();
+            instance.setId(UUID.randomUUID());
+            instance.setConfigurationId(UUID.randomUUID());
+            instance.setDockerContainerId(UUID.randomUUID().toString().replace("-", "") + UUID.randomUUID().toString().replace("-", ""));
+            instance.setStatus(ContainerStatus.RUNNING);
+            instance.setHealthStatus(HealthStatus.HEALTHY);
+            instance.setCreatedAt(Instant.now());
+            instance.setStartedAt(Instant.now());
+            instance.setRestartCount(i % 3);
+            instances.add(instance);
+        }
+        compare("ContainerInstanceResponse", instances);
+    }
+
+    @Test
+    void configurationListEncoding() {
+        List<ContainerConfigurationResponse> configurations = new ArrayList<>(ELEMENT_COUNT);
+        for (int i = 0; i < ELEMENT_COUNT; i++) {
+            ContainerConfigurationResponse configuration = new ContainerConfigurationResponse();
+            configuration.setId(UUID.randomUUID());
+            configuration.setImageName("registry.example.com/team/service-" + i);
+            configuration.setImageTag("1." + i);
+            configuration.setCommand(List.of("java", "-jar", "/app/service.jar"));
+            configuration.setPortMappings(Map.of(8080, 10_000 + i));
+            configuration.setEnvVariables(Map.of("SPRING_PROFILES_ACTIVE", "production", "INSTANCE", String.valueOf(i)));
+            VolumeMountDto volume = new VolumeMountDto();
+            volume.setHostPath("/srv/data/" + i);
+            volume.setContainerPath("/data");
+            configuration.setVolumeMounts(List.of(volume));
+            ResourceLimitsDto limits = new ResourceLimitsDto();
+            limits.setCpuCores(0.5);
+            limits.setMemoryBytes(256L * 1024 * 1024);
+            configuration.setResourceLimits(limits);
+            HealthCheckDto healthCheck = new HealthCheckDto();
+            healthCheck.setTestCommand("curl -f http://localhost:8080/health");
+            healthCheck.setIntervalSeconds(10);
+            configuration.setHealthCheck(healthCheck);
+            configuration.setDesiredReplicas(2);
+            configurations.add(configuration);
+        }
+        compare("ContainerConfigurationResponse", configurations);
+    }
+
+    private void compare(String type, List<?> payload) {
+        Map<String, Integer> sizes = new TreeMap<>();
+        for (Map.Entry<String, ObjectMapper> entry : mappers.entrySet()) {
+            ObjectMapper mapper = entry.getValue();
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                mapper.writeValueAsBytes(payload);
+            }
+            long start = System.nanoTime();
+            int size = 0;
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                size = mapper.writeValueAsBytes(payload).length;
+            }
+            double millisPerList = (System.nanoTime() - start) / 1e6 / MEASURED_ROUNDS;
+            sizes.put(entry.getKey(), size);
+            System.out.printf("%s x %d as %-5s: %,9d bytes, %6.2f ms per list%n",
+                    type, payload.size(), entry.getKey(), size, millisPerList);
+        }
+        assertThat(sizes.get("cbor")).isLessThan(sizes.get("json"));
+        assertThat(sizes.get("smile")).isLessThan(sizes.get("json"));
+    }
+}
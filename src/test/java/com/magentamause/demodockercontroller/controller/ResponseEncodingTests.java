@@ -0,0 +1,143 @@
+package com.magentamause.demodockercontroller.controller;
+
+import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
+import com.magentamause.demodockercontroller.repository.ContainerConfigurationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import tools.jackson.databind.JacksonModule;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ResponseEncodingTests {
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ContainerConfigurationRepository configRepository;
+
+    @Autowired
+    private CBORMapper cborMapper;
+
+    @Autowired
+    private SmileMapper smileMapper;
+
+    @AfterEach
+    void tearDown() {
+        configRepository.deleteAll();
+    }
+
+    @Test
+    void encodingIsNegotiatedThroughAcceptHeader() throws Exception {
+        HttpResponse<byte[]> json = get("/configurations", "application/json");
+        HttpResponse<byte[]> cbor = get("/configurations", "application/cbor");
+        HttpResponse<byte[]> smile = get("/configurations", "application/x-jackson-smile");
+        HttpResponse<byte[]> unspecified = get("/configurations", null);
+
+        assertThat(json.headers().firstValue("Content-Type")).hasValueSatisfying(type -> assertThat(type).startsWith("application/json"));
+        assertThat(cbor.headers().firstValue("Content-Type")).hasValue("application/cbor");
+        assertThat(smile.headers().firstValue("Content-Type")).hasValue("application/x-jackson-smile");
+        assertThat(unspecified.headers().firstValue("Content-Type")).hasValueSatisfying(type -> assertThat(type).startsWith("application/json"));
+        assertThat(cbor.headers().firstValue("ETag")).isNotEqualTo(json.headers().firstValue("ETag"));
+    }
+
+    @Test
+    void matchingETagIsNotModifiedPerEncoding() throws Exception {
+        HttpResponse<byte[]> cbor = get("/configurations", "application/cbor");
+        String eTag = cbor.headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<byte[]> sameEncoding = send(HttpRequest.newBuilder(uri("/configurations"))
+                .header("Accept", "application/cbor").header("If-None-Match", eTag).build());
+        HttpResponse<byte[]> otherEncoding = send(HttpRequest.newBuilder(uri("/configurations"))
+                .header("Accept", "application/json").header("If-None-Match", eTag).build());
+
+        assertThat(sameEncoding.statusCode()).isEqualTo(304);
+        assertThat(otherEncoding.statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    void eTagFollowsTheEncodingChosenByQuality() throws Exception {
+        String jsonETag = get("/configurations", "application/json").headers().firstValue("ETag").orElseThrow();
+        String cborETag = get("/configurations", "application/cbor").headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<byte[]> preferJson = get("/configurations", "application/cbor;q=0.1, application/json");
+        HttpResponse<byte[]> preferCbor = get("/configurations", "application/json;q=0.5, application/cbor");
+
+        assertThat(preferJson.headers().firstValue("Content-Type")).hasValueSatisfying(type -> assertThat(type).startsWith("application/json"));
+        assertThat(preferJson.headers().firstValue("ETag")).hasValue(jsonETag);
+        assertThat(preferCbor.headers().firstValue("Content-Type")).hasValue("application/cbor");
+        assertThat(preferCbor.headers().firstValue("ETag")).hasValue(cborETag);
+    }
+
+    @Test
+    void largeResponsesAreGzipCompressedAndStillMatchTheirETag() throws Exception {
+        // Enough configurations to exceed server.compression.min-response-size
+        for (int i = 0; i < 20; i++) {
+            ContainerConfiguration configuration = new ContainerConfiguration();
+            configuration.setName("app-" + i);
+            configuration.setImageName("registry.example.com/team/app-" + i);
+            configuration.setImageTag("1.0." + i);
+            configRepository.save(configuration);
+        }
+
+        HttpResponse<byte[]> plain = get("/configurations", "application/json");
+        HttpResponse<byte[]> gzip = send(HttpRequest.newBuilder(uri("/configurations"))
+                .header("Accept", "application/json").header("Accept-Encoding", "gzip").build());
+
+        assertThat(plain.headers().firstValue("Content-Encoding")).isEmpty();
+        assertThat(gzip.statusCode()).isEqualTo(200);
+        assertThat(gzip.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        assertThat(gzip.body().length).isLessThan(plain.body().length);
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip.body()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(new String(plain.body(), StandardCharsets.UTF_8));
+        }
+
+        String weakETag = gzip.headers().firstValue("ETag").orElseThrow();
+        assertThat(weakETag).startsWith("W/");
+        HttpResponse<byte[]> notModified = send(HttpRequest.newBuilder(uri("/configurations"))
+                .header("Accept", "application/json").header("Accept-Encoding", "gzip")
+                .header("If-None-Match", weakETag).build());
+        assertThat(notModified.statusCode()).isEqualTo(304);
+    }
+
+    @Test
+    void binaryEncodingsShareTheJacksonModules() {
+        assertThat(smileMapper.registeredModules()).extracting(JacksonModule::getModuleName)
+                .containsExactlyInAnyOrderElementsOf(cborMapper.registeredModules().stream().map(JacksonModule::getModuleName).toList());
+    }
+
+    private HttpResponse<byte[]> get(String path, String accept) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path));
+        if (accept != null) {
+            request.header("Accept", accept);
+        }
+        HttpResponse<byte[]> response = send(request.build());
+        assertThat(response.statusCode()).isEqualTo(200);
+        return response;
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest request) throws Exception {
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,40 @@
+package com.magentamause.demodockercontroller.controller;
+
+import com.magentamause.demodockercontroller.service.docker.DockerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+class StatusHistoryControllerTests {
+
+    @MockitoBean
+    private DockerService dockerService;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void historyLimitMustBeWithinBounds() throws Exception {
+        mockMvc.perform(get("/containers/history").param("limit", "0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/containers/history").param("limit", "-1")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/containers/history").param("limit", "10001")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/containers/history").param("limit", "10000")).andExpect(status().isOk());
+        mockMvc.perform(get("/containers/history")).andExpect(status().isOk());
+    }
+}
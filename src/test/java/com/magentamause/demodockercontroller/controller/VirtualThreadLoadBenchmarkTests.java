@@ -0,0 +1,139 @@
+package com.magentamause.demodockercontroller.controller;
+
+import com.github.dockerjava.api.async.ResultCallback;
+import com.magentamause.demodockercontroller.DemoDockerControllerApplication;
+import com.magentamause.demodockercontroller.domain.ContainerInstance;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.service.ReconciliationService;
+import com.magentamause.demodockercontroller.service.docker.DockerService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fires concurrent buffered exec requests, each blocking on a simulated daemon call, at the application in
+ * platform-thread and virtual-thread mode, and compares how many daemon calls were in flight at once.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class VirtualThreadLoadBenchmarkTests {
+
+    private static final int CONCURRENT_REQUESTS = 1_000;
+    private static final long DAEMON_LATENCY_MILLIS = 2_000;
+
+    @Test
+    void virtualThreadsRaiseConcurrencyBeyondTheRequestThreadPool() throws Exception {
+        LoadResult platform = run(false);
+        LoadResult virtual = run(true);
+
+        assertThat(platform.peakInFlight()).isLessThanOrEqualTo(200);
+        assertThat(virtual.peakInFlight()).isGreaterThan(platform.peakInFlight() * 2);
+        assertThat(virtual.elapsedMillis()).isLessThan(platform.elapsedMillis());
+    }
+
+    private LoadResult run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peakInFlight = new AtomicInteger();
+        DockerService dockerService = slowDockerService(inFlight, peakInFlight);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoDockerControllerApplication.class)
+                .initializers(ctx -> ((GenericApplicationContext) ctx).registerBean("slowDockerService", DockerService.class,
+                        () -> dockerService, definition -> definition.setPrimary(true)))
+                // Command-line arguments, so they take precedence over application.properties
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.url=jdbc:h2:mem:load-" + mode + ";DB_CLOSE_DELAY=-1",
+                        "--docker.exec.max-concurrent=" + CONCURRENT_REQUESTS,
+                        "--docker.exec.max-per-instance=" + CONCURRENT_REQUESTS,
+                        "--docker.gc.enabled=false",
+                        "--logging.level.root=WARN");
+             HttpClient httpClient = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build()) {
+            // Reconciliation would otherwise fail the instance, as the stubbed daemon lists no containers
+            ReconciliationService reconciliationService = context.getBean(ReconciliationService.class);
+            while (!reconciliationService.isCompleted()) {
+                Thread.sleep(50);
+            }
+            ContainerInstance instance = new ContainerInstance();
+            instance.setDockerContainerId("container-1");
+            instance.setStatus(ContainerStatus.RUNNING);
+            instance = context.getBean(ContainerInstanceRepository.class).save(instance);
+
+            URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                    + "/containers/" + instance.getId() + "/exec");
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"command\":[\"true\"]}"))
+                    .build();
+
+            // Warm up connections, JIT and pools before measuring
+            send(httpClient, request, CONCURRENT_REQUESTS);
+            peakInFlight.set(0);
+
+            long start = System.nanoTime();
+            send(httpClient, request, CONCURRENT_REQUESTS);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            LoadResult result = new LoadResult(peakInFlight.get(), elapsedMillis);
+            System.out.printf("%-8s threads: %,d requests x %d ms daemon latency in %,6d ms (%,7.0f req/s), peak %,d daemon calls in flight%n",
+                    mode, CONCURRENT_REQUESTS, DAEMON_LATENCY_MILLIS, elapsedMillis,
+                    CONCURRENT_REQUESTS * 1000.0 / elapsedMillis, result.peakInFlight());
+            return result;
+        }
+    }
+
+    private static void send(HttpClient httpClient, HttpRequest request, int count) {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            responses.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertThat(response.join().statusCode()).isEqualTo(200);
+        }
+    }
+
+    // A plain proxy rather than a Mockito mock: recording every invocation would cost more CPU than the request itself
+    private static DockerService slowDockerService(AtomicInteger inFlight, AtomicInteger peakInFlight) {
+        return (DockerService) Proxy.newProxyInstance(DockerService.class.getClassLoader(), new Class<?>[]{DockerService.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "createExec" -> "exec-1";
+                    case "getExecExitCode" -> 0L;
+                    case "startExec" -> {
+                        ResultCallback<?> callback = (ResultCallback<?>) args[1];
+                        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                        try {
+                            // A synchronous daemon round trip, as the real client makes on the calling thread
+                            Thread.sleep(DAEMON_LATENCY_MILLIS);
+                        } finally {
+                            inFlight.decrementAndGet();
+                        }
+                        callback.onComplete();
+                        yield callback;
+                    }
+                    case "listAllContainers" -> List.of();
+                    case "toString" -> "slowDockerService";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> method.getReturnType() == boolean.class ? false : null;
+                });
+    }
+
+    private record LoadResult(int peakInFlight, long elapsedMillis) {
+    }
+}
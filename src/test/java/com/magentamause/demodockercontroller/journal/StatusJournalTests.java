@@ -0,0 +1,75 @@
+package com.magentamause.demodockercontroller.journal;
+
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.StatusTransitionSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatusJournalTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void appendsAcrossSegmentsAndRecoversAfterReopen() throws Exception {
+        UUID instanceId = UUID.randomUUID();
+        UUID otherInstanceId = UUID.randomUUID();
+        Instant start = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+        StatusJournal journal = new StatusJournal(true, directory.toString(), 4, 30, true);
+        journal.init();
+        for (int i = 0; i < 10; i++) {
+            journal.append(transition(i % 2 == 0 ? instanceId : otherInstanceId, start.plusSeconds(i), i));
+        }
+        journal.close();
+
+        StatusJournal reopened = new StatusJournal(true, directory.toString(), 4, 30, true);
+        reopened.init();
+        reopened.append(transition(instanceId, start.plusSeconds(10), 10));
+
+        List<StatusTransition> history = reopened.getHistory(instanceId);
+        assertThat(history).extracting(StatusTransition::exitCode).containsExactly(0, 2, 4, 6, 8, 10);
+        assertThat(history.getFirst().timestamp()).isEqualTo(start);
+        assertThat(history.getFirst().previousStatus()).isNull();
+
+        List<StatusTransition> range = reopened.scan(start.plusSeconds(3), start.plusSeconds(6), 100);
+        assertThat(range).extracting(StatusTransition::exitCode).containsExactly(3, 4, 5, 6);
+        reopened.close();
+    }
+
+    @Test
+    void compactionDropsRecordsOutsideRetention() throws Exception {
+        UUID instanceId = UUID.randomUUID();
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+        StatusJournal journal = new StatusJournal(true, directory.toString(), 4, 1, true);
+        journal.init();
+        journal.append(transition(instanceId, now.minus(3, ChronoUnit.DAYS), 1));
+        journal.append(transition(instanceId, now.minus(2, ChronoUnit.DAYS), 2));
+        journal.append(transition(instanceId, now.minus(2, ChronoUnit.DAYS), 3));
+        journal.append(transition(instanceId, now.minus(2, ChronoUnit.DAYS), 4));
+        journal.append(transition(instanceId, now.minus(2, ChronoUnit.DAYS), 5));
+        journal.append(transition(instanceId, now.minusSeconds(60), 6));
+        journal.append(transition(instanceId, now.minusSeconds(30), 7));
+        journal.append(transition(instanceId, now, 8));
+        journal.append(transition(instanceId, now, 9));
+
+        journal.compact();
+
+        assertThat(journal.getHistory(instanceId)).extracting(StatusTransition::exitCode).containsExactly(6, 7, 8, 9);
+        journal.close();
+    }
+
+    private StatusTransition transition(UUID instanceId, Instant timestamp, int exitCode) {
+        return new StatusTransition(instanceId, UUID.randomUUID(), exitCode == 0 ? null : ContainerStatus.RUNNING,
+                ContainerStatus.FAILED, StatusTransitionSource.EVENT, exitCode, timestamp);
+    }
+}
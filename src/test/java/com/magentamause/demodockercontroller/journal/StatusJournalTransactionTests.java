@@ -0,0 +1,61 @@
+package com.magentamause.demodockercontroller.journal;
+
+import com.magentamause.demodockercontroller.event.ContainerStatusChangedEvent;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.StatusTransitionSource;
+import com.magentamause.demodockercontroller.service.docker.DockerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class StatusJournalTransactionTests {
+
+    @MockitoBean
+    private DockerService dockerService;
+
+    @Autowired
+    private StatusJournal statusJournal;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void journalsOnlyCommittedTransitions() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        UUID committed = UUID.randomUUID();
+        UUID rolledBack = UUID.randomUUID();
+        UUID outsideTransaction = UUID.randomUUID();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            publish(committed);
+            assertThat(statusJournal.getHistory(committed)).isEmpty();
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            publish(rolledBack);
+            status.setRollbackOnly();
+        });
+        publish(outsideTransaction);
+
+        assertThat(statusJournal.getHistory(committed)).hasSize(1);
+        assertThat(statusJournal.getHistory(rolledBack)).isEmpty();
+        assertThat(statusJournal.getHistory(outsideTransaction)).hasSize(1);
+    }
+
+    private void publish(UUID instanceId) {
+        eventPublisher.publishEvent(new ContainerStatusChangedEvent(instanceId, UUID.randomUUID(), "container",
+                ContainerStatus.CREATED, ContainerStatus.RUNNING, StatusTransitionSource.API, null, Instant.now()));
+    }
+}
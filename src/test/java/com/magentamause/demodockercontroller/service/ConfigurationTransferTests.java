@@ -0,0 +1,114 @@
+package com.magentamause.demodockercontroller.service;
+
+import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
+import com.magentamause.demodockercontroller.dto.ConfigurationImportError;
+import com.magentamause.demodockercontroller.dto.ConfigurationImportResponse;
+import com.magentamause.demodockercontroller.repository.ContainerConfigurationRepository;
+import com.magentamause.demodockercontroller.service.docker.DockerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "docker.configurations.import.batch-size=2",
+        "docker.configurations.import.max-line-length=4096",
+        "docker.configurations.export.page-size=3"
+})
+class ConfigurationTransferTests {
+
+    @MockitoBean
+    private DockerService dockerService;
+
+    @Autowired
+    private ConfigurationTransferService transferService;
+
+    @Autowired
+    private ContainerConfigurationRepository configRepository;
+
+    @AfterEach
+    void tearDown() {
+        configRepository.deleteAll();
+    }
+
+    @Test
+    void importsValidLinesAndReportsInvalidOnesByLineNumber() throws IOException {
+        String input = String.join("\n",
+                configuration("web", "nginx", "1.27"),
+                "{not json",
+                "",
+                "{\"imageName\":\"nginx\",\"imageTag\":\"1.27\"}",
+                configuration(null, "redis", "7"),
+                "{\"name\":\"" + "x".repeat(5000) + "\"}",
+                configuration("web", "nginx", "1.28"),
+                configuration("worker", "busybox", "latest"));
+
+        ConfigurationImportResponse result = import_(input, false);
+
+        assertThat(result.getCreated()).isEqualTo(3);
+        assertThat(result.getUpdated()).isZero();
+        assertThat(result.getFailed()).isEqualTo(4);
+        assertThat(result.getErrors()).extracting(ConfigurationImportError::getLine).containsExactly(2L, 4L, 6L, 7L);
+        assertThat(result.getErrors().get(1).getMessage()).contains("resourceLimits");
+        assertThat(result.getErrors().get(3).getMessage()).contains("already exists");
+        assertThat(configRepository.count()).isEqualTo(3);
+        assertThat(configRepository.findByName("web")).map(ContainerConfiguration::getImageTag).contains("1.27");
+    }
+
+    @Test
+    void upsertUpdatesConfigurationsWithAnExistingName() throws IOException {
+        import_(configuration("web", "nginx", "1.27") + "\n" + configuration("worker", "busybox", "1"), false);
+
+        ConfigurationImportResponse result = import_(String.join("\n",
+                configuration("web", "nginx", "1.28"),
+                configuration("worker", "busybox", "2"),
+                configuration("cache", "redis", "7")), true);
+
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getUpdated()).isEqualTo(2);
+        assertThat(result.getFailed()).isZero();
+        assertThat(configRepository.count()).isEqualTo(3);
+        assertThat(configRepository.findByName("web")).map(ContainerConfiguration::getImageTag).contains("1.28");
+        assertThat(configRepository.findByName("worker")).map(ContainerConfiguration::getImageTag).contains("2");
+    }
+
+    @Test
+    void exportWritesEveryConfigurationAsOneLineThatCanBeImportedAgain() throws IOException {
+        String input = IntStream.range(0, 10)
+                .mapToObj(i -> configuration("app-" + i, "nginx", "1." + i))
+                .collect(Collectors.joining("\n"));
+        import_(input, false);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        transferService.exportConfigurations(out);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+
+        assertThat(lines).hasSize(10);
+        assertThat(lines).allSatisfy(line -> assertThat(line).startsWith("{").contains("\"name\":\"app-"));
+
+        ConfigurationImportResponse result = import_(out.toString(StandardCharsets.UTF_8), true);
+        assertThat(result.getUpdated()).isEqualTo(10);
+        assertThat(result.getFailed()).isZero();
+        assertThat(configRepository.count()).isEqualTo(10);
+    }
+
+    private ConfigurationImportResponse import_(String input, boolean upsert) throws IOException {
+        return transferService.importConfigurations(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), upsert);
+    }
+
+    private static String configuration(String name, String image, String tag) {
+        return "{" + (name != null ? "\"name\":\"" + name + "\"," : "")
+                + "\"imageName\":\"" + image + "\",\"imageTag\":\"" + tag + "\","
+                + "\"resourceLimits\":{\"memoryBytes\":67108864,\"cpuCores\":0.5}}";
+    }
+}
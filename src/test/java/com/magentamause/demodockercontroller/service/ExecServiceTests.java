@@ -0,0 +1,141 @@
+package com.magentamause.demodockercontroller.service;
+
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.model.Frame;
+import com.github.dockerjava.api.model.StreamType;
+import com.magentamause.demodockercontroller.domain.ContainerInstance;
+import com.magentamause.demodockercontroller.dto.ExecRequest;
+import com.magentamause.demodockercontroller.dto.ExecResponse;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.service.docker.DockerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ExecServiceTests {
+
+    private final ContainerInstanceRepository containerInstanceRepository = mock(ContainerInstanceRepository.class);
+    private final DockerService dockerService = mock(DockerService.class);
+    private final ExecService execService = new ExecService(containerInstanceRepository, dockerService,
+            JsonMapper.builder().build(), 16, 1, 8, 5, 60);
+    private final UUID instanceId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ContainerInstance instance = new ContainerInstance();
+        instance.setId(instanceId);
+        instance.setDockerContainerId("container-1");
+        instance.setStatus(ContainerStatus.RUNNING);
+        when(containerInstanceRepository.findById(instanceId)).thenReturn(Optional.of(instance));
+        when(dockerService.createExec(eq("container-1"), any(), any(), any(), any())).thenReturn("exec-1");
+        when(dockerService.getExecExitCode("exec-1")).thenReturn(3L);
+    }
+
+    @Test
+    void runToCompletionCapsEachStream() {
+        replayFrames(new Frame(StreamType.STDOUT, bytes("0123456789")), new Frame(StreamType.STDERR, bytes("oops")));
+
+        ExecResponse response = execService.execute(instanceId, request());
+
+        assertThat(response.getExitCode()).isEqualTo(3L);
+        assertThat(response.getStdout()).isEqualTo("01234567");
+        assertThat(response.isStdoutTruncated()).isTrue();
+        assertThat(response.getStderr()).isEqualTo("oops");
+        assertThat(response.isStderrTruncated()).isFalse();
+    }
+
+    @Test
+    void streamingWritesOneLinePerFrameAndTheExitCode() throws Exception {
+        replayFrames(new Frame(StreamType.STDOUT, bytes("a")), new Frame(StreamType.STDERR, bytes("b")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        execService.stream(execService.prepare(instanceId, request()), out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8).lines()).containsExactly(
+                "{\"stream\":\"stdout\",\"data\":\"a\"}",
+                "{\"stream\":\"stderr\",\"data\":\"b\"}",
+                "{\"exitCode\":3}");
+    }
+
+    @Test
+    void charactersAreKeptWholeAcrossFramesAndAtTheCap() {
+        byte[] euro = bytes("€");
+        replayFrames(new Frame(StreamType.STDOUT, bytes("123456")), new Frame(StreamType.STDOUT, euro),
+                new Frame(StreamType.STDERR, new byte[]{'a', euro[0]}), new Frame(StreamType.STDERR, new byte[]{euro[1], euro[2]}));
+
+        ExecResponse response = execService.execute(instanceId, request());
+
+        assertThat(response.getStdout()).isEqualTo("123456");
+        assertThat(response.isStdoutTruncated()).isTrue();
+        assertThat(response.getStderr()).isEqualTo("a€");
+    }
+
+    @Test
+    void streamingHoldsBackCharactersSplitAcrossFrames() throws Exception {
+        byte[] euro = bytes("€");
+        replayFrames(new Frame(StreamType.STDOUT, new byte[]{'a', euro[0]}), new Frame(StreamType.STDOUT, new byte[]{euro[1]}),
+                new Frame(StreamType.STDOUT, new byte[]{euro[2], 'b'}), new Frame(StreamType.STDERR, new byte[]{euro[0], euro[1]}));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        execService.stream(execService.prepare(instanceId, request()), out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8).lines()).containsExactly(
+                "{\"stream\":\"stdout\",\"data\":\"a\"}",
+                "{\"stream\":\"stdout\",\"data\":\"€b\"}",
+                "{\"stream\":\"stderr\",\"data\":\"\uFFFD\"}",
+                "{\"exitCode\":3}");
+    }
+
+    @Test
+    void rejectsExecsBeyondThePerInstanceLimitUntilASlotIsReleased() throws Exception {
+        replayFrames();
+        ExecService.PreparedExec running = execService.prepare(instanceId, request());
+
+        assertThatThrownBy(() -> execService.prepare(instanceId, request()))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+
+        execService.stream(running, new ByteArrayOutputStream());
+        assertThat(execService.execute(instanceId, request()).getExitCode()).isEqualTo(3L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void replayFrames(Frame... frames) {
+        when(dockerService.startExec(anyString(), any())).thenAnswer(invocation -> {
+            ResultCallback<Frame> callback = invocation.getArgument(1);
+            for (Frame frame : frames) {
+                callback.onNext(frame);
+            }
+            callback.onComplete();
+            return callback;
+        });
+    }
+
+    private ExecRequest request() {
+        ExecRequest request = new ExecRequest();
+        request.setCommand(List.of("sh", "-c", "true"));
+        return request;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
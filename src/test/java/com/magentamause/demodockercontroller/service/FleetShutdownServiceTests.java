@@ -0,0 +1,127 @@
+package com.magentamause.demodockercontroller.service;
+
+import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.repository.ContainerConfigurationRepository;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.service.docker.DockerService;
+import com.magentamause.demodockercontroller.state.FleetStateStore;
+import com.magentamause.demodockercontroller.state.InstanceState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = "docker.shutdown.deadline-seconds=2")
+class FleetShutdownServiceTests {
+
+    @MockitoBean
+    private DockerService dockerService;
+
+    @Autowired
+    private FleetShutdownService fleetShutdownService;
+
+    @Autowired
+    private ContainerLifecycleService lifecycleService;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private FleetStateStore fleetStateStore;
+
+    @Autowired
+    private ContainerInstanceRepository containerInstanceRepository;
+
+    @Autowired
+    private ContainerConfigurationRepository configRepository;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        // Startup reconciliation calls the mock from its own thread, which must not overlap with stubbing
+        await().atMost(Duration.ofSeconds(10)).until(reconciliationService::isCompleted);
+        when(dockerService.createContainer(any(), anyMap(), anyMap()))
+                .thenAnswer(invocation -> UUID.randomUUID().toString().replace("-", ""));
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        fleetStateStore.flush();
+        containerInstanceRepository.deleteAll();
+        configRepository.deleteAll();
+    }
+
+    @Test
+    void finishesWithinTheDeadlineWhenStopsAndKillsHang() {
+        ContainerConfiguration configuration = configuration();
+        InstanceState stops = startInstance(configuration);
+        InstanceState needsKill = startInstance(configuration);
+        InstanceState hangs = startInstance(configuration);
+        doAnswer(hang()).when(dockerService).stopContainer(eq(needsKill.dockerContainerId()), anyInt());
+        doAnswer(hang()).when(dockerService).stopContainer(eq(hangs.dockerContainerId()), anyInt());
+        doAnswer(hang()).when(dockerService).killContainer(hangs.dockerContainerId());
+        fleetStateStore.flush();
+
+        long startNanos = System.nanoTime();
+        fleetShutdownService.drainRunningContainers();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+
+        assertThat(elapsed).isLessThan(Duration.ofMillis(2500));
+        verify(dockerService).killContainer(needsKill.dockerContainerId());
+        assertThat(statusOf(stops)).isEqualTo(ContainerStatus.STOPPED);
+        assertThat(statusOf(needsKill)).isEqualTo(ContainerStatus.STOPPED);
+        assertThat(statusOf(hangs)).isEqualTo(ContainerStatus.FAILED);
+    }
+
+    // Blocks like a daemon call that never returns and ignores interrupts, until the test ends
+    private Answer<Void> hang() {
+        return invocation -> {
+            while (true) {
+                try {
+                    release.await();
+                    return null;
+                } catch (InterruptedException ignored) {
+                    // keep hanging
+                }
+            }
+        };
+    }
+
+    private ContainerConfiguration configuration() {
+        ContainerConfiguration configuration = new ContainerConfiguration();
+        configuration.setName("app");
+        configuration.setImageName("app");
+        configuration.setImageTag("1");
+        return configRepository.save(configuration);
+    }
+
+    private InstanceState startInstance(ContainerConfiguration configuration) {
+        UUID id = lifecycleService.createContainer(configuration.getId()).getId();
+        lifecycleService.startContainer(id);
+        return fleetStateStore.get(id).orElseThrow();
+    }
+
+    private ContainerStatus statusOf(InstanceState instance) {
+        return fleetStateStore.get(instance.id()).orElseThrow().status();
+    }
+}
@@ -0,0 +1,139 @@
+package com.magentamause.demodockercontroller.service;
+
+import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
+import com.magentamause.demodockercontroller.domain.ContainerInstance;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.RetentionPolicySpec;
+import com.magentamause.demodockercontroller.repository.ContainerConfigurationRepository;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.repository.ManagedImageRepository;
+import com.magentamause.demodockercontroller.service.docker.DockerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "docker.gc.enabled=false",
+        "docker.gc.daemon-operations-per-second=1000",
+        "docker.gc.images.grace-period-seconds=0"
+})
+class GarbageCollectionTests {
+
+    @MockitoBean
+    private DockerService dockerService;
+
+    @Autowired
+    private GarbageCollectionService garbageCollectionService;
+
+    @Autowired
+    private ContainerInstanceRepository containerInstanceRepository;
+
+    @Autowired
+    private ContainerConfigurationRepository configRepository;
+
+    @Autowired
+    private ManagedImageRepository managedImageRepository;
+
+    @Autowired
+    private ContainerConfigurationService configService;
+
+    private final Instant now = Instant.now();
+
+    @AfterEach
+    void tearDown() {
+        containerInstanceRepository.deleteAll();
+        configRepository.deleteAll();
+        managedImageRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void collectsInstancesPastTheirStatusAndConfigurationTtl() {
+        when(dockerService.removeContainer(anyString())).thenReturn(true);
+        ContainerConfiguration shortLived = configuration("short-lived", 60L);
+        UUID other = UUID.randomUUID();
+
+        ContainerInstance expiredByOverride = save(shortLived.getId(), ContainerStatus.STOPPED, Duration.ofMinutes(2));
+        ContainerInstance failedWithinDefault = save(shortLived.getId(), ContainerStatus.FAILED, Duration.ofHours(2));
+        ContainerInstance expiredByDefault = save(other, ContainerStatus.STOPPED, Duration.ofDays(8));
+        ContainerInstance stoppedWithinDefault = save(other, ContainerStatus.STOPPED, Duration.ofDays(1));
+        ContainerInstance running = save(other, ContainerStatus.RUNNING, Duration.ofDays(30));
+        ContainerInstance stillRunningInDocker = save(other, ContainerStatus.FAILED, Duration.ofDays(2));
+        when(dockerService.removeContainer(stillRunningInDocker.getDockerContainerId())).thenReturn(false);
+
+        assertThat(garbageCollectionService.collectInstances()).isEqualTo(2);
+
+        assertThat(containerInstanceRepository.findAll())
+                .extracting(ContainerInstance::getId)
+                .containsExactlyInAnyOrder(failedWithinDefault.getId(), stoppedWithinDefault.getId(),
+                        running.getId(), stillRunningInDocker.getId());
+        verify(dockerService).removeContainer(expiredByOverride.getDockerContainerId());
+        verify(dockerService).removeContainer(expiredByDefault.getDockerContainerId());
+        verify(dockerService, never()).removeContainer(running.getDockerContainerId());
+    }
+
+    @Test
+    void prunesImagesOnceNoConfigurationReferencesThem() {
+        when(dockerService.removeImage(anyString())).thenReturn(true);
+        ContainerConfiguration configuration = configuration("pruned-image", null);
+
+        garbageCollectionService.pruneImages();
+        verify(dockerService, never()).removeImage("pruned-image:1");
+        assertThat(managedImageRepository.existsById("pruned-image:1")).isTrue();
+
+        configRepository.delete(configuration);
+        garbageCollectionService.pruneImages();
+
+        verify(dockerService).removeImage("pruned-image:1");
+        assertThat(managedImageRepository.existsById("pruned-image:1")).isFalse();
+    }
+
+    @Test
+    void prunesTheImageOfAConfigurationCreatedAndDeletedBetweenPasses() {
+        when(dockerService.removeImage(anyString())).thenReturn(true);
+        ContainerConfiguration configuration = new ContainerConfiguration();
+        configuration.setName("short-lived");
+        configuration.setImageName("short-lived");
+        configuration.setImageTag("1");
+        UUID id = configService.saveConfiguration(configuration).getId();
+        configService.deleteConfiguration(id);
+
+        assertThat(managedImageRepository.existsById("short-lived:1")).isTrue();
+        garbageCollectionService.pruneImages();
+
+        verify(dockerService).removeImage("short-lived:1");
+    }
+
+    private ContainerConfiguration configuration(String imageName, Long stoppedTtlSeconds) {
+        ContainerConfiguration configuration = new ContainerConfiguration();
+        configuration.setImageName(imageName);
+        configuration.setImageTag("1");
+        if (stoppedTtlSeconds != null) {
+            RetentionPolicySpec retentionPolicy = new RetentionPolicySpec();
+            retentionPolicy.setStoppedTtlSeconds(stoppedTtlSeconds);
+            configuration.setRetentionPolicy(retentionPolicy);
+        }
+        return configRepository.save(configuration);
+    }
+
+    private ContainerInstance save(UUID configurationId, ContainerStatus status, Duration inStatusFor) {
+        ContainerInstance instance = new ContainerInstance();
+        instance.setConfigurationId(configurationId);
+        instance.setDockerContainerId(UUID.randomUUID().toString());
+        instance.setStatus(status);
+        instance.setCreatedAt(now.minus(inStatusFor));
+        instance.setStatusChangedAt(now.minus(inStatusFor));
+        return containerInstanceRepository.save(instance);
+    }
+}
@@ -0,0 +1,112 @@
+package com.magentamause.demodockercontroller.service;
+
+import com.magentamause.demodockercontroller.domain.ContainerInstance;
+import com.magentamause.demodockercontroller.dto.ContainerSummaryResponse;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.StatusTransitionSource;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceFilter;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.state.FleetStateStore;
+import com.magentamause.demodockercontroller.state.InstanceState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class InstanceQueryTests {
+
+    @Autowired
+    private ContainerInstanceRepository containerInstanceRepository;
+
+    @Autowired
+    private FleetStateStore fleetStateStore;
+
+    @Autowired
+    private StatusTransitionService statusTransitionService;
+
+    @Autowired
+    private InstanceStatusCounters instanceStatusCounters;
+
+    private final UUID configurationA = UUID.randomUUID();
+    private final UUID configurationB = UUID.randomUUID();
+    private final Instant now = Instant.now();
+
+    @AfterEach
+    void tearDown() {
+        fleetStateStore.flush();
+        containerInstanceRepository.deleteAll();
+        instanceStatusCounters.rebuild();
+    }
+
+    @Test
+    void filtersByStatusConfigurationAndTimeRange() {
+        save(configurationA, ContainerStatus.FAILED, now.minus(Duration.ofHours(2)));
+        save(configurationA, ContainerStatus.FAILED, now);
+        save(configurationA, ContainerStatus.RUNNING, now);
+        save(configurationB, ContainerStatus.FAILED, now);
+
+        // GET /containers is served from the fleet state table
+        List<InstanceState> failedOfA = fleetStateStore.find(
+                new ContainerInstanceFilter(ContainerStatus.FAILED, null, configurationA, null, null, null, null));
+        List<InstanceState> recentFailedOfA = fleetStateStore.find(
+                new ContainerInstanceFilter(ContainerStatus.FAILED, null, configurationA, now.minus(Duration.ofHours(1)), null, null, null));
+
+        assertThat(failedOfA).hasSize(2);
+        assertThat(recentFailedOfA).hasSize(1);
+        assertThat(fleetStateStore.find(new ContainerInstanceFilter(null, null, null, null, null, null, null)))
+                .filteredOn(instance -> instance.configurationId().equals(configurationA) || instance.configurationId().equals(configurationB))
+                .hasSize(4);
+    }
+
+    @Test
+    void summaryFollowsTransitionsAndMatchesRebuild() {
+        ContainerInstance first = save(configurationA, null, now);
+        statusTransitionService.transition(first, ContainerStatus.CREATED, StatusTransitionSource.API);
+        ContainerInstance second = save(configurationB, null, now);
+        statusTransitionService.transition(second, ContainerStatus.CREATED, StatusTransitionSource.API);
+        statusTransitionService.transition(second, ContainerStatus.RUNNING, StatusTransitionSource.API);
+        containerInstanceRepository.save(first);
+        containerInstanceRepository.save(second);
+
+        ContainerSummaryResponse incremental = instanceStatusCounters.getSummary();
+        instanceStatusCounters.rebuild();
+        ContainerSummaryResponse rebuilt = instanceStatusCounters.getSummary();
+
+        assertThat(incremental.getTotal()).isEqualTo(2);
+        assertThat(incremental.getByStatus().get(ContainerStatus.RUNNING)).isEqualTo(1);
+        assertThat(incremental.getByConfiguration().get(configurationA).get(ContainerStatus.CREATED)).isEqualTo(1);
+        assertThat(rebuilt).isEqualTo(incremental);
+    }
+
+    @Test
+    void rebuildKeepsTransitionsThatAreNotFlushedYet() {
+        ContainerInstance instance = save(configurationA, ContainerStatus.RUNNING, now);
+        instanceStatusCounters.rebuild();
+
+        // Event transitions change the fleet state table first and reach the database through the flush
+        fleetStateStore.transition(instance.getDockerContainerId(), ContainerStatus.RUNNING, ContainerStatus.STOPPED);
+        instanceStatusCounters.rebuild();
+
+        Map<ContainerStatus, Long> counts = instanceStatusCounters.getSummary().getByConfiguration().get(configurationA);
+        assertThat(counts.get(ContainerStatus.STOPPED)).isEqualTo(1);
+        assertThat(counts.get(ContainerStatus.RUNNING)).isZero();
+    }
+
+    private ContainerInstance save(UUID configurationId, ContainerStatus status, Instant createdAt) {
+        ContainerInstance instance = new ContainerInstance();
+        instance.setConfigurationId(configurationId);
+        instance.setDockerContainerId(UUID.randomUUID().toString());
+        instance.setStatus(status);
+        instance.setCreatedAt(createdAt);
+        return containerInstanceRepository.save(instance);
+    }
+}
@@ -0,0 +1,160 @@
+package com.magentamause.demodockercontroller.service;
+
+import com.github.dockerjava.api.model.Container;
+import com.magentamause.demodockercontroller.domain.ContainerInstance;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.service.docker.DockerService;
+import com.magentamause.demodockercontroller.state.FleetStateStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.convention.TestBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Startup reconciliation runs once per context, so the whole readiness sequence is covered by one test: Docker
+ * is unreachable twice, then the listing blocks until the test has stored the instances to reconcile.
+ */
+@SpringBootTest(properties = {
+        "docker.reconciliation.batch-size=2",
+        "docker.reconciliation.retry-initial-delay-ms=200",
+        "docker.reconciliation.retry-max-delay-ms=300"
+})
+class ReconciliationServiceTests {
+
+    private static final List<Instant> listingAttempts = new CopyOnWriteArrayList<>();
+    private static final CompletableFuture<List<Container>> daemonContainers = new CompletableFuture<>();
+
+    // Stubbed before the context starts, since reconciliation begins as soon as the application is ready
+    @TestBean
+    private DockerService dockerService;
+
+    @MockitoSpyBean
+    private ContainerInstanceRepository containerInstanceRepository;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private FleetStateStore fleetStateStore;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    private MockMvc mockMvc;
+
+    static DockerService dockerService() {
+        DockerService dockerService = mock(DockerService.class);
+        when(dockerService.listAllContainers()).thenAnswer(invocation -> {
+            listingAttempts.add(Instant.now());
+            if (listingAttempts.size() <= 2) {
+                throw new IllegalStateException("Docker daemon unreachable");
+            }
+            return daemonContainers.join();
+        });
+        return dockerService;
+    }
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        daemonContainers.complete(List.of());
+        await().atMost(Duration.ofSeconds(10)).until(reconciliationService::isCompleted);
+        fleetStateStore.flush();
+        containerInstanceRepository.deleteAll();
+    }
+
+    @Test
+    void readinessFollowsReconciliationThroughRetries() throws Exception {
+        await().atMost(Duration.ofSeconds(10)).until(() -> listingAttempts.size() == 3);
+
+        // Both failures were retried, the second time after a doubled but capped delay
+        assertThat(Duration.between(listingAttempts.get(0), listingAttempts.get(1))).isGreaterThanOrEqualTo(Duration.ofMillis(200));
+        assertThat(Duration.between(listingAttempts.get(1), listingAttempts.get(2))).isGreaterThanOrEqualTo(Duration.ofMillis(300));
+        mockMvc.perform(get("/actuator/health/readiness"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.status").value("OUT_OF_SERVICE"))
+                .andExpect(jsonPath("$.components.reconciliation.details.attempt").value(3))
+                .andExpect(jsonPath("$.components.reconciliation.details.lastError").value("Docker daemon unreachable"));
+        mockMvc.perform(get("/containers"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Data-Stale", "true"));
+
+        // Five changed instances are saved in batches of two
+        List<ContainerInstance> instances = new ArrayList<>();
+        List<Container> containers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ContainerInstance instance = new ContainerInstance();
+            instance.setDockerContainerId("container-" + i);
+            instance.setStatus(ContainerStatus.RUNNING);
+            instances.add(containerInstanceRepository.save(instance));
+            if (i < 4) {
+                containers.add(container(instance.getDockerContainerId(), "exited"));
+            }
+        }
+        // Sizes are recorded on the call, since the batch list is reused; the repository is an interface
+        // proxy, so the spy forwards through its default answer rather than a real method
+        Answer<?> repository = mockingDetails(containerInstanceRepository).getMockCreationSettings().getDefaultAnswer();
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            batchSizes.add(invocation.<List<?>>getArgument(0).size());
+            return repository.answer(invocation);
+        }).when(containerInstanceRepository).saveAll(anyList());
+        daemonContainers.complete(containers);
+        await().atMost(Duration.ofSeconds(10)).until(reconciliationService::isCompleted);
+
+        assertThat(batchSizes).containsExactly(2, 2, 1);
+        for (int i = 0; i < 5; i++) {
+            ContainerStatus expected = i < 4 ? ContainerStatus.STOPPED : ContainerStatus.FAILED;
+            assertThat(fleetStateStore.get(instances.get(i).getId()).orElseThrow().status()).isEqualTo(expected);
+        }
+
+        mockMvc.perform(get("/actuator/health/readiness"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"))
+                .andExpect(jsonPath("$.components.reconciliation.details.processedInstances").value(5))
+                .andExpect(jsonPath("$.components.reconciliation.details.lastError").doesNotExist());
+        mockMvc.perform(get("/containers"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Data-Stale", "false"));
+    }
+
+    private static Container container(String id, String state) {
+        Container container = mock(Container.class);
+        when(container.getId()).thenReturn(id);
+        when(container.getState()).thenReturn(state);
+        when(container.getLabels()).thenReturn(Map.of());
+        return container;
+    }
+}
@@ -0,0 +1,165 @@
+package com.magentamause.demodockercontroller.service;
+
+import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
+import com.magentamause.demodockercontroller.dto.HostCapacityResponse;
+import com.magentamause.demodockercontroller.dto.ResourceLimitsDto;
+import com.magentamause.demodockercontroller.dto.ResourceUpdateError;
+import com.magentamause.demodockercontroller.dto.ResourceUpdateResponse;
+import com.magentamause.demodockercontroller.exception.ResourceNotFoundException;
+import com.magentamause.demodockercontroller.model.ResourceLimits;
+import com.magentamause.demodockercontroller.repository.ContainerConfigurationRepository;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.service.docker.DockerService;
+import com.magentamause.demodockercontroller.state.FleetStateStore;
+import com.magentamause.demodockercontroller.state.InstanceState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class ResourceLimitServiceTests {
+
+    private static final long MIB = 1024 * 1024;
+
+    @MockitoBean
+    private DockerService dockerService;
+
+    @Autowired
+    private ResourceLimitService resourceLimitService;
+
+    @Autowired
+    private ContainerLifecycleService lifecycleService;
+
+    @Autowired
+    private FleetStateStore fleetStateStore;
+
+    @Autowired
+    private ContainerInstanceRepository containerInstanceRepository;
+
+    @Autowired
+    private ContainerConfigurationRepository configRepository;
+
+    @BeforeEach
+    void setUp() {
+        when(dockerService.createContainer(any(), anyMap(), anyMap()))
+                .thenAnswer(invocation -> UUID.randomUUID().toString().replace("-", ""));
+    }
+
+    @AfterEach
+    void tearDown() {
+        fleetStateStore.flush();
+        containerInstanceRepository.deleteAll();
+        configRepository.deleteAll();
+    }
+
+    @Test
+    void appliesConfigurationLimitsToAllInstancesInPlace() {
+        HostCapacityResponse before = resourceLimitService.getCapacity();
+        ContainerConfiguration configuration = configuration(256 * MIB, 0.5);
+        List<InstanceState> instances = startInstances(configuration, 3);
+        InstanceState refused = instances.getLast();
+        doThrow(new RuntimeException("Failed to update container: cannot lower memory below usage"))
+                .when(dockerService).updateContainerResources(eq(refused.dockerContainerId()), any(), any());
+
+        ResourceUpdateResponse response = resourceLimitService.updateConfiguration(configuration.getId(), limits(512 * MIB, 1.0));
+
+        assertThat(response.getUpdatedInstanceIds()).containsExactlyInAnyOrder(instances.get(0).id(), instances.get(1).id());
+        assertThat(response.getFailures()).extracting(ResourceUpdateError::getInstanceId).containsExactly(refused.id());
+        assertThat(response.getFailures().getFirst().getMessage()).contains("cannot lower memory");
+        verify(dockerService).updateContainerResources(instances.getFirst().dockerContainerId(), 512 * MIB, 1_000_000_000L);
+
+        ContainerConfiguration updated = configRepository.findById(configuration.getId()).orElseThrow();
+        assertThat(updated.getResourceLimits().getMemoryBytes()).isEqualTo(512 * MIB);
+        // Nothing is replaced, so there is no new revision to roll out
+        assertThat(updated.getRevision()).isZero();
+        assertThat(fleetStateStore.get(instances.getFirst().id())).hasValueSatisfying(state -> {
+            assertThat(state.memoryLimitBytes()).isEqualTo(512 * MIB);
+            assertThat(state.cpuLimitCores()).isEqualTo(1.0);
+        });
+        assertThat(containerInstanceRepository.findById(refused.id()).orElseThrow().getResourceLimits().getMemoryBytes())
+                .isEqualTo(256 * MIB);
+
+        HostCapacityResponse capacity = response.getCapacity();
+        assertThat(capacity.getRunningInstances() - before.getRunningInstances()).isEqualTo(3);
+        assertThat(capacity.getCommittedMemoryBytes() - before.getCommittedMemoryBytes()).isEqualTo(2 * 512 * MIB + 256 * MIB);
+        assertThat(capacity.getCommittedCpuCores() - before.getCommittedCpuCores()).isEqualTo(2.5);
+    }
+
+    @Test
+    void updatesASingleInstance() {
+        ContainerConfiguration configuration = configuration(256 * MIB, 0.5);
+        List<InstanceState> instances = startInstances(configuration, 2);
+
+        ResourceUpdateResponse response = resourceLimitService.updateInstance(instances.getFirst().id(), limits(128 * MIB, 0.25));
+
+        assertThat(response.getUpdatedInstanceIds()).containsExactly(instances.getFirst().id());
+        assertThat(response.getFailures()).isEmpty();
+        assertThat(containerInstanceRepository.findById(instances.getFirst().id()).orElseThrow().getResourceLimits().getCpuCores())
+                .isEqualTo(0.25);
+        assertThat(fleetStateStore.get(instances.getLast().id()).orElseThrow().memoryLimitBytes()).isEqualTo(256 * MIB);
+        assertThat(configRepository.findById(configuration.getId()).orElseThrow().getResourceLimits().getMemoryBytes())
+                .isEqualTo(256 * MIB);
+    }
+
+    @Test
+    void rejectsLimitsDockerCannotApply() {
+        ContainerConfiguration configuration = configuration(256 * MIB, 0.5);
+        UUID instanceId = startInstances(configuration, 1).getFirst().id();
+
+        assertThatThrownBy(() -> resourceLimitService.updateInstance(instanceId, limits(MIB, 1.0)))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        assertThatThrownBy(() -> resourceLimitService.updateConfiguration(configuration.getId(), limits(64 * MIB, 0.0)))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        assertThatThrownBy(() -> resourceLimitService.updateInstance(UUID.randomUUID(), limits(64 * MIB, 1.0)))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private List<InstanceState> startInstances(ContainerConfiguration configuration, int count) {
+        List<InstanceState> instances = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            UUID id = lifecycleService.createContainer(configuration.getId()).getId();
+            lifecycleService.startContainer(id);
+            instances.add(fleetStateStore.get(id).orElseThrow());
+        }
+        return instances;
+    }
+
+    private static ResourceLimitsDto limits(long memoryBytes, double cpuCores) {
+        ResourceLimitsDto limits = new ResourceLimitsDto();
+        limits.setMemoryBytes(memoryBytes);
+        limits.setCpuCores(cpuCores);
+        return limits;
+    }
+
+    private ContainerConfiguration configuration(long memoryBytes, double cpuCores) {
+        ResourceLimits limits = new ResourceLimits();
+        limits.setMemoryBytes(memoryBytes);
+        limits.setCpuCores(cpuCores);
+        ContainerConfiguration configuration = new ContainerConfiguration();
+        configuration.setName("app");
+        configuration.setImageName("app");
+        configuration.setImageTag("1");
+        configuration.setResourceLimits(limits);
+        return configRepository.save(configuration);
+    }
+}
@@ -0,0 +1,148 @@
+package com.magentamause.demodockercontroller.service;
+
+import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.RestartPolicySpec;
+import com.magentamause.demodockercontroller.model.RestartPolicyType;
+import com.magentamause.demodockercontroller.model.StatusTransitionSource;
+import com.magentamause.demodockercontroller.repository.ContainerConfigurationRepository;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.service.docker.DockerService;
+import com.magentamause.demodockercontroller.state.FleetStateStore;
+import com.magentamause.demodockercontroller.state.InstanceState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "docker.restart.initial-backoff-ms=20",
+        "docker.restart.max-backoff-ms=50",
+        "docker.restart.crash-loop-threshold=3"
+})
+class RestartPolicyServiceTests {
+
+    @MockitoBean
+    private DockerService dockerService;
+
+    @Autowired
+    private ContainerLifecycleService lifecycleService;
+
+    @Autowired
+    private StatusTransitionService statusTransitionService;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private FleetStateStore fleetStateStore;
+
+    @Autowired
+    private ContainerInstanceRepository containerInstanceRepository;
+
+    @Autowired
+    private ContainerConfigurationRepository configRepository;
+
+    private ContainerConfiguration configuration;
+
+    @BeforeEach
+    void setUp() {
+        // Startup reconciliation calls the mock from its own thread, which must not overlap with stubbing
+        await().atMost(Duration.ofSeconds(10)).until(reconciliationService::isCompleted);
+        when(dockerService.createContainer(any(), anyMap(), anyMap()))
+                .thenAnswer(invocation -> UUID.randomUUID().toString().replace("-", ""));
+        RestartPolicySpec policy = new RestartPolicySpec();
+        policy.setType(RestartPolicyType.ALWAYS);
+        configuration = new ContainerConfiguration();
+        configuration.setName("app");
+        configuration.setImageName("app");
+        configuration.setImageTag("1");
+        configuration.setRestartPolicy(policy);
+        configuration = configRepository.save(configuration);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fleetStateStore.flush();
+        containerInstanceRepository.deleteAll();
+        configRepository.deleteAll();
+    }
+
+    @Test
+    void doesNotRestartAnInstanceStoppedOnPurpose() throws InterruptedException {
+        InstanceState instance = startInstance();
+        // Docker reports the exit while the stop is still in progress, before its transaction commits
+        doAnswer(invocation -> {
+            exit(instance, ContainerStatus.STOPPED, 143);
+            return null;
+        }).when(dockerService).stopContainer(instance.dockerContainerId());
+
+        lifecycleService.stopContainer(instance.id());
+
+        Thread.sleep(300);
+        verify(dockerService, times(1)).startContainer(instance.dockerContainerId());
+        assertThat(statusOf(instance)).isEqualTo(ContainerStatus.STOPPED);
+    }
+
+    @Test
+    void restartsAnInstanceThatCrashed() {
+        InstanceState instance = startInstance();
+
+        exit(instance, ContainerStatus.FAILED, 1);
+
+        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> verify(dockerService, times(2)).startContainer(instance.dockerContainerId()));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> statusOf(instance) == ContainerStatus.RUNNING);
+        assertThat(containerInstanceRepository.findById(instance.id()).orElseThrow().getRestartCount()).isEqualTo(1);
+    }
+
+    @Test
+    void stopsRestartingAnInstanceThatCrashLoops() throws InterruptedException {
+        InstanceState instance = startInstance();
+
+        // The third failure within the window flags the crash loop instead of scheduling another restart
+        for (int restarts = 1; restarts <= 2; restarts++) {
+            exit(instance, ContainerStatus.FAILED, 1);
+            int expectedStarts = restarts + 1;
+            await().atMost(5, TimeUnit.SECONDS).untilAsserted(() ->
+                    verify(dockerService, times(expectedStarts)).startContainer(instance.dockerContainerId()));
+            await().atMost(5, TimeUnit.SECONDS).until(() -> statusOf(instance) == ContainerStatus.RUNNING);
+        }
+        exit(instance, ContainerStatus.FAILED, 1);
+
+        await().atMost(5, TimeUnit.SECONDS).until(() ->
+                containerInstanceRepository.findById(instance.id()).orElseThrow().isCrashLoopDetected());
+        Thread.sleep(300);
+        verify(dockerService, times(3)).startContainer(instance.dockerContainerId());
+        assertThat(statusOf(instance)).isEqualTo(ContainerStatus.FAILED);
+    }
+
+    private InstanceState startInstance() {
+        UUID id = lifecycleService.createContainer(configuration.getId()).getId();
+        lifecycleService.startContainer(id);
+        return fleetStateStore.get(id).orElseThrow();
+    }
+
+    private void exit(InstanceState instance, ContainerStatus status, int exitCode) {
+        statusTransitionService.transition(instance.dockerContainerId(), ContainerStatus.RUNNING, status,
+                StatusTransitionSource.EVENT, exitCode);
+    }
+
+    private ContainerStatus statusOf(InstanceState instance) {
+        return fleetStateStore.get(instance.id()).orElseThrow().status();
+    }
+}
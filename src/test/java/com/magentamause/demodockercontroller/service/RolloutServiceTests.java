@@ -0,0 +1,255 @@
+package com.magentamause.demodockercontroller.service;
+
+import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
+import com.magentamause.demodockercontroller.dto.ContainerConfigurationRequest;
+import com.magentamause.demodockercontroller.dto.ContainerConfigurationResponse;
+import com.magentamause.demodockercontroller.dto.HealthCheckDto;
+import com.magentamause.demodockercontroller.dto.RolloutStatusResponse;
+import com.magentamause.demodockercontroller.mapper.ContainerConfigurationMapper;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.repository.ContainerConfigurationRepository;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceFilter;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.service.docker.DockerService;
+import com.magentamause.demodockercontroller.state.FleetStateStore;
+import com.magentamause.demodockercontroller.state.InstanceState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+// A single coordinator, so rollouts that hold on to it starve the others
+@SpringBootTest(properties = {
+        "docker.rollouts.poll-interval-ms=20",
+        "docker.rollouts.max-concurrent=1"
+})
+class RolloutServiceTests {
+
+    @MockitoBean
+    private DockerService dockerService;
+
+    @Autowired
+    private RolloutService rolloutService;
+
+    @Autowired
+    private ContainerLifecycleService lifecycleService;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private FleetStateStore fleetStateStore;
+
+    @Autowired
+    private ContainerConfigurationMapper configMapper;
+
+    @Autowired
+    private ContainerInstanceRepository containerInstanceRepository;
+
+    @Autowired
+    private ContainerConfigurationRepository configRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicInteger live = new AtomicInteger();
+    private final AtomicInteger maxLive = new AtomicInteger();
+    private final AtomicInteger minLive = new AtomicInteger(Integer.MAX_VALUE);
+
+    @BeforeEach
+    void setUp() {
+        // Startup reconciliation calls the mock from its own thread, which must not overlap with stubbing
+        await().atMost(10, TimeUnit.SECONDS).until(reconciliationService::isCompleted);
+        when(dockerService.createContainer(any(), anyMap(), anyMap()))
+                .thenAnswer(invocation -> UUID.randomUUID().toString().replace("-", ""));
+        doAnswer(invocation -> {
+            maxLive.accumulateAndGet(live.incrementAndGet(), Math::max);
+            return null;
+        }).when(dockerService).startContainer(anyString());
+        doAnswer(invocation -> {
+            minLive.accumulateAndGet(live.decrementAndGet(), Math::min);
+            return null;
+        }).when(dockerService).deleteContainer(anyString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        fleetStateStore.flush();
+        containerInstanceRepository.deleteAll();
+        configRepository.deleteAll();
+    }
+
+    @Test
+    void replacesInstancesWithinSurgeAndAvailabilityBounds() {
+        ContainerConfiguration configuration = configuration();
+        List<UUID> original = startInstances(configuration, 3);
+        maxLive.set(0);
+
+        ContainerConfigurationResponse updated = rolloutService.updateConfiguration(configuration.getId(),
+                request(configuration, "2", false), true, 1, 0);
+
+        assertThat(updated.getRevision()).isEqualTo(1);
+        RolloutStatusResponse status = awaitState(configuration.getId(), RolloutStatusResponse.State.COMPLETED);
+        assertThat(status.getUpdatedReplicas()).isEqualTo(3);
+        assertThat(status.getOutdatedReplicas()).isZero();
+        List<InstanceState> instances = instancesOf(configuration.getId());
+        assertThat(instances).hasSize(3).allSatisfy(instance -> {
+            assertThat(instance.configurationRevision()).isEqualTo(1);
+            assertThat(instance.status()).isEqualTo(ContainerStatus.RUNNING);
+        }).extracting(InstanceState::id).doesNotContainAnyElementsOf(original);
+        // Never more than replicas + maxSurge running, never fewer than replicas - maxUnavailable
+        assertThat(maxLive.get()).isEqualTo(4);
+        assertThat(minLive.get()).isEqualTo(3);
+    }
+
+    @Test
+    void pausedRolloutCanBeRolledBack() {
+        ContainerConfiguration configuration = configuration();
+        List<UUID> original = startInstances(configuration, 2);
+
+        // New instances get a health check and stay STARTING, so the rollout cannot progress past its first batch
+        rolloutService.updateConfiguration(configuration.getId(), request(configuration, "2", true), true, 2, 0);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> instancesOf(configuration.getId()).size() == 4);
+        assertThatThrownBy(() -> rolloutService.updateConfiguration(configuration.getId(), request(configuration, "3", false), false, null, null))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(rolloutService.pause(configuration.getId()).getState()).isEqualTo(RolloutStatusResponse.State.PAUSED);
+
+        RolloutStatusResponse rollback = rolloutService.rollback(configuration.getId());
+
+        assertThat(rollback.getFromRevision()).isEqualTo(1);
+        assertThat(rollback.getToRevision()).isEqualTo(2);
+        awaitState(configuration.getId(), RolloutStatusResponse.State.COMPLETED);
+        // The original instances already run the restored spec and are kept
+        assertThat(instancesOf(configuration.getId()))
+                .allSatisfy(instance -> assertThat(instance.configurationRevision()).isEqualTo(2))
+                .extracting(InstanceState::id).containsExactlyInAnyOrderElementsOf(original);
+        ContainerConfiguration restored = configRepository.findById(configuration.getId()).orElseThrow();
+        assertThat(restored.getImageTag()).isEqualTo("1");
+        assertThat(restored.getHealthCheck()).isNull();
+        assertThatThrownBy(() -> rolloutService.pause(configuration.getId())).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void keepsInstancesThatWereStoppedOrPausedBeforeTheRollout() {
+        ContainerConfiguration configuration = configuration();
+        List<UUID> original = startInstances(configuration, 3);
+        UUID stopped = original.get(0);
+        UUID paused = original.get(1);
+        lifecycleService.stopContainer(stopped);
+        lifecycleService.pauseContainer(paused);
+
+        rolloutService.updateConfiguration(configuration.getId(), request(configuration, "2", false), true, 1, 0);
+
+        awaitState(configuration.getId(), RolloutStatusResponse.State.COMPLETED);
+        List<InstanceState> instances = instancesOf(configuration.getId());
+        assertThat(instances).extracting(InstanceState::id).contains(stopped, paused).doesNotContain(original.get(2));
+        assertThat(instances).filteredOn(instance -> instance.configurationRevision() == 1)
+                .singleElement().satisfies(instance -> assertThat(instance.status()).isEqualTo(ContainerStatus.RUNNING));
+    }
+
+    @Test
+    void doesNotRollOutWhenNoInstanceIsRunning() {
+        ContainerConfiguration configuration = configuration();
+        List<UUID> original = startInstances(configuration, 2);
+        original.forEach(lifecycleService::stopContainer);
+
+        ContainerConfigurationResponse updated = rolloutService.updateConfiguration(configuration.getId(),
+                request(configuration, "2", false), true, 1, 0);
+
+        assertThat(updated.getRevision()).isEqualTo(1);
+        assertThat(rolloutService.isActive(configuration.getId())).isFalse();
+        assertThat(instancesOf(configuration.getId())).extracting(InstanceState::id).containsExactlyInAnyOrderElementsOf(original);
+    }
+
+    @Test
+    void pausedRolloutDoesNotHoldItsCoordinator() {
+        ContainerConfiguration paused = configuration();
+        startInstances(paused, 1);
+        ContainerConfiguration other = configuration("other");
+        startInstances(other, 1);
+
+        rolloutService.updateConfiguration(paused.getId(), request(paused, "2", true), true, 1, 0);
+        rolloutService.pause(paused.getId());
+        rolloutService.updateConfiguration(other.getId(), request(other, "2", false), true, 1, 0);
+
+        awaitState(other.getId(), RolloutStatusResponse.State.COMPLETED);
+        assertThat(rolloutService.getRollout(paused.getId()).getState()).isEqualTo(RolloutStatusResponse.State.PAUSED);
+        assertThat(rolloutService.rollback(paused.getId()).getToRevision()).isEqualTo(2);
+        awaitState(paused.getId(), RolloutStatusResponse.State.COMPLETED);
+    }
+
+    @Test
+    void rejectsRolloutsThatCouldNeverProgress() {
+        ContainerConfiguration configuration = configuration();
+        assertThatThrownBy(() -> rolloutService.updateConfiguration(configuration.getId(), request(configuration, "2", false), true, 0, 0))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+
+        // Without a spec change there is nothing to roll out
+        ContainerConfigurationRequest renamed = request(configuration, "1", false);
+        renamed.setName("renamed");
+        assertThat(rolloutService.updateConfiguration(configuration.getId(), renamed, true, null, null).getRevision()).isZero();
+        assertThat(rolloutService.isActive(configuration.getId())).isFalse();
+    }
+
+    private RolloutStatusResponse awaitState(UUID configurationId, RolloutStatusResponse.State state) {
+        return await().atMost(10, TimeUnit.SECONDS)
+                .until(() -> rolloutService.getRollout(configurationId), status -> status.getState() == state);
+    }
+
+    private List<UUID> startInstances(ContainerConfiguration configuration, int count) {
+        for (int i = 0; i < count; i++) {
+            lifecycleService.startContainer(lifecycleService.createContainer(configuration.getId()).getId());
+        }
+        return instancesOf(configuration.getId()).stream().map(InstanceState::id).toList();
+    }
+
+    private List<InstanceState> instancesOf(UUID configurationId) {
+        return fleetStateStore.find(new ContainerInstanceFilter(null, null, configurationId, null, null, null, null));
+    }
+
+    private ContainerConfigurationRequest request(ContainerConfiguration configuration, String imageTag, boolean healthCheck) {
+        ContainerConfigurationRequest request = new TransactionTemplate(transactionManager).execute(status ->
+                configMapper.toRequest(configRepository.findById(configuration.getId()).orElseThrow()));
+        request.setImageTag(imageTag);
+        if (healthCheck) {
+            HealthCheckDto check = new HealthCheckDto();
+            check.setTestCommand("curl -f http://localhost/");
+            request.setHealthCheck(check);
+        }
+        return request;
+    }
+
+    // Without desired replicas, the replica controller stays out and rollouts keep the number of running instances
+    private ContainerConfiguration configuration() {
+        return configuration("app");
+    }
+
+    private ContainerConfiguration configuration(String name) {
+        ContainerConfiguration configuration = new ContainerConfiguration();
+        configuration.setName(name);
+        configuration.setImageName("app");
+        configuration.setImageTag("1");
+        return configRepository.save(configuration);
+    }
+}
@@ -0,0 +1,249 @@
+package com.magentamause.demodockercontroller.service;
+
+import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
+import com.magentamause.demodockercontroller.dto.StackNodeResult;
+import com.magentamause.demodockercontroller.dto.StackOperationResponse;
+import com.magentamause.demodockercontroller.dto.StackRequest;
+import com.magentamause.demodockercontroller.dto.StackResponse;
+import com.magentamause.demodockercontroller.dto.StackServiceDto;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.HealthCheckSpec;
+import com.magentamause.demodockercontroller.model.HealthStatus;
+import com.magentamause.demodockercontroller.repository.ContainerConfigurationRepository;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceFilter;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.repository.StackRepository;
+import com.magentamause.demodockercontroller.service.docker.ContainerSpec;
+import com.magentamause.demodockercontroller.service.docker.DockerService;
+import com.magentamause.demodockercontroller.state.FleetStateStore;
+import com.magentamause.demodockercontroller.state.InstanceState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "docker.stacks.ready-timeout-seconds=10",
+        "docker.stacks.ready-poll-interval-ms=20"
+})
+class StackServiceTests {
+
+    @MockitoBean
+    private DockerService dockerService;
+
+    @Autowired
+    private StackService stackService;
+
+    @Autowired
+    private FleetStateStore fleetStateStore;
+
+    @Autowired
+    private StackRepository stackRepository;
+
+    @Autowired
+    private ContainerInstanceRepository containerInstanceRepository;
+
+    @Autowired
+    private ContainerConfigurationRepository configRepository;
+
+    private ContainerConfiguration db;
+    private ContainerConfiguration api;
+    private ContainerConfiguration worker;
+    private ContainerConfiguration web;
+
+    // Docker calls in the order they happened, e.g. "create db", "start db", "started db"
+    private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+    private final Map<String, String> imageByDockerId = new ConcurrentHashMap<>();
+    // When armed, both branches of the diamond hold their start until the other one has begun too
+    private volatile CountDownLatch branchesStarting = new CountDownLatch(0);
+    private final List<Boolean> branchesOverlapped = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() {
+        when(dockerService.createContainer(any(), anyMap(), anyMap())).thenAnswer(invocation -> {
+            ContainerSpec spec = invocation.getArgument(0);
+            String dockerId = UUID.randomUUID().toString().replace("-", "");
+            imageByDockerId.put(dockerId, spec.imageName());
+            calls.add("create " + spec.imageName());
+            return dockerId;
+        });
+        doAnswer(invocation -> {
+            String image = imageByDockerId.get(invocation.<String>getArgument(0));
+            calls.add("start " + image);
+            if ("api".equals(image) || "worker".equals(image)) {
+                branchesStarting.countDown();
+                branchesOverlapped.add(branchesStarting.await(5, TimeUnit.SECONDS));
+            }
+            calls.add("started " + image);
+            return null;
+        }).when(dockerService).startContainer(anyString());
+        db = configuration("db", true);
+        api = configuration("api", false);
+        worker = configuration("worker", false);
+        web = configuration("web", false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fleetStateStore.flush();
+        containerInstanceRepository.deleteAll();
+        stackRepository.deleteAll();
+        configRepository.deleteAll();
+    }
+
+    @Test
+    void startsEachServiceOnceItsDependenciesAreReady() throws Exception {
+        StackResponse stack = diamond();
+        assertThat(stack.getServices().getFirst().getConfigurationId()).isEqualTo(db.getId());
+        assertThat(stack.getServices().getLast().getConfigurationId()).isEqualTo(web.getId());
+        branchesStarting = new CountDownLatch(2);
+
+        CompletableFuture<StackOperationResponse> start = CompletableFuture.supplyAsync(() -> stackService.startStack(stack.getId()));
+
+        // The database has a health check, so its dependents wait until it reports healthy
+        InstanceState database = await().atMost(5, TimeUnit.SECONDS)
+                .until(() -> instanceOf(db), state -> state != null && state.status() == ContainerStatus.RUNNING);
+        assertThat(database.healthStatus()).isEqualTo(HealthStatus.STARTING);
+        calls.add("healthy db");
+        fleetStateStore.updateHealth(database.dockerContainerId(), HealthStatus.HEALTHY);
+
+        StackOperationResponse response = start.get(10, TimeUnit.SECONDS);
+        assertThat(response.isSucceeded()).isTrue();
+        assertThat(response.getNodes()).allSatisfy(node -> {
+            assertThat(node.getOutcome()).isEqualTo(StackNodeResult.Outcome.SUCCEEDED);
+            assertThat(node.getInstanceIds()).hasSize(1);
+        });
+        assertThat(calls.indexOf("create api")).isGreaterThan(calls.indexOf("healthy db"));
+        assertThat(calls.indexOf("create worker")).isGreaterThan(calls.indexOf("healthy db"));
+        assertThat(calls.indexOf("create web"))
+                .isGreaterThan(calls.indexOf("started api"))
+                .isGreaterThan(calls.indexOf("started worker"));
+        // Independent branches run side by side: each one's start only returned once the other had begun
+        assertThat(branchesOverlapped).containsExactly(true, true);
+    }
+
+    @Test
+    void stopsDependentsBeforeTheirDependencies() {
+        withoutHealthCheck(db);
+        StackResponse stack = diamond();
+        stackService.startStack(stack.getId());
+        List<String> stopped = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> stopped.add(invocation.getArgument(0))).when(dockerService).stopContainer(anyString());
+
+        StackOperationResponse response = stackService.stopStack(stack.getId());
+
+        assertThat(response.isSucceeded()).isTrue();
+        assertThat(response.getNodes()).extracting(StackNodeResult::getConfigurationId)
+                .startsWith(web.getId()).endsWith(db.getId());
+        assertThat(stopped).hasSize(4);
+        assertThat(stopped.getFirst()).isEqualTo(instanceOf(web).dockerContainerId());
+        assertThat(stopped.getLast()).isEqualTo(instanceOf(db).dockerContainerId());
+        assertThat(instanceOf(api).status()).isEqualTo(ContainerStatus.STOPPED);
+    }
+
+    @Test
+    void skipsDependentsOfAServiceThatFailsToStart() {
+        withoutHealthCheck(db);
+        StackResponse stack = diamond();
+        doThrow(new IllegalStateException("image not found")).when(dockerService)
+                .createContainer(argThat(spec -> spec != null && "worker".equals(spec.imageName())), anyMap(), anyMap());
+
+        StackOperationResponse response = stackService.startStack(stack.getId());
+
+        assertThat(response.isSucceeded()).isFalse();
+        Map<UUID, StackNodeResult> nodes = byConfiguration(response);
+        assertThat(nodes.get(api.getId()).getOutcome()).isEqualTo(StackNodeResult.Outcome.SUCCEEDED);
+        assertThat(nodes.get(worker.getId()).getOutcome()).isEqualTo(StackNodeResult.Outcome.FAILED);
+        assertThat(nodes.get(worker.getId()).getError()).contains("image not found");
+        assertThat(nodes.get(web.getId()).getOutcome()).isEqualTo(StackNodeResult.Outcome.SKIPPED);
+        assertThat(instanceOf(web)).isNull();
+    }
+
+    @Test
+    void rejectsCyclesAndDependenciesOutsideTheStack() {
+        assertThatThrownBy(() -> stackService.createStack(request("cyclic",
+                service(db, api), service(api, web), service(web, db))))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        assertThatThrownBy(() -> stackService.createStack(request("dangling", service(api, db))))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        assertThat(stackRepository.count()).isZero();
+    }
+
+    // db <- api, worker <- web
+    private StackResponse diamond() {
+        return stackService.createStack(request("diamond",
+                service(web, api, worker), service(api, db), service(worker, db), service(db)));
+    }
+
+    private void withoutHealthCheck(ContainerConfiguration configuration) {
+        configuration.setHealthCheck(null);
+        configRepository.save(configuration);
+    }
+
+    private InstanceState instanceOf(ContainerConfiguration configuration) {
+        List<InstanceState> instances = fleetStateStore.find(
+                new ContainerInstanceFilter(null, null, configuration.getId(), null, null, null, null));
+        return instances.isEmpty() ? null : instances.getFirst();
+    }
+
+    private static Map<UUID, StackNodeResult> byConfiguration(StackOperationResponse response) {
+        return response.getNodes().stream().collect(Collectors.toMap(StackNodeResult::getConfigurationId, Function.identity()));
+    }
+
+    private static StackRequest request(String name, StackServiceDto... services) {
+        StackRequest request = new StackRequest();
+        request.setName(name);
+        request.setServices(List.of(services));
+        return request;
+    }
+
+    private static StackServiceDto service(ContainerConfiguration configuration, ContainerConfiguration... dependsOn) {
+        StackServiceDto service = new StackServiceDto();
+        service.setConfigurationId(configuration.getId());
+        service.setDependsOn(Arrays.stream(dependsOn).map(ContainerConfiguration::getId).collect(Collectors.toSet()));
+        return service;
+    }
+
+    private ContainerConfiguration configuration(String imageName, boolean healthCheck) {
+        ContainerConfiguration configuration = new ContainerConfiguration();
+        configuration.setName(imageName);
+        configuration.setImageName(imageName);
+        configuration.setImageTag("1");
+        if (healthCheck) {
+            HealthCheckSpec spec = new HealthCheckSpec();
+            spec.setTestCommand("pg_isready");
+            configuration.setHealthCheck(spec);
+        }
+        return configRepository.save(configuration);
+    }
+}
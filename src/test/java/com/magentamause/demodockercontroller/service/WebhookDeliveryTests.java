@@ -0,0 +1,205 @@
+package com.magentamause.demodockercontroller.service;
+
+import com.magentamause.demodockercontroller.domain.WebhookSubscription;
+import com.magentamause.demodockercontroller.dto.WebhookDeadLetterResponse;
+import com.magentamause.demodockercontroller.dto.WebhookSubscriptionRequest;
+import com.magentamause.demodockercontroller.dto.WebhookSubscriptionResponse;
+import com.magentamause.demodockercontroller.event.ContainerStatusChangedEvent;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.StatusTransitionSource;
+import com.magentamause.demodockercontroller.repository.WebhookSubscriptionRepository;
+import com.magentamause.demodockercontroller.service.docker.DockerService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Delivers webhooks to a local HTTP stand-in with a healthy, a failing and a hanging endpoint.
+ */
+@SpringBootTest(properties = {
+        "docker.webhooks.batch-size=3",
+        "docker.webhooks.flush-interval-ms=50",
+        "docker.webhooks.request-timeout-ms=3000",
+        "docker.webhooks.max-attempts=3",
+        "docker.webhooks.retry-base-delay-ms=20",
+        "docker.webhooks.retry-max-delay-ms=40",
+        // Ingestion timing is about the webhook outboxes, not the journal's disk syncs
+        "docker.journal.sync-on-append=false"
+})
+class WebhookDeliveryTests {
+
+    @MockitoBean
+    private DockerService dockerService;
+
+    @Autowired
+    private WebhookService webhookService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private WebhookSubscriptionRepository subscriptionRepository;
+
+    private HttpServer standIn;
+    private final List<JsonNode> received = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failedAttempts = new AtomicInteger();
+    private final CountDownLatch releaseHanging = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        standIn = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        standIn.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        standIn.createContext("/ok", exchange -> {
+            received.add(jsonMapper.readTree(exchange.getRequestBody().readAllBytes()));
+            respond(exchange, 204);
+        });
+        standIn.createContext("/fail", exchange -> {
+            failedAttempts.incrementAndGet();
+            respond(exchange, 500);
+        });
+        standIn.createContext("/hang", exchange -> {
+            try {
+                releaseHanging.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 204);
+        });
+        standIn.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseHanging.countDown();
+        webhookService.getSubscriptions().forEach(subscription -> webhookService.deleteSubscription(subscription.getId()));
+        standIn.stop(0);
+    }
+
+    @Test
+    void deliversMatchingEventsInOrderedBatches() {
+        subscribe("/ok", Set.of(ContainerStatus.RUNNING, ContainerStatus.FAILED));
+
+        for (int i = 0; i < 7; i++) {
+            publish(i % 2 == 0 ? ContainerStatus.RUNNING : ContainerStatus.FAILED, i);
+        }
+        publish(ContainerStatus.STOPPED, 99);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> received.stream().mapToInt(JsonNode::size).sum() == 7);
+        assertThat(received).allSatisfy(batch -> assertThat(batch.size()).isBetween(1, 3));
+        List<Integer> exitCodes = received.stream()
+                .flatMap(batch -> batch.valueStream())
+                .map(event -> event.get("exitCode").asInt())
+                .toList();
+        assertThat(exitCodes).containsExactly(0, 1, 2, 3, 4, 5, 6);
+        assertThat(received.getFirst().get(0).get("type").asString()).isEqualTo("instance.status_changed");
+    }
+
+    @Test
+    void deadLettersBatchesThatFailEveryAttempt() {
+        WebhookSubscriptionResponse subscription = subscribe("/fail", null);
+
+        publish(ContainerStatus.FAILED, 1);
+        publish(ContainerStatus.FAILED, 2);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> !webhookService.getDeadLetters(subscription.getId()).isEmpty());
+        WebhookDeadLetterResponse deadLetter = webhookService.getDeadLetters(subscription.getId()).getFirst();
+        assertThat(deadLetter.getEventCount()).isEqualTo(2);
+        assertThat(deadLetter.getAttempts()).isEqualTo(3);
+        assertThat(deadLetter.getLastError()).isEqualTo("HTTP 500");
+        assertThat(jsonMapper.readTree(deadLetter.getPayload()).size()).isEqualTo(2);
+        assertThat(failedAttempts).hasValue(3);
+    }
+
+    @Test
+    void hangingSubscriberSlowsNeitherIngestionNorOtherSubscribers() {
+        WebhookSubscriptionResponse hanging = subscribe("/hang", null);
+        subscribe("/ok", null);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 300; i++) {
+            publish(ContainerStatus.RUNNING, i);
+        }
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(500));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> received.stream().mapToInt(JsonNode::size).sum() == 300);
+        // The hanging subscriber still holds its events: one batch in flight, the rest in its outbox
+        assertThat(webhookService.getSubscriptions())
+                .filteredOn(subscription -> subscription.getId().equals(hanging.getId()))
+                .singleElement()
+                .extracting(WebhookSubscriptionResponse::getPendingEvents)
+                .isEqualTo(300);
+    }
+
+    @Test
+    void rejectsUrlsTheHttpClientCannotUse() {
+        WebhookSubscriptionRequest request = new WebhookSubscriptionRequest();
+        request.setUrl("http://a b");
+
+        assertThatThrownBy(() -> webhookService.createSubscription(request))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        assertThat(webhookService.getSubscriptions()).isEmpty();
+    }
+
+    @Test
+    void skipsStoredSubscriptionsWithInvalidUrlsOnStartup() {
+        WebhookSubscription stored = new WebhookSubscription();
+        stored.setUrl("http://a b");
+        stored.setCreatedAt(Instant.now());
+        subscriptionRepository.save(stored);
+        WebhookSubscriptionResponse valid = subscribe("/ok", Set.of());
+
+        webhookService.init();
+
+        publish(ContainerStatus.FAILED, 1);
+        await().atMost(Duration.ofSeconds(5)).until(() -> received.size() == 1);
+        assertThat(webhookService.getSubscriptions()).extracting(WebhookSubscriptionResponse::getId).contains(valid.getId());
+    }
+
+    private WebhookSubscriptionResponse subscribe(String path, Set<ContainerStatus> statuses) {
+        WebhookSubscriptionRequest request = new WebhookSubscriptionRequest();
+        request.setUrl("http://localhost:" + standIn.getAddress().getPort() + path);
+        request.setStatuses(statuses);
+        return webhookService.createSubscription(request);
+    }
+
+    private void publish(ContainerStatus status, int exitCode) {
+        eventPublisher.publishEvent(new ContainerStatusChangedEvent(UUID.randomUUID(), UUID.randomUUID(), "container-" + exitCode,
+                ContainerStatus.CREATED, status, StatusTransitionSource.EVENT, exitCode, Instant.now()));
+    }
+
+    private static void respond(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+}
@@ -0,0 +1,100 @@
+package com.magentamause.demodockercontroller.service.docker;
+
+import com.github.dockerjava.core.DefaultDockerClientConfig;
+import com.github.dockerjava.core.DockerClientImpl;
+import com.github.dockerjava.httpclient5.ApacheDockerHttpClient;
+import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
+import com.magentamause.demodockercontroller.model.HealthCheckSpec;
+import com.magentamause.demodockercontroller.model.ResourceLimits;
+import com.magentamause.demodockercontroller.model.VolumeMount;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures bytes allocated per create request assembled on the create path, compiling the configuration
+ * every time versus reusing the cached spec. No request is sent. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ContainerCreateAllocationBenchmarkTests {
+
+    private static final int WARMUP_ITERATIONS = 50_000;
+    private static final int MEASURED_ITERATIONS = 100_000;
+
+    private final DockerServiceImpl dockerService = new DockerServiceImpl(DockerClientImpl.getInstance(
+            DefaultDockerClientConfig.createDefaultConfigBuilder().withDockerHost("tcp://localhost:2375").build(),
+            new ApacheDockerHttpClient.Builder().dockerHost(URI.create("tcp://localhost:2375")).build()),
+            ObservationRegistry.NOOP);
+
+    @Test
+    void createPathAllocation() {
+        ContainerConfiguration config = configuration();
+        ContainerSpecCache cache = new ContainerSpecCache();
+        Map<String, String> labels = Map.of();
+
+        long uncached = bytesPerCreate(() -> dockerService.buildCreateContainerCmd(ContainerSpec.compile(config), Map.of(), labels));
+        long cached = bytesPerCreate(() -> dockerService.buildCreateContainerCmd(cache.get(config), Map.of(), labels));
+
+        System.out.printf("Bytes allocated per create: compiled each time=%d, cached spec=%d (%.1fx less)%n",
+                uncached, cached, (double) uncached / cached);
+        assertThat(cached).isLessThan(uncached);
+    }
+
+    private long bytesPerCreate(Supplier<Object> create) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Object sink = null;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink = create.get();
+        }
+        long threadId = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink = create.get();
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        assertThat(sink).isNotNull();
+        return allocated / MEASURED_ITERATIONS;
+    }
+
+    private ContainerConfiguration configuration() {
+        ContainerConfiguration config = new ContainerConfiguration();
+        config.setId(UUID.randomUUID());
+        config.setImageName("registry.example.com/team/service");
+        config.setImageTag("1.4.2");
+        config.setCommand(new ArrayList<>(List.of("java", "-XX:+UseZGC", "-jar", "/app/service.jar")));
+        config.setPortMappings(Map.of(8080, 8080, 8443, 8443, 9000, 9000));
+        Map<String, String> env = new HashMap<>();
+        for (int i = 0; i < 12; i++) {
+            env.put("SETTING_" + i, "value-" + i);
+        }
+        config.setEnvVariables(env);
+        List<VolumeMount> volumes = new ArrayList<>();
+        for (String path : List.of("/data", "/config", "/logs")) {
+            VolumeMount volume = new VolumeMount();
+            volume.setHostPath("/srv/service" + path);
+            volume.setContainerPath(path);
+            volumes.add(volume);
+        }
+        config.setVolumeMounts(volumes);
+        ResourceLimits limits = new ResourceLimits();
+        limits.setMemoryBytes(512L * 1024 * 1024);
+        limits.setCpuCores(1.5);
+        config.setResourceLimits(limits);
+        HealthCheckSpec healthCheck = new HealthCheckSpec();
+        healthCheck.setTestCommand("curl -f http://localhost:8080/health");
+        healthCheck.setIntervalSeconds(10);
+        config.setHealthCheck(healthCheck);
+        return config;
+    }
+}
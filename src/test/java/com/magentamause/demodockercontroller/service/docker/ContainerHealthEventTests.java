@@ -0,0 +1,126 @@
+package com.magentamause.demodockercontroller.service.docker;
+
+import com.github.dockerjava.api.model.Event;
+import com.github.dockerjava.api.model.EventActor;
+import com.github.dockerjava.api.model.EventType;
+import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
+import com.magentamause.demodockercontroller.model.HealthStatus;
+import com.magentamause.demodockercontroller.repository.ContainerConfigurationRepository;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.service.ContainerLifecycleService;
+import com.magentamause.demodockercontroller.service.ReconciliationService;
+import com.magentamause.demodockercontroller.state.FleetStateStore;
+import com.magentamause.demodockercontroller.state.InstanceState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class ContainerHealthEventTests {
+
+    @MockitoBean
+    private DockerService dockerService;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private ContainerLifecycleService lifecycleService;
+
+    @Autowired
+    private DockerEventService dockerEventService;
+
+    @Autowired
+    private FleetStateStore fleetStateStore;
+
+    @Autowired
+    private ContainerInstanceRepository containerInstanceRepository;
+
+    @Autowired
+    private ContainerConfigurationRepository configRepository;
+
+    private ContainerConfiguration configuration;
+
+    @BeforeEach
+    void setUp() {
+        // Startup reconciliation calls the mock from its own thread, which must not overlap with stubbing
+        await().atMost(Duration.ofSeconds(10)).until(reconciliationService::isCompleted);
+        when(dockerService.createContainer(any(), anyMap(), anyMap()))
+                .thenAnswer(invocation -> UUID.randomUUID().toString().replace("-", ""));
+        configuration = new ContainerConfiguration();
+        configuration.setName("health");
+        configuration.setImageName("health");
+        configuration.setImageTag("1");
+        configuration = configRepository.save(configuration);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fleetStateStore.flush();
+        containerInstanceRepository.deleteAll();
+        configRepository.deleteAll();
+    }
+
+    @Test
+    void followsHealthStatusEvents() {
+        InstanceState instance = startInstance();
+
+        dockerEventService.handleHealthStatus(event(instance, "health_status: starting"));
+        assertThat(healthOf(instance)).isEqualTo(HealthStatus.STARTING);
+        dockerEventService.handleHealthStatus(event(instance, "health_status: healthy"));
+        assertThat(healthOf(instance)).isEqualTo(HealthStatus.HEALTHY);
+        dockerEventService.handleHealthStatus(event(instance, "health_status: unhealthy"));
+        assertThat(healthOf(instance)).isEqualTo(HealthStatus.UNHEALTHY);
+    }
+
+    @Test
+    void ignoresUnknownHealthStatusActions() {
+        InstanceState instance = startInstance();
+        dockerEventService.handleHealthStatus(event(instance, "health_status: healthy"));
+
+        dockerEventService.handleHealthStatus(event(instance, "health_status: recovering"));
+        dockerEventService.handleHealthStatus(event(instance, "health_status"));
+
+        assertThat(healthOf(instance)).isEqualTo(HealthStatus.HEALTHY);
+    }
+
+    @Test
+    void healthChangesReachTheDatabaseThroughTheFlush() {
+        InstanceState instance = startInstance();
+
+        dockerEventService.handleHealthStatus(event(instance, "health_status: unhealthy"));
+        fleetStateStore.flush();
+
+        assertThat(containerInstanceRepository.findById(instance.id()).orElseThrow().getHealthStatus())
+                .isEqualTo(HealthStatus.UNHEALTHY);
+    }
+
+    private InstanceState startInstance() {
+        UUID id = lifecycleService.createContainer(configuration.getId()).getId();
+        lifecycleService.startContainer(id);
+        return fleetStateStore.get(id).orElseThrow();
+    }
+
+    private HealthStatus healthOf(InstanceState instance) {
+        return fleetStateStore.get(instance.id()).orElseThrow().healthStatus();
+    }
+
+    private static Event event(InstanceState instance, String action) {
+        return new Event()
+                .withType(EventType.CONTAINER)
+                .withAction(action)
+                .withEventActor(new EventActor().withId(instance.dockerContainerId()));
+    }
+}
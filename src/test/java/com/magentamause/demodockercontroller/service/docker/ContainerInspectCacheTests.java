@@ -0,0 +1,75 @@
+package com.magentamause.demodockercontroller.service.docker;
+
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ContainerInspectCacheTests {
+
+    private final DockerService dockerService = mock(DockerService.class);
+    private final ContainerInspectCache cache = new ContainerInspectCache(dockerService, new SimpleMeterRegistry(), 60_000);
+
+    @Test
+    void concurrentMissesShareOneInspectCall() throws Exception {
+        InspectContainerResponse response = new InspectContainerResponse();
+        CountDownLatch callStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(dockerService.inspectContainer("abc")).thenAnswer(invocation -> {
+            callStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return response;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<InspectContainerResponse>> results = new ArrayList<>();
+        results.add(executor.submit(() -> cache.inspect("abc")));
+        assertThat(callStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < 7; i++) {
+            results.add(executor.submit(() -> cache.inspect("abc")));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        for (Future<InspectContainerResponse> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(response);
+        }
+        executor.shutdown();
+        assertThat(cache.inspect("abc")).isSameAs(response);
+        verify(dockerService, times(1)).inspectContainer("abc");
+    }
+
+    @Test
+    void invalidationForcesFreshInspect() {
+        when(dockerService.inspectContainer("abc")).thenReturn(new InspectContainerResponse());
+
+        cache.inspect("abc");
+        cache.invalidate("abc");
+        cache.inspect("abc");
+
+        verify(dockerService, times(2)).inspectContainer("abc");
+    }
+
+    @Test
+    void missingContainerIsCachedAsAbsent() {
+        when(dockerService.inspectContainer("gone")).thenReturn(null);
+
+        assertThat(cache.exists("gone")).isFalse();
+        assertThat(cache.exists("gone")).isFalse();
+
+        verify(dockerService, times(1)).inspectContainer("gone");
+    }
+}
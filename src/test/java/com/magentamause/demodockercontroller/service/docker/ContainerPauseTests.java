@@ -0,0 +1,147 @@
+package com.magentamause.demodockercontroller.service.docker;
+
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.model.Event;
+import com.github.dockerjava.api.model.EventActor;
+import com.github.dockerjava.api.model.EventType;
+import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.repository.ContainerConfigurationRepository;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.service.ContainerLifecycleService;
+import com.magentamause.demodockercontroller.state.FleetStateStore;
+import com.magentamause.demodockercontroller.state.InstanceState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class ContainerPauseTests {
+
+    @MockitoBean
+    private DockerService dockerService;
+
+    @Autowired
+    private ContainerLifecycleService lifecycleService;
+
+    @Autowired
+    private DockerEventService dockerEventService;
+
+    @Autowired
+    private FleetStateStore fleetStateStore;
+
+    @Autowired
+    private ContainerInstanceRepository containerInstanceRepository;
+
+    @Autowired
+    private ContainerConfigurationRepository configRepository;
+
+    private ContainerConfiguration configuration;
+
+    @BeforeEach
+    void setUp() {
+        when(dockerService.createContainer(any(), anyMap(), anyMap()))
+                .thenAnswer(invocation -> UUID.randomUUID().toString().replace("-", ""));
+        configuration = new ContainerConfiguration();
+        configuration.setName("app");
+        configuration.setImageName("app");
+        configuration.setImageTag("1");
+        configuration = configRepository.save(configuration);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fleetStateStore.flush();
+        containerInstanceRepository.deleteAll();
+        configRepository.deleteAll();
+    }
+
+    @Test
+    void pausesAndResumesRunningInstances() {
+        InstanceState instance = startInstance();
+
+        assertThat(lifecycleService.pauseContainer(instance.id()).getStatus()).isEqualTo(ContainerStatus.PAUSED);
+        verify(dockerService).pauseContainer(instance.dockerContainerId());
+        assertThat(statusOf(instance)).isEqualTo(ContainerStatus.PAUSED);
+        assertThatThrownBy(() -> lifecycleService.pauseContainer(instance.id())).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> lifecycleService.startContainer(instance.id())).isInstanceOf(IllegalStateException.class);
+
+        assertThat(lifecycleService.resumeContainer(instance.id()).getStatus()).isEqualTo(ContainerStatus.RUNNING);
+        verify(dockerService).unpauseContainer(instance.dockerContainerId());
+        assertThat(statusOf(instance)).isEqualTo(ContainerStatus.RUNNING);
+        assertThatThrownBy(() -> lifecycleService.resumeContainer(instance.id())).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void followsPausesMadeOutsideTheApi() {
+        InstanceState resumed = startInstance();
+        InstanceState killed = startInstance();
+
+        dockerEventService.handleContainerPause(event(resumed, "pause", Map.of()));
+        dockerEventService.handleContainerPause(event(killed, "pause", Map.of()));
+        assertThat(statusOf(resumed)).isEqualTo(ContainerStatus.PAUSED);
+
+        dockerEventService.handleContainerPause(event(resumed, "unpause", Map.of()));
+        assertThat(statusOf(resumed)).isEqualTo(ContainerStatus.RUNNING);
+        // Paused containers can be killed without being unpaused
+        dockerEventService.handleContainerExit(event(killed, "die", Map.of("exitCode", "137")));
+        assertThat(statusOf(killed)).isEqualTo(ContainerStatus.FAILED);
+    }
+
+    @Test
+    void pausedContainersAreNotMistakenForStoppedOnes() {
+        InspectContainerResponse response = mock(InspectContainerResponse.class);
+        InspectContainerResponse.ContainerState state = mock(InspectContainerResponse.ContainerState.class);
+        when(response.getState()).thenReturn(state);
+        // Docker reports paused containers as running, too
+        when(state.getRunning()).thenReturn(true);
+        when(state.getPaused()).thenReturn(true);
+        when(dockerService.inspectContainer("paused")).thenReturn(response);
+
+        assertThat(lifecycleService.getDockerContainerStatus("paused")).isEqualTo(ContainerStatus.PAUSED);
+    }
+
+    @Test
+    void restartingContainersAreNotMistakenForRunningOnes() {
+        InspectContainerResponse response = mock(InspectContainerResponse.class);
+        InspectContainerResponse.ContainerState state = mock(InspectContainerResponse.ContainerState.class);
+        when(response.getState()).thenReturn(state);
+        // Docker reports containers waiting for their next restart as running, too
+        when(state.getRunning()).thenReturn(true);
+        when(state.getRestarting()).thenReturn(true);
+        when(dockerService.inspectContainer("restarting")).thenReturn(response);
+
+        assertThat(lifecycleService.getDockerContainerStatus("restarting")).isEqualTo(ContainerStatus.FAILED);
+    }
+
+    private InstanceState startInstance() {
+        UUID id = lifecycleService.createContainer(configuration.getId()).getId();
+        lifecycleService.startContainer(id);
+        return fleetStateStore.get(id).orElseThrow();
+    }
+
+    private ContainerStatus statusOf(InstanceState instance) {
+        return fleetStateStore.get(instance.id()).orElseThrow().status();
+    }
+
+    private static Event event(InstanceState instance, String action, Map<String, String> attributes) {
+        return new Event()
+                .withType(EventType.CONTAINER)
+                .withAction(action)
+                .withEventActor(new EventActor().withId(instance.dockerContainerId()).withAttributes(attributes));
+    }
+}
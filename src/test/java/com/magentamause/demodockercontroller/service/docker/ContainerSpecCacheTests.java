@@ -0,0 +1,73 @@
+package com.magentamause.demodockercontroller.service.docker;
+
+import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
+import com.magentamause.demodockercontroller.event.ConfigurationChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContainerSpecCacheTests {
+
+    private final ContainerSpecCache cache = new ContainerSpecCache();
+
+    @Test
+    void reusesSpecWhileConfigurationIsUnchanged() {
+        ContainerConfiguration config = configuration();
+
+        ContainerSpec first = cache.get(config);
+        ContainerSpec second = cache.get(config);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.env()).containsExactly("MODE=test");
+        assertThat(first.exposedPorts()).hasSize(2);
+    }
+
+    @Test
+    void recompilesWhenContentChanges() {
+        ContainerConfiguration config = configuration();
+        ContainerSpec first = cache.get(config);
+
+        config.getCommand().add("--verbose");
+        ContainerSpec second = cache.get(config);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.cmd()).containsExactly("run", "--verbose");
+    }
+
+    @Test
+    void configurationChangeEvictsSpec() {
+        ContainerConfiguration config = configuration();
+        ContainerSpec first = cache.get(config);
+
+        cache.onConfigurationChanged(new ConfigurationChangedEvent(config.getId(), false));
+
+        assertThat(cache.size()).isZero();
+        assertThat(cache.get(config)).isNotSameAs(first);
+    }
+
+    @Test
+    void assignedHostPortsGetTheirOwnHostConfig() {
+        ContainerSpec spec = cache.get(configuration());
+
+        assertThat(spec.hostConfigFor(Map.of())).isSameAs(spec.hostConfig());
+        assertThat(spec.hostConfigFor(Map.of(30001, 9090)).getPortBindings().getBindings()).hasSize(2);
+        assertThat(spec.hostConfig().getPortBindings().getBindings()).hasSize(1);
+    }
+
+    private ContainerConfiguration configuration() {
+        ContainerConfiguration config = new ContainerConfiguration();
+        config.setId(UUID.randomUUID());
+        config.setImageName("nginx");
+        config.setImageTag("latest");
+        config.setCommand(new ArrayList<>(List.of("run")));
+        config.setPortMappings(Map.of(8080, 80));
+        config.setAutoPorts(List.of(9090));
+        config.setEnvVariables(Map.of("MODE", "test"));
+        return config;
+    }
+}
@@ -0,0 +1,63 @@
+package com.magentamause.demodockercontroller.service.docker;
+
+import com.github.dockerjava.api.model.HealthCheck;
+import com.magentamause.demodockercontroller.domain.ContainerConfiguration;
+import com.magentamause.demodockercontroller.model.HealthCheckSpec;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContainerSpecTests {
+
+    @Test
+    void healthCheckRunsThroughTheShellWithDurationsInNanoseconds() {
+        HealthCheckSpec spec = new HealthCheckSpec();
+        spec.setTestCommand("curl -f http://localhost/ || exit 1");
+        spec.setIntervalSeconds(30);
+        spec.setTimeoutSeconds(5);
+        spec.setRetries(3);
+        spec.setStartPeriodSeconds(10);
+
+        HealthCheck healthCheck = ContainerSpec.compile(configuration(spec)).healthCheck();
+
+        assertThat(healthCheck.getTest()).containsExactly("CMD-SHELL", "curl -f http://localhost/ || exit 1");
+        assertThat(healthCheck.getInterval()).isEqualTo(30_000_000_000L);
+        assertThat(healthCheck.getTimeout()).isEqualTo(5_000_000_000L);
+        assertThat(healthCheck.getRetries()).isEqualTo(3);
+        assertThat(healthCheck.getStartPeriod()).isEqualTo(10_000_000_000L);
+    }
+
+    @Test
+    void unsetHealthCheckValuesAreLeftToTheDaemonDefaults() {
+        HealthCheckSpec spec = new HealthCheckSpec();
+        spec.setTestCommand("pg_isready");
+
+        HealthCheck healthCheck = ContainerSpec.compile(configuration(spec)).healthCheck();
+
+        assertThat(healthCheck.getTest()).containsExactly("CMD-SHELL", "pg_isready");
+        assertThat(healthCheck.getInterval()).isNull();
+        assertThat(healthCheck.getTimeout()).isNull();
+        assertThat(healthCheck.getRetries()).isNull();
+        assertThat(healthCheck.getStartPeriod()).isNull();
+    }
+
+    @Test
+    void healthCheckWithoutCommandIsNotSent() {
+        HealthCheckSpec spec = new HealthCheckSpec();
+        spec.setIntervalSeconds(30);
+
+        assertThat(ContainerSpec.compile(configuration(spec)).healthCheck()).isNull();
+        assertThat(ContainerSpec.compile(configuration(null)).healthCheck()).isNull();
+    }
+
+    private ContainerConfiguration configuration(HealthCheckSpec healthCheck) {
+        ContainerConfiguration config = new ContainerConfiguration();
+        config.setId(UUID.randomUUID());
+        config.setImageName("nginx");
+        config.setImageTag("latest");
+        config.setHealthCheck(healthCheck);
+        return config;
+    }
+}
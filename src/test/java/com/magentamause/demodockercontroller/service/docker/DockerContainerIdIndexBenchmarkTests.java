@@ -0,0 +1,127 @@
+package com.magentamause.demodockercontroller.service.docker;
+
+import com.github.dockerjava.api.model.Event;
+import com.github.dockerjava.api.model.EventActor;
+import com.github.dockerjava.api.model.EventType;
+import com.magentamause.demodockercontroller.domain.ContainerInstance;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.state.FleetStateStore;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares lookups by Docker container ID against 100k persisted instances with and without the
+ * docker_container_id index. Exit events are resolved through the fleet state table, so their throughput is
+ * reported alongside to show that event handling no longer depends on the index. Run with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "docker.state.flush-interval-ms=3600000")
+class DockerContainerIdIndexBenchmarkTests {
+
+    private static final int INSTANCE_COUNT = 100_000;
+    private static final int LOOKUP_COUNT = 2_000;
+    private static final int EVENT_WARM_UP = 10_000;
+    private static final int EVENT_COUNT = 20_000;
+    private static final int SEED_BATCH_SIZE = 1_000;
+
+    @Autowired
+    private DockerEventService dockerEventService;
+
+    @Autowired
+    private ContainerInstanceRepository containerInstanceRepository;
+
+    @Autowired
+    private FleetStateStore fleetStateStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void lookupsByDockerIdWithAndWithoutIndex() {
+        List<String> dockerIds = seedInstances();
+
+        lookUp(dockerIds, 500); // warm-up
+        handleExitEvents(dockerIds.subList(0, EVENT_WARM_UP));
+        double indexedLookupRate = lookUp(dockerIds, LOOKUP_COUNT);
+        double indexedEventRate = handleExitEvents(dockerIds.subList(EVENT_WARM_UP, EVENT_WARM_UP + EVENT_COUNT));
+
+        jdbcTemplate.execute("drop index idx_container_instance_docker_container_id");
+        double unindexedLookupRate;
+        double unindexedEventRate;
+        try {
+            unindexedLookupRate = lookUp(dockerIds, LOOKUP_COUNT / 10);
+            unindexedEventRate = handleExitEvents(dockerIds.subList(EVENT_WARM_UP + EVENT_COUNT, EVENT_WARM_UP + 2 * EVENT_COUNT));
+        } finally {
+            jdbcTemplate.execute("create index idx_container_instance_docker_container_id on container_instance (docker_container_id)");
+        }
+
+        System.out.printf("Lookups by Docker ID/s with %d instances: indexed=%.0f, unindexed=%.0f (%.1fx)%n",
+                INSTANCE_COUNT, indexedLookupRate, unindexedLookupRate, indexedLookupRate / unindexedLookupRate);
+        System.out.printf("Exit events/s with %d instances: indexed=%.0f, unindexed=%.0f%n",
+                INSTANCE_COUNT, indexedEventRate, unindexedEventRate);
+        assertThat(indexedLookupRate).isGreaterThan(unindexedLookupRate);
+        fleetStateStore.flush();
+        containerInstanceRepository.deleteAllInBatch();
+        fleetStateStore.reload();
+    }
+
+    private List<String> seedInstances() {
+        containerInstanceRepository.deleteAllInBatch();
+        fleetStateStore.reload();
+        List<String> dockerIds = new ArrayList<>(INSTANCE_COUNT);
+        List<ContainerInstance> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        UUID configurationId = UUID.randomUUID();
+        for (int i = 0; i < INSTANCE_COUNT; i++) {
+            String dockerId = UUID.randomUUID().toString().replace("-", "") + UUID.randomUUID().toString().replace("-", "");
+            dockerIds.add(dockerId);
+            ContainerInstance instance = new ContainerInstance();
+            instance.setConfigurationId(configurationId);
+            instance.setDockerContainerId(dockerId);
+            instance.setStatus(ContainerStatus.RUNNING);
+            instance.setCreatedAt(Instant.now().minusSeconds(60));
+            instance.setStatusChangedAt(instance.getCreatedAt());
+            batch.add(instance);
+            if (batch.size() == SEED_BATCH_SIZE) {
+                containerInstanceRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        return dockerIds;
+    }
+
+    private double lookUp(List<String> dockerIds, int count) {
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            String dockerId = dockerIds.get(ThreadLocalRandom.current().nextInt(dockerIds.size()));
+            assertThat(containerInstanceRepository.findByDockerContainerId(dockerId)).hasSize(1);
+        }
+        return count / ((System.nanoTime() - start) / 1e9);
+    }
+
+    // Each run stops instances no earlier run touched, so every event causes a transition
+    private double handleExitEvents(List<String> dockerIds) {
+        long start = System.nanoTime();
+        for (String dockerId : dockerIds) {
+            Event event = new Event()
+                    .withType(EventType.CONTAINER)
+                    .withAction("die")
+                    .withEventActor(new EventActor().withId(dockerId).withAttributes(Map.of("exitCode", "0")));
+            dockerEventService.handleContainerExit(event);
+        }
+        return dockerIds.size() / ((System.nanoTime() - start) / 1e9);
+    }
+}
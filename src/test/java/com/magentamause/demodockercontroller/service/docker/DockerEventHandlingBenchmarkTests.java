@@ -0,0 +1,103 @@
+package com.magentamause.demodockercontroller.service.docker;
+
+import com.github.dockerjava.api.model.Event;
+import com.github.dockerjava.api.model.EventActor;
+import com.github.dockerjava.api.model.EventType;
+import com.magentamause.demodockercontroller.domain.ContainerInstance;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.state.FleetStateStore;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures exit-event handling throughput against 100k instances, and how long the write-behind takes to
+ * persist the resulting status changes. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "docker.state.flush-interval-ms=3600000")
+class DockerEventHandlingBenchmarkTests {
+
+    private static final int INSTANCE_COUNT = 100_000;
+    private static final int EVENT_COUNT = 20_000;
+    private static final int SEED_BATCH_SIZE = 1_000;
+
+    @Autowired
+    private DockerEventService dockerEventService;
+
+    @Autowired
+    private ContainerInstanceRepository containerInstanceRepository;
+
+    @Autowired
+    private FleetStateStore fleetStateStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void exitEventThroughputWith100kInstances() {
+        List<String> dockerIds = seedInstances();
+
+        handleExitEvents(dockerIds.subList(0, 1_000)); // warm-up
+        fleetStateStore.flush();
+        double eventRate = handleExitEvents(dockerIds.subList(1_000, 1_000 + EVENT_COUNT));
+
+        long start = System.nanoTime();
+        fleetStateStore.flush();
+        long flushMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("Exit events/s with %d instances: %.0f; write-behind of %d changes took %d ms%n",
+                INSTANCE_COUNT, eventRate, EVENT_COUNT, flushMillis);
+        Integer stopped = jdbcTemplate.queryForObject("select count(*) from container_instance where status = 'STOPPED'", Integer.class);
+        assertThat(stopped).isEqualTo(1_000 + EVENT_COUNT);
+    }
+
+    private List<String> seedInstances() {
+        containerInstanceRepository.deleteAllInBatch();
+        fleetStateStore.reload();
+        List<String> dockerIds = new ArrayList<>(INSTANCE_COUNT);
+        List<ContainerInstance> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        UUID configurationId = UUID.randomUUID();
+        long start = System.nanoTime();
+        for (int i = 0; i < INSTANCE_COUNT; i++) {
+            String dockerId = UUID.randomUUID().toString().replace("-", "") + UUID.randomUUID().toString().replace("-", "");
+            dockerIds.add(dockerId);
+            ContainerInstance instance = new ContainerInstance();
+            instance.setConfigurationId(configurationId);
+            instance.setDockerContainerId(dockerId);
+            instance.setStatus(ContainerStatus.RUNNING);
+            instance.setCreatedAt(Instant.now().minusSeconds(60));
+            instance.setStatusChangedAt(instance.getCreatedAt());
+            batch.add(instance);
+            if (batch.size() == SEED_BATCH_SIZE) {
+                containerInstanceRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        System.out.printf("Seeded %d instances in %d ms%n", INSTANCE_COUNT, (System.nanoTime() - start) / 1_000_000);
+        return dockerIds;
+    }
+
+    private double handleExitEvents(List<String> dockerIds) {
+        long start = System.nanoTime();
+        for (String dockerId : dockerIds) {
+            Event event = new Event()
+                    .withType(EventType.CONTAINER)
+                    .withAction("die")
+                    .withEventActor(new EventActor().withId(dockerId).withAttributes(Map.of("exitCode", "0")));
+            dockerEventService.handleContainerExit(event);
+        }
+        return dockerIds.size() / ((System.nanoTime() - start) / 1e9);
+    }
+}
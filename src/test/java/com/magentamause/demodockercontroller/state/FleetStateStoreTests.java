@@ -0,0 +1,118 @@
+package com.magentamause.demodockercontroller.state;
+
+import com.magentamause.demodockercontroller.domain.ContainerInstance;
+import com.magentamause.demodockercontroller.journal.StatusJournal;
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.StatusTransitionSource;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import com.magentamause.demodockercontroller.service.ChangeVersionTracker;
+import com.magentamause.demodockercontroller.service.StatusTransitionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The scheduled flush is pushed out so the tests control when changes are written behind
+@SpringBootTest(properties = "docker.state.flush-interval-ms=3600000")
+class FleetStateStoreTests {
+
+    @Autowired
+    private FleetStateStore fleetStateStore;
+
+    @Autowired
+    private StatusTransitionService statusTransitionService;
+
+    @Autowired
+    private ContainerInstanceRepository containerInstanceRepository;
+
+    @Autowired
+    private StatusJournal statusJournal;
+
+    @Autowired
+    private ChangeVersionTracker changeVersionTracker;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        fleetStateStore.flush();
+        containerInstanceRepository.deleteAll();
+    }
+
+    @Test
+    void committedChangesReachTheTable() {
+        ContainerInstance instance = save(ContainerStatus.CREATED);
+        assertThat(fleetStateStore.get(instance.getId())).hasValueSatisfying(state -> {
+            assertThat(state.status()).isEqualTo(ContainerStatus.CREATED);
+            assertThat(state.dockerContainerId()).isEqualTo(instance.getDockerContainerId());
+        });
+
+        instance.setRestartCount(3);
+        containerInstanceRepository.save(instance);
+        assertThat(fleetStateStore.get(instance.getId())).hasValueSatisfying(state -> assertThat(state.restartCount()).isEqualTo(3));
+
+        containerInstanceRepository.delete(instance);
+        assertThat(fleetStateStore.get(instance.getId())).isEmpty();
+        assertThat(fleetStateStore.isManaged(instance.getDockerContainerId())).isFalse();
+    }
+
+    @Test
+    void eventTransitionsAreWrittenBehind() {
+        ContainerInstance instance = save(ContainerStatus.RUNNING);
+        long version = changeVersionTracker.getInstanceVersion();
+
+        assertThat(statusTransitionService.transition(instance.getDockerContainerId(), ContainerStatus.RUNNING,
+                ContainerStatus.FAILED, StatusTransitionSource.EVENT, 137)).isTrue();
+
+        assertThat(fleetStateStore.get(instance.getId())).hasValueSatisfying(state -> assertThat(state.status()).isEqualTo(ContainerStatus.FAILED));
+        assertThat(changeVersionTracker.getInstanceVersion()).isGreaterThan(version);
+        assertThat(persistedStatus(instance.getId())).isEqualTo("RUNNING");
+        // Entities loaded before the flush already see the in-memory status
+        assertThat(containerInstanceRepository.findById(instance.getId()).orElseThrow().getStatus()).isEqualTo(ContainerStatus.FAILED);
+
+        fleetStateStore.flush();
+        assertThat(persistedStatus(instance.getId())).isEqualTo("FAILED");
+    }
+
+    @Test
+    void unflushedTransitionsAreRecoveredFromTheJournal() {
+        ContainerInstance instance = save(ContainerStatus.RUNNING);
+        statusTransitionService.transition(instance.getDockerContainerId(), ContainerStatus.RUNNING,
+                ContainerStatus.STOPPED, StatusTransitionSource.EVENT, 0);
+        assertThat(persistedStatus(instance.getId())).isEqualTo("RUNNING");
+
+        // A fresh store stands in for the restarted process: it loads the stale row and replays the journal
+        FleetStateStore restarted = new FleetStateStore(jdbcTemplate, transactionManager, containerInstanceRepository,
+                statusJournal, changeVersionTracker, new SimpleMeterRegistry(), 1000, 600_000);
+        restarted.init();
+
+        assertThat(restarted.get(instance.getId())).hasValueSatisfying(state -> assertThat(state.status()).isEqualTo(ContainerStatus.STOPPED));
+        assertThat(persistedStatus(instance.getId())).isEqualTo("STOPPED");
+    }
+
+    private ContainerInstance save(ContainerStatus status) {
+        ContainerInstance instance = new ContainerInstance();
+        instance.setConfigurationId(UUID.randomUUID());
+        instance.setDockerContainerId(UUID.randomUUID().toString().replace("-", ""));
+        instance.setStatus(status);
+        instance.setCreatedAt(Instant.now().minusSeconds(1));
+        instance.setStatusChangedAt(instance.getCreatedAt());
+        return containerInstanceRepository.save(instance);
+    }
+
+    private String persistedStatus(UUID instanceId) {
+        return jdbcTemplate.queryForObject("select status from container_instance where id = ?", String.class, instanceId);
+    }
+}
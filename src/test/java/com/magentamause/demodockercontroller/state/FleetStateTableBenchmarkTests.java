@@ -0,0 +1,71 @@
+package com.magentamause.demodockercontroller.state;
+
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the hot lookups of the fleet state table do not allocate once the JIT has compiled them. The
+ * measurement depends on the JVM, so it is not part of the default build. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class FleetStateTableBenchmarkTests {
+
+    private final UUID configurationA = UUID.randomUUID();
+    private final UUID configurationB = UUID.randomUUID();
+
+    @Test
+    void lookupsDoNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        FleetStateTable table = new FleetStateTable(16);
+        List<InstanceState> states = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            InstanceState state = state(i % 2 == 0 ? configurationA : configurationB, ContainerStatus.RUNNING, Instant.now());
+            table.upsert(state);
+            states.add(state);
+        }
+        UUID[] ids = states.stream().map(InstanceState::id).toArray(UUID[]::new);
+        String[] dockerIds = states.stream().map(InstanceState::dockerContainerId).toArray(String[]::new);
+
+        long found = lookUp(table, ids, dockerIds); // warm-up, lets the JIT compile the lookups
+        long before = threads.getCurrentThreadAllocatedBytes();
+        found += lookUp(table, ids, dockerIds);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        System.out.printf("Allocated %d bytes for %d lookups%n", allocated, 4L * ids.length * 10);
+        assertThat(found).isPositive();
+        assertThat(allocated).isLessThan(4_096);
+    }
+
+    private long lookUp(FleetStateTable table, UUID[] ids, String[] dockerIds) {
+        long found = 0;
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < ids.length; i++) {
+                if (table.contains(ids[i]) && table.statusOf(ids[i]) == ContainerStatus.RUNNING
+                        && table.statusOfDockerId(dockerIds[i]) == ContainerStatus.RUNNING) {
+                    found++;
+                }
+                if (i % 1_000 == 0) {
+                    found += table.countByConfiguration(configurationA, ContainerStatus.RUNNING);
+                }
+            }
+        }
+        return found;
+    }
+
+    private static InstanceState state(UUID configurationId, ContainerStatus status, Instant createdAt) {
+        String dockerId = UUID.randomUUID().toString().replace("-", "") + UUID.randomUUID().toString().replace("-", "");
+        return new InstanceState(UUID.randomUUID(), configurationId, dockerId, status, null,
+                Instant.ofEpochMilli(createdAt.toEpochMilli()), null, Instant.ofEpochMilli(createdAt.toEpochMilli()),
+                0, 0, null, null, false, Map.of(30_000, 8080));
+    }
+}
@@ -0,0 +1,134 @@
+package com.magentamause.demodockercontroller.state;
+
+import com.magentamause.demodockercontroller.model.ContainerStatus;
+import com.magentamause.demodockercontroller.model.HealthStatus;
+import com.magentamause.demodockercontroller.repository.ContainerInstanceFilter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FleetStateTableTests {
+
+    private static final ContainerStatus[] STATUSES = ContainerStatus.values();
+
+    private final UUID configurationA = UUID.randomUUID();
+    private final UUID configurationB = UUID.randomUUID();
+
+    @Test
+    void indexesStayConsistentUnderRandomInsertsAndRemovals() {
+        FleetStateTable table = new FleetStateTable(16);
+        Map<UUID, InstanceState> expected = new HashMap<>();
+        List<UUID> ids = new ArrayList<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            if (!ids.isEmpty() && random.nextInt(3) == 0) {
+                UUID id = ids.remove(random.nextInt(ids.size()));
+                assertThat(table.remove(id)).isTrue();
+                expected.remove(id);
+            } else {
+                InstanceState state = state(random.nextBoolean() ? configurationA : configurationB,
+                        STATUSES[random.nextInt(STATUSES.length)], Instant.ofEpochMilli(1_000_000L + i));
+                table.upsert(state);
+                expected.put(state.id(), state);
+                ids.add(state.id());
+            }
+        }
+
+        assertThat(table.size()).isEqualTo(expected.size());
+        for (InstanceState state : expected.values()) {
+            assertThat(table.get(state.id())).isEqualTo(state);
+            assertThat(table.statusOfDockerId(state.dockerContainerId())).isEqualTo(state.status());
+        }
+        for (UUID configurationId : List.of(configurationA, configurationB)) {
+            long count = expected.values().stream().filter(state -> state.configurationId().equals(configurationId)).count();
+            long running = expected.values().stream()
+                    .filter(state -> state.configurationId().equals(configurationId) && state.status() == ContainerStatus.RUNNING)
+                    .count();
+            assertThat(table.countByConfiguration(configurationId, null)).isEqualTo(count);
+            assertThat(table.countByConfiguration(configurationId, ContainerStatus.RUNNING)).isEqualTo(running);
+            assertThat(table.select(new ContainerInstanceFilter(null, null, configurationId, null, null, null, null)))
+                    .hasSize((int) count);
+        }
+        assertThat(table.contains(UUID.randomUUID())).isFalse();
+        assertThat(table.containsDockerId("unknown")).isFalse();
+    }
+
+    @Test
+    void filtersOnStatusHealthAndTimeRanges() {
+        FleetStateTable table = new FleetStateTable(16);
+        Instant now = Instant.parse("2026-01-01T12:00:00Z");
+        InstanceState old = state(configurationA, ContainerStatus.FAILED, now.minusSeconds(3600));
+        InstanceState recent = state(configurationA, ContainerStatus.FAILED, now);
+        InstanceState running = state(configurationB, ContainerStatus.RUNNING, now);
+        List.of(old, recent, running).forEach(table::upsert);
+
+        assertThat(table.select(new ContainerInstanceFilter(ContainerStatus.FAILED, null, null, null, null, null, null)))
+                .extracting(InstanceState::id).containsExactlyInAnyOrder(old.id(), recent.id());
+        assertThat(table.select(new ContainerInstanceFilter(ContainerStatus.FAILED, null, null, now.minusSeconds(60), null, null, null)))
+                .extracting(InstanceState::id).containsExactly(recent.id());
+        assertThat(table.select(new ContainerInstanceFilter(null, null, null, null, now, null, null)))
+                .extracting(InstanceState::id).containsExactly(old.id());
+        assertThat(table.select(new ContainerInstanceFilter(null, HealthStatus.HEALTHY, null, null, null, null, null))).isEmpty();
+        assertThat(table.select(new ContainerInstanceFilter(null, null, null, null, null, null, null))).hasSize(3);
+    }
+
+    @Test
+    void pendingChangesSurviveOlderCommittedStateUntilFlushed() {
+        FleetStateTable table = new FleetStateTable(16);
+        InstanceState committed = state(configurationA, ContainerStatus.RUNNING, Instant.ofEpochMilli(1_000));
+        table.upsert(committed);
+
+        assertThat(table.transition(committed.dockerContainerId(), ContainerStatus.CREATED, ContainerStatus.FAILED, 2_000)).isNull();
+        InstanceState changed = table.transition(committed.dockerContainerId(), ContainerStatus.RUNNING, ContainerStatus.FAILED, 2_000);
+        assertThat(changed.status()).isEqualTo(ContainerStatus.FAILED);
+        assertThat(table.pendingCount()).isEqualTo(1);
+
+        // A JPA commit based on the state before the transition must not undo it
+        table.upsert(committed);
+        assertThat(table.statusOf(committed.id())).isEqualTo(ContainerStatus.FAILED);
+        assertThat(table.pending(committed.id())).isNotNull();
+
+        List<FleetStateTable.PendingWrite> writes = table.drainPending(10);
+        assertThat(writes).singleElement().satisfies(write -> {
+            assertThat(write.status()).isEqualTo(ContainerStatus.FAILED);
+            assertThat(write.statusChangedAt()).isEqualTo(Instant.ofEpochMilli(2_000));
+        });
+        assertThat(table.pendingCount()).isZero();
+        assertThat(table.pending(committed.id())).isNotNull();
+
+        table.flushed(writes, false);
+        assertThat(table.pendingCount()).isEqualTo(1);
+        writes = table.drainPending(10);
+        table.flushed(writes, true);
+        assertThat(table.pending(committed.id())).isNull();
+        assertThat(table.drainPending(10)).isEmpty();
+    }
+
+    @Test
+    void estimatesMemoryFor100kInstances() {
+        FleetStateTable table = new FleetStateTable(16);
+        for (int i = 0; i < 100_000; i++) {
+            table.upsert(state(configurationA, ContainerStatus.RUNNING, Instant.now()));
+        }
+
+        long bytes = table.estimatedBytes();
+        assertThat(table.estimatedBytesPer100k()).isEqualTo(bytes);
+        assertThat(bytes).isLessThan(32L * 1024 * 1024);
+    }
+
+    private static InstanceState state(UUID configurationId, ContainerStatus status, Instant createdAt) {
+        String dockerId = UUID.randomUUID().toString().replace("-", "") + UUID.randomUUID().toString().replace("-", "");
+        return new InstanceState(UUID.randomUUID(), configurationId, dockerId, status, null,
+                Instant.ofEpochMilli(createdAt.toEpochMilli()), null, Instant.ofEpochMilli(createdAt.toEpochMilli()),
+                0, 0, null, null, false, Map.of(30_000, 8080));
+    }
+}
@@ -0,0 +1,81 @@
+package com.magentamause.demodockercontroller.tracing;
+
+import com.magentamause.demodockercontroller.repository.ContainerInstanceRepository;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "management.tracing.sampling.probability=1.0",
+        "docker.tracing.file.enabled=true"
+})
+class TracingTests {
+
+    private static final Path TRACES_DIR = createTempDirectory();
+
+    @DynamicPropertySource
+    static void tracingProperties(DynamicPropertyRegistry registry) {
+        registry.add("docker.tracing.file.dir", TRACES_DIR::toString);
+    }
+
+    @Autowired
+    private ContainerInstanceRepository containerInstanceRepository;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @Test
+    void repositoryCallsAreExportedToTheSpanFile() throws IOException {
+        containerInstanceRepository.findAll();
+        tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+
+        List<JsonNode> spans = readSpans();
+        assertThat(spans)
+                .anySatisfy(span -> {
+                    assertThat(span.get("name").asString()).isEqualTo("ContainerInstanceRepository.findAll");
+                    assertThat(span.get("traceId").asString()).hasSize(32);
+                    assertThat(span.get("spanId").asString()).hasSize(16);
+                    assertThat(span.get("attributes").toString()).contains("\"repository\"");
+                });
+    }
+
+    private List<JsonNode> readSpans() throws IOException {
+        JsonMapper jsonMapper = JsonMapper.builder().build();
+        List<JsonNode> spans = new ArrayList<>();
+        try (Stream<Path> files = Files.list(TRACES_DIR)) {
+            for (Path file : files.toList()) {
+                for (String line : Files.readAllLines(file)) {
+                    for (JsonNode resourceSpans : jsonMapper.readTree(line).get("resourceSpans")) {
+                        for (JsonNode scopeSpans : resourceSpans.get("scopeSpans")) {
+                            scopeSpans.get("spans").forEach(spans::add);
+                        }
+                    }
+                }
+            }
+        }
+        return spans;
+    }
+
+    private static Path createTempDirectory() {
+        try {
+            return Files.createTempDirectory("traces");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
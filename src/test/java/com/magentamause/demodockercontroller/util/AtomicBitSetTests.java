@@ -0,0 +1,76 @@
+package com.magentamause.demodockercontroller.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AtomicBitSetTests {
+
+    @Test
+    void claimsEveryBitExactlyOnceUntilExhausted() {
+        AtomicBitSet bits = new AtomicBitSet(70);
+
+        for (int i = 0; i < 70; i++) {
+            assertThat(bits.setNextClear(i)).isBetween(0, 69);
+        }
+
+        assertThat(bits.cardinality()).isEqualTo(70);
+        assertThat(bits.setNextClear(0)).isEqualTo(-1);
+    }
+
+    @Test
+    void clearedBitCanBeClaimedAgain() {
+        AtomicBitSet bits = new AtomicBitSet(128);
+        assertThat(bits.set(100)).isTrue();
+        assertThat(bits.set(100)).isFalse();
+
+        assertThat(bits.clear(100)).isTrue();
+        assertThat(bits.clear(100)).isFalse();
+        assertThat(bits.setNextClear(100)).isEqualTo(100);
+    }
+
+    @Test
+    void bitJustBelowTheCursorIsOnlyReusedAfterWrappingAround() {
+        AtomicBitSet bits = new AtomicBitSet(128);
+        int cursor = 0;
+        for (int i = 0; i < 10; i++) {
+            cursor = bits.setNextClear(cursor) + 1;
+        }
+        // Released in the same word as the cursor, just below it
+        assertThat(bits.clear(8)).isTrue();
+
+        assertThat(bits.setNextClear(cursor)).isEqualTo(10);
+        for (int i = 11; i < 128; i++) {
+            assertThat(bits.setNextClear(i)).isEqualTo(i);
+        }
+        assertThat(bits.setNextClear(cursor)).isEqualTo(8);
+        assertThat(bits.setNextClear(cursor)).isEqualTo(-1);
+    }
+
+    @Test
+    void concurrentClaimsNeverOverlap() throws Exception {
+        int size = 10_000;
+        AtomicBitSet bits = new AtomicBitSet(size);
+        Set<Integer> claimed = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            int start = t * 1_000;
+            executor.submit(() -> {
+                for (int i = 0; i < size / 8; i++) {
+                    claimed.add(bits.setNextClear(start + i));
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(claimed).hasSize(size).doesNotContain(-1);
+        assertThat(bits.cardinality()).isEqualTo(size);
+    }
+}
@@ -0,0 +1,54 @@
+package com.magentamause.demodockercontroller.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitedWorkQueueTests {
+
+    private final ScheduledExecutorService delayScheduler = Executors.newSingleThreadScheduledExecutor();
+    private final RateLimitedWorkQueue<String> queue = new RateLimitedWorkQueue<>(delayScheduler, 10, 1000, 100, 10);
+
+    @AfterEach
+    void tearDown() {
+        queue.shutDown();
+        delayScheduler.shutdownNow();
+    }
+
+    @Test
+    void deduplicatesPendingKeys() throws Exception {
+        queue.add("a");
+        queue.add("a");
+        queue.add("b");
+
+        assertThat(queue.depth()).isEqualTo(2);
+        assertThat(queue.take().key()).isEqualTo("a");
+        assertThat(queue.take().key()).isEqualTo("b");
+        assertThat(queue.depth()).isZero();
+    }
+
+    @Test
+    void keyAddedWhileProcessingIsRequeuedOnlyAfterDone() throws Exception {
+        queue.add("a");
+        String key = queue.take().key();
+
+        queue.add("a");
+        assertThat(queue.depth()).isZero();
+
+        queue.done(key);
+        assertThat(queue.depth()).isEqualTo(1);
+        assertThat(queue.take().key()).isEqualTo("a");
+    }
+
+    @Test
+    void rateLimitedKeysAreDelayed() throws Exception {
+        queue.addRateLimited("a");
+        assertThat(queue.depth()).isZero();
+
+        assertThat(queue.take().key()).isEqualTo("a");
+    }
+}